@@ -0,0 +1,46 @@
+package org.example.benchmarks;
+
+import org.example.Application;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Arrays;
+
+// The application on an in-memory H2 in MySQL mode, without the web server unless asked for.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+final class BenchmarkApplication {
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String database) {
+        return start(WebApplicationType.NONE, database);
+    }
+
+    // with Tomcat on a random port, for driving the application over HTTP; every request comes from one client, so
+    // the per-client rate limit is lifted while load shedding stays on
+    static ConfigurableApplicationContext startServer(String database) {
+        return start(WebApplicationType.SERVLET, database, "--server.port=0",
+                "--app.admission.rate=1000000", "--app.admission.burst=1000000");
+    }
+
+    private static ConfigurableApplicationContext start(WebApplicationType type, String database, String... extraArgs) {
+        String[] args = {
+                //command line arguments, so they win over the bundled application.properties
+                "--spring.datasource.url=jdbc:h2:mem:" + database + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--spring.sql.init.mode=never",
+                "--logging.level.root=WARN"};
+        String[] allArgs = Arrays.copyOf(args, args.length + extraArgs.length);
+        System.arraycopy(extraArgs, 0, allArgs, args.length, extraArgs.length);
+        return new SpringApplicationBuilder(Application.class)
+                .web(type)
+                .logStartupInfo(false)
+                .run(allArgs);
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.benchmarks;
+
+import org.example.entity.Store;
+import org.example.repository.StoreRepository;
+import org.example.service.StoreService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// createStore against a table holding sameNameStores stores that all share one name, the case that used to load
+// and scan every same-name row on each create.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreateStoreBenchmark {
+    private static final String NAME = "Safeway";
+
+    @Param({"10", "1000", "10000"})
+    private int sameNameStores;
+
+    private ConfigurableApplicationContext context;
+    private StoreService storeService;
+    private StoreRepository storeRepository;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("create_store_" + sameNameStores);
+        storeService = context.getBean(StoreService.class);
+        storeRepository = context.getBean(StoreRepository.class);
+        List<Store> stores = new ArrayList<>(sameNameStores);
+        for (int i = 0; i < sameNameStores; i++) {
+            stores.add(Store.builder().storeName(NAME).location("Location " + i).build());
+        }
+        storeRepository.insertAll(stores);
+    }
+
+    // rows created by createNew are removed between iterations so every iteration sees the same table size
+    @TearDown(Level.Iteration)
+    public void removeCreatedStores() {
+        storeRepository.deleteAllInBatch(storeRepository.findStoreByStoreName(NAME).orElseThrow().stream()
+                .filter(store -> store.getLocation().startsWith("New "))
+                .toList());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object createDuplicate() {
+        try {
+            storeService.createStore(Store.builder().storeName(NAME).location("Location 0").build());
+            throw new AssertionError("duplicate store was created");
+        } catch (IllegalStateException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public Store createNew() {
+        Store store = Store.builder().storeName(NAME).location("New " + sequence++).build();
+        storeService.createStore(store);
+        return store;
+    }
+}
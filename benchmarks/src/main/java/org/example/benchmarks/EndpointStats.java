@@ -0,0 +1,127 @@
+package org.example.benchmarks;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Latency of one scenario, measured twice: from the moment the schedule said the request should go out (what a
+// client arriving at that rate would see, so stalls are not hidden by requests that were never sent) and from the
+// moment it actually went out (service time, which hides them). Requests that never got a response (dropped, failed,
+// or still outstanding when the run gave up on them) are in the latency histogram too, at the time they had waited so
+// far, so shedding load cannot make the percentiles look better.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+final class EndpointStats {
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(5);
+
+    private final String name;
+    private final Histogram latency = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+    private final Histogram serviceTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+    private final LongAdder success = new LongAdder();
+    private final LongAdder clientErrors = new LongAdder();
+    private final LongAdder serverErrors = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder unanswered = new LongAdder();
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    void record(long intendedStart, long actualStart, long end, int status) {
+        latency.recordValue(Math.min(end - intendedStart, HIGHEST_TRACKABLE_NANOS));
+        serviceTime.recordValue(Math.min(end - actualStart, HIGHEST_TRACKABLE_NANOS));
+        if (status >= 500) {
+            serverErrors.increment();
+        } else if (status >= 400) {
+            clientErrors.increment();
+        } else {
+            success.increment();
+        }
+    }
+
+    // no response at all: connection refused, reset or timed out
+    void failed(long intendedStart, long end) {
+        latency.recordValue(Math.min(end - intendedStart, HIGHEST_TRACKABLE_NANOS));
+        failures.increment();
+    }
+
+    // never sent because too many requests were already outstanding; recorded once the run is over, as still waiting
+    void dropped(long intendedStart, long end) {
+        latency.recordValue(Math.min(end - intendedStart, HIGHEST_TRACKABLE_NANOS));
+        dropped.increment();
+    }
+
+    // sent, but still without a response when the run stopped waiting
+    void unanswered(long intendedStart, long end) {
+        latency.recordValue(Math.min(end - intendedStart, HIGHEST_TRACKABLE_NANOS));
+        unanswered.increment();
+    }
+
+    String getName() {
+        return name;
+    }
+
+    // every request the schedule called for, answered or not; the latency percentiles are over these
+    long getScheduled() {
+        return latency.getTotalCount();
+    }
+
+    // answered with a 2xx or 3xx; error responses answer quickly and must not count as throughput
+    long getSucceeded() {
+        return success.sum();
+    }
+
+    Histogram getLatency() {
+        return latency;
+    }
+
+    Histogram getServiceTime() {
+        return serviceTime;
+    }
+
+    Map<String, Object> summary(double seconds) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("name", name);
+        summary.put("scheduled", getScheduled());
+        summary.put("success", getSucceeded());
+        summary.put("successPerSecond", getSucceeded() / seconds);
+        summary.put("clientErrors", clientErrors.sum());
+        summary.put("serverErrors", serverErrors.sum());
+        summary.put("failures", failures.sum());
+        summary.put("dropped", dropped.sum());
+        summary.put("unanswered", unanswered.sum());
+        summary.put("latencyMillis", percentiles(latency));
+        summary.put("serviceTimeMillis", percentiles(serviceTime));
+        return summary;
+    }
+
+    long getErrors() {
+        return clientErrors.sum() + serverErrors.sum() + failures.sum();
+    }
+
+    long getDropped() {
+        return dropped.sum();
+    }
+
+    long getUnanswered() {
+        return unanswered.sum();
+    }
+
+    static Map<String, Double> percentiles(Histogram histogram) {
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        percentiles.put("p50", millis(histogram.getValueAtPercentile(50)));
+        percentiles.put("p90", millis(histogram.getValueAtPercentile(90)));
+        percentiles.put("p99", millis(histogram.getValueAtPercentile(99)));
+        percentiles.put("p99.9", millis(histogram.getValueAtPercentile(99.9)));
+        percentiles.put("max", millis(histogram.getMaxValue()));
+        return percentiles;
+    }
+
+    static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
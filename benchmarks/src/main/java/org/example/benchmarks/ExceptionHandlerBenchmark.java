@@ -0,0 +1,42 @@
+package org.example.benchmarks;
+
+import javassist.NotFoundException;
+import org.example.exception.CustomErrorResponse;
+import org.example.exception.GlobalExceptionHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.concurrent.TimeUnit;
+
+// The 404 and 409 paths end to end from the throw: exception construction (stack trace included) plus the handler.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExceptionHandlerBenchmark {
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+    private final MockHttpServletRequest request = new MockHttpServletRequest("POST", "/createStore");
+
+    @Benchmark
+    public ResponseEntity<CustomErrorResponse> notFound() {
+        return handler.handleNotFoundException(new NotFoundException("Store with ID 42 does not exist"));
+    }
+
+    @Benchmark
+    public ResponseEntity<CustomErrorResponse> conflict() {
+        return handler.handleIllegalStateException(
+                new IllegalStateException("A store with the same name already exists at the same location."), request);
+    }
+}
@@ -0,0 +1,242 @@
+package org.example.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Boots the application on Tomcat against an in-memory H2, seeds it and replays a weighted scenario file at a fixed
+// arrival rate. Requests go out on schedule whether or not earlier ones have answered (an open model, like real
+// clients), and latency is measured from the scheduled start, so a stall shows up in the percentiles instead of
+// silently lowering the request rate. Requests dropped at max-in-flight or left unanswered at the end count as well.
+//
+// Options, all --name=value: rate (requests per second, 200), duration (60s), warmup (10s), stores (10000),
+// products (1000), purchases (50000), items-per-purchase (3), max-in-flight (1000), scenarios (scenarios/store-mix.jsonl),
+// result (target/load-result.json).
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public final class LoadHarness {
+    private LoadHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = options(args);
+        int rate = Integer.parseInt(options.getOrDefault("rate", "200"));
+        Duration duration = DurationStyle.detectAndParse(options.getOrDefault("duration", "60s"));
+        Duration warmup = DurationStyle.detectAndParse(options.getOrDefault("warmup", "10s"));
+        int maxInFlight = Integer.parseInt(options.getOrDefault("max-in-flight", "1000"));
+        Path resultFile = Path.of(options.getOrDefault("result", "target/load-result.json"));
+
+        ConfigurableApplicationContext context = BenchmarkApplication.startServer("load");
+        try {
+            ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+            List<LoadScenario> scenarios = LoadScenario.read(Path.of(options.getOrDefault("scenarios", "scenarios/store-mix.jsonl")), objectMapper);
+            LoadSeeder seeder = new LoadSeeder(context);
+            System.out.println("Seeding...");
+            seeder.seed(Integer.parseInt(options.getOrDefault("stores", "10000")),
+                    Integer.parseInt(options.getOrDefault("products", "1000")),
+                    Integer.parseInt(options.getOrDefault("purchases", "50000")),
+                    Integer.parseInt(options.getOrDefault("items-per-purchase", "3")));
+
+            URI baseUri = URI.create("http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort());
+            ExecutorService executor = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()));
+            //Tomcat does not speak cleartext HTTP/2, so skip the upgrade attempt on every new connection
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(executor)
+                    .connectTimeout(Duration.ofSeconds(5)).build();
+            try {
+                LoadRun run = new LoadRun(client, baseUri, scenarios, seeder, maxInFlight);
+                System.out.printf("Warming up for %s at %d requests/s...%n", warmup, rate);
+                run.drive(rate, warmup);
+                System.out.printf("Measuring for %s at %d requests/s...%n", duration, rate);
+                Map<String, EndpointStats> stats = run.drive(rate, duration);
+                report(stats, rate, duration, resultFile, objectMapper);
+            } finally {
+                executor.shutdownNow();
+            }
+        } finally {
+            context.close();
+        }
+    }
+
+    private static void report(Map<String, EndpointStats> stats, int rate, Duration duration, Path resultFile,
+                               ObjectMapper objectMapper) throws IOException {
+        double seconds = duration.toNanos() / 1e9;
+        System.out.printf("%n%-32s %9s %9s %9s %8s %8s %10s %9s %9s %9s %9s %9s %13s%n", "scenario", "scheduled", "ok",
+                "ok/s", "errors", "dropped", "unanswered", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "svc p99 ms");
+        List<Map<String, Object>> endpoints = new ArrayList<>();
+        for (EndpointStats endpoint : stats.values()) {
+            Histogram latency = endpoint.getLatency();
+            System.out.printf("%-32s %9d %9d %9.1f %8d %8d %10d %9.2f %9.2f %9.2f %9.2f %9.2f %13.2f%n", endpoint.getName(),
+                    endpoint.getScheduled(), endpoint.getSucceeded(), endpoint.getSucceeded() / seconds, endpoint.getErrors(),
+                    endpoint.getDropped(), endpoint.getUnanswered(),
+                    EndpointStats.millis(latency.getValueAtPercentile(50)), EndpointStats.millis(latency.getValueAtPercentile(90)),
+                    EndpointStats.millis(latency.getValueAtPercentile(99)), EndpointStats.millis(latency.getValueAtPercentile(99.9)),
+                    EndpointStats.millis(latency.getMaxValue()), EndpointStats.millis(endpoint.getServiceTime().getValueAtPercentile(99)));
+            endpoints.add(endpoint.summary(seconds));
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("targetRatePerSecond", rate);
+        result.put("durationSeconds", seconds);
+        result.put("scenarios", endpoints);
+        if (resultFile.getParent() != null) {
+            Files.createDirectories(resultFile.getParent());
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(resultFile.toFile(), result);
+        System.out.println("Results written to " + resultFile.toAbsolutePath());
+    }
+
+    private static Map<String, String> options(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Options look like --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+
+    private static final class LoadRun {
+        private final HttpClient client;
+        private final URI baseUri;
+        private final List<LoadScenario> scenarios;
+        private final int[] cumulativeWeights;
+        private final LoadSeeder seeder;
+        private final int maxInFlight;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicLong sequence = new AtomicLong();
+
+        LoadRun(HttpClient client, URI baseUri, List<LoadScenario> scenarios, LoadSeeder seeder, int maxInFlight) {
+            this.client = client;
+            this.baseUri = baseUri;
+            this.scenarios = scenarios;
+            this.seeder = seeder;
+            this.maxInFlight = maxInFlight;
+            cumulativeWeights = new int[scenarios.size()];
+            int total = 0;
+            for (int i = 0; i < scenarios.size(); i++) {
+                total += scenarios.get(i).getWeight();
+                cumulativeWeights[i] = total;
+            }
+        }
+
+        // returns once every request sent in the window has answered or failed, or after 30 seconds; whatever is left
+        // then, and every request dropped on the way, goes into the histogram at the time it has waited by then
+        Map<String, EndpointStats> drive(int rate, Duration window) throws InterruptedException {
+            Map<String, EndpointStats> stats = new LinkedHashMap<>();
+            for (LoadScenario scenario : scenarios) {
+                stats.putIfAbsent(scenario.getName(), new EndpointStats(scenario.getName()));
+            }
+            Set<Scheduled> outstanding = ConcurrentHashMap.newKeySet();
+            List<Scheduled> dropped = new ArrayList<>();
+            long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+            long start = System.nanoTime();
+            long end = start + window.toNanos();
+            for (long i = 0; ; i++) {
+                long intendedStart = start + i * interval;
+                if (intendedStart >= end) {
+                    break;
+                }
+                long wait = intendedStart - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                LoadScenario scenario = next();
+                Scheduled scheduled = new Scheduled(stats.get(scenario.getName()), intendedStart);
+                if (inFlight.get() >= maxInFlight) {
+                    dropped.add(scheduled);
+                    continue;
+                }
+                HttpRequest request = scenario.request(baseUri, this::value);
+                inFlight.incrementAndGet();
+                outstanding.add(scheduled);
+                long actualStart = System.nanoTime();
+                client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                    inFlight.decrementAndGet();
+                    if (!outstanding.remove(scheduled)) {
+                        return; //already counted as unanswered
+                    }
+                    if (error != null) {
+                        scheduled.endpoint.failed(intendedStart, System.nanoTime());
+                    } else {
+                        scheduled.endpoint.record(intendedStart, actualStart, System.nanoTime(), response.statusCode());
+                    }
+                });
+            }
+            long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+                Thread.sleep(10);
+            }
+            long finished = System.nanoTime();
+            for (Scheduled scheduled : outstanding) {
+                if (outstanding.remove(scheduled)) {
+                    scheduled.endpoint.unanswered(scheduled.intendedStart, finished);
+                }
+            }
+            for (Scheduled scheduled : dropped) {
+                scheduled.endpoint.dropped(scheduled.intendedStart, finished);
+            }
+            return stats;
+        }
+
+        private LoadScenario next() {
+            int pick = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+            for (int i = 0; i < cumulativeWeights.length; i++) {
+                if (pick < cumulativeWeights[i]) {
+                    return scenarios.get(i);
+                }
+            }
+            return scenarios.get(scenarios.size() - 1);
+        }
+
+        private String value(String placeholder) {
+            switch (placeholder) {
+                case "storeId":
+                    return random(seeder.getStoreIds()).toString();
+                case "productId":
+                    return random(seeder.getProductIds()).toString();
+                case "seq":
+                    return Long.toString(sequence.incrementAndGet());
+                default:
+                    throw new IllegalArgumentException("Unknown placeholder {" + placeholder + "}");
+            }
+        }
+
+        private static Long random(List<Long> ids) {
+            return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        }
+    }
+
+    private static final class Scheduled {
+        private final EndpointStats endpoint;
+        private final long intendedStart;
+
+        private Scheduled(EndpointStats endpoint, long intendedStart) {
+            this.endpoint = endpoint;
+            this.intendedStart = intendedStart;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package org.example.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// One line of a scenario file: a weighted request template, e.g.
+// {"name": "GET /{storeId}", "weight": 40, "method": "GET", "path": "/{storeId}"}
+// {"name": "POST /createStore", "weight": 5, "method": "POST", "path": "/createStore", "body": {"storeName": "Load {seq}"}}
+// Placeholders are filled per request; a placeholder that is a whole JSON string, like "{storeId}", becomes a bare value.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+final class LoadScenario {
+    private static final Pattern PLACEHOLDER = Pattern.compile("\"\\{(\\w+)}\"|\\{(\\w+)}");
+
+    private final String name;
+    private final int weight;
+    private final String method;
+    private final String path;
+    private final String body;
+    private final Map<String, String> headers;
+
+    private LoadScenario(String name, int weight, String method, String path, String body, Map<String, String> headers) {
+        this.name = name;
+        this.weight = weight;
+        this.method = method;
+        this.path = path;
+        this.body = body;
+        this.headers = headers;
+    }
+
+    static List<LoadScenario> read(Path file, ObjectMapper objectMapper) {
+        List<LoadScenario> scenarios = new ArrayList<>();
+        try {
+            for (String line : Files.readAllLines(file)) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                JsonNode node = objectMapper.readTree(line);
+                String method = node.path("method").asText("GET");
+                String path = node.path("path").asText();
+                Map<String, String> headers = new LinkedHashMap<>();
+                Iterator<Map.Entry<String, JsonNode>> fields = node.path("headers").fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> header = fields.next();
+                    headers.put(header.getKey(), header.getValue().asText());
+                }
+                JsonNode body = node.get("body");
+                scenarios.add(new LoadScenario(node.path("name").asText(method + " " + path), node.path("weight").asInt(1),
+                        method, path, body == null ? null : objectMapper.writeValueAsString(body), headers));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (scenarios.isEmpty()) {
+            throw new IllegalArgumentException("No scenarios in " + file);
+        }
+        return scenarios;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    int getWeight() {
+        return weight;
+    }
+
+    HttpRequest request(URI baseUri, Function<String, String> values) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(baseUri.resolve(fill(path, values)));
+        headers.forEach(builder::header);
+        if (body == null) {
+            builder.method(method, HttpRequest.BodyPublishers.noBody());
+        } else {
+            if (!headers.containsKey("Content-Type")) {
+                builder.header("Content-Type", "application/json");
+            }
+            builder.method(method, HttpRequest.BodyPublishers.ofString(fill(body, values)));
+        }
+        return builder.build();
+    }
+
+    private static String fill(String template, Function<String, String> values) {
+        Matcher matcher = PLACEHOLDER.matcher(template);
+        StringBuilder filled = new StringBuilder();
+        while (matcher.find()) {
+            String placeholder = matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+            matcher.appendReplacement(filled, Matcher.quoteReplacement(values.apply(placeholder)));
+        }
+        matcher.appendTail(filled);
+        return filled.toString();
+    }
+}
@@ -0,0 +1,111 @@
+package org.example.benchmarks;
+
+import org.example.entity.Product;
+import org.example.entity.Purchase;
+import org.example.entity.PurchaseProduct;
+import org.example.entity.PurchaseProductPk;
+import org.example.entity.Store;
+import org.example.repository.ProductRepository;
+import org.example.repository.PurchaseProductRepository;
+import org.example.repository.PurchaseRepository;
+import org.example.repository.StoreRepository;
+import org.example.service.ProductSearchService;
+import org.example.service.SalesRollupService;
+import org.example.service.StoreSearchService;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Seeds the tables through the same batch inserts the bulk endpoints use, then rebuilds what the application
+// derives from them at startup: the sales rollup and both search indexes.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+final class LoadSeeder {
+    private static final int CHUNK_SIZE = 1000;
+    private static final int HISTORY_DAYS = 90;
+
+    private final ConfigurableApplicationContext context;
+    private final Random random = new Random(42);
+    private final List<Long> storeIds = new ArrayList<>();
+    private final List<Long> productIds = new ArrayList<>();
+
+    LoadSeeder(ConfigurableApplicationContext context) {
+        this.context = context;
+    }
+
+    void seed(int stores, int products, int purchases, int itemsPerPurchase) {
+        StoreRepository storeRepository = context.getBean(StoreRepository.class);
+        List<Store> storeChunk = new ArrayList<>(CHUNK_SIZE);
+        for (int i = 0; i < stores; i++) {
+            storeChunk.add(Store.builder().storeName("Store " + (i % 500)).location("Location " + i).build());
+            if (storeChunk.size() == CHUNK_SIZE || i == stores - 1) {
+                storeIds.addAll(storeRepository.insertAll(storeChunk));
+                storeChunk.clear();
+            }
+        }
+
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        List<Product> productChunk = new ArrayList<>(CHUNK_SIZE);
+        for (int i = 0; i < products; i++) {
+            Product product = new Product();
+            product.setProductName("Product " + i);
+            product.setCategory("Category " + (i % 20));
+            productChunk.add(product);
+            if (productChunk.size() == CHUNK_SIZE || i == products - 1) {
+                for (Product saved : productRepository.saveAll(productChunk)) {
+                    productIds.add(saved.getProductId());
+                }
+                productChunk.clear();
+            }
+        }
+
+        if (!storeIds.isEmpty() && !productIds.isEmpty()) {
+            seedPurchases(purchases, itemsPerPurchase);
+        }
+        LocalDate today = LocalDate.now();
+        context.getBean(SalesRollupService.class).rebuild(Date.valueOf(today.minusDays(HISTORY_DAYS)), Date.valueOf(today));
+        context.getBean(StoreSearchService.class).buildIndex();
+        context.getBean(ProductSearchService.class).buildIndex();
+    }
+
+    List<Long> getStoreIds() {
+        return storeIds;
+    }
+
+    List<Long> getProductIds() {
+        return productIds;
+    }
+
+    private void seedPurchases(int purchases, int itemsPerPurchase) {
+        PurchaseRepository purchaseRepository = context.getBean(PurchaseRepository.class);
+        PurchaseProductRepository purchaseProductRepository = context.getBean(PurchaseProductRepository.class);
+        LocalDate today = LocalDate.now();
+        List<Purchase> chunk = new ArrayList<>(CHUNK_SIZE);
+        for (int i = 0; i < purchases; i++) {
+            Purchase purchase = new Purchase();
+            purchase.setStore(Store.builder().storeId(storeIds.get(random.nextInt(storeIds.size()))).build());
+            purchase.setPurchaseDate(Date.valueOf(today.minusDays(random.nextInt(HISTORY_DAYS))));
+            chunk.add(purchase);
+            if (chunk.size() == CHUNK_SIZE || i == purchases - 1) {
+                List<PurchaseProduct> items = new ArrayList<>();
+                for (Long purchaseId : purchaseRepository.insertAll(chunk)) {
+                    //distinct products per purchase, since (product, purchase) is the line item key
+                    int first = random.nextInt(productIds.size());
+                    for (int item = 0; item < Math.min(itemsPerPurchase, productIds.size()); item++) {
+                        PurchaseProduct lineItem = new PurchaseProduct();
+                        lineItem.setPpId(new PurchaseProductPk(productIds.get((first + item) % productIds.size()), purchaseId));
+                        lineItem.setQuantity(1 + random.nextInt(5));
+                        lineItem.setPrice(1 + random.nextInt(10_000) / 100.0);
+                        lineItem.setWeight(random.nextInt(5_000) / 1000.0);
+                        items.add(lineItem);
+                    }
+                }
+                purchaseProductRepository.insertAll(items);
+                chunk.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.benchmarks;
+
+import org.example.entity.Store;
+import org.example.repository.StoreRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Repository reads behind the store endpoints, straight against H2 so the cache is not involved.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StoreRepositoryBenchmark {
+    @Param({"10000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private StoreRepository storeRepository;
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("store_reads");
+        storeRepository = context.getBean(StoreRepository.class);
+        List<Store> stores = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            stores.add(Store.builder().storeName("Store " + (i % 100)).location("Location " + i).build());
+        }
+        ids = storeRepository.insertAll(stores);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Store> findById() {
+        return storeRepository.findById(randomId());
+    }
+
+    @Benchmark
+    public List<Store> findPage() {
+        return storeRepository.findByStoreIdGreaterThanOrderByStoreIdAsc(randomId(), PageRequest.of(0, 100));
+    }
+
+    @Benchmark
+    public boolean existsByNameLocationKey() {
+        int i = ThreadLocalRandom.current().nextInt(rows);
+        return storeRepository.existsByNameLocationKey(Store.nameLocationKey("Store " + (i % 100), "Location " + i));
+    }
+
+    private Long randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+}
@@ -0,0 +1,102 @@
+package org.example.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.example.dto.PurchaseSummary;
+import org.example.entity.Store;
+import org.example.json.JsonConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Response bodies of GET /stores pages and purchase pages, built with the same ObjectMapper defaults Spring Boot uses.
+// mapper: reflective is plain Jackson (what the application used before JsonConfig), blackbird adds generated
+// accessors only, payload is what the application registers: the hand-written serializers plus Blackbird. cbor and
+// smile are the payload setup on the binary formats PayloadFormats negotiates.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StoreSerializationBenchmark {
+    @Param({"1", "100", "1000", "10000"})
+    private int stores;
+
+    @Param({"reflective", "blackbird", "payload", "cbor", "smile"})
+    private String mapper;
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter listWriter;
+    private ObjectWriter purchaseWriter;
+    private List<Store> page;
+    private List<PurchaseSummary> purchases;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws Exception {
+        JsonConfig config = new JsonConfig();
+        objectMapper = "cbor".equals(mapper) ? Jackson2ObjectMapperBuilder.cbor().build()
+                : "smile".equals(mapper) ? Jackson2ObjectMapperBuilder.smile().build()
+                : Jackson2ObjectMapperBuilder.json().build();
+        switch (mapper) {
+            case "reflective":
+                break;
+            case "blackbird":
+                objectMapper.registerModule(config.blackbirdModule());
+                break;
+            case "payload":
+            case "cbor":
+            case "smile":
+                objectMapper.registerModules(config.payloadSerializersModule(), config.blackbirdModule());
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown mapper " + mapper);
+        }
+        listWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, Store.class));
+        page = new ArrayList<>(stores);
+        Timestamp createdAt = Timestamp.valueOf("2024-03-01 10:15:30");
+        for (long i = 1; i <= stores; i++) {
+            page.add(Store.builder().storeId(i).storeName("Store " + i).location("Location " + i).createdAt(createdAt).build());
+        }
+        json = listWriter.writeValueAsBytes(page);
+
+        purchaseWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, PurchaseSummary.class));
+        purchases = new ArrayList<>(stores);
+        Date purchaseDate = Date.valueOf("2024-03-01");
+        for (long i = 1; i <= stores; i++) {
+            purchases.add(new PurchaseSummary(i, purchaseDate, i * 1.25, i % 7, i % 3));
+        }
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return listWriter.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] serializePurchases() throws Exception {
+        return purchaseWriter.writeValueAsBytes(purchases);
+    }
+
+    @Benchmark
+    public List<Store> deserialize() throws Exception {
+        return objectMapper.readerForListOf(Store.class).readValue(json);
+    }
+}
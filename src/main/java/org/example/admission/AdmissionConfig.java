@@ -0,0 +1,35 @@
+package org.example.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "app.admission.enabled", matchIfMissing = true)
+@EnableConfigurationProperties(AdmissionProperties.class)
+public class AdmissionConfig {
+    // ahead of the other application filters, so a turned-away request costs as little as possible; behind Spring's
+    // own, so rejections still show up in http.server.requests
+    @Bean
+    public FilterRegistrationBean<AdmissionFilter> admissionFilter(AdmissionProperties properties, ObjectMapper objectMapper,
+                                                                   ObjectProvider<MeterRegistry> meterRegistry) {
+        MeterRegistry registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        ClientBuckets buckets = new ClientBuckets(properties.getRate(), properties.getBurst(), properties.getMaxClients(), System::nanoTime);
+        PoolPressure poolPressure = new PoolPressure(registry, properties.getMaxPoolWait(), properties.getMaxPoolPending(),
+                properties.getPoolSampleInterval(), System::nanoTime);
+        AdmissionFilter filter = new AdmissionFilter(properties, buckets, new RouteCosts(properties), poolPressure, objectMapper, registry);
+        FilterRegistrationBean<AdmissionFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,160 @@
+package org.example.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.exception.CustomErrorResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Decides whether a request gets to the controllers at all, before it takes a Tomcat worker's time or a lane slot:
+// 503 when the service as a whole is saturated (too many requests in flight, or the connection pools backed up), 429
+// when the client has spent its token bucket. Both answer straight away with Retry-After and the usual error body.
+// Requests are charged per route, so one GET /stores costs as much as fifty single-store reads.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public class AdmissionFilter extends OncePerRequestFilter {
+    public static final String REJECTED_METRIC = "admission.rejected";
+    public static final String IN_FLIGHT_METRIC = "admission.in.flight";
+    private static final int MAX_CLIENT_ID_LENGTH = 128;
+
+    private final ClientBuckets buckets;
+    private final RouteCosts routeCosts;
+    private final PoolPressure poolPressure;
+    private final ObjectMapper objectMapper;
+    private final String clientHeader;
+    private final TrustedProxies trustedProxies;
+    private final int maxInFlight;
+    // striped, so the increment and decrement on every request do not contend on one cache line
+    private final LongAdder inFlight = new LongAdder();
+    private final Counter rateLimited;
+    private final Counter overloaded;
+
+    public AdmissionFilter(AdmissionProperties properties, ClientBuckets buckets, RouteCosts routeCosts, PoolPressure poolPressure,
+                           ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.buckets = buckets;
+        this.routeCosts = routeCosts;
+        this.poolPressure = poolPressure;
+        this.objectMapper = objectMapper;
+        this.clientHeader = properties.getClientHeader();
+        this.trustedProxies = new TrustedProxies(properties.getTrustedProxies());
+        this.maxInFlight = properties.getMaxInFlight();
+        this.rateLimited = Counter.builder(REJECTED_METRIC)
+                .description("Requests turned away before reaching a controller")
+                .tag("reason", "rate_limited")
+                .register(meterRegistry);
+        this.overloaded = Counter.builder(REJECTED_METRIC)
+                .description("Requests turned away before reaching a controller")
+                .tag("reason", "overloaded")
+                .register(meterRegistry);
+        Gauge.builder(IN_FLIGHT_METRIC, inFlight, LongAdder::sum)
+                .description("Admitted requests that have not completed yet")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        PathContainer path = RouteCosts.path(request);
+        if (routeCosts.isExempt(path)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        //checked before the bucket, so a client is not charged for a request the service could not take anyway
+        if (inFlight.sum() >= maxInFlight || poolPressure.isSaturated()) {
+            overloaded.increment();
+            reject(request, response, HttpStatus.SERVICE_UNAVAILABLE, 1, "The service is overloaded, retry shortly.");
+            return;
+        }
+        long wait = buckets.tryAcquire(clientId(request), routeCosts.cost(request, path));
+        if (wait > 0) {
+            rateLimited.increment();
+            //whole seconds, rounded up, so a client that honors it finds the tokens there
+            long retryAfter = TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1);
+            reject(request, response, HttpStatus.TOO_MANY_REQUESTS, retryAfter, "Request rate limit exceeded for this client.");
+            return;
+        }
+        if (routeCosts.isLongPoll(path)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        inFlight.increment();
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            async = request.isAsyncStarted();
+        } finally {
+            if (async) {
+                //lane requests finish on another thread; they stay in flight until the async request completes
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        inFlight.decrement();
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                inFlight.decrement();
+            }
+        }
+    }
+
+    long inFlight() {
+        return inFlight.sum();
+    }
+
+    // the remote address, unless a trusted proxy sent the configured header; anyone else could rotate the header to
+    // get a fresh bucket on every request
+    private String clientId(HttpServletRequest request) {
+        String address = request.getRemoteAddr();
+        if (!trustedProxies.contains(address)) {
+            return address;
+        }
+        String client = request.getHeader(clientHeader);
+        if (client == null || client.isBlank() || client.length() > MAX_CLIENT_ID_LENGTH) {
+            return address;
+        }
+        return client;
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, HttpStatus status, long retryAfterSeconds,
+                        String message) throws IOException {
+        CustomErrorResponse errorResponse = new CustomErrorResponse();
+        errorResponse.setTimestamp(LocalDateTime.now());
+        errorResponse.setStatus(status.value());
+        errorResponse.setError(status.getReasonPhrase());
+        errorResponse.setMessage(message);
+        errorResponse.setPath(request.getRequestURI());
+
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+}
@@ -0,0 +1,205 @@
+package org.example.admission;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+@ConfigurationProperties("app.admission")
+public class AdmissionProperties {
+    private boolean enabled = true;
+    // clients are told apart by remote address; a trusted proxy may name the client in this header instead
+    private String clientHeader = "X-Client-Id";
+    // addresses or CIDR ranges of the gateways whose client header is believed; none by default
+    private List<String> trustedProxies = new ArrayList<>();
+    // cost units per second per client, and how many can be spent at once after a quiet spell
+    private double rate = 100;
+    private double burst = 200;
+    private long maxClients = 100_000;
+    private int maxInFlight = 400;
+    private Duration maxPoolWait = Duration.ofMillis(200);
+    private int maxPoolPending = 20;
+    private Duration poolSampleInterval = Duration.ofMillis(250);
+    private List<String> exemptPaths = new ArrayList<>(List.of("/actuator/**"));
+    // long polls: charged to the bucket, but not counted in flight while parked, since they hold no thread or connection
+    private List<String> longPollPaths = new ArrayList<>(List.of("/changes"));
+    private int defaultCost = 1;
+    // first match wins, so more specific patterns go before the ones that would also match them
+    private List<Route> routes = new ArrayList<>(List.of(
+            new Route("GET", "/stores", "ids", 5),
+            new Route("GET", "/stores", null, 50),
+            new Route("GET", "/stores/stream", null, 50),
+            new Route("POST", "/stores/lookup", null, 5),
+            new Route("GET", "/stores/search", null, 5),
+            new Route("POST", "/stores/bulk", null, 20),
+            new Route("PATCH", "/stores/bulk", null, 20),
+            new Route("DELETE", "/stores", null, 20),
+            new Route("GET", "/stores/*/purchases", null, 5),
+            new Route("GET", "/stores/*/sales", null, 5),
+            new Route("POST", "/stores/sales/rebuild", null, 100),
+            new Route("POST", "/purchases/batch", null, 20)));
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getClientHeader() {
+        return clientHeader;
+    }
+
+    public void setClientHeader(String clientHeader) {
+        this.clientHeader = clientHeader;
+    }
+
+    public List<String> getTrustedProxies() {
+        return trustedProxies;
+    }
+
+    public void setTrustedProxies(List<String> trustedProxies) {
+        this.trustedProxies = trustedProxies;
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    public void setRate(double rate) {
+        this.rate = rate;
+    }
+
+    public double getBurst() {
+        return burst;
+    }
+
+    public void setBurst(double burst) {
+        this.burst = burst;
+    }
+
+    public long getMaxClients() {
+        return maxClients;
+    }
+
+    public void setMaxClients(long maxClients) {
+        this.maxClients = maxClients;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public Duration getMaxPoolWait() {
+        return maxPoolWait;
+    }
+
+    public void setMaxPoolWait(Duration maxPoolWait) {
+        this.maxPoolWait = maxPoolWait;
+    }
+
+    public int getMaxPoolPending() {
+        return maxPoolPending;
+    }
+
+    public void setMaxPoolPending(int maxPoolPending) {
+        this.maxPoolPending = maxPoolPending;
+    }
+
+    public Duration getPoolSampleInterval() {
+        return poolSampleInterval;
+    }
+
+    public void setPoolSampleInterval(Duration poolSampleInterval) {
+        this.poolSampleInterval = poolSampleInterval;
+    }
+
+    public List<String> getExemptPaths() {
+        return exemptPaths;
+    }
+
+    public void setExemptPaths(List<String> exemptPaths) {
+        this.exemptPaths = exemptPaths;
+    }
+
+    public List<String> getLongPollPaths() {
+        return longPollPaths;
+    }
+
+    public void setLongPollPaths(List<String> longPollPaths) {
+        this.longPollPaths = longPollPaths;
+    }
+
+    public int getDefaultCost() {
+        return defaultCost;
+    }
+
+    public void setDefaultCost(int defaultCost) {
+        this.defaultCost = defaultCost;
+    }
+
+    public List<Route> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(List<Route> routes) {
+        this.routes = routes;
+    }
+
+    public static class Route {
+        private String method;
+        private String pattern;
+        // only matches when this query parameter is present, e.g. GET /stores?ids=...
+        private String param;
+        private int cost;
+
+        public Route() {
+        }
+
+        public Route(String method, String pattern, String param, int cost) {
+            this.method = method;
+            this.pattern = pattern;
+            this.param = param;
+            this.cost = cost;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public void setMethod(String method) {
+            this.method = method;
+        }
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        public void setPattern(String pattern) {
+            this.pattern = pattern;
+        }
+
+        public String getParam() {
+            return param;
+        }
+
+        public void setParam(String param) {
+            this.param = param;
+        }
+
+        public int getCost() {
+            return cost;
+        }
+
+        public void setCost(int cost) {
+            this.cost = cost;
+        }
+    }
+}
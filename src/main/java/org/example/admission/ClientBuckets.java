@@ -0,0 +1,59 @@
+package org.example.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// A token bucket per client, kept as a single theoretical arrival time (GCRA): each admitted request pushes it forward
+// by cost / rate, and a request is turned away while that would put it more than burst / rate ahead of now. Taking
+// tokens is one compare-and-set on the client's own AtomicLong, so clients never contend with each other and there is
+// no refill thread. A bucket that has been idle long enough is full again, which is what an evicted bucket starts as.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public class ClientBuckets {
+    private final Cache<String, AtomicLong> buckets;
+    private final double nanosPerUnit;
+    private final long tolerance;
+    private final LongSupplier clock;
+
+    public ClientBuckets(double rate, double burst, long maxClients, LongSupplier clock) {
+        if (rate <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Admission rate must be positive and burst at least 1.");
+        }
+        this.nanosPerUnit = TimeUnit.SECONDS.toNanos(1) / rate;
+        this.tolerance = (long) (burst * nanosPerUnit);
+        this.clock = clock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofNanos(tolerance).plusMinutes(1))
+                .executor(Runnable::run)
+                .build();
+    }
+
+    // 0 when admitted, otherwise the nanoseconds until a request of this cost would be; a cost above the burst is
+    // charged as the burst so the route is not locked out for good
+    public long tryAcquire(String client, int cost) {
+        long now = clock.getAsLong();
+        AtomicLong arrival = buckets.get(client, key -> new AtomicLong(now));
+        long increment = (long) (Math.max(1, cost) * nanosPerUnit);
+        increment = Math.min(increment, tolerance);
+        while (true) {
+            long current = arrival.get();
+            long next = Math.max(current, now) + increment;
+            long wait = next - tolerance - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (arrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public long size() {
+        return buckets.estimatedSize();
+    }
+}
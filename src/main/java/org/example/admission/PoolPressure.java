@@ -0,0 +1,67 @@
+package org.example.admission;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Whether the connection pools are saturated, from the hikaricp.* meters every pool (primary and replicas) reports:
+// threads waiting for a connection right now, and the mean time connections took to acquire since the last sample.
+// Sampled at most once per interval by whichever request gets there first, so the check on the hot path is a volatile
+// read. Without the meters (no registry, or no pool started yet) the pools never count as saturated.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public class PoolPressure {
+    static final String PENDING_METRIC = "hikaricp.connections.pending";
+    static final String ACQUIRE_METRIC = "hikaricp.connections.acquire";
+
+    private final MeterRegistry meterRegistry;
+    private final long maxWaitNanos;
+    private final int maxPending;
+    private final long sampleIntervalNanos;
+    private final LongSupplier clock;
+    private final AtomicLong lastSample;
+    private volatile long lastAcquireCount;
+    private volatile double lastAcquireNanos;
+    private volatile boolean saturated;
+
+    public PoolPressure(MeterRegistry meterRegistry, Duration maxWait, int maxPending, Duration sampleInterval, LongSupplier clock) {
+        this.meterRegistry = meterRegistry;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.maxPending = maxPending;
+        this.sampleIntervalNanos = sampleInterval.toNanos();
+        this.clock = clock;
+        this.lastSample = new AtomicLong(clock.getAsLong() - sampleIntervalNanos);
+    }
+
+    public boolean isSaturated() {
+        long now = clock.getAsLong();
+        long last = lastSample.get();
+        if (now - last >= sampleIntervalNanos && lastSample.compareAndSet(last, now)) {
+            sample();
+        }
+        return saturated;
+    }
+
+    // the acquire timers are cumulative, so the difference between two samples is the recent window
+    private void sample() {
+        double pending = 0;
+        for (Gauge gauge : meterRegistry.find(PENDING_METRIC).gauges()) {
+            pending += gauge.value();
+        }
+        long count = 0;
+        double nanos = 0;
+        for (Timer timer : meterRegistry.find(ACQUIRE_METRIC).timers()) {
+            count += timer.count();
+            nanos += timer.totalTime(TimeUnit.NANOSECONDS);
+        }
+        long acquired = count - lastAcquireCount;
+        double meanWait = acquired > 0 ? (nanos - lastAcquireNanos) / acquired : 0;
+        lastAcquireCount = count;
+        lastAcquireNanos = nanos;
+        saturated = pending > maxPending || meanWait > maxWaitNanos;
+    }
+}
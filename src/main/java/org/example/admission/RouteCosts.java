@@ -0,0 +1,75 @@
+package org.example.admission;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.RequestPath;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.List;
+
+// What a request costs against its client's bucket: the first configured route matching its method, path and
+// (optionally) a query parameter, else the default. Patterns are parsed once at startup.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public class RouteCosts {
+    private final List<CompiledRoute> routes;
+    private final List<PathPattern> exempt;
+    private final List<PathPattern> longPolls;
+    private final int defaultCost;
+
+    public RouteCosts(AdmissionProperties properties) {
+        PathPatternParser parser = PathPatternParser.defaultInstance;
+        this.routes = properties.getRoutes().stream()
+                .map(route -> new CompiledRoute(route.getMethod(), parser.parse(route.getPattern()), route.getParam(), route.getCost()))
+                .toList();
+        this.exempt = properties.getExemptPaths().stream().map(parser::parse).toList();
+        this.longPolls = properties.getLongPollPaths().stream().map(parser::parse).toList();
+        this.defaultCost = properties.getDefaultCost();
+    }
+
+    // the path within the application, which is what the patterns are written against
+    public static PathContainer path(HttpServletRequest request) {
+        return RequestPath.parse(request.getRequestURI(), request.getContextPath()).pathWithinApplication();
+    }
+
+    public boolean isExempt(PathContainer path) {
+        return matches(exempt, path);
+    }
+
+    public boolean isLongPoll(PathContainer path) {
+        return matches(longPolls, path);
+    }
+
+    public int cost(HttpServletRequest request, PathContainer path) {
+        for (CompiledRoute route : routes) {
+            if (route.method.equalsIgnoreCase(request.getMethod()) && route.pattern.matches(path)
+                    && (route.param == null || request.getParameter(route.param) != null)) {
+                return route.cost;
+            }
+        }
+        return defaultCost;
+    }
+
+    private static boolean matches(List<PathPattern> patterns, PathContainer path) {
+        for (PathPattern pattern : patterns) {
+            if (pattern.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class CompiledRoute {
+        private final String method;
+        private final PathPattern pattern;
+        private final String param;
+        private final int cost;
+
+        private CompiledRoute(String method, PathPattern pattern, String param, int cost) {
+            this.method = method;
+            this.pattern = pattern;
+            this.param = param;
+            this.cost = cost;
+        }
+    }
+}
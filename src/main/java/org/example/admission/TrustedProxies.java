@@ -0,0 +1,79 @@
+package org.example.admission;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+// The addresses allowed to name the client in the client header: single addresses ("10.0.0.5", "::1") and CIDR ranges
+// ("10.0.0.0/8"). Only IP literals are accepted, so neither the configuration nor a request ever triggers a DNS lookup.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public class TrustedProxies {
+    private static final Pattern IPV4 = Pattern.compile("\\d{1,3}(\\.\\d{1,3}){3}");
+
+    private final List<byte[]> networks = new ArrayList<>();
+    private final List<Integer> prefixLengths = new ArrayList<>();
+
+    public TrustedProxies(List<String> entries) {
+        for (String entry : entries) {
+            int slash = entry.indexOf('/');
+            byte[] network = parse(slash < 0 ? entry.trim() : entry.substring(0, slash).trim());
+            if (network == null) {
+                throw new IllegalArgumentException("Trusted proxy " + entry + " is not an IP address or CIDR range.");
+            }
+            int prefixLength = slash < 0 ? network.length * 8 : Integer.parseInt(entry.substring(slash + 1).trim());
+            if (prefixLength < 0 || prefixLength > network.length * 8) {
+                throw new IllegalArgumentException("Trusted proxy " + entry + " has an invalid prefix length.");
+            }
+            networks.add(network);
+            prefixLengths.add(prefixLength);
+        }
+    }
+
+    public boolean contains(String address) {
+        if (networks.isEmpty() || address == null) {
+            return false;
+        }
+        byte[] bytes = parse(address);
+        if (bytes == null) {
+            return false;
+        }
+        for (int i = 0; i < networks.size(); i++) {
+            if (matches(networks.get(i), prefixLengths.get(i), bytes)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(byte[] network, int prefixLength, byte[] address) {
+        if (network.length != address.length) {
+            return false;
+        }
+        int whole = prefixLength / 8;
+        for (int i = 0; i < whole; i++) {
+            if (network[i] != address[i]) {
+                return false;
+            }
+        }
+        int rest = prefixLength % 8;
+        if (rest == 0) {
+            return true;
+        }
+        int mask = 0xFF << (8 - rest);
+        return (network[whole] & mask) == (address[whole] & mask);
+    }
+
+    // null for anything that is not an IPv4 or IPv6 literal
+    private static byte[] parse(String literal) {
+        if (!IPV4.matcher(literal).matches() && literal.indexOf(':') < 0) {
+            return null;
+        }
+        try {
+            return InetAddress.getByName(literal).getAddress();
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package org.example.cache;
+
+import java.util.function.Consumer;
+
+// Fan-out of cache invalidations between application nodes. Every node subscribes its local cache and
+// publishes the ids it changed; implementations must also deliver a node's own messages back to it.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public interface CacheInvalidationChannel {
+    void publish(Long storeId);
+
+    void subscribe(Consumer<Long> listener);
+}
@@ -0,0 +1,23 @@
+package org.example.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// Single-process stand-in, used when no shared channel (e.g. a message broker) is configured.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public class InMemoryCacheInvalidationChannel implements CacheInvalidationChannel {
+    private final List<Consumer<Long>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(Long storeId) {
+        for (Consumer<Long> listener : listeners) {
+            listener.accept(storeId);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<Long> listener) {
+        listeners.add(listener);
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.example.entity.Store;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+// Cached stores are shared between requests and must not be mutated by callers.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+@Component
+public class StoreCache {
+    private final Cache<Long, Store> cache;
+    private final CacheInvalidationChannel invalidationChannel;
+
+    @Autowired
+    public StoreCache(CacheInvalidationChannel invalidationChannel,
+                      @Value("${store.cache.maximum-size:10000}") long maximumSize,
+                      @Value("${store.cache.ttl:10m}") Duration ttl) {
+        this(invalidationChannel, maximumSize, ttl, Ticker.systemTicker());
+    }
+
+    StoreCache(CacheInvalidationChannel invalidationChannel, long maximumSize, Duration ttl, Ticker ticker) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .ticker(ticker)
+                .executor(Runnable::run)
+                .recordStats()
+                .build();
+        this.invalidationChannel = invalidationChannel;
+        invalidationChannel.subscribe(cache::invalidate);
+    }
+
+    // a load and an invalidation of the same id never interleave, so a reload racing an update cannot
+    // put the old row back after the update has invalidated it
+    public Optional<Store> get(Long storeId, Function<Long, Optional<Store>> loader) {
+        return Optional.ofNullable(cache.get(storeId, id -> loader.apply(id).orElse(null)));
+    }
+
+    // does not load and does not count towards the hit/miss stats
+    public Optional<Store> getIfPresent(Long storeId) {
+        return Optional.ofNullable(cache.policy().getIfPresentQuietly(storeId));
+    }
+
+    public void invalidate(Long storeId) {
+        cache.invalidate(storeId);
+        invalidationChannel.publish(storeId);
+    }
+
+    public StoreCacheStats stats() {
+        CacheStats stats = cache.stats();
+        return new StoreCacheStats(stats.hitCount(), stats.missCount(), stats.evictionCount(), cache.estimatedSize());
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.cache;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+@Configuration
+public class StoreCacheConfig {
+    @Bean
+    @ConditionalOnMissingBean(CacheInvalidationChannel.class)
+    public CacheInvalidationChannel cacheInvalidationChannel() {
+        return new InMemoryCacheInvalidationChannel();
+    }
+}
@@ -0,0 +1,244 @@
+package org.example.changes;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.datasource.DataSourceRouting;
+import org.example.dto.ChangeBatch;
+import org.example.entity.ChangeEvent;
+import org.example.lanes.Lane;
+import org.example.lanes.RequestLanes;
+import org.example.repository.ChangeEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// The change feed behind GET /changes. A relay thread publishes the outbox: it numbers unpublished change_event rows
+// in the order it finds them, right after a local write commits or at the latest every relay interval (which also
+// picks up what other instances published). Readers ask for the events after the offset they last saw and get up to
+// a batch of them at once; a reader that is caught up is parked until the relay publishes or its wait runs out.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+@Component
+@Profile("!reactive")
+public class ChangeFeed {
+    public static final int DEFAULT_LIMIT = 500;
+    public static final int MAX_LIMIT = 5000;
+    public static final Duration MAX_WAIT = Duration.ofSeconds(60);
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChangeFeed.class);
+
+    private final ChangeEventRepository changeEventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final RequestLanes lanes;
+    private final long relayIntervalMillis;
+    private final int relayBatchSize;
+    private final Semaphore wakeups = new Semaphore(0);
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private final Thread relay;
+    private volatile boolean running;
+    private volatile long lastOffset;
+
+    @Autowired
+    public ChangeFeed(ChangeEventRepository changeEventRepository, TransactionTemplate transactionTemplate, RequestLanes lanes,
+                      @Value("${app.changes.relay-interval:1s}") Duration relayInterval,
+                      @Value("${app.changes.relay-batch-size:1000}") int relayBatchSize) {
+        this.changeEventRepository = changeEventRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.lanes = lanes;
+        this.relayIntervalMillis = relayInterval.toMillis();
+        this.relayBatchSize = relayBatchSize;
+        this.relay = new CustomizableThreadFactory("change-relay-").newThread(this::relayLoop);
+    }
+
+    @PostConstruct
+    public void start() {
+        lastOffset = changeEventRepository.findLastOffset().orElse(0L);
+        running = true;
+        relay.start();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        relay.interrupt();
+        relay.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    // called after a transaction with change events commits
+    public void wake() {
+        wakeups.release();
+    }
+
+    public long getLastOffset() {
+        return lastOffset;
+    }
+
+    // answers right away when there is something after since (or wait is zero), else once there is or wait runs out
+    public DeferredResult<ChangeBatch> poll(long since, int limit, Duration wait) {
+        if (since < 0) {
+            throw new IllegalArgumentException("The offset must not be negative.");
+        }
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        long waitMillis = Math.max(0, Math.min(wait.toMillis(), MAX_WAIT.toMillis()));
+        DeferredResult<ChangeBatch> result = new DeferredResult<>(waitMillis > 0 ? waitMillis : null,
+                () -> new ChangeBatch(List.of(), since));
+        if (waitMillis == 0 || lastOffset > since) {
+            answer(result, since, size);
+            return result;
+        }
+        Waiter waiter = new Waiter(since, size, result);
+        waiters.add(waiter);
+        result.onCompletion(() -> waiters.remove(waiter));
+        //the relay may have moved on between the check above and the add
+        if (lastOffset > since && waiters.remove(waiter)) {
+            answer(result, since, size);
+        }
+        return result;
+    }
+
+    public ChangeBatch read(long since, int limit) {
+        List<ChangeEvent> events = changeEventRepository.findPublishedAfter(since, PageRequest.of(0, limit));
+        long next = events.isEmpty() ? since : events.get(events.size() - 1).getFeedOffset();
+        return new ChangeBatch(events, next);
+    }
+
+    // publishes everything unpublished, one transaction per relay batch; returns the highest offset now in the feed
+    long relay() {
+        int published;
+        do {
+            published = publish();
+        } while (published == relayBatchSize);
+        long last = changeEventRepository.findLastOffset().orElse(0L);
+        if (last > lastOffset) {
+            lastOffset = last;
+            Map<Long, List<Waiter>> due = new TreeMap<>();
+            for (Waiter waiter : waiters) {
+                if (waiter.since < last && waiters.remove(waiter)) {
+                    due.computeIfAbsent(waiter.since, since -> new ArrayList<>()).add(waiter);
+                }
+            }
+            if (!due.isEmpty()) {
+                answer(due);
+            }
+        }
+        return last;
+    }
+
+    private int publish() {
+        try {
+            Integer published = transactionTemplate.execute(status -> {
+                List<Long> ids = changeEventRepository.findUnpublishedIds(PageRequest.of(0, relayBatchSize));
+                if (!ids.isEmpty()) {
+                    long first = changeEventRepository.findLastOffset().orElse(0L) + 1;
+                    changeEventRepository.assignOffsets(ids, first);
+                }
+                return ids.size();
+            });
+            return published == null ? 0 : published;
+        } catch (DataIntegrityViolationException e) {
+            //another instance's relay took these offsets first; the next round numbers after its
+            LOGGER.debug("Lost a relay race, retrying", e);
+            return 0;
+        }
+    }
+
+    private void relayLoop() {
+        while (running) {
+            try {
+                wakeups.tryAcquire(relayIntervalMillis, TimeUnit.MILLISECONDS);
+                //one round covers every commit that woke us meanwhile
+                wakeups.drainPermits();
+                try {
+                    relay();
+                } finally {
+                    DataSourceRouting.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                LOGGER.warn("Could not relay change events", e);
+            }
+        }
+    }
+
+    private void answer(DeferredResult<ChangeBatch> result, long since, int limit) {
+        try {
+            lanes.submit(Lane.READS, () -> read(since, limit)).whenComplete((batch, error) -> {
+                if (error != null) {
+                    result.setErrorResult(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+                } else {
+                    result.setResult(batch);
+                }
+            });
+        } catch (RuntimeException e) {
+            //a full lane: 503 like any other read
+            result.setErrorResult(e);
+        }
+    }
+
+    // the parked readers a relay round made due, in one lane task however many there are: one read per distinct
+    // offset, at the largest limit asked for it, and each reader gets its own share of that batch
+    private void answer(Map<Long, List<Waiter>> due) {
+        try {
+            lanes.submit(Lane.READS, () -> {
+                for (Map.Entry<Long, List<Waiter>> group : due.entrySet()) {
+                    answer(group.getKey(), group.getValue());
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            //a full lane: 503 like any other read
+            due.values().forEach(group -> group.forEach(waiter -> waiter.result.setErrorResult(e)));
+        }
+    }
+
+    private void answer(long since, List<Waiter> group) {
+        int limit = group.stream().mapToInt(waiter -> waiter.limit).max().orElse(1);
+        ChangeBatch batch;
+        try {
+            batch = read(since, limit);
+        } catch (RuntimeException e) {
+            group.forEach(waiter -> waiter.result.setErrorResult(e));
+            return;
+        }
+        for (Waiter waiter : group) {
+            List<ChangeEvent> events = batch.getEvents();
+            if (events.size() > waiter.limit) {
+                events = events.subList(0, waiter.limit);
+                waiter.result.setResult(new ChangeBatch(events, events.get(events.size() - 1).getFeedOffset()));
+            } else {
+                waiter.result.setResult(batch);
+            }
+        }
+    }
+
+    private static final class Waiter {
+        private final long since;
+        private final int limit;
+        private final DeferredResult<ChangeBatch> result;
+
+        private Waiter(long since, int limit, DeferredResult<ChangeBatch> result) {
+            this.since = since;
+            this.limit = limit;
+            this.result = result;
+        }
+    }
+}
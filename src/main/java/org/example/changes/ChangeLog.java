@@ -0,0 +1,121 @@
+package org.example.changes;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.entity.ChangeEvent;
+import org.example.entity.Purchase;
+import org.example.entity.PurchaseProduct;
+import org.example.entity.Store;
+import org.example.repository.ChangeEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Appends change events for store and purchase writes to the change_event outbox. Every method runs inside the
+// write's own transaction, so an event exists exactly when its change committed; the relay is woken once it has.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+@Component
+@Profile("!reactive")
+public class ChangeLog {
+    public static final String STORE = "store";
+    public static final String PURCHASE = "purchase";
+    public static final String CREATED = "created";
+    public static final String UPDATED = "updated";
+    public static final String DELETED = "deleted";
+
+    private final ChangeEventRepository changeEventRepository;
+    private final ChangeFeed changeFeed;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public ChangeLog(ChangeEventRepository changeEventRepository, ChangeFeed changeFeed, ObjectMapper objectMapper) {
+        this.changeEventRepository = changeEventRepository;
+        this.changeFeed = changeFeed;
+        this.objectMapper = objectMapper;
+    }
+
+    // the payload is the store as GET /{storeId} returns it; patches are re-read so they carry the whole row too
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void storesWritten(String changeType, List<Store> stores) {
+        Timestamp now = now();
+        List<ChangeEvent> events = new ArrayList<>(stores.size());
+        for (Store store : stores) {
+            events.add(new ChangeEvent(STORE, store.getStoreId(), changeType, json(store), now));
+        }
+        append(events);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void storesDeleted(Collection<Long> storeIds) {
+        Timestamp now = now();
+        List<ChangeEvent> events = new ArrayList<>(storeIds.size());
+        for (Long storeId : storeIds) {
+            events.add(new ChangeEvent(STORE, storeId, DELETED, null, now));
+        }
+        append(events);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void purchasesCreated(List<Purchase> purchases, List<PurchaseProduct> lineItems) {
+        Map<Long, List<Map<String, Object>>> itemsByPurchase = new HashMap<>();
+        for (PurchaseProduct item : lineItems) {
+            Map<String, Object> fields = new LinkedHashMap<>();
+            fields.put("productId", item.getPpId().getProductId());
+            fields.put("quantity", item.getQuantity());
+            fields.put("price", item.getPrice());
+            fields.put("weight", item.getWeight());
+            itemsByPurchase.computeIfAbsent(item.getPpId().getPurchaseId(), key -> new ArrayList<>()).add(fields);
+        }
+        Timestamp now = now();
+        List<ChangeEvent> events = new ArrayList<>(purchases.size());
+        for (Purchase purchase : purchases) {
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("purchaseId", purchase.getPurchaseId());
+            payload.put("storeId", purchase.getStore().getStoreId());
+            payload.put("purchaseDate", purchase.getPurchaseDate());
+            payload.put("items", itemsByPurchase.getOrDefault(purchase.getPurchaseId(), List.of()));
+            events.add(new ChangeEvent(PURCHASE, purchase.getPurchaseId(), CREATED, json(payload), now));
+        }
+        append(events);
+    }
+
+    private void append(List<ChangeEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        changeEventRepository.appendAll(events);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    changeFeed.wake();
+                }
+            });
+        }
+    }
+
+    private String json(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Timestamp now() {
+        return new Timestamp(System.currentTimeMillis());
+    }
+}
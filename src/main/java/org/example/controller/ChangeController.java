@@ -0,0 +1,36 @@
+package org.example.controller;
+
+import org.example.changes.ChangeFeed;
+import org.example.dto.ChangeBatch;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+@RestController
+@Profile("!reactive")
+public class ChangeController {
+    private static final String DEFAULT_WAIT_SECONDS = "25";
+
+    private final ChangeFeed changeFeed;
+
+    @Autowired
+    public ChangeController(ChangeFeed changeFeed) {
+        this.changeFeed = changeFeed;
+    }
+
+    // long poll: a caught-up consumer's request is held for up to wait seconds (at most 60) until there are changes;
+    // JSON only, since payloads are stored as JSON text
+    @GetMapping(value = "/changes", produces = MediaType.APPLICATION_JSON_VALUE)
+    public DeferredResult<ChangeBatch> getChanges(@RequestParam(defaultValue = "0") long since,
+                                                  @RequestParam(defaultValue = "" + ChangeFeed.DEFAULT_LIMIT) int limit,
+                                                  @RequestParam(defaultValue = DEFAULT_WAIT_SECONDS) long wait) {
+        return changeFeed.poll(since, limit, Duration.ofSeconds(wait));
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.controller;
+
+import org.example.dto.ProductSearchResult;
+import org.example.service.ProductSearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+@RestController
+@Profile("!reactive")
+public class ProductController {
+    private final ProductSearchService productSearchService;
+
+    @Autowired
+    public ProductController(ProductSearchService productSearchService) {
+        this.productSearchService = productSearchService;
+    }
+
+    @GetMapping("/products/search")
+    public ResponseEntity<List<ProductSearchResult>> searchProducts(@RequestParam(required = false, defaultValue = "") String q,
+                                                                    @RequestParam(required = false) String category,
+                                                                    @RequestParam(required = false, defaultValue = "" + ProductSearchService.DEFAULT_LIMIT) int limit) {
+        return new ResponseEntity<>(productSearchService.search(q, category, limit), HttpStatus.OK);
+    }
+}
@@ -0,0 +1,117 @@
+package org.example.controller;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import org.example.dto.BulkItemResult;
+import org.example.dto.PurchasePage;
+import org.example.dto.PurchaseRequest;
+import org.example.dto.PurchaseSummary;
+import org.example.exception.PayloadTooLargeException;
+import org.example.idempotency.IdempotencyKeys;
+import org.example.json.PayloadFormats;
+import org.example.lanes.Lane;
+import org.example.lanes.RequestLanes;
+import org.example.service.PurchaseService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+@RestController
+@Profile("!reactive")
+public class PurchaseController {
+    private static final int DEFAULT_HISTORY_DAYS = 30;
+
+    private final PurchaseService purchaseService;
+    private final PayloadFormats formats;
+    private final RequestLanes lanes;
+    private final IdempotencyKeys idempotencyKeys;
+    private final int maxKeyedBatchBytes;
+
+    @Autowired
+    public PurchaseController(PurchaseService purchaseService, PayloadFormats formats, RequestLanes lanes,
+                              IdempotencyKeys idempotencyKeys,
+                              @Value("${app.idempotency.max-batch-size:16MB}") DataSize maxKeyedBatchSize) {
+        this.purchaseService = purchaseService;
+        this.formats = formats;
+        this.lanes = lanes;
+        this.idempotencyKeys = idempotencyKeys;
+        this.maxKeyedBatchBytes = (int) Math.min(maxKeyedBatchSize.toBytes(), Integer.MAX_VALUE - 1);
+    }
+
+    // POS terminals resend on timeouts; with an Idempotency-Key the retry gets the first purchase back instead of a second one
+    @PostMapping("/purchases")
+    public CompletableFuture<ResponseEntity<?>> createPurchase(@RequestBody PurchaseRequest request,
+                                                               @RequestHeader(value = IdempotencyKeys.HEADER, required = false) String idempotencyKey) {
+        String fingerprint = idempotencyKey == null ? null : idempotencyKeys.fingerprint("POST /purchases", request);
+        return idempotencyKeys.submit(Lane.WRITES, idempotencyKey, fingerprint,
+                () -> new ResponseEntity<>(purchaseService.createPurchase(request), HttpStatus.CREATED));
+    }
+
+    // end-of-day uploads: a JSON array, NDJSON, or CBOR/Smile of receipts, read one receipt at a time. Without an
+    // Idempotency-Key the upload is streamed on the request's own thread, since a lane task could outlive the async
+    // timeout and keep reading a request that was already answered. With one it is buffered here first, as the
+    // fingerprint covers the whole body, and only the buffered bytes go to the lane; uploads over the buffer limit
+    // answer 413 and have to be split or sent without a key.
+    @PostMapping(value = "/purchases/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE, PayloadFormats.APPLICATION_SMILE_VALUE})
+    public CompletableFuture<ResponseEntity<?>> createPurchases(InputStream body,
+                                                                @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                                @RequestHeader(value = IdempotencyKeys.HEADER, required = false) String idempotencyKey) throws IOException {
+        if (idempotencyKey == null) {
+            return CompletableFuture.completedFuture(createPurchases(body, contentType));
+        }
+        byte[] bytes = body.readNBytes(maxKeyedBatchBytes + 1);
+        if (bytes.length > maxKeyedBatchBytes) {
+            throw new PayloadTooLargeException("A batch sent with " + IdempotencyKeys.HEADER + " may be at most "
+                    + maxKeyedBatchBytes + " bytes.");
+        }
+        String fingerprint = idempotencyKeys.fingerprint("POST /purchases/batch " + contentType, bytes);
+        return idempotencyKeys.submit(Lane.WRITES, idempotencyKey, fingerprint,
+                () -> createPurchases(new ByteArrayInputStream(bytes), contentType));
+    }
+
+    private ResponseEntity<?> createPurchases(InputStream receipts, MediaType contentType) throws IOException {
+        try (MappingIterator<PurchaseRequest> requests = formats.forContentType(contentType).readerFor(PurchaseRequest.class).readValues(receipts)) {
+            return new ResponseEntity<>(purchaseService.createPurchases(requests), HttpStatus.OK);
+        }
+    }
+
+    @GetMapping("/stores/{storeId}/purchases")
+    public CompletableFuture<ResponseEntity<List<PurchaseSummary>>> getStorePurchases(@PathVariable Long storeId,
+                                                                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                                      @RequestParam(required = false) String after,
+                                                                                      @RequestParam(required = false, defaultValue = "" + PurchaseService.DEFAULT_PAGE_SIZE) int limit) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_HISTORY_DAYS - 1);
+        return lanes.submit(Lane.ANALYTICS, () -> {
+            PurchasePage page = purchaseService.getStorePurchases(storeId, Date.valueOf(start), Date.valueOf(end), after, limit);
+            HttpHeaders headers = new HttpHeaders();
+            if (page.getNext() != null) {
+                headers.add(StoreController.NEXT_CURSOR_HEADER, page.getNext());
+            }
+            return new ResponseEntity<>(page.getPurchases(), headers, HttpStatus.OK);
+        });
+    }
+}
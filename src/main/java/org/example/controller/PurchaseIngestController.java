@@ -0,0 +1,42 @@
+package org.example.controller;
+
+import org.example.dto.IngestReceipt;
+import org.example.dto.PurchaseRequest;
+import org.example.ingest.PurchaseIngestBuffer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.CompletableFuture;
+
+// Only served with app.ingest.enabled=true; POST /purchases keeps writing synchronously either way.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+@RestController
+@Profile("!reactive")
+@ConditionalOnProperty(name = "app.ingest.enabled", havingValue = "true")
+public class PurchaseIngestController {
+    private final PurchaseIngestBuffer ingestBuffer;
+
+    @Autowired
+    public PurchaseIngestController(PurchaseIngestBuffer ingestBuffer) {
+        this.ingestBuffer = ingestBuffer;
+    }
+
+    // 202 once the purchase is journaled; no lane, since taking it is a queue offer and the wait is for the fsync
+    @PostMapping("/purchases/ingest")
+    public CompletableFuture<ResponseEntity<IngestReceipt>> ingestPurchase(@RequestBody PurchaseRequest request) {
+        return ingestBuffer.submit(request).thenApply(sequence -> new ResponseEntity<>(new IngestReceipt(sequence), HttpStatus.ACCEPTED));
+    }
+
+    // the highest journal sequence known to be in the database
+    @GetMapping("/purchases/ingest/checkpoint")
+    public ResponseEntity<IngestReceipt> getCheckpoint() {
+        return ResponseEntity.ok(new IngestReceipt(ingestBuffer.getCheckpoint()));
+    }
+}
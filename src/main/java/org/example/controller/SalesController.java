@@ -0,0 +1,72 @@
+package org.example.controller;
+
+import org.example.dto.SalesReport;
+import org.example.lanes.Lane;
+import org.example.lanes.RequestLanes;
+import org.example.service.SalesRollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+@RestController
+@Profile("!reactive")
+public class SalesController {
+    private static final int DEFAULT_REPORT_DAYS = 30;
+
+    private final SalesRollupService salesRollupService;
+    private final RequestLanes lanes;
+    private final Duration rebuildTimeout;
+
+    @Autowired
+    public SalesController(SalesRollupService salesRollupService, RequestLanes lanes,
+                           @Value("${app.sales.rebuild-timeout:10m}") Duration rebuildTimeout) {
+        this.salesRollupService = salesRollupService;
+        this.lanes = lanes;
+        this.rebuildTimeout = rebuildTimeout;
+    }
+
+    @GetMapping("/stores/{storeId}/sales")
+    public CompletableFuture<ResponseEntity<SalesReport>> getSales(@PathVariable Long storeId,
+                                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_REPORT_DAYS - 1);
+        return lanes.submit(Lane.ANALYTICS, () ->
+                new ResponseEntity<>(salesRollupService.getSales(storeId, Date.valueOf(start), Date.valueOf(end)), HttpStatus.OK));
+    }
+
+    // a rebuild can outlast spring.mvc.async.request-timeout, so it gets its own; when that runs out the lane task is
+    // cancelled and the rebuild's transaction times out with it (see SalesRollupService.rebuild)
+    @PostMapping("/stores/sales/rebuild")
+    public DeferredResult<ResponseEntity<Map<String, Integer>>> rebuildSales(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        DeferredResult<ResponseEntity<Map<String, Integer>>> result = new DeferredResult<>(rebuildTimeout.toMillis());
+        lanes.submit(Lane.ANALYTICS, () -> {
+            int buckets = salesRollupService.rebuild(Date.valueOf(from), Date.valueOf(to));
+            return new ResponseEntity<>(Map.of("buckets", buckets), HttpStatus.OK);
+        }).whenComplete((response, error) -> {
+            if (error != null) {
+                result.setErrorResult(error);
+            } else {
+                result.setResult(response);
+            }
+        });
+        return result;
+    }
+}
@@ -1,81 +1,249 @@
 package org.example.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
-import javassist.NotFoundException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.example.cache.StoreCacheStats;
+import org.example.datasource.DataSourceRouting;
+import org.example.dto.BulkItemResult;
+import org.example.dto.StoreDeleteResult;
+import org.example.dto.StoreLookup;
+import org.example.dto.StorePage;
+import org.example.dto.StoreSearchResult;
+import org.example.dto.StoreUpdate;
 import org.example.entity.*;
+import org.example.idempotency.IdempotencyKeys;
+import org.example.json.PayloadFormats;
+import org.example.lanes.Lane;
+import org.example.lanes.RequestLanes;
+import org.example.service.StoreETags;
+import org.example.service.StoreSearchService;
 import org.example.service.StoreService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
 @RestController
+@Profile("!reactive")
 public class StoreController {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final StoreService storeService;
+    private final StoreSearchService storeSearchService;
+    private final PayloadFormats formats;
+    private final RequestLanes lanes;
+    private final IdempotencyKeys idempotencyKeys;
 
     @Autowired
-    public StoreController(StoreService storeService) {
+    public StoreController(StoreService storeService, StoreSearchService storeSearchService, PayloadFormats formats,
+                           RequestLanes lanes, IdempotencyKeys idempotencyKeys) {
         this.storeService = storeService;
+        this.storeSearchService = storeSearchService;
+        this.formats = formats;
+        this.lanes = lanes;
+        this.idempotencyKeys = idempotencyKeys;
     }
 
+   // the ETag names the representation as well, so the format is picked here rather than by the message converters
    @GetMapping("/stores")
-    public ResponseEntity<List<Store>> getAllStores() {
-       List<Store> stores = storeService.getAllStores();
-       return new ResponseEntity<>(stores, HttpStatus.OK);
+    public CompletableFuture<ResponseEntity<List<Store>>> getAllStores(@RequestParam(required = false) Long after,
+                                                                       @RequestParam(required = false, defaultValue = "" + StoreService.DEFAULT_PAGE_SIZE) int limit,
+                                                                       @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                                       @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept)
+            throws HttpMediaTypeNotAcceptableException {
+       MediaType contentType = formats.negotiate(accept);
+       return lanes.submit(Lane.READS, () -> {
+           //pollers that still hold the current page get a 304 from an id/version query instead of the full rows
+           if (ifNoneMatch != null) {
+               String eTag = StoreETags.forRepresentation(storeService.getStoresETag(after, limit), contentType);
+               if (StoreETags.matches(ifNoneMatch, eTag)) {
+                   return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+               }
+           }
+           StorePage page = storeService.getAllStores(after, limit);
+           HttpHeaders headers = new HttpHeaders();
+           if (page.getNext() != null) {
+               headers.add(NEXT_CURSOR_HEADER, page.getNext().toString());
+           }
+           headers.setContentType(contentType);
+           headers.setETag(StoreETags.forRepresentation(
+                   StoreETags.ofPage(page.getStores(), Store::getStoreId, Store::getVersion, page.getNext() != null), contentType));
+           return new ResponseEntity<>(page.getStores(), headers, HttpStatus.OK);
+       });
    }
 
+    // takes precedence over the paged listing whenever ids is given
+    @GetMapping(value = "/stores", params = "ids")
+    public CompletableFuture<ResponseEntity<List<StoreLookup>>> getStoresByIds(@RequestParam List<Long> ids) {
+        return lanes.submit(Lane.READS, () -> new ResponseEntity<>(storeService.getStoresByIds(ids), HttpStatus.OK));
+    }
+
+    // same as GET /stores?ids= for id lists too long for a query string
+    @PostMapping("/stores/lookup")
+    public CompletableFuture<ResponseEntity<List<StoreLookup>>> lookupStores(@RequestBody List<Long> ids) {
+        return lanes.submit(Lane.READS, () -> new ResponseEntity<>(storeService.getStoresByIds(ids), HttpStatus.OK));
+    }
+
+    // JSON array by default; CBOR or Smile (an indefinite-length array) when the Accept header asks for them
+    @GetMapping("/stores/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllStores(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept)
+            throws HttpMediaTypeNotAcceptableException {
+        MediaType contentType = formats.negotiate(accept);
+        ObjectMapper mapper = formats.forContentType(contentType);
+        ObjectWriter writer = mapper.writerFor(Store.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = mapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                storeService.forEachStore(store -> {
+                    try {
+                        writer.writeValue(generator, store);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            } finally {
+                //runs on a shared async thread, which no request filter clears
+                DataSourceRouting.clear();
+            }
+        };
+        return ResponseEntity.ok().contentType(contentType).body(body);
+    }
+
+    @GetMapping("/stores/search")
+    public CompletableFuture<ResponseEntity<List<StoreSearchResult>>> searchStores(@RequestParam(required = false, defaultValue = "") String q,
+                                                                                   @RequestParam(required = false, defaultValue = "" + StoreSearchService.DEFAULT_LIMIT) int limit) {
+        return lanes.submit(Lane.READS, () -> new ResponseEntity<>(storeSearchService.search(q, limit), HttpStatus.OK));
+    }
+
+    @GetMapping("/stores/cache/stats")
+    public ResponseEntity<StoreCacheStats> getStoreCacheStats() {
+        return new ResponseEntity<>(storeService.getCacheStats(), HttpStatus.OK);
+    }
+
+    // same per-representation ETag as GET /stores
     @GetMapping("/{storeId}")
-    public ResponseEntity<Optional<Store>> getStoreById(@PathVariable Long storeId) {
-        Optional<Store> store = storeService.getStoreById(storeId);
-        if (store.isPresent()) {
-            return new ResponseEntity<>(store, HttpStatus.OK);
-        } else {
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-        }
+    public CompletableFuture<ResponseEntity<Optional<Store>>> getStoreById(@PathVariable Long storeId,
+                                                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                                           @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept)
+            throws HttpMediaTypeNotAcceptableException {
+        MediaType contentType = formats.negotiate(accept);
+        return lanes.submit(Lane.READS, () -> {
+            if (ifNoneMatch != null) {
+                Optional<String> eTag = storeService.getStoreETag(storeId).map(plain -> StoreETags.forRepresentation(plain, contentType));
+                if (eTag.isPresent() && StoreETags.matches(ifNoneMatch, eTag.get())) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag.get()).build();
+                }
+            }
+            Optional<Store> store = storeService.getStoreById(storeId);
+            if (store.isPresent()) {
+                return ResponseEntity.ok().contentType(contentType)
+                        .eTag(StoreETags.forRepresentation(StoreETags.of(storeId, store.get().getVersion()), contentType)).body(store);
+            } else {
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+        });
     }
 
+    // a retry with the same Idempotency-Key gets the first 201 back instead of the duplicate 409
     @PostMapping("/createStore")
-    public ResponseEntity<?> createStore(@RequestBody Store store) {
-       storeService.createStore(store);
-       return new ResponseEntity<>(HttpStatus.CREATED);
+    public CompletableFuture<ResponseEntity<?>> createStore(@RequestBody Store store,
+                                                            @RequestHeader(value = IdempotencyKeys.HEADER, required = false) String idempotencyKey) {
+       String fingerprint = idempotencyKey == null ? null : idempotencyKeys.fingerprint("POST /createStore", store);
+       return idempotencyKeys.submit(Lane.WRITES, idempotencyKey, fingerprint, () -> {
+           storeService.createStore(store);
+           return new ResponseEntity<>(HttpStatus.CREATED);
+       });
+    }
+
+    // accepts a JSON array, newline-delimited JSON, or a CBOR/Smile array or sequence of values; items are read one by
+    // one, never as a whole list. Runs on the request's own thread, not a lane: the body is streamed while the items are
+    // written, and a lane task could outlive the async timeout and keep reading a request that was already answered
+    @PostMapping(value = "/stores/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE, PayloadFormats.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<List<BulkItemResult>> createStores(InputStream body,
+                                                             @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType)
+            throws IOException {
+        try (MappingIterator<Store> stores = formats.forContentType(contentType).readerFor(Store.class).readValues(body)) {
+            return new ResponseEntity<>(storeService.createStores(stores), HttpStatus.OK);
+        }
     }
 
 
-    @PutMapping("/updateStore/{storeId}")
-    public ResponseEntity<Store> updateStoreWithParams(@PathVariable Long storeId,
-                                             @RequestBody Store store,
-                                             @RequestParam(required = false, defaultValue = "true") boolean updateName,
-                                             @RequestParam(required = false, defaultValue = "true") boolean updateLocation) throws NotFoundException {
+    // version from If-Match or the body; 204 with the new ETag, 409 when the store changed since that version
+    @PatchMapping("/stores/{storeId}")
+    public CompletableFuture<ResponseEntity<Void>> patchStore(@PathVariable Long storeId,
+                                                              @RequestBody StoreUpdate update,
+                                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch != null) {
+            update.setVersion(StoreETags.versionOf(storeId, ifMatch));
+        }
+        return lanes.submit(Lane.WRITES, () -> {
+            long version = storeService.patchStore(storeId, update);
+            return ResponseEntity.noContent().eTag(StoreETags.of(storeId, version)).build();
+        });
+    }
 
+    // same item formats, and the same thread, as POST /stores/bulk; every item carries its storeId and the version it
+    // expects, like PATCH /stores/{storeId}, and items without them are INVALID
+    @PatchMapping(value = "/stores/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE, PayloadFormats.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<List<BulkItemResult>> patchStores(InputStream body,
+                                                            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType)
+            throws IOException {
+        try (MappingIterator<StoreUpdate> updates = formats.forContentType(contentType).readerFor(StoreUpdate.class).readValues(body)) {
+            return new ResponseEntity<>(storeService.patchStores(updates), HttpStatus.OK);
+        }
+    }
 
+    @PutMapping("/updateStore/{storeId}")
+    public CompletableFuture<ResponseEntity<Store>> updateStoreWithParams(@PathVariable Long storeId,
+                                                                          @RequestBody Store store,
+                                                                          @RequestParam(required = false, defaultValue = "true") boolean updateName,
+                                                                          @RequestParam(required = false, defaultValue = "true") boolean updateLocation) {
+        return lanes.submit(Lane.WRITES, () -> {
             Store updatedStore = storeService.updateStore(storeId, store, updateName, updateLocation);
             return new ResponseEntity<>(updatedStore, HttpStatus.OK);
-
-
+        });
     }
     @PutMapping("/updateStoreName/{storeId}")
-    public ResponseEntity<Store> updateStoreName(@PathVariable Long storeId,
-                                                 @RequestBody Store store) throws NotFoundException {
+    public CompletableFuture<ResponseEntity<Store>> updateStoreName(@PathVariable Long storeId,
+                                                                    @RequestBody Store store) {
         return updateStoreWithParams(storeId, store, true, false);
     }
 
     @PutMapping("/updateStoreLocation/{storeId}")
-    public ResponseEntity<Store> updateStoreLocation(@PathVariable Long storeId,
-                                                     @RequestBody Store store) throws NotFoundException {
+    public CompletableFuture<ResponseEntity<Store>> updateStoreLocation(@PathVariable Long storeId,
+                                                                        @RequestBody Store store) {
         return updateStoreWithParams(storeId, store, false, true);
     }
 
     @DeleteMapping("/{storeId}")
-    public ResponseEntity<Void> deleteStore(@PathVariable Long storeId) {
-        Optional<Store> store = storeService.getStoreById(storeId);
-        if (store.isPresent()) {
+    public CompletableFuture<ResponseEntity<Void>> deleteStore(@PathVariable Long storeId) {
+        return lanes.submit(Lane.WRITES, () -> {
             storeService.deleteStore(storeId);
             return new ResponseEntity<>(HttpStatus.OK);
-        } else {
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-        }
+        });
+    }
+
+    @DeleteMapping("/stores")
+    public CompletableFuture<ResponseEntity<StoreDeleteResult>> deleteStores(@RequestParam List<Long> ids) {
+        return lanes.submit(Lane.WRITES, () -> new ResponseEntity<>(storeService.deleteStores(ids), HttpStatus.OK));
     }
-}
\ No newline at end of file
+}
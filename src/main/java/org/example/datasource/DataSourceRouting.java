@@ -0,0 +1,38 @@
+package org.example.datasource;
+
+import java.util.function.Supplier;
+
+// Per-thread routing hints for ReadWriteRoutingDataSource. Once the thread has run a read-write transaction its later
+// read-only transactions stay on the primary (read-your-writes) until the flag is cleared at the end of the unit of
+// work: DataSourceRoutingFilter does it per request, RequestLanes per task, and the long-lived threads (the change
+// relay, the ingest writer, streamed responses) in a finally around each round, or they would stay pinned for good.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public final class DataSourceRouting {
+    private static final ThreadLocal<Boolean> WROTE = ThreadLocal.withInitial(() -> false);
+    private static final ThreadLocal<Integer> PRIMARY_SCOPES = ThreadLocal.withInitial(() -> 0);
+
+    private DataSourceRouting() {
+    }
+
+    // for reads that must not see replication lag, e.g. a read-modify-write or a value that is cached afterwards
+    public static <T> T onPrimary(Supplier<T> read) {
+        PRIMARY_SCOPES.set(PRIMARY_SCOPES.get() + 1);
+        try {
+            return read.get();
+        } finally {
+            PRIMARY_SCOPES.set(PRIMARY_SCOPES.get() - 1);
+        }
+    }
+
+    public static boolean isPrimaryRequired() {
+        return WROTE.get() || PRIMARY_SCOPES.get() > 0;
+    }
+
+    static void markWritten() {
+        WROTE.set(true);
+    }
+
+    public static void clear() {
+        WROTE.remove();
+    }
+}
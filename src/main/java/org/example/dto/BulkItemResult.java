@@ -0,0 +1,57 @@
+package org.example.dto;
+
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public class BulkItemResult {
+    public enum Status {
+        CREATED,
+        UPDATED,
+        DUPLICATE,
+        INVALID,
+        NOT_FOUND,
+        CONFLICT
+    }
+
+    private final int index;
+    private final Status status;
+    private Long id;
+    private final String message;
+
+    public BulkItemResult(int index, Status status, Long id, String message) {
+        this.index = index;
+        this.status = status;
+        this.id = id;
+        this.message = message;
+    }
+
+    public static BulkItemResult created(int index) {
+        return new BulkItemResult(index, Status.CREATED, null, null);
+    }
+
+    public static BulkItemResult updated(int index, Long id) {
+        return new BulkItemResult(index, Status.UPDATED, id, null);
+    }
+
+    public static BulkItemResult rejected(int index, Status status, String message) {
+        return new BulkItemResult(index, status, null, message);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
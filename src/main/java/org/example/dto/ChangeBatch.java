@@ -0,0 +1,26 @@
+package org.example.dto;
+
+import org.example.entity.ChangeEvent;
+
+import java.util.List;
+
+// One read of the change feed; next is the offset to ask for changes after, also when nothing new came in.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public class ChangeBatch {
+    private final List<ChangeEvent> events;
+
+    private final long next;
+
+    public ChangeBatch(List<ChangeEvent> events, long next) {
+        this.events = events;
+        this.next = next;
+    }
+
+    public List<ChangeEvent> getEvents() {
+        return events;
+    }
+
+    public long getNext() {
+        return next;
+    }
+}
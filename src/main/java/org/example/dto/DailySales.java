@@ -0,0 +1,34 @@
+package org.example.dto;
+
+import java.sql.Date;
+
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public class DailySales {
+    private final Date date;
+    private final double revenue;
+    private final long units;
+    private final double weight;
+
+    public DailySales(Date date, double revenue, long units, double weight) {
+        this.date = date;
+        this.revenue = revenue;
+        this.units = units;
+        this.weight = weight;
+    }
+
+    public Date getDate() {
+        return date;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    public double getWeight() {
+        return weight;
+    }
+}
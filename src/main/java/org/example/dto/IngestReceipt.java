@@ -0,0 +1,16 @@
+package org.example.dto;
+
+// The answer to a purchase taken by write-behind ingestion: it is durable under this journal sequence, and will be in
+// the database once GET /purchases/ingest/checkpoint reaches it.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public class IngestReceipt {
+    private final long sequence;
+
+    public IngestReceipt(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+}
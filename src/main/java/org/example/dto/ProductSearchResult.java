@@ -0,0 +1,32 @@
+package org.example.dto;
+
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public class ProductSearchResult {
+    private final Long productId;
+    private final String productName;
+    private final String category;
+    private final double score;
+
+    public ProductSearchResult(Long productId, String productName, String category, double score) {
+        this.productId = productId;
+        this.productName = productName;
+        this.category = category;
+        this.score = score;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public double getScore() {
+        return score;
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.dto;
+
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public class PurchaseItemRequest {
+    private Long productId;
+    private int quantity;
+    private double price;
+    private double weight;
+
+    public PurchaseItemRequest() {
+    }
+
+    public PurchaseItemRequest(Long productId, int quantity, double price, double weight) {
+        this.productId = productId;
+        this.quantity = quantity;
+        this.price = price;
+        this.weight = weight;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public void setPrice(double price) {
+        this.price = price;
+    }
+
+    public double getWeight() {
+        return weight;
+    }
+
+    public void setWeight(double weight) {
+        this.weight = weight;
+    }
+}
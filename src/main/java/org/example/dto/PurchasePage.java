@@ -0,0 +1,23 @@
+package org.example.dto;
+
+import java.util.List;
+
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public class PurchasePage {
+    private final List<PurchaseSummary> purchases;
+
+    private final String next;
+
+    public PurchasePage(List<PurchaseSummary> purchases, String next) {
+        this.purchases = purchases;
+        this.next = next;
+    }
+
+    public List<PurchaseSummary> getPurchases() {
+        return purchases;
+    }
+
+    public String getNext() {
+        return next;
+    }
+}
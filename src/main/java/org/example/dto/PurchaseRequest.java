@@ -0,0 +1,45 @@
+package org.example.dto;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public class PurchaseRequest {
+    private Long storeId;
+    private Date purchaseDate;
+    private List<PurchaseItemRequest> items = new ArrayList<>();
+
+    public PurchaseRequest() {
+    }
+
+    public PurchaseRequest(Long storeId, Date purchaseDate, List<PurchaseItemRequest> items) {
+        this.storeId = storeId;
+        this.purchaseDate = purchaseDate;
+        this.items = items;
+    }
+
+    public Long getStoreId() {
+        return storeId;
+    }
+
+    public void setStoreId(Long storeId) {
+        this.storeId = storeId;
+    }
+
+    public Date getPurchaseDate() {
+        return purchaseDate;
+    }
+
+    public void setPurchaseDate(Date purchaseDate) {
+        this.purchaseDate = purchaseDate;
+    }
+
+    public List<PurchaseItemRequest> getItems() {
+        return items;
+    }
+
+    public void setItems(List<PurchaseItemRequest> items) {
+        this.items = items;
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.dto;
+
+import java.sql.Date;
+
+// Read-side projection of a purchase; totals are aggregated in SQL so no entity is loaded per row.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public class PurchaseSummary {
+    private final Long purchaseId;
+    private final Date purchaseDate;
+    private final double total;
+    private final long units;
+    private final long itemCount;
+
+    public PurchaseSummary(Long purchaseId, Date purchaseDate, Number total, Number units, Number itemCount) {
+        this.purchaseId = purchaseId;
+        this.purchaseDate = purchaseDate;
+        this.total = total == null ? 0 : total.doubleValue();
+        this.units = units == null ? 0 : units.longValue();
+        this.itemCount = itemCount == null ? 0 : itemCount.longValue();
+    }
+
+    public Long getPurchaseId() {
+        return purchaseId;
+    }
+
+    public Date getPurchaseDate() {
+        return purchaseDate;
+    }
+
+    public double getTotal() {
+        return total;
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    public long getItemCount() {
+        return itemCount;
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.dto;
+
+import java.sql.Date;
+import java.util.List;
+
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public class SalesReport {
+    private final Long storeId;
+    private final Date from;
+    private final Date to;
+    private final double revenue;
+    private final long units;
+    private final double weight;
+    private final List<DailySales> days;
+
+    public SalesReport(Long storeId, Date from, Date to, double revenue, long units, double weight, List<DailySales> days) {
+        this.storeId = storeId;
+        this.from = from;
+        this.to = to;
+        this.revenue = revenue;
+        this.units = units;
+        this.weight = weight;
+        this.days = days;
+    }
+
+    public Long getStoreId() {
+        return storeId;
+    }
+
+    public Date getFrom() {
+        return from;
+    }
+
+    public Date getTo() {
+        return to;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    public double getWeight() {
+        return weight;
+    }
+
+    public List<DailySales> getDays() {
+        return days;
+    }
+}
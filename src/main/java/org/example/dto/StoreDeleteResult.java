@@ -0,0 +1,24 @@
+package org.example.dto;
+
+import java.util.List;
+
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public class StoreDeleteResult {
+    private final int deleted;
+
+    // stores that were kept because purchases still reference them
+    private final List<Long> withPurchases;
+
+    public StoreDeleteResult(int deleted, List<Long> withPurchases) {
+        this.deleted = deleted;
+        this.withPurchases = withPurchases;
+    }
+
+    public int getDeleted() {
+        return deleted;
+    }
+
+    public List<Long> getWithPurchases() {
+        return withPurchases;
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.example.entity.Store;
+
+// One entry per requested id, in request order; found=false is the explicit marker for ids that do not exist.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public class StoreLookup {
+    private final Long storeId;
+
+    private final boolean found;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final Store store;
+
+    public StoreLookup(Long storeId, Store store) {
+        this.storeId = storeId;
+        this.found = store != null;
+        this.store = store;
+    }
+
+    public Long getStoreId() {
+        return storeId;
+    }
+
+    public boolean isFound() {
+        return found;
+    }
+
+    public Store getStore() {
+        return store;
+    }
+}
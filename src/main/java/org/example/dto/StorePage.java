@@ -0,0 +1,25 @@
+package org.example.dto;
+
+import org.example.entity.Store;
+
+import java.util.List;
+
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public class StorePage {
+    private final List<Store> stores;
+
+    private final Long next;
+
+    public StorePage(List<Store> stores, Long next) {
+        this.stores = stores;
+        this.next = next;
+    }
+
+    public List<Store> getStores() {
+        return stores;
+    }
+
+    public Long getNext() {
+        return next;
+    }
+}
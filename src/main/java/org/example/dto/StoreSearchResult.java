@@ -0,0 +1,38 @@
+package org.example.dto;
+
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public class StoreSearchResult {
+    private final Long storeId;
+    private final String storeName;
+    private final String location;
+    private final double score;
+    private final boolean fuzzy;
+
+    public StoreSearchResult(Long storeId, String storeName, String location, double score, boolean fuzzy) {
+        this.storeId = storeId;
+        this.storeName = storeName;
+        this.location = location;
+        this.score = score;
+        this.fuzzy = fuzzy;
+    }
+
+    public Long getStoreId() {
+        return storeId;
+    }
+
+    public String getStoreName() {
+        return storeName;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public boolean isFuzzy() {
+        return fuzzy;
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.dto;
+
+// Partial store update: null fields are left as they are. A null version applies the update unconditionally.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public class StoreUpdate {
+    private Long storeId;
+
+    private String storeName;
+
+    private String location;
+
+    private Long version;
+
+    public StoreUpdate() {
+    }
+
+    public StoreUpdate(Long storeId, String storeName, String location, Long version) {
+        this.storeId = storeId;
+        this.storeName = storeName;
+        this.location = location;
+        this.version = version;
+    }
+
+    public Long getStoreId() {
+        return storeId;
+    }
+
+    public void setStoreId(Long storeId) {
+        this.storeId = storeId;
+    }
+
+    public String getStoreName() {
+        return storeName;
+    }
+
+    public void setStoreName(String storeName) {
+        this.storeName = storeName;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
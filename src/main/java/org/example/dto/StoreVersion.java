@@ -0,0 +1,21 @@
+package org.example.dto;
+
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public class StoreVersion {
+    private final Long storeId;
+
+    private final Long version;
+
+    public StoreVersion(Long storeId, Long version) {
+        this.storeId = storeId;
+        this.version = version;
+    }
+
+    public Long getStoreId() {
+        return storeId;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+}
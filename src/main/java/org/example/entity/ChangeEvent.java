@@ -0,0 +1,80 @@
+package org.example.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import jakarta.persistence.*;
+
+import java.sql.Timestamp;
+
+// One store or purchase mutation, written by ChangeLog in the transaction that made it (the outbox). feedOffset stays
+// null until ChangeFeed's relay publishes the event; offsets are then handed out in publication order, so they only
+// ever grow and have no gaps, unlike changeId, which concurrent transactions can commit out of order.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "ux_change_event_feed_offset", columnNames = "feedOffset"))
+public class ChangeEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long changeId;
+
+    private Long feedOffset;
+
+    @Column(nullable = false, length = 32)
+    private String entityType;
+
+    @Column(nullable = false)
+    private Long entityId;
+
+    @Column(nullable = false, length = 16)
+    private String changeType;
+
+    // the entity's fields after the change as a JSON document, null for deletes
+    @Column(length = 65_535)
+    private String payload;
+
+    @Column(nullable = false)
+    private Timestamp occurredAt;
+
+    public ChangeEvent() {
+    }
+
+    public ChangeEvent(String entityType, Long entityId, String changeType, String payload, Timestamp occurredAt) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.changeType = changeType;
+        this.payload = payload;
+        this.occurredAt = occurredAt;
+    }
+
+    @JsonIgnore
+    public Long getChangeId() {
+        return changeId;
+    }
+
+    @JsonProperty("offset")
+    public Long getFeedOffset() {
+        return feedOffset;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public String getChangeType() {
+        return changeType;
+    }
+
+    @JsonRawValue
+    public String getPayload() {
+        return payload;
+    }
+
+    public Timestamp getOccurredAt() {
+        return occurredAt;
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.entity;
+
+import jakarta.persistence.*;
+
+import java.sql.Timestamp;
+
+// The stored outcome of a request sent with an Idempotency-Key, so a retry after a restart still gets the original
+// response. fingerprint is a SHA-256 over the operation and the request body, to tell a retry from a reused key.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+@Entity
+@Table(indexes = @Index(name = "ix_idempotency_record_expires_at", columnList = "expiresAt"))
+public class IdempotencyRecord {
+    @Id
+    @Column(length = 255)
+    private String idempotencyKey;
+
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    private int status;
+
+    private String contentType;
+
+    @Column(length = 16_777_215)
+    private byte[] body;
+
+    @Column(nullable = false)
+    private Timestamp expiresAt;
+
+    public IdempotencyRecord() {
+    }
+
+    public IdempotencyRecord(String idempotencyKey, String fingerprint, int status, String contentType, byte[] body,
+                             Timestamp expiresAt) {
+        this.idempotencyKey = idempotencyKey;
+        this.fingerprint = fingerprint;
+        this.status = status;
+        this.contentType = contentType;
+        this.body = body;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public Timestamp getExpiresAt() {
+        return expiresAt;
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.entity;
+
+import jakarta.persistence.*;
+
+// How far the write-behind purchase ingestion of one journal has got: every journal entry up to lastSequence is in the
+// database. Saved in the same transaction as the purchases, so replaying the journal never inserts them twice.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+@Entity
+public class IngestCheckpoint {
+    @Id
+    @Column(length = 64)
+    private String journal;
+
+    private long lastSequence;
+
+    public IngestCheckpoint() {
+    }
+
+    public IngestCheckpoint(String journal, long lastSequence) {
+        this.journal = journal;
+        this.lastSequence = lastSequence;
+    }
+
+    public String getJournal() {
+        return journal;
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+}
@@ -1,10 +1,12 @@
 package org.example.entity;
 
 import jakarta.persistence.*;
+import org.example.search.ProductIndexListener;
 
 
 @SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
 @Entity
+@EntityListeners(ProductIndexListener.class)
 public class Product {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -5,6 +5,7 @@ import java.sql.Date;
 
 @SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
 @Entity
+@Table(indexes = @Index(name = "ix_purchase_store_date", columnList = "storeId, purchaseDate, purchaseId"))
 public class Purchase {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
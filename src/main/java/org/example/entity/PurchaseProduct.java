@@ -1,13 +1,20 @@
 package org.example.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
 
 @SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
 @Entity
-public class PurchaseProduct {
+@Table(indexes = @Index(name = "ix_purchase_product_purchase", columnList = "purchaseId"))
+public class PurchaseProduct implements Persistable<PurchaseProductPk> {
     @EmbeddedId
     private PurchaseProductPk ppId;
 
+    //the id is assigned, so without this flag save() would merge and SELECT every line item before inserting it
+    @Transient
+    private boolean persisted;
+
     private int quantity;
 
     private double price;
@@ -45,4 +52,22 @@ public class PurchaseProduct {
     public void setWeight(double weight) {
         this.weight = weight;
     }
+
+    @JsonIgnore
+    @Override
+    public PurchaseProductPk getId() {
+        return ppId;
+    }
+
+    @JsonIgnore
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
 }
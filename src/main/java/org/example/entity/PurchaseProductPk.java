@@ -10,6 +10,14 @@ public class PurchaseProductPk implements Serializable {
     private Long productId;
     private Long purchaseId;
 
+    public PurchaseProductPk() {
+    }
+
+    public PurchaseProductPk(Long productId, Long purchaseId) {
+        this.productId = productId;
+        this.purchaseId = purchaseId;
+    }
+
     public Long getProductId() {
         return productId;
     }
@@ -37,4 +45,9 @@ public class PurchaseProductPk implements Serializable {
         PurchaseProductPk purchaseProductPk = (PurchaseProductPk) o;
         return Objects.equals(productId, purchaseProductPk.productId) && Objects.equals(purchaseId, purchaseProductPk.purchaseId);
     }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(productId, purchaseId);
+    }
 }
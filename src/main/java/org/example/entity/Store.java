@@ -1,5 +1,6 @@
 package org.example.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -7,6 +8,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.sql.Timestamp;
+import java.util.Locale;
 
 @SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
 @Data
@@ -14,8 +16,11 @@ import java.sql.Timestamp;
 @NoArgsConstructor
 @Entity
 @Builder
-@Table(name = "Store")
+@Table(name = "Store", uniqueConstraints = @UniqueConstraint(name = Store.NAME_LOCATION_CONSTRAINT, columnNames = "nameLocationKey"))
 public class Store {
+    public static final String NAME_LOCATION_CONSTRAINT = "ux_store_name_location_key";
+    public static final char NAME_LOCATION_SEPARATOR = '\u001F';
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long storeId;
@@ -26,6 +31,16 @@ public class Store {
 
     private Timestamp createdAt;
 
+    //bumped by Hibernate on every update; also what the store ETags are built from
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    //normalized name+location, kept in sync on every write; the unique index on it is what rejects duplicates
+    @JsonIgnore
+    @Column(nullable = false, length = 511)
+    private String nameLocationKey;
+
     public Long getStoreId() {
         return storeId;
     }
@@ -58,12 +73,43 @@ public class Store {
         this.createdAt = createdAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public String getNameLocationKey() {
+        return nameLocationKey;
+    }
+
+    public void setNameLocationKey(String nameLocationKey) {
+        this.nameLocationKey = nameLocationKey;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void updateNameLocationKey() {
+        nameLocationKey = nameLocationKey(storeName, location);
+    }
+
+    public static String nameLocationKey(String storeName, String location) {
+        return normalize(storeName) + NAME_LOCATION_SEPARATOR + normalize(location);
+    }
+
+    public static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
     @Override
     public String toString() {
         return "Store{" +
                 "storeId=" + storeId +
                 ", storeName='" + storeName + '\'' +
                 ", location='" + location + '\'' +
+                ", version=" + version +
                 '}';
     }
 }
\ No newline at end of file
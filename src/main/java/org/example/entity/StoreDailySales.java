@@ -0,0 +1,60 @@
+package org.example.entity;
+
+import jakarta.persistence.*;
+
+// Pre-aggregated sales of one store on one day, maintained by SalesRollupService as purchases are written.
+// PurchaseProduct.price and weight are per unit, so revenue and weight are summed as value * quantity.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+@Entity
+public class StoreDailySales {
+    @EmbeddedId
+    private StoreDailySalesPk salesId;
+
+    private double revenue;
+
+    private long units;
+
+    private double weight;
+
+    public StoreDailySales() {
+    }
+
+    public StoreDailySales(StoreDailySalesPk salesId, double revenue, long units, double weight) {
+        this.salesId = salesId;
+        this.revenue = revenue;
+        this.units = units;
+        this.weight = weight;
+    }
+
+    public StoreDailySalesPk getSalesId() {
+        return salesId;
+    }
+
+    public void setSalesId(StoreDailySalesPk salesId) {
+        this.salesId = salesId;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(double revenue) {
+        this.revenue = revenue;
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    public void setUnits(long units) {
+        this.units = units;
+    }
+
+    public double getWeight() {
+        return weight;
+    }
+
+    public void setWeight(double weight) {
+        this.weight = weight;
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.entity;
+
+import jakarta.persistence.Embeddable;
+import java.io.Serializable;
+import java.sql.Date;
+import java.util.Objects;
+
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+@Embeddable
+public class StoreDailySalesPk implements Serializable {
+    private Long storeId;
+    private Date salesDate;
+
+    public StoreDailySalesPk() {
+    }
+
+    public StoreDailySalesPk(Long storeId, Date salesDate) {
+        this.storeId = storeId;
+        this.salesDate = salesDate;
+    }
+
+    public Long getStoreId() {
+        return storeId;
+    }
+
+    public void setStoreId(Long storeId) {
+        this.storeId = storeId;
+    }
+
+    public Date getSalesDate() {
+        return salesDate;
+    }
+
+    public void setSalesDate(Date salesDate) {
+        this.salesDate = salesDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        StoreDailySalesPk storeDailySalesPk = (StoreDailySalesPk) o;
+        return Objects.equals(storeId, storeDailySalesPk.storeId) && Objects.equals(salesDate, storeDailySalesPk.salesDate);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(storeId, salesDate);
+    }
+}
@@ -0,0 +1,8 @@
+package org.example.exception;
+
+// a request body that has to be held in memory, and is larger than the endpoint allows
+public class PayloadTooLargeException extends RuntimeException {
+    public PayloadTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,242 @@
+package org.example.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.example.entity.IdempotencyRecord;
+import org.example.lanes.Lane;
+import org.example.lanes.RequestLanes;
+import org.example.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Idempotency-Key support for writes that clients retry on timeouts. The first request with a key claims it in memory
+// and runs; a retry, or a duplicate that arrives while the first is still running, waits on the same future and gets
+// the first response back without running the write again. Successful responses are also written to
+// idempotency_record, in the write's own transaction (the services' transactions join it), so the write and its record
+// commit together or not at all, and retries after a restart or an eviction are answered from there. Failures are not
+// kept: the requests waiting on them fail the same way, and the next retry runs again.
+//
+// The claim is per instance; two instances receiving the same key at the same moment can both run the write, and then
+// the second one to commit normally fails on the record's key and rolls back.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+@Component
+@Profile("!reactive")
+public class IdempotencyKeys {
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IdempotencyKeys.class);
+
+    private final Cache<String, CompletableFuture<StoredResponse>> responses;
+    private final IdempotencyRecordRepository repository;
+    private final RequestLanes lanes;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final long purgeIntervalMillis;
+    private final AtomicLong lastPurge = new AtomicLong();
+
+    @Autowired
+    public IdempotencyKeys(IdempotencyRecordRepository repository, RequestLanes lanes, ObjectMapper objectMapper,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${app.idempotency.maximum-size:100000}") long maximumSize,
+                           @Value("${app.idempotency.ttl:24h}") Duration ttl,
+                           @Value("${app.idempotency.purge-interval:1h}") Duration purgeInterval) {
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .executor(Runnable::run)
+                .build();
+        this.repository = repository;
+        this.lanes = lanes;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.ttl = ttl;
+        this.purgeIntervalMillis = purgeInterval.toMillis();
+    }
+
+    // the operation (method and path) is part of it, so a key reused on another endpoint is caught as well
+    public String fingerprint(String operation, Object body) {
+        try {
+            return fingerprint(operation, objectMapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public String fingerprint(String operation, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // without a key this is plain lanes.submit; replays carry the Idempotent-Replayed header and a JSON body
+    public CompletableFuture<ResponseEntity<?>> submit(Lane lane, String key, String fingerprint, Callable<ResponseEntity<?>> work) {
+        if (key == null) {
+            return lanes.submit(lane, work);
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters.");
+        }
+        CompletableFuture<StoredResponse> claim = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> existing = responses.asMap().putIfAbsent(key, claim);
+        if (existing != null) {
+            return existing.thenApply(stored -> replay(stored, fingerprint));
+        }
+        try {
+            return lanes.submit(lane, () -> run(key, fingerprint, work, claim));
+        } catch (RuntimeException e) {
+            release(key, claim, e);
+            throw e;
+        }
+    }
+
+    // runs the write, unless the key was used before a restart; completes the claim either way
+    private ResponseEntity<?> run(String key, String fingerprint, Callable<ResponseEntity<?>> work,
+                                  CompletableFuture<StoredResponse> claim) throws Exception {
+        Attempt attempt;
+        try {
+            attempt = transactionTemplate.execute(status -> attempt(key, fingerprint, work));
+        } catch (WriteFailed e) {
+            release(key, claim, e.getCause());
+            throw (Exception) e.getCause();
+        } catch (RuntimeException e) {
+            //the commit failed, so the write did not happen either
+            release(key, claim, e);
+            throw e;
+        }
+        if (attempt.response == null) {
+            claim.complete(attempt.stored);
+            //a reused key is this request's error, the recorded response stays valid
+            return replay(attempt.stored, fingerprint);
+        }
+        if (attempt.response.getStatusCode().is2xxSuccessful()) {
+            purgeExpired();
+        } else {
+            //waiters get the same answer, later retries run again
+            responses.asMap().remove(key, claim);
+        }
+        claim.complete(attempt.stored);
+        return attempt.response;
+    }
+
+    // inside the transaction; any failure is rethrown as WriteFailed so the write is rolled back with it
+    private Attempt attempt(String key, String fingerprint, Callable<ResponseEntity<?>> work) {
+        try {
+            Optional<IdempotencyRecord> record = repository.findById(key)
+                    .filter(found -> found.getExpiresAt().getTime() > System.currentTimeMillis());
+            if (record.isPresent()) {
+                return new Attempt(null, StoredResponse.of(record.get()));
+            }
+            ResponseEntity<?> response = work.call();
+            StoredResponse stored = store(fingerprint, response);
+            if (response.getStatusCode().is2xxSuccessful()) {
+                repository.save(new IdempotencyRecord(key, stored.fingerprint, stored.status, stored.contentType, stored.body,
+                        new Timestamp(System.currentTimeMillis() + ttl.toMillis())));
+            }
+            return new Attempt(response, stored);
+        } catch (Exception e) {
+            throw new WriteFailed(e);
+        }
+    }
+
+    private ResponseEntity<?> replay(StoredResponse stored, String fingerprint) {
+        if (!stored.fingerprint.equals(fingerprint)) {
+            throw new IllegalArgumentException(HEADER + " was already used for a different request.");
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(stored.status).header(REPLAYED_HEADER, "true");
+        if (stored.body == null) {
+            return response.build();
+        }
+        return response.contentType(MediaType.parseMediaType(stored.contentType)).body(stored.body);
+    }
+
+    private StoredResponse store(String fingerprint, ResponseEntity<?> response) throws JsonProcessingException {
+        Object body = response.getBody();
+        return new StoredResponse(fingerprint, response.getStatusCode().value(),
+                body == null ? null : MediaType.APPLICATION_JSON_VALUE,
+                body == null ? null : objectMapper.writeValueAsBytes(body));
+    }
+
+    // after the commit; expired records are only clutter, so a failed purge is logged and retried next interval
+    private void purgeExpired() {
+        long now = System.currentTimeMillis();
+        long last = lastPurge.get();
+        if (now - last < purgeIntervalMillis || !lastPurge.compareAndSet(last, now)) {
+            return;
+        }
+        try {
+            repository.deleteExpired(new Timestamp(now));
+        } catch (DataAccessException e) {
+            LOGGER.warn("Could not purge expired {} records", HEADER, e);
+        }
+    }
+
+    private void release(String key, CompletableFuture<StoredResponse> claim, Throwable failure) {
+        responses.asMap().remove(key, claim);
+        claim.completeExceptionally(failure);
+    }
+
+    private static final class Attempt {
+        private final ResponseEntity<?> response; //null when the key was recorded before
+        private final StoredResponse stored;
+
+        private Attempt(ResponseEntity<?> response, StoredResponse stored) {
+            this.response = response;
+            this.stored = stored;
+        }
+    }
+
+    private static final class WriteFailed extends RuntimeException {
+        private WriteFailed(Exception cause) {
+            super(cause);
+        }
+    }
+
+    private static final class StoredResponse {
+        private final String fingerprint;
+        private final int status;
+        private final String contentType;
+        private final byte[] body;
+
+        private StoredResponse(String fingerprint, int status, String contentType, byte[] body) {
+            this.fingerprint = fingerprint;
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        private static StoredResponse of(IdempotencyRecord record) {
+            return new StoredResponse(record.getFingerprint(), record.getStatus(), record.getContentType(), record.getBody());
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package org.example.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.example.repository.IngestCheckpointRepository;
+import org.example.service.PurchaseService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "app.ingest.enabled", havingValue = "true")
+@EnableConfigurationProperties(IngestProperties.class)
+public class IngestConfig {
+    @Bean(destroyMethod = "shutdown")
+    public PurchaseIngestBuffer purchaseIngestBuffer(IngestProperties properties, PurchaseService purchaseService,
+                                                     IngestCheckpointRepository checkpoints, TransactionTemplate transactionTemplate,
+                                                     ObjectMapper objectMapper, ObjectProvider<MeterRegistry> meterRegistry) throws IOException {
+        PurchaseJournal journal = new PurchaseJournal(Path.of(properties.getDirectory()), properties.getSegmentSize().toBytes(), objectMapper);
+        PurchaseIngestBuffer buffer = new PurchaseIngestBuffer(properties, journal, purchaseService, checkpoints, transactionTemplate,
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+        buffer.start();
+        return buffer;
+    }
+}
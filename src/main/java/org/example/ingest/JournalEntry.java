@@ -0,0 +1,34 @@
+package org.example.ingest;
+
+import org.example.dto.PurchaseRequest;
+
+// One accepted purchase as written to the journal, one JSON document per line.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public class JournalEntry {
+    private long sequence;
+    private PurchaseRequest purchase;
+
+    public JournalEntry() {
+    }
+
+    public JournalEntry(long sequence, PurchaseRequest purchase) {
+        this.sequence = sequence;
+        this.purchase = purchase;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public PurchaseRequest getPurchase() {
+        return purchase;
+    }
+
+    public void setPurchase(PurchaseRequest purchase) {
+        this.purchase = purchase;
+    }
+}
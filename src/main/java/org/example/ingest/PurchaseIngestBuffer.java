@@ -0,0 +1,298 @@
+package org.example.ingest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.datasource.DataSourceRouting;
+import org.example.dto.BulkItemResult;
+import org.example.dto.PurchaseRequest;
+import org.example.entity.IngestCheckpoint;
+import org.example.repository.IngestCheckpointRepository;
+import org.example.service.PurchaseService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+// Write-behind ingestion for checkout bursts. A purchase that passes the checks needing no database goes into a
+// bounded buffer and is acknowledged as soon as the journal thread has it on disk, fsynced together with whatever
+// else arrived meanwhile. A single writer thread then drains the journaled purchases and inserts up to batch-size of
+// them in one transaction through PurchaseService.createPurchases, waiting up to linger for a batch to fill. The same
+// transaction moves the journal's checkpoint row, so after a crash the entries past it are replayed exactly once.
+//
+// Both queues are bounded: when the database falls behind the writer, the journal thread blocks, the buffer fills
+// and submit answers 503. Purchases whose store or product does not exist by the time they are written are logged and
+// counted, since their clients were already told 202.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public class PurchaseIngestBuffer {
+    public static final String BACKLOG_METRIC = "ingest.backlog";
+    public static final String DISCARDED_METRIC = "ingest.discarded";
+    private static final Logger LOGGER = LoggerFactory.getLogger(PurchaseIngestBuffer.class);
+    private static final long POLL_MILLIS = 100;
+
+    private final PurchaseJournal journal;
+    private final PurchaseService purchaseService;
+    private final IngestCheckpointRepository checkpoints;
+    private final TransactionTemplate transactionTemplate;
+    private final String journalId;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final long retryBackoffMillis;
+    private final long shutdownTimeoutMillis;
+    // accepted, not on disk yet
+    private final BlockingQueue<Accepted> accepted;
+    // on disk, not in the database yet
+    private final BlockingQueue<JournalEntry> journaled;
+    private final Counter invalid;
+    private final Counter failed;
+    private final Thread journalThread;
+    private final Thread writerThread;
+    private volatile boolean running;
+    private volatile long checkpointed;
+    private List<JournalEntry> replay = List.of();
+
+    public PurchaseIngestBuffer(IngestProperties properties, PurchaseJournal journal, PurchaseService purchaseService,
+                                IngestCheckpointRepository checkpoints, TransactionTemplate transactionTemplate,
+                                MeterRegistry meterRegistry) {
+        this.journal = journal;
+        this.purchaseService = purchaseService;
+        this.checkpoints = checkpoints;
+        this.transactionTemplate = transactionTemplate;
+        this.journalId = properties.getJournalId();
+        this.batchSize = properties.getBatchSize();
+        this.lingerNanos = properties.getLinger().toNanos();
+        this.retryBackoffMillis = properties.getRetryBackoff().toMillis();
+        this.shutdownTimeoutMillis = properties.getShutdownTimeout().toMillis();
+        this.accepted = new ArrayBlockingQueue<>(properties.getCapacity());
+        this.journaled = new ArrayBlockingQueue<>(properties.getCapacity());
+        this.invalid = Counter.builder(DISCARDED_METRIC)
+                .description("Acknowledged purchases that could not be written")
+                .tag("reason", "invalid")
+                .register(meterRegistry);
+        this.failed = Counter.builder(DISCARDED_METRIC)
+                .description("Acknowledged purchases that could not be written")
+                .tag("reason", "failed")
+                .register(meterRegistry);
+        Gauge.builder(BACKLOG_METRIC, this, buffer -> buffer.accepted.size() + buffer.journaled.size())
+                .description("Accepted purchases not in the database yet")
+                .register(meterRegistry);
+        ThreadFactory threads = new CustomizableThreadFactory("ingest-");
+        this.journalThread = threads.newThread(this::journalLoop);
+        this.writerThread = threads.newThread(this::writerLoop);
+    }
+
+    // replays what the last run journaled but did not write, then starts taking purchases
+    public void start() throws IOException {
+        long checkpoint = checkpoints.findById(journalId).map(IngestCheckpoint::getLastSequence).orElse(0L);
+        checkpointed = checkpoint;
+        replay = journal.open(checkpoint);
+        if (!replay.isEmpty()) {
+            LOGGER.info("Replaying {} journaled purchases after sequence {}", replay.size(), checkpoint);
+        }
+        running = true;
+        journalThread.start();
+        writerThread.start();
+    }
+
+    // completes with the purchase's journal sequence once it is durable; a full buffer is rejected straight away
+    public CompletableFuture<Long> submit(PurchaseRequest request) {
+        String error = PurchaseService.validate(request);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+        if (request.getPurchaseDate() == null) {
+            //the purchase happened now, not whenever the writer gets to it
+            request.setPurchaseDate(new Date(System.currentTimeMillis()));
+        }
+        if (!running) {
+            throw new RejectedExecutionException("Purchase ingestion is not running.");
+        }
+        Accepted purchase = new Accepted(request);
+        if (!accepted.offer(purchase)) {
+            throw new RejectedExecutionException("The purchase ingestion buffer is full.");
+        }
+        return purchase.acknowledged;
+    }
+
+    public long getCheckpoint() {
+        return checkpointed;
+    }
+
+    // stops taking purchases and gives both threads the shutdown timeout to finish; what they leave is replayed
+    public void shutdown() throws IOException, InterruptedException {
+        running = false;
+        long deadline = System.currentTimeMillis() + shutdownTimeoutMillis;
+        journalThread.join(Math.max(1, deadline - System.currentTimeMillis()));
+        journalThread.interrupt();
+        writerThread.join(Math.max(1, deadline - System.currentTimeMillis()));
+        writerThread.interrupt();
+        writerThread.join();
+        journalThread.join();
+        journal.close();
+    }
+
+    private void journalLoop() {
+        List<Accepted> group = new ArrayList<>();
+        try {
+            while (running || !accepted.isEmpty()) {
+                Accepted first = accepted.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                accepted.drainTo(group);
+                journal(group);
+                try {
+                    journal.deleteThrough(checkpointed);
+                } catch (IOException e) {
+                    LOGGER.warn("Could not delete old purchase journal segments", e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            //interrupted at shutdown: whatever is not on disk yet was never acknowledged
+            accepted.drainTo(group);
+            for (Accepted purchase : group) {
+                purchase.acknowledged.completeExceptionally(new RejectedExecutionException("Purchase ingestion stopped."));
+            }
+        }
+    }
+
+    private void journal(List<Accepted> group) throws InterruptedException {
+        List<PurchaseRequest> requests = new ArrayList<>(group.size());
+        for (Accepted purchase : group) {
+            requests.add(purchase.request);
+        }
+        List<JournalEntry> entries;
+        try {
+            entries = journal.append(requests);
+        } catch (IOException e) {
+            LOGGER.error("Could not journal {} purchases", group.size(), e);
+            for (Accepted purchase : group) {
+                purchase.acknowledged.completeExceptionally(new UncheckedIOException(e));
+            }
+            group.clear();
+            return;
+        }
+        for (int i = 0; i < group.size(); i++) {
+            group.get(i).acknowledged.complete(entries.get(i).getSequence());
+        }
+        group.clear();
+        for (JournalEntry entry : entries) {
+            journaled.put(entry);
+        }
+    }
+
+    private void writerLoop() {
+        try {
+            for (int from = 0; from < replay.size(); from += batchSize) {
+                write(replay.subList(from, Math.min(replay.size(), from + batchSize)));
+            }
+            replay = List.of();
+            List<JournalEntry> batch = new ArrayList<>(batchSize);
+            while (running || journalThread.isAlive() || !journaled.isEmpty()) {
+                JournalEntry first = journaled.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < batchSize) {
+                    journaled.drainTo(batch, batchSize - batch.size());
+                    long left = deadline - System.nanoTime();
+                    if (batch.size() == batchSize || left <= 0) {
+                        break;
+                    }
+                    JournalEntry next = journaled.poll(left, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                try {
+                    write(batch);
+                } finally {
+                    DataSourceRouting.clear();
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // retries until the batch is in; a batch that breaks a constraint is split, and a purchase that breaks one on
+    // its own is given up on rather than blocking everything behind it
+    private void write(List<JournalEntry> batch) throws InterruptedException {
+        while (true) {
+            try {
+                commit(batch);
+                return;
+            } catch (DataIntegrityViolationException e) {
+                if (batch.size() > 1) {
+                    for (JournalEntry entry : batch) {
+                        write(List.of(entry));
+                    }
+                    return;
+                }
+                JournalEntry entry = batch.get(0);
+                LOGGER.error("Giving up on journaled purchase {} for store {}", entry.getSequence(), entry.getPurchase().getStoreId(), e);
+                failed.increment();
+                checkpoint(entry.getSequence());
+                return;
+            } catch (RuntimeException e) {
+                LOGGER.warn("Could not write {} journaled purchases, retrying in {} ms", batch.size(), retryBackoffMillis, e);
+                Thread.sleep(retryBackoffMillis);
+            }
+        }
+    }
+
+    private void commit(List<JournalEntry> batch) {
+        List<PurchaseRequest> requests = new ArrayList<>(batch.size());
+        for (JournalEntry entry : batch) {
+            requests.add(entry.getPurchase());
+        }
+        long last = batch.get(batch.size() - 1).getSequence();
+        List<BulkItemResult> results = transactionTemplate.execute(status -> {
+            List<BulkItemResult> written = purchaseService.createPurchases(requests.iterator());
+            checkpoints.save(new IngestCheckpoint(journalId, last));
+            return written;
+        });
+        for (BulkItemResult result : results) {
+            if (result.getStatus() != BulkItemResult.Status.CREATED) {
+                JournalEntry entry = batch.get(result.getIndex());
+                LOGGER.warn("Discarding journaled purchase {}: {}", entry.getSequence(), result.getMessage());
+                invalid.increment();
+            }
+        }
+        checkpointed = last;
+    }
+
+    private void checkpoint(long sequence) {
+        transactionTemplate.executeWithoutResult(status -> checkpoints.save(new IngestCheckpoint(journalId, sequence)));
+        checkpointed = sequence;
+    }
+
+    private static final class Accepted {
+        private final PurchaseRequest request;
+        private final CompletableFuture<Long> acknowledged = new CompletableFuture<>();
+
+        private Accepted(PurchaseRequest request) {
+            this.request = request;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package org.example.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.example.dto.PurchaseRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+// The write-ahead log of accepted purchases: JSON lines in segment files named after their first sequence number.
+// A group of entries is written with one write and one fsync, and only then acknowledged. Segments are rolled at a
+// size limit and deleted once the database checkpoint has passed their last entry. Used by one thread at a time.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public class PurchaseJournal implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PurchaseJournal.class);
+    private static final String PREFIX = "purchases-";
+    private static final String SUFFIX = ".wal";
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final ObjectWriter writer;
+    private final ObjectReader reader;
+    // first sequence of each closed segment, oldest first
+    private final List<Long> closedSegments = new ArrayList<>();
+    private FileChannel segment;
+    private long segmentFirst;
+    private long nextSequence;
+    private boolean broken;
+
+    public PurchaseJournal(Path directory, long segmentBytes, ObjectMapper objectMapper) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.writer = objectMapper.writerFor(JournalEntry.class);
+        this.reader = objectMapper.readerFor(JournalEntry.class);
+    }
+
+    // reads what earlier runs left behind and returns the entries past the checkpoint, in order; appends go to a new
+    // segment after that
+    public List<JournalEntry> open(long checkpoint) throws IOException {
+        Files.createDirectories(directory);
+        List<JournalEntry> pending = new ArrayList<>();
+        long last = checkpoint;
+        List<Long> segments = segments();
+        for (long first : segments) {
+            for (JournalEntry entry : read(path(first), first == segments.get(segments.size() - 1))) {
+                last = Math.max(last, entry.getSequence());
+                if (entry.getSequence() > checkpoint) {
+                    pending.add(entry);
+                }
+            }
+            closedSegments.add(first);
+        }
+        nextSequence = last + 1;
+        if (!closedSegments.isEmpty() && closedSegments.get(closedSegments.size() - 1) == nextSequence) {
+            //an empty segment left by the previous run; append to it rather than opening the same file twice
+            closedSegments.remove(closedSegments.size() - 1);
+        }
+        openSegment(nextSequence);
+        return pending;
+    }
+
+    // returns the entries with their sequence numbers once they are on disk
+    public List<JournalEntry> append(List<PurchaseRequest> purchases) throws IOException {
+        if (broken) {
+            throw new IOException("The purchase journal could not be repaired after a failed write.");
+        }
+        List<JournalEntry> entries = new ArrayList<>(purchases.size());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256 * purchases.size());
+        for (PurchaseRequest purchase : purchases) {
+            JournalEntry entry = new JournalEntry(nextSequence + entries.size(), purchase);
+            writer.writeValue(bytes, entry);
+            bytes.write('\n');
+            entries.add(entry);
+        }
+        long position = segment.position();
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                segment.write(buffer);
+            }
+            segment.force(false);
+        } catch (IOException e) {
+            //a torn group in the middle of a segment would hide everything after it on replay
+            try {
+                segment.truncate(position);
+                segment.position(position);
+            } catch (IOException truncateFailure) {
+                broken = true;
+                e.addSuppressed(truncateFailure);
+            }
+            throw e;
+        }
+        nextSequence += entries.size();
+        if (segment.size() >= segmentBytes) {
+            segment.close();
+            closedSegments.add(segmentFirst);
+            openSegment(nextSequence);
+        }
+        return entries;
+    }
+
+    // deletes the closed segments whose entries are all at or below the checkpoint
+    public void deleteThrough(long checkpoint) throws IOException {
+        while (!closedSegments.isEmpty()) {
+            long next = closedSegments.size() > 1 ? closedSegments.get(1) : segmentFirst;
+            if (next - 1 > checkpoint) {
+                return;
+            }
+            Files.deleteIfExists(path(closedSegments.get(0)));
+            closedSegments.remove(0);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (segment != null) {
+            segment.close();
+        }
+    }
+
+    // a new segment's directory entry is synced as well, or a crash could lose the whole file with the acknowledged
+    // entries in it
+    private void openSegment(long first) throws IOException {
+        Path file = path(first);
+        boolean created = Files.notExists(file);
+        segmentFirst = first;
+        segment = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (created) {
+            try (FileChannel parent = FileChannel.open(directory, StandardOpenOption.READ)) {
+                parent.force(true);
+            }
+        }
+    }
+
+    // a crash can only tear the group being written, at the end of the newest segment, and that group was never
+    // acknowledged: it is cut off. An unreadable entry anywhere else is followed by acknowledged purchases, or sits in
+    // a segment that was complete, so recovery stops rather than dropping them.
+    private List<JournalEntry> read(Path file, boolean newest) throws IOException {
+        byte[] content = Files.readAllBytes(file);
+        List<JournalEntry> entries = new ArrayList<>();
+        int start = 0;
+        while (start < content.length) {
+            int end = lineEnd(content, start);
+            JournalEntry entry = null;
+            IOException failure = null;
+            if (end < content.length) {
+                try {
+                    entry = reader.readValue(content, start, end - start);
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+            if (entry == null) {
+                if (!newest || hasEntryAfter(content, end + 1)) {
+                    throw new IOException("The purchase journal has an unreadable entry at byte " + start + " of " + file
+                            + " that is not a torn tail; recovery stopped.", failure);
+                }
+                LOGGER.warn("Cutting off an incomplete entry at byte {} of {}", start, file);
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    channel.truncate(start);
+                    channel.force(false);
+                }
+                break;
+            }
+            entries.add(entry);
+            start = end + 1;
+        }
+        return entries;
+    }
+
+    private boolean hasEntryAfter(byte[] content, int start) {
+        while (start < content.length) {
+            int end = lineEnd(content, start);
+            if (end == content.length) {
+                return false;
+            }
+            try {
+                if (reader.readValue(content, start, end - start) != null) {
+                    return true;
+                }
+            } catch (IOException e) {
+                //still part of the torn tail
+            }
+            start = end + 1;
+        }
+        return false;
+    }
+
+    private static int lineEnd(byte[] content, int start) {
+        int end = start;
+        while (end < content.length && content[end] != '\n') {
+            end++;
+        }
+        return end;
+    }
+
+    private List<Long> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path path(long first) {
+        return directory.resolve(String.format("%s%020d%s", PREFIX, first, SUFFIX));
+    }
+}
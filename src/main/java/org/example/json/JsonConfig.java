@@ -0,0 +1,28 @@
+package org.example.json;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.example.dto.PurchaseSummary;
+import org.example.entity.Store;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Module beans are registered on Boot's ObjectMapper, so both the servlet and the reactive stack pick these up.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+@Configuration
+public class JsonConfig {
+    //hand-written serializers for the high-volume payloads
+    @Bean
+    public Module payloadSerializersModule() {
+        return new SimpleModule("PayloadSerializers")
+                .addSerializer(Store.class, new StoreSerializer())
+                .addSerializer(PurchaseSummary.class, new PurchaseSummarySerializer());
+    }
+
+    //everything else: generated accessors instead of reflective getter calls
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
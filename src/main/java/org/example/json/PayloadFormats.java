@@ -0,0 +1,121 @@
+package org.example.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+// CBOR and Smile next to JSON, for service-to-service consumers. The mappers come from Boot's builder, so they carry
+// the same modules and settings as the JSON one (payload serializers included) and the DTOs are unchanged.
+// JSON stays first, so Accept: */* and clients that send no Accept still get JSON.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+@Component
+@Profile("!reactive")
+public class PayloadFormats implements WebMvcConfigurer {
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+    private static final List<MediaType> PRODUCIBLE = List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR, APPLICATION_SMILE);
+
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper cborMapper;
+    private final ObjectMapper smileMapper;
+
+    @Autowired
+    public PayloadFormats(ObjectMapper jsonMapper, Jackson2ObjectMapperBuilder builder) {
+        this.jsonMapper = jsonMapper;
+        this.cborMapper = builder.factory(new CBORFactory()).build();
+        this.smileMapper = builder.factory(new SmileFactory()).build();
+    }
+
+    // Spring already adds CBOR and Smile converters when the libraries are present, but with mappers that lack
+    // Boot's configuration; swap them for ours
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+                || converter instanceof MappingJackson2SmileHttpMessageConverter);
+        converters.add(new MappingJackson2CborHttpMessageConverter(cborMapper));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(smileMapper));
+    }
+
+    // every GET body can come back as JSON, CBOR or Smile, so shared caches must key them on Accept as well
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                if (HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod())) {
+                    response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+                }
+                return true;
+            }
+        });
+    }
+
+    // for endpoints that read their body themselves; anything that is not CBOR or Smile is JSON or NDJSON
+    public ObjectMapper forContentType(MediaType contentType) {
+        if (contentType != null && MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(contentType)) {
+            return cborMapper;
+        }
+        if (contentType != null && APPLICATION_SMILE.equalsTypeAndSubtype(contentType)) {
+            return smileMapper;
+        }
+        return jsonMapper;
+    }
+
+    // for endpoints that write their body themselves: the producible type the Accept header rates highest, each type
+    // taking the quality of the most specific range that covers it (so "application/json;q=0, */*" rules JSON out).
+    // Ties go to JSON, then CBOR, then Smile; no or an empty Accept header means JSON.
+    public MediaType negotiate(String accept) throws HttpMediaTypeNotAcceptableException {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> acceptable;
+        try {
+            acceptable = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            //a malformed Accept is the client's, and Spring's own negotiation answers it with 406 as well
+            throw new HttpMediaTypeNotAcceptableException("Could not parse Accept header: " + e.getMessage());
+        }
+        MediaType best = null;
+        double bestQuality = 0;
+        for (MediaType producible : PRODUCIBLE) {
+            MediaType covering = null;
+            for (MediaType range : acceptable) {
+                if (range.includes(producible) && (covering == null || specificity(range) > specificity(covering))) {
+                    covering = range;
+                }
+            }
+            if (covering != null && covering.getQualityValue() > bestQuality) {
+                best = producible;
+                bestQuality = covering.getQualityValue();
+            }
+        }
+        if (best == null) {
+            throw new HttpMediaTypeNotAcceptableException(PRODUCIBLE);
+        }
+        return best;
+    }
+
+    // MediaType's own ordering ranks quality ahead of specificity, which is not what picks the covering range
+    private static int specificity(MediaType range) {
+        return range.isWildcardType() ? 0 : range.isWildcardSubtype() ? 1 : 2;
+    }
+}
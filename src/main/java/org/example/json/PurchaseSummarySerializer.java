@@ -0,0 +1,41 @@
+package org.example.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.example.dto.PurchaseSummary;
+
+import java.io.IOException;
+
+// Purchase pages are the largest lists the API returns; same output as the bean serializer. Keep in step with
+// PurchaseSummary's getters.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public class PurchaseSummarySerializer extends StdSerializer<PurchaseSummary> {
+    private static final SerializableString PURCHASE_ID = new SerializedString("purchaseId");
+    private static final SerializableString PURCHASE_DATE = new SerializedString("purchaseDate");
+    private static final SerializableString TOTAL = new SerializedString("total");
+    private static final SerializableString UNITS = new SerializedString("units");
+    private static final SerializableString ITEM_COUNT = new SerializedString("itemCount");
+
+    public PurchaseSummarySerializer() {
+        super(PurchaseSummary.class);
+    }
+
+    @Override
+    public void serialize(PurchaseSummary summary, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(summary);
+        gen.writeFieldName(PURCHASE_ID);
+        JsonFields.writeNumber(gen, summary.getPurchaseId());
+        gen.writeFieldName(PURCHASE_DATE);
+        JsonFields.writeSqlDate(gen, summary.getPurchaseDate(), provider);
+        gen.writeFieldName(TOTAL);
+        gen.writeNumber(summary.getTotal());
+        gen.writeFieldName(UNITS);
+        gen.writeNumber(summary.getUnits());
+        gen.writeFieldName(ITEM_COUNT);
+        gen.writeNumber(summary.getItemCount());
+        gen.writeEndObject();
+    }
+}
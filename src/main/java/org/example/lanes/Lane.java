@@ -0,0 +1,15 @@
+package org.example.lanes;
+
+import java.util.Locale;
+
+// Endpoint classes that get their own bounded pool, so one class filling up cannot take threads from another.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public enum Lane {
+    READS,
+    WRITES,
+    ANALYTICS;
+
+    public String tag() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
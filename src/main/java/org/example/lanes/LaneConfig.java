@@ -0,0 +1,21 @@
+package org.example.lanes;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+@Configuration
+@Profile("!reactive")
+@EnableConfigurationProperties(LaneProperties.class)
+public class LaneConfig {
+    // web slice tests run without a registry bean; the global registry then accepts and drops the recordings
+    @Bean
+    public RequestLanes requestLanes(LaneProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new RequestLanes(properties, meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+}
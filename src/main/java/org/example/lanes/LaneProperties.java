@@ -0,0 +1,87 @@
+package org.example.lanes;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+@ConfigurationProperties("app.lanes")
+public class LaneProperties {
+    private Pool reads = new Pool(16, 256);
+    private Pool writes = new Pool(8, 128);
+    private Pool analytics = new Pool(4, 16);
+    // how long shutdown waits for queued and running work before interrupting it
+    private Duration shutdownTimeout = Duration.ofSeconds(10);
+
+    public Pool getReads() {
+        return reads;
+    }
+
+    public void setReads(Pool reads) {
+        this.reads = reads;
+    }
+
+    public Pool getWrites() {
+        return writes;
+    }
+
+    public void setWrites(Pool writes) {
+        this.writes = writes;
+    }
+
+    public Pool getAnalytics() {
+        return analytics;
+    }
+
+    public void setAnalytics(Pool analytics) {
+        this.analytics = analytics;
+    }
+
+    public Duration getShutdownTimeout() {
+        return shutdownTimeout;
+    }
+
+    public void setShutdownTimeout(Duration shutdownTimeout) {
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    public Pool pool(Lane lane) {
+        switch (lane) {
+            case READS:
+                return reads;
+            case WRITES:
+                return writes;
+            default:
+                return analytics;
+        }
+    }
+
+    public static class Pool {
+        private int threads;
+        private int queueCapacity;
+
+        public Pool() {
+        }
+
+        public Pool(int threads, int queueCapacity) {
+            this.threads = threads;
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package org.example.lanes;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import org.example.datasource.DataSourceRouting;
+import org.example.metrics.RequestMetricsFilter;
+import org.example.metrics.StatementCountingInspector;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.DeferredResultProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Runs controller work off the Tomcat worker threads, on one fixed-size pool with a bounded queue per Lane. A full
+// queue rejects the task straight away (503 through GlobalExceptionHandler) instead of letting latency grow.
+//
+// A task whose request completes first (async timeout, client gone) is cancelled: it is skipped if still queued and
+// interrupted if running. The request itself is only touched on the servlet thread.
+//
+// The lanes drain as a lifecycle stop, in a phase after the web server's graceful shutdown (server.shutdown=graceful)
+// has let in-flight requests finish and before any bean is destroyed, so queued work never runs against a closed
+// datasource or a stopped ChangeFeed.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public class RequestLanes implements SmartLifecycle {
+    public static final String REJECTED_METRIC = "lanes.rejected";
+    public static final String QUEUE_WAIT_METRIC = "lanes.queue.wait";
+    static final int SHUTDOWN_PHASE = WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2048;
+
+    private final Map<Lane, ThreadPoolExecutor> executors = new EnumMap<>(Lane.class);
+    private final Map<Lane, Counter> rejections = new EnumMap<>(Lane.class);
+    private final Map<Lane, Timer> queueWaits = new EnumMap<>(Lane.class);
+    private final long shutdownTimeoutMillis;
+    private volatile boolean running = true;
+
+    public RequestLanes(LaneProperties properties, MeterRegistry meterRegistry) {
+        this.shutdownTimeoutMillis = properties.getShutdownTimeout().toMillis();
+        for (Lane lane : Lane.values()) {
+            LaneProperties.Pool pool = properties.pool(lane);
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(pool.getThreads(), pool.getThreads(), 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(pool.getQueueCapacity()), new CustomizableThreadFactory("lane-" + lane.tag() + "-"),
+                    new ThreadPoolExecutor.AbortPolicy());
+            executor.allowCoreThreadTimeOut(true);
+            executors.put(lane, executor);
+            Tags tags = Tags.of("lane", lane.tag());
+            //executor.queued, executor.active, executor.queue.remaining, ... tagged name=lane-<lane>
+            new ExecutorServiceMetrics(executor, "lane-" + lane.tag(), tags).bindTo(meterRegistry);
+            rejections.put(lane, Counter.builder(REJECTED_METRIC)
+                    .description("Requests turned away because the lane's queue was full")
+                    .tags(tags)
+                    .register(meterRegistry));
+            queueWaits.put(lane, Timer.builder(QUEUE_WAIT_METRIC)
+                    .description("Time requests spent queued before a lane thread picked them up")
+                    .tags(tags)
+                    .publishPercentiles(0.5, 0.99, 0.999)
+                    .register(meterRegistry));
+        }
+    }
+
+    public <T> CompletableFuture<T> submit(Lane lane, Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        HttpServletRequest request = currentRequest();
+        AtomicLong statements = request != null ? RequestMetricsFilter.laneStatements(request) : null;
+        long queuedAt = System.nanoTime();
+        LaneTask laneTask = new LaneTask(() -> run(lane, task, future, statements, queuedAt), future);
+        try {
+            executors.get(lane).execute(laneTask);
+        } catch (RejectedExecutionException e) {
+            rejections.get(lane).increment();
+            throw new RejectedExecutionException("The " + lane.tag() + " lane is full, retry later.", e);
+        }
+        future.whenComplete((value, failure) -> {
+            if (future.isCancelled()) {
+                laneTask.interrupt();
+            }
+        });
+        if (request != null) {
+            cancelOnCompletion(request, future);
+        }
+        return future;
+    }
+
+    // the request can time out or fail while the task is queued or running; there is nobody left to answer then
+    private static void cancelOnCompletion(HttpServletRequest request, CompletableFuture<?> future) {
+        WebAsyncUtils.getAsyncManager(request).registerDeferredResultInterceptor(future, new DeferredResultProcessingInterceptor() {
+            @Override
+            public <R> void afterCompletion(NativeWebRequest webRequest, DeferredResult<R> deferredResult) {
+                future.cancel(true);
+            }
+        });
+    }
+
+    private <T> void run(Lane lane, Callable<T> task, CompletableFuture<T> future, AtomicLong statements, long queuedAt) {
+        queueWaits.get(lane).record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+        StatementCountingInspector.reset();
+        T value = null;
+        Throwable failure = null;
+        try {
+            value = task.call();
+        } catch (Throwable e) {
+            failure = e;
+        }
+        //lane threads serve many requests, so per-request thread state is handed back or cleared before completing
+        DataSourceRouting.clear();
+        if (statements != null) {
+            statements.addAndGet(StatementCountingInspector.count());
+        }
+        if (failure != null) {
+            future.completeExceptionally(failure);
+        } else {
+            future.complete(value);
+        }
+    }
+
+    private static HttpServletRequest currentRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes ? ((ServletRequestAttributes) attributes).getRequest() : null;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        shutdown();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return SHUTDOWN_PHASE;
+    }
+
+    // stops taking work and gives the lanes the shutdown timeout to finish it; then running tasks are interrupted and
+    // queued ones fail, so their requests are answered instead of hanging
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        executors.values().forEach(ThreadPoolExecutor::shutdown);
+        long deadline = System.currentTimeMillis() + shutdownTimeoutMillis;
+        try {
+            for (ThreadPoolExecutor executor : executors.values()) {
+                executor.awaitTermination(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (ThreadPoolExecutor executor : executors.values()) {
+            List<Runnable> dropped = executor.shutdownNow();
+            for (Runnable task : dropped) {
+                ((LaneTask) task).future.completeExceptionally(new RejectedExecutionException("The service is shutting down."));
+            }
+        }
+    }
+
+    private static final class LaneTask implements Runnable {
+        private final Runnable body;
+        private final CompletableFuture<?> future;
+        private Thread runner;
+
+        private LaneTask(Runnable body, CompletableFuture<?> future) {
+            this.body = body;
+            this.future = future;
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                if (future.isDone()) {
+                    return; //cancelled while queued
+                }
+                runner = Thread.currentThread();
+            }
+            try {
+                body.run();
+            } finally {
+                synchronized (this) {
+                    runner = null;
+                }
+                Thread.interrupted(); //a cancel that raced the end of the task must not hit the next one
+            }
+        }
+
+        private synchronized void interrupt() {
+            if (runner != null) {
+                runner.interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package org.example.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Records how many statements Hibernate ran for each request, per route. Request latency itself comes from Spring's
+// http.server.requests timer. Each request is also written as one key=value line to its own logger, REQUEST_LOGGER,
+// so the line can be switched off or routed to its own appender without touching this class's other logging.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+@Component
+public class RequestMetricsFilter extends OncePerRequestFilter {
+    public static final String STATEMENTS_METRIC = "http.server.requests.statements";
+    // statements the request ran on lane threads, which this thread's counter cannot see; see laneStatements
+    public static final String LANE_STATEMENTS_ATTRIBUTE = RequestMetricsFilter.class.getName() + ".laneStatements";
+    static final String UNKNOWN_ROUTE = "UNKNOWN";
+    public static final String REQUEST_LOGGER = "org.example.metrics.requests";
+    private static final Logger REQUESTS = LoggerFactory.getLogger(REQUEST_LOGGER);
+
+    private final MeterRegistry meterRegistry;
+    // route -> method -> summary; meters are built once so recording does not allocate tags or ids
+    private final ConcurrentMap<String, Map<String, DistributionSummary>> statementSummaries = new ConcurrentHashMap<>();
+
+    // web slice tests run without a registry bean; the global registry then accepts and drops the recordings
+    @Autowired
+    public RequestMetricsFilter(ObjectProvider<MeterRegistry> meterRegistry) {
+        this(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    RequestMetricsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        StatementCountingInspector.reset();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long statements = StatementCountingInspector.count();
+            if (request.isAsyncStarted()) {
+                //the response is finished on another thread; record once the async request completes
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        record(request, response, start, statements);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                record(request, response, start, statements);
+            }
+        }
+    }
+
+    // called on the request's thread when work is handed to a lane; the lane adds its count to the holder and never
+    // touches the request, which may already be recycled by the time the lane finishes
+    public static AtomicLong laneStatements(HttpServletRequest request) {
+        Object holder = request.getAttribute(LANE_STATEMENTS_ATTRIBUTE);
+        if (holder instanceof AtomicLong) {
+            return (AtomicLong) holder;
+        }
+        AtomicLong statements = new AtomicLong();
+        request.setAttribute(LANE_STATEMENTS_ATTRIBUTE, statements);
+        return statements;
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response, long start, long statements) {
+        Object laneStatements = request.getAttribute(LANE_STATEMENTS_ATTRIBUTE);
+        if (laneStatements instanceof AtomicLong) {
+            statements += ((AtomicLong) laneStatements).get();
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String route = pattern != null ? pattern.toString() : UNKNOWN_ROUTE;
+        statementSummary(route, request.getMethod()).record(statements);
+        if (REQUESTS.isInfoEnabled()) {
+            REQUESTS.info("method={} route={} status={} durationMicros={} statements={}", request.getMethod(), route,
+                    response.getStatus(), (System.nanoTime() - start) / 1_000, statements);
+        }
+    }
+
+    private DistributionSummary statementSummary(String route, String method) {
+        Map<String, DistributionSummary> byMethod = statementSummaries.get(route);
+        if (byMethod == null) {
+            byMethod = statementSummaries.computeIfAbsent(route, key -> new ConcurrentHashMap<>());
+        }
+        DistributionSummary summary = byMethod.get(method);
+        if (summary == null) {
+            summary = byMethod.computeIfAbsent(method, key -> DistributionSummary.builder(STATEMENTS_METRIC)
+                    .description("Hibernate statements executed per request")
+                    .tag("uri", route)
+                    .tag("method", key)
+                    .publishPercentiles(0.5, 0.99, 0.999)
+                    .register(meterRegistry));
+        }
+        return summary;
+    }
+}
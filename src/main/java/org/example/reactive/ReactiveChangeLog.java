@@ -0,0 +1,74 @@
+package org.example.reactive;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.spi.Parameters;
+import io.r2dbc.spi.R2dbcType;
+import org.example.changes.ChangeLog;
+import org.example.entity.Store;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+// ChangeLog for the reactive profile: the same change_event rows, appended on whatever R2DBC transaction the
+// subscriber runs in, so callers compose it into their write's TransactionalOperator. There is no relay on this
+// profile; the ChangeFeed relay of a servlet instance on the same database gives the rows their offsets.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+@Component
+@Profile("reactive")
+public class ReactiveChangeLog {
+    private static final String INSERT_EVENT = "insert into change_event (entity_type, entity_id, change_type, payload, occurred_at)"
+            + " values (:entityType, :entityId, :changeType, :payload, :occurredAt)";
+
+    private final DatabaseClient databaseClient;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public ReactiveChangeLog(DatabaseClient databaseClient, ObjectMapper objectMapper) {
+        this.databaseClient = databaseClient;
+        this.objectMapper = objectMapper;
+    }
+
+    // the payload is the store as GET /{storeId} returns it, as on the servlet side
+    public Mono<Void> storesWritten(String changeType, List<Store> stores) {
+        LocalDateTime now = LocalDateTime.now();
+        return Flux.fromIterable(stores)
+                .concatMap(store -> Mono.fromCallable(() -> json(store))
+                        .flatMap(payload -> append(store.getStoreId(), changeType, payload, now)))
+                .then();
+    }
+
+    public Mono<Void> storesDeleted(Collection<Long> storeIds) {
+        LocalDateTime now = LocalDateTime.now();
+        return Flux.fromIterable(storeIds)
+                .concatMap(storeId -> append(storeId, ChangeLog.DELETED, null, now))
+                .then();
+    }
+
+    private Mono<Long> append(Long storeId, String changeType, String payload, LocalDateTime occurredAt) {
+        return databaseClient.sql(INSERT_EVENT)
+                .bind("entityType", ChangeLog.STORE)
+                .bind("entityId", storeId)
+                .bind("changeType", changeType)
+                .bind("payload", Parameters.in(R2dbcType.VARCHAR, payload))
+                .bind("occurredAt", occurredAt)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private String json(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.reactive;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.contentType;
+import static org.springframework.web.reactive.function.server.RequestPredicates.queryParam;
+
+// The reactive profile serves the StoreController routes only; purchases, sales and products stay on the servlet profile.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig {
+    // Tomcat is on the classpath for the servlet profile and would otherwise be picked for WebFlux too
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    // first match wins, so literal paths come before the /{storeId} patterns they would also match
+    @Bean
+    public RouterFunction<ServerResponse> storeRoutes(ReactiveStoreHandler handler) {
+        return RouterFunctions.route()
+                .GET("/stores", queryParam("ids", ids -> true), handler::getStoresByIds)
+                .GET("/stores", handler::getAllStores)
+                .POST("/stores/lookup", handler::lookupStores)
+                .GET("/stores/stream", handler::streamAllStores)
+                .GET("/stores/search", handler::searchStores)
+                .GET("/stores/cache/stats", handler::getStoreCacheStats)
+                .GET("/{storeId}", handler::getStoreById)
+                .POST("/createStore", handler::createStore)
+                .POST("/stores/bulk", contentType(MediaType.APPLICATION_JSON, MediaType.APPLICATION_NDJSON), handler::createStores)
+                .PATCH("/stores/bulk", contentType(MediaType.APPLICATION_JSON, MediaType.APPLICATION_NDJSON), handler::patchStores)
+                .PATCH("/stores/{storeId}", handler::patchStore)
+                .PUT("/updateStore/{storeId}", handler::updateStore)
+                .PUT("/updateStoreName/{storeId}", request -> handler.updateStore(request, true, false))
+                .PUT("/updateStoreLocation/{storeId}", request -> handler.updateStore(request, false, true))
+                .DELETE("/stores", handler::deleteStores)
+                .DELETE("/{storeId}", handler::deleteStore)
+                //deferred so exceptions thrown while reading the request are mapped too
+                .filter((request, next) -> Mono.defer(() -> next.handle(request)).onErrorResume(error -> handler.handleError(error, request)))
+                .build();
+    }
+}
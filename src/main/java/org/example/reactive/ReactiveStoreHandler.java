@@ -0,0 +1,206 @@
+package org.example.reactive;
+
+import javassist.NotFoundException;
+import org.example.controller.StoreController;
+import org.example.dto.BulkItemResult;
+import org.example.dto.StoreUpdate;
+import org.example.entity.Store;
+import org.example.exception.CustomErrorResponse;
+import org.example.service.StoreETags;
+import org.example.service.StoreRules;
+import org.example.service.StoreSearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Functional handlers for the StoreController routes; answers, headers and error bodies match the servlet ones.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+@Component
+@Profile("reactive")
+public class ReactiveStoreHandler {
+    private static final ParameterizedTypeReference<List<Long>> ID_LIST = new ParameterizedTypeReference<>() {
+    };
+
+    private final ReactiveStoreService storeService;
+
+    @Autowired
+    public ReactiveStoreHandler(ReactiveStoreService storeService) {
+        this.storeService = storeService;
+    }
+
+    // Accept: application/x-ndjson streams every store after the cursor instead of answering one page
+    public Mono<ServerResponse> getAllStores(ServerRequest request) {
+        Long after = request.queryParam("after").map(Long::valueOf).orElse(null);
+        if (request.headers().accept().stream().anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype)) {
+            return ServerResponse.ok().contentType(MediaType.APPLICATION_NDJSON).body(storeService.streamStores(after), Store.class);
+        }
+        int limit = request.queryParam("limit").map(Integer::valueOf).orElse(StoreRules.DEFAULT_PAGE_SIZE);
+        Mono<ServerResponse> page = storeService.getAllStores(after, limit).flatMap(stores -> {
+            ServerResponse.BodyBuilder response = ServerResponse.ok()
+                    .eTag(StoreETags.ofPage(stores.getStores(), Store::getStoreId, Store::getVersion, stores.getNext() != null));
+            if (stores.getNext() != null) {
+                response.header(StoreController.NEXT_CURSOR_HEADER, stores.getNext().toString());
+            }
+            return response.contentType(MediaType.APPLICATION_JSON).bodyValue(stores.getStores());
+        });
+        String ifNoneMatch = request.headers().firstHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch == null) {
+            return page;
+        }
+        return storeService.getStoresETag(after, limit).flatMap(eTag -> StoreETags.matches(ifNoneMatch, eTag)
+                ? ServerResponse.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build() : page);
+    }
+
+    public Mono<ServerResponse> getStoresByIds(ServerRequest request) {
+        return storeService.getStoresByIds(ids(request)).flatMap(stores -> ServerResponse.ok().bodyValue(stores));
+    }
+
+    public Mono<ServerResponse> lookupStores(ServerRequest request) {
+        return body(request, ID_LIST).flatMap(storeService::getStoresByIds).flatMap(stores -> ServerResponse.ok().bodyValue(stores));
+    }
+
+    public Mono<ServerResponse> streamAllStores(ServerRequest request) {
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).body(storeService.streamStores(null), Store.class);
+    }
+
+    public Mono<ServerResponse> searchStores(ServerRequest request) {
+        String query = request.queryParam("q").orElse("");
+        int limit = request.queryParam("limit").map(Integer::valueOf).orElse(StoreSearchService.DEFAULT_LIMIT);
+        return ServerResponse.ok().bodyValue(storeService.search(query, limit));
+    }
+
+    public Mono<ServerResponse> getStoreCacheStats(ServerRequest request) {
+        return ServerResponse.ok().bodyValue(storeService.getCacheStats());
+    }
+
+    public Mono<ServerResponse> getStoreById(ServerRequest request) {
+        Long storeId = storeId(request);
+        Mono<ServerResponse> store = storeService.getStoreById(storeId)
+                .flatMap(found -> ServerResponse.ok().eTag(StoreETags.of(storeId, found.getVersion())).bodyValue(found))
+                .switchIfEmpty(Mono.defer(() -> ServerResponse.notFound().build()));
+        String ifNoneMatch = request.headers().firstHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch == null) {
+            return store;
+        }
+        return storeService.getStoreETag(storeId)
+                .filter(eTag -> StoreETags.matches(ifNoneMatch, eTag))
+                .flatMap(eTag -> ServerResponse.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build())
+                .switchIfEmpty(store);
+    }
+
+    public Mono<ServerResponse> createStore(ServerRequest request) {
+        return body(request, Store.class).flatMap(storeService::createStore).then(ServerResponse.status(HttpStatus.CREATED).build());
+    }
+
+    // a JSON array or newline-delimited JSON, decoded item by item as it arrives
+    public Mono<ServerResponse> createStores(ServerRequest request) {
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
+                .body(storeService.createStores(request.bodyToFlux(Store.class)), BulkItemResult.class);
+    }
+
+    public Mono<ServerResponse> patchStore(ServerRequest request) {
+        Long storeId = storeId(request);
+        String ifMatch = request.headers().firstHeader(HttpHeaders.IF_MATCH);
+        return body(request, StoreUpdate.class)
+                .flatMap(update -> {
+                    if (ifMatch != null) {
+                        update.setVersion(StoreETags.versionOf(storeId, ifMatch));
+                    }
+                    return storeService.patchStore(storeId, update);
+                })
+                .flatMap(version -> ServerResponse.noContent().eTag(StoreETags.of(storeId, version)).build());
+    }
+
+    public Mono<ServerResponse> patchStores(ServerRequest request) {
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON)
+                .body(storeService.patchStores(request.bodyToFlux(StoreUpdate.class)), BulkItemResult.class);
+    }
+
+    public Mono<ServerResponse> updateStore(ServerRequest request) {
+        return updateStore(request, request.queryParam("updateName").map(Boolean::valueOf).orElse(true),
+                request.queryParam("updateLocation").map(Boolean::valueOf).orElse(true));
+    }
+
+    public Mono<ServerResponse> updateStore(ServerRequest request, boolean updateName, boolean updateLocation) {
+        Long storeId = storeId(request);
+        return body(request, Store.class)
+                .flatMap(store -> storeService.updateStore(storeId, store, updateName, updateLocation))
+                .flatMap(store -> ServerResponse.ok().bodyValue(store));
+    }
+
+    public Mono<ServerResponse> deleteStore(ServerRequest request) {
+        return storeService.deleteStore(storeId(request)).then(ServerResponse.ok().build());
+    }
+
+    public Mono<ServerResponse> deleteStores(ServerRequest request) {
+        return storeService.deleteStores(ids(request)).flatMap(result -> ServerResponse.ok().bodyValue(result));
+    }
+
+    // the statuses GlobalExceptionHandler gives the same exceptions; anything else is left to the default handler
+    public Mono<ServerResponse> handleError(Throwable error, ServerRequest request) {
+        if (error instanceof OptimisticLockingFailureException) {
+            return errorResponse(HttpStatus.CONFLICT, "The store was modified concurrently, reload it and retry.", request);
+        }
+        if (error instanceof IllegalStateException) {
+            return errorResponse(HttpStatus.CONFLICT, error.getMessage(), request);
+        }
+        if (error instanceof IllegalArgumentException) {
+            return errorResponse(HttpStatus.BAD_REQUEST, error.getMessage(), request);
+        }
+        if (error instanceof NotFoundException) {
+            return errorResponse(HttpStatus.NOT_FOUND, error.getMessage(), request);
+        }
+        return Mono.error(error);
+    }
+
+    private static Mono<ServerResponse> errorResponse(HttpStatus status, String message, ServerRequest request) {
+        CustomErrorResponse errorResponse = new CustomErrorResponse();
+        errorResponse.setTimestamp(LocalDateTime.now());
+        errorResponse.setStatus(status.value());
+        errorResponse.setError(status.getReasonPhrase());
+        errorResponse.setMessage(message);
+        errorResponse.setPath(request.path());
+        return ServerResponse.status(status).contentType(MediaType.APPLICATION_JSON).bodyValue(errorResponse);
+    }
+
+    private static Long storeId(ServerRequest request) {
+        return Long.valueOf(request.pathVariable("storeId"));
+    }
+
+    // ids=1,2,3 and ids=1&ids=2 both work, as with @RequestParam List<Long>
+    private static List<Long> ids(ServerRequest request) {
+        List<String> values = request.queryParams().get("ids");
+        if (values == null) {
+            throw new IllegalArgumentException("Required parameter 'ids' is not present.");
+        }
+        List<Long> ids = new ArrayList<>();
+        for (String value : values) {
+            for (String id : value.split(",")) {
+                if (!id.isBlank()) {
+                    ids.add(Long.valueOf(id.trim()));
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static <T> Mono<T> body(ServerRequest request, Class<T> type) {
+        return request.bodyToMono(type).switchIfEmpty(Mono.error(() -> new IllegalArgumentException("Required request body is missing.")));
+    }
+
+    private static <T> Mono<T> body(ServerRequest request, ParameterizedTypeReference<T> type) {
+        return request.bodyToMono(type).switchIfEmpty(Mono.error(() -> new IllegalArgumentException("Required request body is missing.")));
+    }
+}
@@ -0,0 +1,153 @@
+package org.example.reactive;
+
+import io.r2dbc.spi.Parameters;
+import io.r2dbc.spi.R2dbcType;
+import io.r2dbc.spi.Readable;
+import org.example.dto.StoreUpdate;
+import org.example.dto.StoreVersion;
+import org.example.entity.Store;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+// R2DBC counterpart of StoreRepository for the reactive profile. The statements are the ones the JPA side runs,
+// written with named parameters so each driver gets its own bind markers.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+@Repository
+@Profile("reactive")
+public class ReactiveStoreRepository {
+    private static final String COLUMNS = "store_id, store_name, location, created_at, version, name_location_key";
+
+    private static final String INSERT_STORE = "insert into store (store_name, location, created_at, name_location_key, version)"
+            + " values (:storeName, :location, :createdAt, :nameLocationKey, 0)";
+
+    // same statement as StoreRepositoryCustomImpl uses for PATCH
+    private static final String UPDATE_STORE = "update store set store_name = coalesce(:storeName, store_name), location = coalesce(:location, location),"
+            + " name_location_key = concat(coalesce(:nameKey, substring(name_location_key, 1, locate(:separator, name_location_key) - 1)), :separator,"
+            + " coalesce(:locationKey, substring(name_location_key, locate(:separator, name_location_key) + 1))), version = version + 1"
+            + " where store_id = :storeId and version = coalesce(:version, version)";
+
+    private static final String DELETE_WITHOUT_PURCHASES = "delete from store where store_id in (:ids)"
+            + " and not exists (select 1 from purchase p where p.store_id = store.store_id)";
+
+    private final DatabaseClient databaseClient;
+
+    @Autowired
+    public ReactiveStoreRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Flux<Store> findByStoreIdGreaterThan(long storeId, int limit) {
+        return databaseClient.sql("select " + COLUMNS + " from store where store_id > :storeId order by store_id limit :limit")
+                .bind("storeId", storeId)
+                .bind("limit", limit)
+                .map(ReactiveStoreRepository::toStore)
+                .all();
+    }
+
+    public Flux<StoreVersion> findVersionsAfter(long storeId, int limit) {
+        return databaseClient.sql("select store_id, version from store where store_id > :storeId order by store_id limit :limit")
+                .bind("storeId", storeId)
+                .bind("limit", limit)
+                .map(row -> new StoreVersion(row.get("store_id", Long.class), row.get("version", Long.class)))
+                .all();
+    }
+
+    public Mono<Store> findById(Long storeId) {
+        return databaseClient.sql("select " + COLUMNS + " from store where store_id = :storeId")
+                .bind("storeId", storeId)
+                .map(ReactiveStoreRepository::toStore)
+                .one();
+    }
+
+    public Flux<Store> findAllById(Collection<Long> storeIds) {
+        return databaseClient.sql("select " + COLUMNS + " from store where store_id in (:storeIds)")
+                .bind("storeIds", storeIds)
+                .map(ReactiveStoreRepository::toStore)
+                .all();
+    }
+
+    public Mono<Long> findVersionById(Long storeId) {
+        return databaseClient.sql("select version from store where store_id = :storeId")
+                .bind("storeId", storeId)
+                .map(row -> row.get("version", Long.class))
+                .one();
+    }
+
+    public Flux<Long> findExistingStoreIds(Collection<Long> storeIds) {
+        return databaseClient.sql("select store_id from store where store_id in (:storeIds)")
+                .bind("storeIds", storeIds)
+                .map(row -> row.get("store_id", Long.class))
+                .all();
+    }
+
+    public Mono<Boolean> existsByNameLocationKey(String nameLocationKey) {
+        return databaseClient.sql("select 1 from store where name_location_key = :nameLocationKey limit 1")
+                .bind("nameLocationKey", nameLocationKey)
+                .map(row -> Boolean.TRUE)
+                .first()
+                .defaultIfEmpty(Boolean.FALSE);
+    }
+
+    public Flux<String> findExistingNameLocationKeys(Collection<String> nameLocationKeys) {
+        return databaseClient.sql("select name_location_key from store where name_location_key in (:nameLocationKeys)")
+                .bind("nameLocationKeys", nameLocationKeys)
+                .map(row -> row.get("name_location_key", String.class))
+                .all();
+    }
+
+    // returns the generated id
+    public Mono<Long> insert(Store store) {
+        LocalDateTime createdAt = store.getCreatedAt() == null ? null : store.getCreatedAt().toLocalDateTime();
+        return databaseClient.sql(INSERT_STORE)
+                .filter(statement -> statement.returnGeneratedValues("store_id"))
+                .bind("storeName", Parameters.in(R2dbcType.VARCHAR, store.getStoreName()))
+                .bind("location", Parameters.in(R2dbcType.VARCHAR, store.getLocation()))
+                .bind("createdAt", Parameters.in(R2dbcType.TIMESTAMP, createdAt))
+                .bind("nameLocationKey", Store.nameLocationKey(store.getStoreName(), store.getLocation()))
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    // returns the number of rows matched, 0 when the store is missing or no longer at the given version
+    public Mono<Integer> updateFields(StoreUpdate update) {
+        return databaseClient.sql(UPDATE_STORE)
+                .bind("storeName", Parameters.in(R2dbcType.VARCHAR, update.getStoreName()))
+                .bind("location", Parameters.in(R2dbcType.VARCHAR, update.getLocation()))
+                .bind("nameKey", Parameters.in(R2dbcType.VARCHAR, update.getStoreName() == null ? null : Store.normalize(update.getStoreName())))
+                .bind("locationKey", Parameters.in(R2dbcType.VARCHAR, update.getLocation() == null ? null : Store.normalize(update.getLocation())))
+                .bind("separator", String.valueOf(Store.NAME_LOCATION_SEPARATOR))
+                .bind("storeId", update.getStoreId())
+                .bind("version", Parameters.in(R2dbcType.BIGINT, update.getVersion()))
+                .fetch()
+                .rowsUpdated()
+                .map(Long::intValue);
+    }
+
+    public Mono<Integer> deleteWithoutPurchases(Collection<Long> storeIds) {
+        return databaseClient.sql(DELETE_WITHOUT_PURCHASES)
+                .bind("ids", storeIds)
+                .fetch()
+                .rowsUpdated()
+                .map(Long::intValue);
+    }
+
+    private static Store toStore(Readable row) {
+        LocalDateTime createdAt = row.get("created_at", LocalDateTime.class);
+        return Store.builder()
+                .storeId(row.get("store_id", Long.class))
+                .storeName(row.get("store_name", String.class))
+                .location(row.get("location", String.class))
+                .createdAt(createdAt == null ? null : Timestamp.valueOf(createdAt))
+                .version(row.get("version", Long.class))
+                .nameLocationKey(row.get("name_location_key", String.class))
+                .build();
+    }
+}
@@ -0,0 +1,428 @@
+package org.example.reactive;
+
+import org.example.cache.StoreCache;
+import org.example.changes.ChangeLog;
+import org.example.cache.StoreCacheStats;
+import org.example.dto.BulkItemResult;
+import org.example.dto.StoreDeleteResult;
+import org.example.dto.StoreLookup;
+import org.example.dto.StorePage;
+import org.example.dto.StoreSearchResult;
+import org.example.dto.StoreUpdate;
+import org.example.dto.StoreVersion;
+import org.example.entity.Store;
+import org.example.search.StoreSearchIndex;
+import org.example.service.StoreETags;
+import org.example.service.StoreRules;
+import org.example.service.StoreSearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+// The StoreService contract on R2DBC: same rules (StoreRules), same answers, nothing blocks. Reads are not cached here;
+// writes still invalidate through the StoreCache channel so servlet instances sharing it drop their copies.
+// The orchestration is a copy of StoreService's; Idempotency-Key and admission control are servlet-only and not here.
+// Change events go into change_event in each write's transaction, but /changes and the relay that numbers them run
+// on servlet instances only.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+@Service
+@Profile("reactive")
+public class ReactiveStoreService {
+    static final int STREAM_PAGE_SIZE = 500;
+
+    private final ReactiveStoreRepository storeRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final StoreCache storeCache;
+    private final StoreSearchIndex storeSearchIndex;
+    private final ReactiveChangeLog changeLog;
+
+    @Autowired
+    public ReactiveStoreService(ReactiveStoreRepository storeRepository, TransactionalOperator transactionalOperator,
+                                StoreCache storeCache, StoreSearchIndex storeSearchIndex, ReactiveChangeLog changeLog) {
+        this.storeRepository = storeRepository;
+        this.transactionalOperator = transactionalOperator;
+        this.storeCache = storeCache;
+        this.storeSearchIndex = storeSearchIndex;
+        this.changeLog = changeLog;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndex() {
+        storeSearchIndex.clear();
+        streamStores(null).doOnNext(store -> index(store.getStoreId(), store)).then().block();
+    }
+
+    public Mono<StorePage> getAllStores(Long after, int limit) {
+        int pageSize = StoreRules.pageSize(limit);
+        //one extra row tells us whether there is a next page without a count query
+        return storeRepository.findByStoreIdGreaterThan(after == null ? 0L : after, pageSize + 1).collectList().map(stores -> {
+            if (stores.size() <= pageSize) {
+                return new StorePage(stores, null);
+            }
+            List<Store> page = new ArrayList<>(stores.subList(0, pageSize));
+            return new StorePage(page, page.get(pageSize - 1).getStoreId());
+        });
+    }
+
+    public Mono<String> getStoresETag(Long after, int limit) {
+        int pageSize = StoreRules.pageSize(limit);
+        return storeRepository.findVersionsAfter(after == null ? 0L : after, pageSize + 1).collectList().map(versions -> {
+            boolean hasNext = versions.size() > pageSize;
+            return StoreETags.ofPage(hasNext ? versions.subList(0, pageSize) : versions,
+                    StoreVersion::getStoreId, StoreVersion::getVersion, hasNext);
+        });
+    }
+
+    // every store after the cursor, one keyset page at a time; the next page is only queried once the subscriber
+    // has taken the previous one, so a slow client holds neither a cursor nor more than a page of rows
+    public Flux<Store> streamStores(Long after) {
+        return storeRepository.findByStoreIdGreaterThan(after == null ? 0L : after, STREAM_PAGE_SIZE).collectList()
+                .expand(page -> page.size() < STREAM_PAGE_SIZE ? Mono.empty()
+                        : storeRepository.findByStoreIdGreaterThan(page.get(page.size() - 1).getStoreId(), STREAM_PAGE_SIZE).collectList())
+                .concatMapIterable(page -> page, 1);
+    }
+
+    public Mono<Store> getStoreById(Long storeId) {
+        return storeRepository.findById(storeId);
+    }
+
+    public Mono<String> getStoreETag(Long storeId) {
+        return storeRepository.findVersionById(storeId).map(version -> StoreETags.of(storeId, version));
+    }
+
+    // one IN query per chunk; missing ids come back as not-found entries, in request order
+    public Mono<List<StoreLookup>> getStoresByIds(List<Long> storeIds) {
+        return Mono.defer(() -> {
+            StoreRules.checkLookupIds(storeIds);
+            return Flux.fromIterable(new LinkedHashSet<>(storeIds))
+                    .buffer(StoreRules.BULK_CHUNK_SIZE)
+                    .concatMap(storeRepository::findAllById)
+                    .collectMap(Store::getStoreId)
+                    .map(stores -> {
+                        List<StoreLookup> results = new ArrayList<>(storeIds.size());
+                        for (Long storeId : storeIds) {
+                            results.add(new StoreLookup(storeId, stores.get(storeId)));
+                        }
+                        return results;
+                    });
+        });
+    }
+
+    public List<StoreSearchResult> search(String query, int limit) {
+        return storeSearchIndex.search(query, Math.max(1, Math.min(limit, StoreSearchService.MAX_LIMIT)));
+    }
+
+    public StoreCacheStats getCacheStats() {
+        return storeCache.stats();
+    }
+
+    public Mono<Void> createStore(Store store) {
+        return Mono.defer(() -> {
+                    StoreRules.prepareForCreate(store);
+                    //single index probe; the unique index still decides when two creates race past it
+                    return storeRepository.existsByNameLocationKey(store.getNameLocationKey());
+                })
+                .flatMap(exists -> exists ? Mono.<Long>error(new IllegalStateException(StoreRules.DUPLICATE_STORE_MESSAGE))
+                        : insertAndRecord(List.of(store)).map(ids -> ids.get(0)))
+                .onErrorMap(DataIntegrityViolationException.class, StoreRules::translateDuplicate)
+                .doOnNext(storeId -> index(storeId, store))
+                .then();
+    }
+
+    public Flux<BulkItemResult> createStores(Flux<Store> stores) {
+        return stores.buffer(StoreRules.BULK_CHUNK_SIZE)
+                .index()
+                .concatMap(chunk -> createChunk(chunk.getT2(), (int) (chunk.getT1() * StoreRules.BULK_CHUNK_SIZE)));
+    }
+
+    public Mono<Store> updateStore(Long storeId, Store updatedStore, boolean updateName, boolean updateLocation) {
+        return storeRepository.findById(storeId)
+                .switchIfEmpty(Mono.error(() -> StoreRules.notFound(storeId)))
+                .flatMap(store -> {
+                    if (updateName) {
+                        store.setStoreName(updatedStore.getStoreName());
+                    }
+                    if (updateLocation) {
+                        store.setLocation(updatedStore.getLocation());
+                    }
+                    //the version read above guards the write, as @Version does for the JPA update
+                    StoreUpdate update = new StoreUpdate(storeId, store.getStoreName(), store.getLocation(), store.getVersion());
+                    return storeRepository.updateFields(update).flatMap(count -> {
+                        if (count == 0) {
+                            return Mono.error(new OptimisticLockingFailureException("Store with ID " + storeId + " was modified concurrently"));
+                        }
+                        store.setVersion(store.getVersion() + 1);
+                        store.updateNameLocationKey();
+                        return changeLog.storesWritten(ChangeLog.UPDATED, List.of(store)).thenReturn(store);
+                    });
+                })
+                .as(transactionalOperator::transactional)
+                .doOnNext(store -> index(storeId, store))
+                .onErrorMap(DataIntegrityViolationException.class, StoreRules::translateDuplicate)
+                .doFinally(signal -> storeCache.invalidate(storeId));
+    }
+
+    // one UPDATE of only the given fields, guarded by the version the client last saw; returns the new version
+    public Mono<Long> patchStore(Long storeId, StoreUpdate update) {
+        return Mono.defer(() -> {
+                    StoreRules.requirePatch(update);
+                    update.setStoreId(storeId);
+                    return updateAndRecord(List.of(update)).map(counts -> counts.get(0));
+                })
+                .onErrorMap(DataIntegrityViolationException.class, StoreRules::translateDuplicate)
+                .flatMap(updated -> {
+                    if (updated == 0) {
+                        //only the failure path pays for a second query, to tell a missing store from a stale version
+                        return storeRepository.findVersionById(storeId)
+                                .flatMap(current -> Mono.<Long>error(StoreRules.staleVersion(storeId, current, update.getVersion())))
+                                .switchIfEmpty(Mono.error(() -> StoreRules.notFound(storeId)));
+                    }
+                    storeCache.invalidate(storeId);
+                    storeSearchIndex.update(storeId, update.getStoreName(), update.getLocation());
+                    return Mono.just(update.getVersion() + 1);
+                });
+    }
+
+    public Flux<BulkItemResult> patchStores(Flux<StoreUpdate> updates) {
+        return updates.buffer(StoreRules.BULK_CHUNK_SIZE)
+                .index()
+                .concatMap(chunk -> patchChunk(chunk.getT2(), (int) (chunk.getT1() * StoreRules.BULK_CHUNK_SIZE)));
+    }
+
+    public Mono<Void> deleteStore(Long storeId) {
+        return storeRepository.deleteWithoutPurchases(List.of(storeId))
+                .flatMap(count -> count == 0 ? Mono.just(count) : changeLog.storesDeleted(List.of(storeId)).thenReturn(count))
+                .as(transactionalOperator::transactional)
+                .flatMap(count -> {
+                    if (count == 0) {
+                        //only the failure path pays for a second query, to tell a missing store from one that has purchases
+                        return storeRepository.findExistingStoreIds(List.of(storeId)).hasElements()
+                                .flatMap(exists -> Mono.error(exists ? new IllegalStateException(StoreRules.STORE_HAS_PURCHASES_MESSAGE)
+                                        : StoreRules.notFound(storeId)));
+                    }
+                    storeCache.invalidate(storeId);
+                    storeSearchIndex.remove(storeId);
+                    return Mono.empty();
+                });
+    }
+
+    // ids that do not exist are ignored; the ones purchases still reference are kept and reported back
+    public Mono<StoreDeleteResult> deleteStores(Collection<Long> storeIds) {
+        return Mono.defer(() -> {
+            AtomicInteger deleted = new AtomicInteger();
+            List<Long> withPurchases = new ArrayList<>();
+            return Flux.fromIterable(new LinkedHashSet<>(storeIds))
+                    .buffer(StoreRules.BULK_CHUNK_SIZE)
+                    .concatMap(chunk -> deleteChunk(chunk, deleted).doOnNext(remaining -> {
+                        for (Long id : chunk) {
+                            if (remaining.contains(id)) {
+                                withPurchases.add(id);
+                            } else {
+                                storeCache.invalidate(id);
+                                storeSearchIndex.remove(id);
+                            }
+                        }
+                    }))
+                    .then(Mono.fromSupplier(() -> new StoreDeleteResult(deleted.get(), withPurchases)));
+        });
+    }
+
+    // the probe runs inside the transaction, so the events name exactly the stores this chunk deleted
+    private Mono<Set<Long>> deleteChunk(List<Long> chunk, AtomicInteger deleted) {
+        return storeRepository.deleteWithoutPurchases(chunk)
+                .flatMap(count -> {
+                    Mono<Set<Long>> kept = count == chunk.size() ? Mono.just(Set.of())
+                            : storeRepository.findExistingStoreIds(chunk).collect(Collectors.toSet());
+                    return kept.flatMap(remaining -> {
+                        List<Long> gone = new ArrayList<>(chunk.size());
+                        for (Long id : chunk) {
+                            if (!remaining.contains(id)) {
+                                gone.add(id);
+                            }
+                        }
+                        return changeLog.storesDeleted(gone).thenReturn(remaining);
+                    }).doOnNext(remaining -> deleted.addAndGet(count));
+                })
+                .as(transactionalOperator::transactional);
+    }
+
+    private Flux<BulkItemResult> createChunk(List<Store> chunk, int firstIndex) {
+        Set<String> keys = new HashSet<>();
+        for (Store store : chunk) {
+            store.updateNameLocationKey();
+            keys.add(store.getNameLocationKey());
+        }
+        //one query per chunk instead of one per store
+        return storeRepository.findExistingNameLocationKeys(keys).collect(Collectors.toCollection(HashSet::new)).flatMapMany(taken -> {
+            List<BulkItemResult> results = new ArrayList<>(chunk.size());
+            List<BulkItemResult> created = new ArrayList<>();
+            List<Store> toInsert = new ArrayList<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                BulkItemResult result = StoreRules.rejectCreate(firstIndex + i, chunk.get(i), taken);
+                if (result == null) {
+                    result = BulkItemResult.created(firstIndex + i);
+                    created.add(result);
+                    toInsert.add(chunk.get(i));
+                }
+                results.add(result);
+            }
+
+            //all or nothing, so a duplicate found half way leaves no rows behind to retry
+            return insertAndRecord(toInsert).doOnNext(ids -> {
+                        for (int i = 0; i < created.size() && i < ids.size(); i++) {
+                            created.get(i).setId(ids.get(i));
+                            index(ids.get(i), toInsert.get(i));
+                        }
+                    })
+                    .then(Mono.just(results))
+                    .onErrorResume(DataIntegrityViolationException.class, e -> {
+                        if (!StoreRules.isDuplicate(e)) {
+                            return Mono.error(e);
+                        }
+                        //a concurrent request inserted one of these rows after our probe, so find out which ones one by one
+                        return Flux.range(0, created.size())
+                                .concatMap(i -> {
+                                    BulkItemResult result = created.get(i);
+                                    return insertAndRecord(List.of(toInsert.get(i)))
+                                            .map(ids -> ids.get(0))
+                                            .doOnNext(id -> {
+                                                result.setId(id);
+                                                index(id, toInsert.get(i));
+                                            })
+                                            .onErrorResume(DataIntegrityViolationException.class, rowFailure -> {
+                                                if (!StoreRules.isDuplicate(rowFailure)) {
+                                                    return Mono.error(rowFailure);
+                                                }
+                                                results.set(result.getIndex() - firstIndex, BulkItemResult.rejected(result.getIndex(),
+                                                        BulkItemResult.Status.DUPLICATE, StoreRules.DUPLICATE_STORE_MESSAGE));
+                                                return Mono.empty();
+                                            });
+                                })
+                                .then(Mono.just(results));
+                    })
+                    .flatMapIterable(list -> list);
+        });
+    }
+
+    private Flux<BulkItemResult> patchChunk(List<StoreUpdate> chunk, int firstIndex) {
+        List<BulkItemResult> results = new ArrayList<>(chunk.size());
+        List<StoreUpdate> toUpdate = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            BulkItemResult rejection = StoreRules.rejectPatch(firstIndex + i, chunk.get(i));
+            results.add(rejection);
+            if (rejection == null) {
+                toUpdate.add(chunk.get(i));
+            }
+        }
+
+        Mono<List<Integer>> counts = updateAndRecord(toUpdate)
+                .onErrorResume(DataIntegrityViolationException.class, e -> {
+                    if (!StoreRules.isDuplicate(e)) {
+                        return Mono.error(e);
+                    }
+                    //the chunk was rolled back, so find out which rows collide one by one
+                    return Flux.fromIterable(toUpdate)
+                            .concatMap(update -> updateAndRecord(List.of(update))
+                                    .map(updated -> updated.get(0))
+                                    .onErrorResume(DataIntegrityViolationException.class, rowFailure ->
+                                            StoreRules.isDuplicate(rowFailure) ? Mono.just(-1) : Mono.error(rowFailure)))
+                            .collectList();
+                });
+
+        return counts.flatMap(updated -> {
+            Set<Long> missed = new HashSet<>();
+            for (int i = 0; i < toUpdate.size(); i++) {
+                if (updated.get(i) == 0) {
+                    missed.add(toUpdate.get(i).getStoreId());
+                }
+            }
+            //one probe for all rows that did not match, to tell missing stores from stale versions
+            Mono<Set<Long>> existing = missed.isEmpty() ? Mono.just(Set.of())
+                    : storeRepository.findExistingStoreIds(missed).collect(Collectors.toSet());
+            return existing.map(existingIds -> {
+                int next = 0;
+                for (int i = 0; i < results.size(); i++) {
+                    if (results.get(i) != null) {
+                        continue;
+                    }
+                    StoreUpdate update = toUpdate.get(next);
+                    BulkItemResult result = StoreRules.patchResult(firstIndex + i, update, updated.get(next++),
+                            existingIds.contains(update.getStoreId()));
+                    if (result.getStatus() == BulkItemResult.Status.UPDATED) {
+                        storeCache.invalidate(update.getStoreId());
+                        storeSearchIndex.update(update.getStoreId(), update.getStoreName(), update.getLocation());
+                    }
+                    results.set(i, result);
+                }
+                return results;
+            });
+        }).flatMapIterable(list -> list);
+    }
+
+    // inserts the stores and appends their created events in one transaction; the ids come back in order
+    private Mono<List<Long>> insertAndRecord(List<Store> stores) {
+        return Flux.fromIterable(stores)
+                .concatMap(storeRepository::insert)
+                .collectList()
+                .flatMap(ids -> {
+                    for (int i = 0; i < ids.size(); i++) {
+                        stores.get(i).setStoreId(ids.get(i));
+                        stores.get(i).setVersion(0L);
+                    }
+                    return changeLog.storesWritten(ChangeLog.CREATED, stores).thenReturn(ids);
+                })
+                .as(transactionalOperator::transactional);
+    }
+
+    // the UPDATE only knows the fields it set, so the change events re-read the patched rows in the same transaction
+    // and carry them whole, like any other store update; returns the matched count of each update
+    private Mono<List<Integer>> updateAndRecord(List<StoreUpdate> updates) {
+        return Flux.fromIterable(updates)
+                .concatMap(storeRepository::updateFields)
+                .collectList()
+                .flatMap(counts -> {
+                    List<Long> patchedIds = new ArrayList<>(updates.size());
+                    for (int i = 0; i < counts.size(); i++) {
+                        if (counts.get(i) > 0) {
+                            patchedIds.add(updates.get(i).getStoreId());
+                        }
+                    }
+                    if (patchedIds.isEmpty()) {
+                        return Mono.just(counts);
+                    }
+                    return storeRepository.findAllById(patchedIds).collect(Collectors.toMap(Store::getStoreId, store -> store))
+                            .flatMap(stores -> {
+                                List<Store> patched = new ArrayList<>(patchedIds.size());
+                                for (Long storeId : patchedIds) {
+                                    Store store = stores.get(storeId);
+                                    if (store != null) {
+                                        patched.add(store);
+                                    }
+                                }
+                                return changeLog.storesWritten(ChangeLog.UPDATED, patched);
+                            })
+                            .thenReturn(counts);
+                })
+                .as(transactionalOperator::transactional);
+    }
+
+    private void index(Long storeId, Store store) {
+        storeSearchIndex.index(storeId, store.getStoreName(), store.getLocation());
+    }
+}
@@ -0,0 +1,26 @@
+package org.example.repository;
+
+import org.example.entity.ChangeEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+@Repository
+public interface ChangeEventRepository extends JpaRepository<ChangeEvent, Long>, ChangeEventRepositoryCustom {
+    @Query("select e from ChangeEvent e where e.feedOffset > :since order by e.feedOffset")
+    List<ChangeEvent> findPublishedAfter(@Param("since") long since, Pageable pageable);
+
+    // the feed_offset index holds the change_id too (InnoDB secondary indexes carry the primary key), so this is a
+    // range scan over the unpublished entries only
+    @Query("select e.changeId from ChangeEvent e where e.feedOffset is null order by e.changeId")
+    List<Long> findUnpublishedIds(Pageable pageable);
+
+    @Query("select max(e.feedOffset) from ChangeEvent e")
+    Optional<Long> findLastOffset();
+}
@@ -0,0 +1,15 @@
+package org.example.repository;
+
+import org.example.entity.ChangeEvent;
+
+import java.util.List;
+
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public interface ChangeEventRepositoryCustom {
+    // inserts the events as one JDBC batch in the caller's transaction
+    void appendAll(List<ChangeEvent> events);
+
+    // gives the unpublished events firstOffset, firstOffset + 1, ... in the given order; a unique key violation means
+    // another relay published them first
+    void assignOffsets(List<Long> changeIds, long firstOffset);
+}
@@ -0,0 +1,51 @@
+package org.example.repository;
+
+import org.example.entity.ChangeEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public class ChangeEventRepositoryCustomImpl implements ChangeEventRepositoryCustom {
+    private static final String INSERT_EVENT = "insert into change_event (entity_type, entity_id, change_type, payload, occurred_at) values (?, ?, ?, ?, ?)";
+    private static final String ASSIGN_OFFSET = "update change_event set feed_offset = ? where change_id = ? and feed_offset is null";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public ChangeEventRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // plain JDBC for the same reason as StoreRepositoryCustomImpl.insertAll: Hibernate does not batch IDENTITY inserts
+    @Override
+    @Transactional
+    public void appendAll(List<ChangeEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_EVENT, events, events.size(), (statement, event) -> {
+            statement.setString(1, event.getEntityType());
+            statement.setLong(2, event.getEntityId());
+            statement.setString(3, event.getChangeType());
+            statement.setString(4, event.getPayload());
+            statement.setTimestamp(5, event.getOccurredAt());
+        });
+    }
+
+    @Override
+    @Transactional
+    public void assignOffsets(List<Long> changeIds, long firstOffset) {
+        List<long[]> assignments = new ArrayList<>(changeIds.size());
+        for (int i = 0; i < changeIds.size(); i++) {
+            assignments.add(new long[]{firstOffset + i, changeIds.get(i)});
+        }
+        jdbcTemplate.batchUpdate(ASSIGN_OFFSET, assignments, assignments.size(), (statement, assignment) -> {
+            statement.setLong(1, assignment[0]);
+            statement.setLong(2, assignment[1]);
+        });
+    }
+}
@@ -1,10 +1,28 @@
 package org.example.repository;
 
+import jakarta.persistence.QueryHint;
 import org.example.entity.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
 @SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
+    @Query("select p.productId from Product p where p.productId in :ids")
+    List<Long> findExistingProductIds(@Param("ids") Collection<Long> ids);
+
+    // must be consumed inside a read-only transaction; rows are fetched from the cursor in chunks of 500
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("select p from Product p order by p.productId")
+    Stream<Product> streamAll();
 }
@@ -7,7 +7,7 @@ import org.springframework.stereotype.Repository;
 
 @SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
 @Repository
-public interface PurchaseProductRepository extends JpaRepository<PurchaseProduct, PurchaseProductPk> {
+public interface PurchaseProductRepository extends JpaRepository<PurchaseProduct, PurchaseProductPk>, PurchaseProductRepositoryCustom {
 
 }
 
@@ -0,0 +1,10 @@
+package org.example.repository;
+
+import org.example.entity.PurchaseProduct;
+
+import java.util.List;
+
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public interface PurchaseProductRepositoryCustom {
+    void insertAll(List<PurchaseProduct> purchaseProducts);
+}
@@ -0,0 +1,32 @@
+package org.example.repository;
+
+import org.example.entity.PurchaseProduct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public class PurchaseProductRepositoryCustomImpl implements PurchaseProductRepositoryCustom {
+    private static final String INSERT_PURCHASE_PRODUCT =
+            "insert into purchase_product (product_id, purchase_id, quantity, price, weight) values (?, ?, ?, ?, ?)";
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public PurchaseProductRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertAll(List<PurchaseProduct> purchaseProducts) {
+        jdbcTemplate.batchUpdate(INSERT_PURCHASE_PRODUCT, purchaseProducts, BATCH_SIZE, (statement, purchaseProduct) -> {
+            statement.setLong(1, purchaseProduct.getPpId().getProductId());
+            statement.setLong(2, purchaseProduct.getPpId().getPurchaseId());
+            statement.setInt(3, purchaseProduct.getQuantity());
+            statement.setDouble(4, purchaseProduct.getPrice());
+            statement.setDouble(5, purchaseProduct.getWeight());
+        });
+    }
+}
@@ -1,10 +1,29 @@
 package org.example.repository;
 
+import org.example.dto.PurchaseSummary;
 import org.example.entity.Purchase;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.sql.Date;
+import java.util.List;
+
 @SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
 @Repository
-public interface PurchaseRepository extends JpaRepository<Purchase, Long> {
+public interface PurchaseRepository extends JpaRepository<Purchase, Long>, PurchaseRepositoryCustom {
+    // keyset page over ix_purchase_store_date; p.store.storeId reads the FK column, so Store is never joined or loaded
+    @Query("select new org.example.dto.PurchaseSummary(p.purchaseId, p.purchaseDate, sum(pp.price * pp.quantity), sum(pp.quantity), count(pp.ppId.productId))"
+            + " from Purchase p left join PurchaseProduct pp on pp.ppId.purchaseId = p.purchaseId"
+            + " where p.store.storeId = :storeId and p.purchaseDate <= :to"
+            + " and (p.purchaseDate > :afterDate or (p.purchaseDate = :afterDate and p.purchaseId > :afterId))"
+            + " group by p.purchaseId, p.purchaseDate"
+            + " order by p.purchaseDate, p.purchaseId")
+    List<PurchaseSummary> findSummariesByStore(@Param("storeId") Long storeId,
+                                               @Param("afterDate") Date afterDate,
+                                               @Param("afterId") Long afterId,
+                                               @Param("to") Date to,
+                                               Pageable pageable);
 }
@@ -0,0 +1,11 @@
+package org.example.repository;
+
+import org.example.entity.Purchase;
+
+import java.util.List;
+
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public interface PurchaseRepositoryCustom {
+    // inserts the purchase headers as one JDBC batch and returns the generated ids in the same order
+    List<Long> insertAll(List<Purchase> purchases);
+}
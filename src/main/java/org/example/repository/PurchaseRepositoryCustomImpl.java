@@ -0,0 +1,50 @@
+package org.example.repository;
+
+import org.example.entity.Purchase;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public class PurchaseRepositoryCustomImpl implements PurchaseRepositoryCustom {
+    private static final String INSERT_PURCHASE = "insert into purchase (store_id, purchase_date) values (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public PurchaseRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // same reasoning as StoreRepositoryCustomImpl: IDENTITY ids keep Hibernate from batching these inserts.
+    // Runs in the caller's transaction so headers and line items commit together.
+    @Override
+    public List<Long> insertAll(List<Purchase> purchases) {
+        if (purchases.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_PURCHASE, Statement.RETURN_GENERATED_KEYS)) {
+                for (Purchase purchase : purchases) {
+                    statement.setLong(1, purchase.getStore().getStoreId());
+                    statement.setDate(2, purchase.getPurchaseDate());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                List<Long> ids = new ArrayList<>(purchases.size());
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        ids.add(keys.getLong(1));
+                    }
+                }
+                return ids;
+            }
+        });
+    }
+}
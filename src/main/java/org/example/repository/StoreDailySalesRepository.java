@@ -0,0 +1,19 @@
+package org.example.repository;
+
+import org.example.entity.StoreDailySales;
+import org.example.entity.StoreDailySalesPk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.util.List;
+
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+@Repository
+public interface StoreDailySalesRepository extends JpaRepository<StoreDailySales, StoreDailySalesPk>, StoreDailySalesRepositoryCustom {
+    @Query("select s from StoreDailySales s where s.salesId.storeId = :storeId"
+            + " and s.salesId.salesDate between :from and :to order by s.salesId.salesDate")
+    List<StoreDailySales> findByStoreAndDateRange(@Param("storeId") Long storeId, @Param("from") Date from, @Param("to") Date to);
+}
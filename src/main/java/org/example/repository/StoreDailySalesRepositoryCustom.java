@@ -0,0 +1,15 @@
+package org.example.repository;
+
+import org.example.entity.StoreDailySales;
+
+import java.sql.Date;
+import java.util.List;
+
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public interface StoreDailySalesRepositoryCustom {
+    // adds each row's revenue, units and weight to its bucket, creating the bucket if needed
+    void addAll(List<StoreDailySales> deltas);
+
+    // recomputes every bucket between from and to (inclusive) from purchase_product; returns the bucket count
+    int rebuild(Date from, Date to);
+}
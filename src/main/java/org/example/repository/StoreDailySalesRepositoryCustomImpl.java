@@ -0,0 +1,48 @@
+package org.example.repository;
+
+import org.example.entity.StoreDailySales;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.util.List;
+
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public class StoreDailySalesRepositoryCustomImpl implements StoreDailySalesRepositoryCustom {
+    private static final String ADD_SALES = "insert into store_daily_sales (store_id, sales_date, revenue, units, weight) values (?, ?, ?, ?, ?)"
+            + " on duplicate key update revenue = revenue + ?, units = units + ?, weight = weight + ?";
+    private static final String DELETE_RANGE = "delete from store_daily_sales where sales_date between ? and ?";
+    private static final String REBUILD_RANGE = "insert into store_daily_sales (store_id, sales_date, revenue, units, weight)"
+            + " select p.store_id, p.purchase_date, sum(pp.price * pp.quantity), sum(pp.quantity), sum(pp.weight * pp.quantity)"
+            + " from purchase p join purchase_product pp on pp.purchase_id = p.purchase_id"
+            + " where p.purchase_date between ? and ?"
+            + " group by p.store_id, p.purchase_date";
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public StoreDailySalesRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void addAll(List<StoreDailySales> deltas) {
+        jdbcTemplate.batchUpdate(ADD_SALES, deltas, BATCH_SIZE, (statement, delta) -> {
+            statement.setLong(1, delta.getSalesId().getStoreId());
+            statement.setDate(2, delta.getSalesId().getSalesDate());
+            statement.setDouble(3, delta.getRevenue());
+            statement.setLong(4, delta.getUnits());
+            statement.setDouble(5, delta.getWeight());
+            statement.setDouble(6, delta.getRevenue());
+            statement.setLong(7, delta.getUnits());
+            statement.setDouble(8, delta.getWeight());
+        });
+    }
+
+    @Override
+    public int rebuild(Date from, Date to) {
+        jdbcTemplate.update(DELETE_RANGE, from, to);
+        return jdbcTemplate.update(REBUILD_RANGE, from, to);
+    }
+}
@@ -1,15 +1,57 @@
 package org.example.repository;
 
+import jakarta.persistence.QueryHint;
+import org.example.dto.StoreVersion;
 import org.example.entity.Store;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
 @Repository
-public interface StoreRepository extends JpaRepository<Store, Long> {
+public interface StoreRepository extends JpaRepository<Store, Long>, StoreRepositoryCustom {
     Optional<List<Store>> findStoreByStoreName(String storeName);
 
+    boolean existsByNameLocationKey(String nameLocationKey);
+
+    @Query("select s.storeId from Store s where s.storeId in :ids")
+    List<Long> findExistingStoreIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select s.nameLocationKey from Store s where s.nameLocationKey in :keys")
+    List<String> findExistingNameLocationKeys(@Param("keys") Collection<String> keys);
+
+    List<Store> findByStoreIdGreaterThanOrderByStoreIdAsc(Long storeId, Pageable pageable);
+
+    @Query("select s.version from Store s where s.storeId = :storeId")
+    Optional<Long> findVersionById(@Param("storeId") Long storeId);
+
+    // same rows as findByStoreIdGreaterThanOrderByStoreIdAsc, but only the two columns the page ETag needs
+    @Query("select new org.example.dto.StoreVersion(s.storeId, s.version) from Store s where s.storeId > :storeId order by s.storeId")
+    List<StoreVersion> findVersionsAfter(@Param("storeId") Long storeId, Pageable pageable);
+
+    // one set-based statement; stores that purchases still reference are left in place and the purchases are never loaded
+    @Transactional
+    @Modifying
+    @Query(value = "delete from store where store_id in (:ids)"
+            + " and not exists (select 1 from purchase p where p.store_id = store.store_id)", nativeQuery = true)
+    int deleteWithoutPurchases(@Param("ids") Collection<Long> ids);
+
+    // must be consumed inside a read-only transaction; rows are fetched from the cursor in chunks of 500
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("select s from Store s order by s.storeId")
+    Stream<Store> streamAll();
+
 }
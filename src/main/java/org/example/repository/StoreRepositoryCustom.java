@@ -0,0 +1,15 @@
+package org.example.repository;
+
+import org.example.dto.StoreUpdate;
+import org.example.entity.Store;
+
+import java.util.List;
+
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public interface StoreRepositoryCustom {
+    // inserts the stores as one JDBC batch and returns the generated ids in the same order
+    List<Long> insertAll(List<Store> stores);
+
+    // one UPDATE per store touching only the non-null fields; returns the affected row count of each, in order
+    int[] updateFields(List<StoreUpdate> updates);
+}
@@ -0,0 +1,83 @@
+package org.example.repository;
+
+import org.example.dto.StoreUpdate;
+import org.example.entity.Store;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public class StoreRepositoryCustomImpl implements StoreRepositoryCustom {
+    private static final String INSERT_STORE = "insert into store (store_name, location, created_at, name_location_key, version) values (?, ?, ?, ?, 0)";
+
+    // Every update uses the same statement so a mixed batch stays one batch. The untouched half of the key is cut out of the
+    // stored key, which is exact because the separator is a control character that normalized names never contain.
+    private static final String UPDATE_STORE = "update store set store_name = coalesce(?, store_name), location = coalesce(?, location),"
+            + " name_location_key = concat(coalesce(?, substring(name_location_key, 1, locate(?, name_location_key) - 1)), ?,"
+            + " coalesce(?, substring(name_location_key, locate(?, name_location_key) + 1))), version = version + 1"
+            + " where store_id = ? and version = coalesce(?, version)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public StoreRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Hibernate turns batching off for IDENTITY ids, so the batch goes through plain JDBC instead.
+    // With rewriteBatchedStatements=true MySQL sends it as multi-row inserts and still reports every key.
+    @Override
+    @Transactional
+    public List<Long> insertAll(List<Store> stores) {
+        if (stores.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_STORE, Statement.RETURN_GENERATED_KEYS)) {
+                for (Store store : stores) {
+                    statement.setString(1, store.getStoreName());
+                    statement.setString(2, store.getLocation());
+                    statement.setTimestamp(3, store.getCreatedAt());
+                    statement.setString(4, Store.nameLocationKey(store.getStoreName(), store.getLocation()));
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                List<Long> ids = new ArrayList<>(stores.size());
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        ids.add(keys.getLong(1));
+                    }
+                }
+                return ids;
+            }
+        });
+    }
+
+    @Override
+    @Transactional
+    public int[] updateFields(List<StoreUpdate> updates) {
+        if (updates.isEmpty()) {
+            return new int[0];
+        }
+        String separator = String.valueOf(Store.NAME_LOCATION_SEPARATOR);
+        return jdbcTemplate.batchUpdate(UPDATE_STORE, updates, updates.size(), (statement, update) -> {
+            statement.setString(1, update.getStoreName());
+            statement.setString(2, update.getLocation());
+            statement.setString(3, update.getStoreName() == null ? null : Store.normalize(update.getStoreName()));
+            statement.setString(4, separator);
+            statement.setString(5, separator);
+            statement.setString(6, update.getLocation() == null ? null : Store.normalize(update.getLocation()));
+            statement.setString(7, separator);
+            statement.setLong(8, update.getStoreId());
+            statement.setObject(9, update.getVersion(), Types.BIGINT);
+        })[0];
+    }
+}
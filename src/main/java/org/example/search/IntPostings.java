@@ -0,0 +1,50 @@
+package org.example.search;
+
+import java.util.Arrays;
+
+// Growable postings list of doc ids. Doc ids are handed out in increasing order, so appending keeps the list sorted.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+final class IntPostings {
+    private static final int[] EMPTY = new int[0];
+
+    private int[] docs = EMPTY;
+    private int size;
+
+    void add(int doc) {
+        if (size > 0 && docs[size - 1] == doc) {
+            return; //the same term twice in one document
+        }
+        if (size == docs.length) {
+            docs = Arrays.copyOf(docs, Math.max(4, size + (size >> 1)));
+        }
+        docs[size++] = doc;
+    }
+
+    boolean contains(int doc) {
+        return Arrays.binarySearch(docs, 0, size, doc) >= 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(docs, size);
+    }
+
+    // writes the docs present in both sorted inputs to the front of candidates and returns how many there are
+    int retainAll(int[] candidates, int count) {
+        int kept = 0;
+        int from = 0;
+        for (int i = 0; i < count && from < size; i++) {
+            int doc = candidates[i];
+            from = Arrays.binarySearch(docs, from, size, doc);
+            if (from >= 0) {
+                candidates[kept++] = doc;
+            } else {
+                from = -from - 1;
+            }
+        }
+        return kept;
+    }
+}
@@ -0,0 +1,229 @@
+package org.example.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// The machinery the search indexes share. A doc is an entity id with a name and one more field (a product's category,
+// a store's location). Its tokens are posted under each of their prefixes (up to MAX_PREFIX_LENGTH characters) so a
+// query token matches as a prefix, and full tokens separately to boost exact word matches. A changed entity gets a new
+// doc id and the old one is tombstoned until the next compaction. Subclasses pick the tokens and may post more lists.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+abstract class PrefixIndex {
+    static final int MAX_PREFIX_LENGTH = 20;
+    private static final double EXACT_BOOST = 2.0;
+    private static final int MIN_COMPACTION_TOMBSTONES = 1024;
+
+    final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, IntPostings> prefixes = new HashMap<>();
+    private final Map<String, IntPostings> terms = new HashMap<>();
+    private final LongIntMap docById = new LongIntMap();
+    private final BitSet deleted = new BitSet();
+    private long[] ids = new long[16];
+    private String[] names = new String[16];
+    private String[] details = new String[16];
+    private int[] lengths = new int[16];
+    private int docCount;
+    private int tombstones;
+
+    // the tokens a doc is found by
+    abstract List<String> tokens(String name, String detail);
+
+    // posts the doc in the subclass's own lists; called with the write lock held
+    abstract void postExtra(int doc, List<String> tokens, String detail);
+
+    abstract void clearExtra();
+
+    public void index(Long id, String name, String detail) {
+        lock.writeLock().lock();
+        try {
+            put(id, name, detail);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            tombstone(id);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            reset();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // with the write lock held
+    void put(long id, String name, String detail) {
+        tombstone(id);
+        addDoc(id, name, detail);
+        compactIfNeeded();
+    }
+
+    // with a lock held; LongIntMap.MISSING when the entity is not indexed
+    int docOf(long id) {
+        return docById.get(id);
+    }
+
+    long id(int doc) {
+        return ids[doc];
+    }
+
+    String name(int doc) {
+        return names[doc];
+    }
+
+    String detail(int doc) {
+        return details[doc];
+    }
+
+    boolean isDeleted(int doc) {
+        return deleted.get(doc);
+    }
+
+    // with the read lock held: the live docs having a token that starts with each query token (AND), and in the
+    // filter list when there is one, best first. Without query tokens every doc in the filter scores the same.
+    TopK prefixMatches(List<String> queryTokens, IntPostings filter, int limit) {
+        IntPostings[] lists = new IntPostings[queryTokens.size() + (filter == null ? 0 : 1)];
+        for (int i = 0; i < queryTokens.size(); i++) {
+            lists[i] = prefixes.get(prefixKey(queryTokens.get(i)));
+            if (lists[i] == null) {
+                return new TopK(0);
+            }
+        }
+        if (filter != null) {
+            lists[lists.length - 1] = filter;
+        }
+        IntPostings[] sorted = lists.clone();
+        Arrays.sort(sorted, (a, b) -> Integer.compare(a.size(), b.size())); //intersect from the rarest list down
+        int[] candidates = sorted[0].toArray();
+        int count = candidates.length;
+        for (int i = 1; i < sorted.length && count > 0; i++) {
+            count = sorted[i].retainAll(candidates, count);
+        }
+
+        int live = docById.size();
+        double[] weights = new double[queryTokens.size()];
+        IntPostings[] exact = new IntPostings[queryTokens.size()];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = Math.log(1.0 + (double) live / Math.max(1, lists[i].size()));
+            exact[i] = terms.get(queryTokens.get(i));
+        }
+        TopK top = new TopK(Math.min(limit, count));
+        for (int c = 0; c < count; c++) {
+            int doc = candidates[c];
+            if (deleted.get(doc) || !matchesLongTokens(queryTokens, doc)) {
+                continue;
+            }
+            double score = 0;
+            for (int i = 0; i < weights.length; i++) {
+                score += exact[i] != null && exact[i].contains(doc) ? weights[i] * EXACT_BOOST : weights[i];
+            }
+            top.offer(doc, queryTokens.isEmpty() ? 1.0 : score / Math.sqrt(lengths[doc]));
+        }
+        return top;
+    }
+
+    // prefixes are only posted up to MAX_PREFIX_LENGTH, so longer query tokens are checked against the doc's tokens
+    private boolean matchesLongTokens(List<String> queryTokens, int doc) {
+        for (String token : queryTokens) {
+            if (token.length() > MAX_PREFIX_LENGTH
+                    && tokens(names[doc], details[doc]).stream().noneMatch(term -> term.startsWith(token))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void addDoc(long id, String name, String detail) {
+        int doc = docCount++;
+        if (doc == ids.length) {
+            int capacity = doc + (doc >> 1);
+            ids = Arrays.copyOf(ids, capacity);
+            names = Arrays.copyOf(names, capacity);
+            details = Arrays.copyOf(details, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+        List<String> tokens = tokens(name, detail);
+        ids[doc] = id;
+        names[doc] = name;
+        details[doc] = detail;
+        lengths[doc] = Math.max(1, tokens.size());
+        docById.put(id, doc);
+        for (String token : tokens) {
+            terms.computeIfAbsent(token, key -> new IntPostings()).add(doc);
+            for (int end = 1; end <= Math.min(token.length(), MAX_PREFIX_LENGTH); end++) {
+                prefixes.computeIfAbsent(token.substring(0, end), key -> new IntPostings()).add(doc);
+            }
+        }
+        postExtra(doc, tokens, detail);
+    }
+
+    private void tombstone(long id) {
+        int doc = docById.remove(id);
+        if (doc != LongIntMap.MISSING) {
+            deleted.set(doc);
+            tombstones++;
+            names[doc] = null;
+            details[doc] = null;
+        }
+    }
+
+    // postings never shrink in place; once a quarter of the docs are dead the live ones are re-added from scratch
+    private void compactIfNeeded() {
+        if (tombstones < MIN_COMPACTION_TOMBSTONES || tombstones * 4 < docCount) {
+            return;
+        }
+        long[] oldIds = ids;
+        String[] oldNames = names;
+        String[] oldDetails = details;
+        BitSet oldDeleted = (BitSet) deleted.clone();
+        int oldCount = docCount;
+        reset();
+        for (int doc = 0; doc < oldCount; doc++) {
+            if (!oldDeleted.get(doc)) {
+                addDoc(oldIds[doc], oldNames[doc], oldDetails[doc]);
+            }
+        }
+    }
+
+    private void reset() {
+        prefixes.clear();
+        terms.clear();
+        clearExtra();
+        docById.clear();
+        deleted.clear();
+        tombstones = 0;
+        ids = new long[16];
+        names = new String[16];
+        details = new String[16];
+        lengths = new int[16];
+        docCount = 0;
+    }
+
+    private static String prefixKey(String token) {
+        return token.length() > MAX_PREFIX_LENGTH ? token.substring(0, MAX_PREFIX_LENGTH) : token;
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.search;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.example.entity.Product;
+import org.example.service.ProductSearchService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+// Created by Hibernate through Spring; the provider keeps slices without the search service (e.g. @DataJpaTest) working.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public class ProductIndexListener {
+    private final ObjectProvider<ProductSearchService> productSearchService;
+
+    @Autowired
+    public ProductIndexListener(ObjectProvider<ProductSearchService> productSearchService) {
+        this.productSearchService = productSearchService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void productSaved(Product product) {
+        productSearchService.ifAvailable(service -> service.productSaved(product));
+    }
+
+    @PostRemove
+    public void productRemoved(Product product) {
+        productSearchService.ifAvailable(service -> service.productRemoved(product.getProductId()));
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.search;
+
+import org.example.dto.ProductSearchResult;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+// In-memory inverted index over product names (see PrefixIndex), with a list per category so a search can be
+// narrowed to one.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+@Component
+public class ProductSearchIndex extends PrefixIndex {
+    private final Map<String, IntPostings> categories = new HashMap<>();
+
+    // every query token must match the start of a name token (AND); an empty query with a category lists that category
+    public List<ProductSearchResult> search(String query, String category, int limit) {
+        List<String> queryTokens = new ArrayList<>(new LinkedHashSet<>(SearchText.tokens(query)));
+        boolean byCategory = category != null && !category.isBlank();
+        if (limit <= 0 || (queryTokens.isEmpty() && !byCategory)) {
+            return new ArrayList<>();
+        }
+        lock.readLock().lock();
+        try {
+            IntPostings inCategory = null;
+            if (byCategory) {
+                inCategory = categories.get(SearchText.normalize(category));
+                if (inCategory == null) {
+                    return new ArrayList<>();
+                }
+            }
+            TopK top = prefixMatches(queryTokens, inCategory, limit);
+            List<ProductSearchResult> results = new ArrayList<>(top.size);
+            for (int i = 0; i < top.size; i++) {
+                int doc = top.docs[i];
+                results.add(new ProductSearchResult(id(doc), name(doc), detail(doc), top.scores[i]));
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    List<String> tokens(String productName, String category) {
+        return SearchText.tokens(productName);
+    }
+
+    @Override
+    void postExtra(int doc, List<String> tokens, String category) {
+        if (category != null && !category.isBlank()) {
+            categories.computeIfAbsent(SearchText.normalize(category), key -> new IntPostings()).add(doc);
+        }
+    }
+
+    @Override
+    void clearExtra() {
+        categories.clear();
+    }
+}
@@ -0,0 +1,137 @@
+package org.example.search;
+
+import org.example.dto.StoreSearchResult;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// In-memory index over store names and locations. Tokens of both fields are posted under each of their prefixes
+// (see PrefixIndex) and under their boundary-padded trigrams. A query nothing matches by prefix (usually a typo)
+// falls back to fuzzy hits: stores containing at least half of the query's trigrams.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+@Component
+public class StoreSearchIndex extends PrefixIndex {
+    static final double MIN_FUZZY_SIMILARITY = 0.5;
+    // trigrams shared by this many stores say little about a match and would make fuzzy lookups scale with the table
+    static final int MAX_FUZZY_POSTINGS = 50_000;
+
+    private final Map<String, IntPostings> trigrams = new HashMap<>();
+
+    // partial write: a null field keeps the indexed value; a store that is not indexed needs both fields
+    public void update(Long storeId, String storeName, String location) {
+        lock.writeLock().lock();
+        try {
+            int doc = docOf(storeId);
+            if (doc == LongIntMap.MISSING && (storeName == null || location == null)) {
+                return;
+            }
+            put(storeId, storeName != null ? storeName : name(doc), location != null ? location : detail(doc));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<StoreSearchResult> search(String query, int limit) {
+        List<String> queryTokens = new ArrayList<>(new LinkedHashSet<>(SearchText.tokens(query)));
+        List<StoreSearchResult> results = new ArrayList<>();
+        if (limit <= 0 || queryTokens.isEmpty()) {
+            return results;
+        }
+        lock.readLock().lock();
+        try {
+            TopK top = prefixMatches(queryTokens, null, limit);
+            for (int i = 0; i < top.size; i++) {
+                results.add(result(top.docs[i], top.scores[i], false));
+            }
+            if (results.isEmpty()) {
+                fuzzyMatches(queryTokens, limit, results);
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void fuzzyMatches(List<String> queryTokens, int limit, List<StoreSearchResult> results) {
+        Set<String> queryTrigrams = new LinkedHashSet<>();
+        for (String token : queryTokens) {
+            addTrigrams(token, queryTrigrams);
+        }
+        // every posting of every query trigram, sorted, so each run of one doc id counts the trigrams it shares
+        List<IntPostings> lists = new ArrayList<>();
+        int total = 0;
+        for (String trigram : queryTrigrams) {
+            IntPostings postings = trigrams.get(trigram);
+            if (postings != null && postings.size() <= MAX_FUZZY_POSTINGS) {
+                lists.add(postings);
+                total += postings.size();
+            }
+        }
+        int[] hits = new int[total];
+        int at = 0;
+        for (IntPostings postings : lists) {
+            int[] docs = postings.toArray();
+            System.arraycopy(docs, 0, hits, at, docs.length);
+            at += docs.length;
+        }
+        Arrays.sort(hits);
+
+        int required = (int) Math.ceil(queryTrigrams.size() * MIN_FUZZY_SIMILARITY);
+        TopK top = new TopK(limit);
+        for (int start = 0, end; start < hits.length; start = end) {
+            int doc = hits[start];
+            end = start + 1;
+            while (end < hits.length && hits[end] == doc) {
+                end++;
+            }
+            int shared = end - start;
+            if (shared >= required && !isDeleted(doc)) {
+                top.offer(doc, (double) shared / queryTrigrams.size());
+            }
+        }
+        for (int i = 0; i < top.size; i++) {
+            results.add(result(top.docs[i], top.scores[i], true));
+        }
+    }
+
+    private StoreSearchResult result(int doc, double score, boolean fuzzy) {
+        return new StoreSearchResult(id(doc), name(doc), detail(doc), score, fuzzy);
+    }
+
+    @Override
+    List<String> tokens(String storeName, String location) {
+        List<String> tokens = SearchText.tokens(storeName);
+        tokens.addAll(SearchText.tokens(location));
+        return tokens;
+    }
+
+    @Override
+    void postExtra(int doc, List<String> tokens, String location) {
+        Set<String> docTrigrams = new LinkedHashSet<>();
+        for (String token : tokens) {
+            addTrigrams(token, docTrigrams);
+        }
+        for (String trigram : docTrigrams) {
+            trigrams.computeIfAbsent(trigram, key -> new IntPostings()).add(doc);
+        }
+    }
+
+    @Override
+    void clearExtra() {
+        trigrams.clear();
+    }
+
+    // "$" marks the token boundaries, so "ab" still yields "$ab" and "ab$"
+    private static void addTrigrams(String token, Set<String> into) {
+        String padded = "$" + token + "$";
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            into.add(padded.substring(i, i + 3));
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package org.example.search;
+
+// Bounded list of the best scoring docs, kept sorted by descending score; ties keep the older (lower) doc first.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+final class TopK {
+    final int[] docs;
+    final double[] scores;
+    int size;
+
+    TopK(int capacity) {
+        docs = new int[capacity];
+        scores = new double[capacity];
+    }
+
+    void offer(int doc, double score) {
+        if (docs.length == 0 || (size == docs.length && score <= scores[size - 1])) {
+            return;
+        }
+        int at = size == docs.length ? size - 1 : size++;
+        while (at > 0 && scores[at - 1] < score) {
+            docs[at] = docs[at - 1];
+            scores[at] = scores[at - 1];
+            at--;
+        }
+        docs[at] = doc;
+        scores[at] = score;
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.service;
+
+import jakarta.persistence.EntityManager;
+import org.example.dto.ProductSearchResult;
+import org.example.entity.Product;
+import org.example.repository.ProductRepository;
+import org.example.search.ProductSearchIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+@Service
+@Profile("!reactive")
+public class ProductSearchService {
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    private final ProductRepository productRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final EntityManager entityManager;
+
+    @Autowired
+    public ProductSearchService(ProductRepository productRepository, ProductSearchIndex productSearchIndex, EntityManager entityManager) {
+        this.productRepository = productRepository;
+        this.productSearchIndex = productSearchIndex;
+        this.entityManager = entityManager;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void buildIndex() {
+        productSearchIndex.clear();
+        try (Stream<Product> products = productRepository.streamAll()) {
+            products.forEach(product -> {
+                productSearchIndex.index(product.getProductId(), product.getProductName(), product.getCategory());
+                entityManager.detach(product);
+            });
+        }
+    }
+
+    public List<ProductSearchResult> search(String query, String category, int limit) {
+        return productSearchIndex.search(query, category, Math.max(1, Math.min(limit, MAX_LIMIT)));
+    }
+
+    // the index only sees committed rows; a rolled back write never becomes searchable
+    public void productSaved(Product product) {
+        Long productId = product.getProductId();
+        String productName = product.getProductName();
+        String category = product.getCategory();
+        afterCommit(() -> productSearchIndex.index(productId, productName, category));
+    }
+
+    public void productRemoved(Long productId) {
+        afterCommit(() -> productSearchIndex.remove(productId));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,263 @@
+package org.example.service;
+
+import javassist.NotFoundException;
+import org.example.changes.ChangeLog;
+import org.example.dto.BulkItemResult;
+import org.example.dto.PurchaseItemRequest;
+import org.example.dto.PurchasePage;
+import org.example.dto.PurchaseRequest;
+import org.example.dto.PurchaseSummary;
+import org.example.entity.Purchase;
+import org.example.entity.PurchaseProduct;
+import org.example.entity.PurchaseProductPk;
+import org.example.entity.Store;
+import org.example.repository.ProductRepository;
+import org.example.repository.PurchaseProductRepository;
+import org.example.repository.PurchaseRepository;
+import org.example.repository.StoreRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+@Service
+@Profile("!reactive")
+public class PurchaseService {
+    public static final int BATCH_CHUNK_SIZE = 500;
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private final PurchaseRepository purchaseRepository;
+    private final PurchaseProductRepository purchaseProductRepository;
+    private final ProductRepository productRepository;
+    private final StoreRepository storeRepository;
+    private final StoreService storeService;
+    private final SalesRollupService salesRollupService;
+    private final ChangeLog changeLog;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public PurchaseService(PurchaseRepository purchaseRepository,
+                           PurchaseProductRepository purchaseProductRepository,
+                           ProductRepository productRepository,
+                           StoreRepository storeRepository,
+                           StoreService storeService,
+                           SalesRollupService salesRollupService,
+                           ChangeLog changeLog,
+                           TransactionTemplate transactionTemplate) {
+        this.purchaseRepository = purchaseRepository;
+        this.purchaseProductRepository = purchaseProductRepository;
+        this.productRepository = productRepository;
+        this.storeRepository = storeRepository;
+        this.storeService = storeService;
+        this.salesRollupService = salesRollupService;
+        this.changeLog = changeLog;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Transactional
+    public Purchase createPurchase(PurchaseRequest request) throws NotFoundException {
+        String error = validate(request);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+        Store store = storeService.getStoreById(request.getStoreId())
+                .orElseThrow(() -> new NotFoundException("Store with ID " + request.getStoreId() + " does not exist"));
+        Set<Long> existingProducts = existingProductIds(productIds(request));
+        for (PurchaseItemRequest item : request.getItems()) {
+            if (!existingProducts.contains(item.getProductId())) {
+                throw new NotFoundException("Product with ID " + item.getProductId() + " does not exist");
+            }
+        }
+
+        Purchase purchase = purchaseRepository.save(newPurchase(store, request));
+        //line items have assigned ids, so Hibernate batches these inserts (hibernate.jdbc.batch_size)
+        List<PurchaseProduct> lineItems = lineItems(purchase.getPurchaseId(), request);
+        purchaseProductRepository.saveAll(lineItems);
+        salesRollupService.recordPurchases(List.of(purchase), lineItems);
+        changeLog.purchasesCreated(List.of(purchase), lineItems);
+        return purchase;
+    }
+
+    public List<BulkItemResult> createPurchases(Iterator<PurchaseRequest> requests) {
+        List<BulkItemResult> results = new ArrayList<>();
+        List<PurchaseRequest> chunk = new ArrayList<>(BATCH_CHUNK_SIZE);
+        while (requests.hasNext()) {
+            chunk.add(requests.next());
+            if (chunk.size() == BATCH_CHUNK_SIZE) {
+                results.addAll(createChunk(chunk, results.size()));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(createChunk(chunk, results.size()));
+        }
+        return results;
+    }
+
+    private List<BulkItemResult> createChunk(List<PurchaseRequest> chunk, int firstIndex) {
+        Set<Long> storeIds = new HashSet<>();
+        Set<Long> productIds = new HashSet<>();
+        for (PurchaseRequest request : chunk) {
+            if (validate(request) == null) {
+                storeIds.add(request.getStoreId());
+                productIds.addAll(productIds(request));
+            }
+        }
+        //two lookups for the whole chunk instead of two per receipt
+        Set<Long> existingStores = storeIds.isEmpty() ? Collections.emptySet() : new HashSet<>(storeRepository.findExistingStoreIds(storeIds));
+        Set<Long> existingProducts = existingProductIds(productIds);
+
+        List<BulkItemResult> results = new ArrayList<>(chunk.size());
+        List<BulkItemResult> created = new ArrayList<>();
+        List<PurchaseRequest> accepted = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            PurchaseRequest request = chunk.get(i);
+            String error = validate(request);
+            if (error == null && !existingStores.contains(request.getStoreId())) {
+                error = "Store with ID " + request.getStoreId() + " does not exist";
+            }
+            if (error == null) {
+                for (PurchaseItemRequest item : request.getItems()) {
+                    if (!existingProducts.contains(item.getProductId())) {
+                        error = "Product with ID " + item.getProductId() + " does not exist";
+                        break;
+                    }
+                }
+            }
+            BulkItemResult result;
+            if (error != null) {
+                result = BulkItemResult.rejected(firstIndex + i, BulkItemResult.Status.INVALID, error);
+            } else {
+                result = BulkItemResult.created(firstIndex + i);
+                created.add(result);
+                accepted.add(request);
+            }
+            results.add(result);
+        }
+
+        if (!accepted.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Purchase> purchases = new ArrayList<>(accepted.size());
+                for (PurchaseRequest request : accepted) {
+                    purchases.add(newPurchase(Store.builder().storeId(request.getStoreId()).build(), request));
+                }
+                List<Long> ids = purchaseRepository.insertAll(purchases);
+                List<PurchaseProduct> lineItems = new ArrayList<>();
+                for (int i = 0; i < ids.size(); i++) {
+                    purchases.get(i).setPurchaseId(ids.get(i));
+                    created.get(i).setId(ids.get(i));
+                    lineItems.addAll(lineItems(ids.get(i), accepted.get(i)));
+                }
+                purchaseProductRepository.insertAll(lineItems);
+                salesRollupService.recordPurchases(purchases, lineItems);
+                changeLog.purchasesCreated(purchases, lineItems);
+            });
+        }
+        return results;
+    }
+
+    // cursor format is "<purchaseDate>:<purchaseId>" of the last purchase on the previous page
+    @Transactional(readOnly = true)
+    public PurchasePage getStorePurchases(Long storeId, Date from, Date to, String after, int limit) throws NotFoundException {
+        if (from.after(to)) {
+            throw new IllegalArgumentException("The start date must not be after the end date.");
+        }
+        if (storeService.getStoreById(storeId).isEmpty()) {
+            throw new NotFoundException("Store with ID " + storeId + " does not exist");
+        }
+        Date afterDate = from;
+        long afterId = 0;
+        if (after != null) {
+            int separator = after.lastIndexOf(':');
+            try {
+                afterDate = Date.valueOf(after.substring(0, separator));
+                afterId = Long.parseLong(after.substring(separator + 1));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid purchase cursor: " + after);
+            }
+            if (afterDate.before(from)) {
+                afterDate = from;
+                afterId = 0;
+            }
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<PurchaseSummary> purchases = purchaseRepository.findSummariesByStore(storeId, afterDate, afterId, to, PageRequest.of(0, pageSize + 1));
+        if (purchases.size() <= pageSize) {
+            return new PurchasePage(purchases, null);
+        }
+        List<PurchaseSummary> page = new ArrayList<>(purchases.subList(0, pageSize));
+        PurchaseSummary last = page.get(pageSize - 1);
+        return new PurchasePage(page, last.getPurchaseDate() + ":" + last.getPurchaseId());
+    }
+
+    // the checks that need no database, shared with the write-behind ingestion path
+    public static String validate(PurchaseRequest request) {
+        if (request.getStoreId() == null) {
+            return "Store ID is required.";
+        }
+        if (request.getItems() == null || request.getItems().isEmpty()) {
+            return "A purchase needs at least one item.";
+        }
+        Set<Long> seen = new HashSet<>();
+        for (PurchaseItemRequest item : request.getItems()) {
+            if (item.getProductId() == null) {
+                return "Every item needs a product ID.";
+            }
+            if (item.getQuantity() <= 0) {
+                return "Item quantity must be positive.";
+            }
+            if (item.getPrice() < 0 || item.getWeight() < 0) {
+                return "Item price and weight cannot be negative.";
+            }
+            if (!seen.add(item.getProductId())) {
+                return "Product with ID " + item.getProductId() + " appears more than once.";
+            }
+        }
+        return null;
+    }
+
+    private Set<Long> existingProductIds(Collection<Long> productIds) {
+        return productIds.isEmpty() ? Collections.emptySet() : new HashSet<>(productRepository.findExistingProductIds(productIds));
+    }
+
+    private static List<Long> productIds(PurchaseRequest request) {
+        List<Long> productIds = new ArrayList<>(request.getItems().size());
+        for (PurchaseItemRequest item : request.getItems()) {
+            productIds.add(item.getProductId());
+        }
+        return productIds;
+    }
+
+    private static Purchase newPurchase(Store store, PurchaseRequest request) {
+        Purchase purchase = new Purchase();
+        purchase.setStore(store);
+        purchase.setPurchaseDate(request.getPurchaseDate() != null ? request.getPurchaseDate() : new Date(System.currentTimeMillis()));
+        return purchase;
+    }
+
+    private static List<PurchaseProduct> lineItems(Long purchaseId, PurchaseRequest request) {
+        List<PurchaseProduct> lineItems = new ArrayList<>(request.getItems().size());
+        for (PurchaseItemRequest item : request.getItems()) {
+            PurchaseProduct purchaseProduct = new PurchaseProduct();
+            purchaseProduct.setPpId(new PurchaseProductPk(item.getProductId(), purchaseId));
+            purchaseProduct.setQuantity(item.getQuantity());
+            purchaseProduct.setPrice(item.getPrice());
+            purchaseProduct.setWeight(item.getWeight());
+            lineItems.add(purchaseProduct);
+        }
+        return lineItems;
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.service;
+
+import org.example.dto.DailySales;
+import org.example.dto.SalesReport;
+import org.example.entity.Purchase;
+import org.example.entity.PurchaseProduct;
+import org.example.entity.StoreDailySales;
+import org.example.entity.StoreDailySalesPk;
+import org.example.repository.StoreDailySalesRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+@Service
+@Profile("!reactive")
+public class SalesRollupService {
+    private static final Comparator<StoreDailySales> BUCKET_ORDER = Comparator
+            .comparing((StoreDailySales sales) -> sales.getSalesId().getStoreId())
+            .thenComparing(sales -> sales.getSalesId().getSalesDate());
+
+    private final StoreDailySalesRepository storeDailySalesRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration rebuildTimeout;
+
+    @Autowired
+    public SalesRollupService(StoreDailySalesRepository storeDailySalesRepository, TransactionTemplate transactionTemplate,
+                              @Value("${app.sales.rebuild-timeout:10m}") Duration rebuildTimeout) {
+        this.storeDailySalesRepository = storeDailySalesRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.rebuildTimeout = rebuildTimeout;
+    }
+
+    // runs inside the purchase write so the buckets commit or roll back together with the purchases
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordPurchases(List<Purchase> purchases, List<PurchaseProduct> lineItems) {
+        Map<Long, StoreDailySalesPk> bucketByPurchase = new HashMap<>();
+        for (Purchase purchase : purchases) {
+            bucketByPurchase.put(purchase.getPurchaseId(),
+                    new StoreDailySalesPk(purchase.getStore().getStoreId(), purchase.getPurchaseDate()));
+        }
+        Map<StoreDailySalesPk, StoreDailySales> deltas = new HashMap<>();
+        for (PurchaseProduct item : lineItems) {
+            StoreDailySalesPk bucket = bucketByPurchase.get(item.getPpId().getPurchaseId());
+            StoreDailySales delta = deltas.computeIfAbsent(bucket, key -> new StoreDailySales(key, 0, 0, 0));
+            delta.setRevenue(delta.getRevenue() + item.getPrice() * item.getQuantity());
+            delta.setUnits(delta.getUnits() + item.getQuantity());
+            delta.setWeight(delta.getWeight() + item.getWeight() * item.getQuantity());
+        }
+        List<StoreDailySales> sorted = new ArrayList<>(deltas.values());
+        sorted.sort(BUCKET_ORDER); //same lock order in every transaction, so concurrent uploads do not deadlock
+        storeDailySalesRepository.addAll(sorted);
+    }
+
+    @Transactional(readOnly = true)
+    public SalesReport getSales(Long storeId, Date from, Date to) {
+        if (from.after(to)) {
+            throw new IllegalArgumentException("The start date must not be after the end date.");
+        }
+        List<DailySales> days = new ArrayList<>();
+        double revenue = 0;
+        long units = 0;
+        double weight = 0;
+        for (StoreDailySales bucket : storeDailySalesRepository.findByStoreAndDateRange(storeId, from, to)) {
+            days.add(new DailySales(bucket.getSalesId().getSalesDate(), bucket.getRevenue(), bucket.getUnits(), bucket.getWeight()));
+            revenue += bucket.getRevenue();
+            units += bucket.getUnits();
+            weight += bucket.getWeight();
+        }
+        return new SalesReport(storeId, from, to, revenue, units, weight, days);
+    }
+
+    // backfill/repair: recomputes the buckets of the range from the purchase tables in one transaction. The transaction
+    // has the rebuild timeout, which JdbcTemplate passes on as the statements' query timeout, so a rebuild the request
+    // gave up on is aborted and rolled back by the database instead of running on
+    public int rebuild(Date from, Date to) {
+        if (from.after(to)) {
+            throw new IllegalArgumentException("The start date must not be after the end date.");
+        }
+        TransactionTemplate rebuild = new TransactionTemplate(transactionTemplate.getTransactionManager(), transactionTemplate);
+        rebuild.setTimeout((int) Math.max(1, rebuildTimeout.toSeconds()));
+        return rebuild.execute(status -> storeDailySalesRepository.rebuild(from, to));
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.service;
+
+import org.springframework.http.MediaType;
+
+import java.util.List;
+import java.util.function.Function;
+
+// ETags for store resources. They only depend on ids and versions, so they can be computed from a version-only
+// query without loading or serializing the stores. Single stores get strong ETags, since If-Match carries them back;
+// pages get weak ones, since they are only revalidated and the servlet container only gzips bodies without a strong ETag.
+// JSON is the plain form; other representations of the same version (CBOR, Smile) carry their subtype as a suffix.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public final class StoreETags {
+    private StoreETags() {
+    }
+
+    public static String of(Long storeId, Long version) {
+        return "\"" + storeId + "-" + (version == null ? 0L : version) + "\"";
+    }
+
+    // "1-3" as CBOR is "1-3+cbor", so a cache never answers a CBOR request with a JSON body it validated
+    public static String forRepresentation(String eTag, MediaType contentType) {
+        if (contentType == null || MediaType.APPLICATION_JSON.equalsTypeAndSubtype(contentType)) {
+            return eTag;
+        }
+        return eTag.substring(0, eTag.length() - 1) + "+" + contentType.getSubtype() + "\"";
+    }
+
+    // If-None-Match uses the weak comparison: W/ prefixes are ignored and * matches any existing store
+    public static boolean matches(String ifNoneMatch, String eTag) {
+        String opaque = opaque(eTag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = opaque(candidate.trim());
+            if (value.equals("*") || value.equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaque(String eTag) {
+        return eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+    }
+
+    // reads the version back out of an If-Match value, in any representation; anything but one of this store's own
+    // strong ETags is a client error
+    public static long versionOf(Long storeId, String eTag) {
+        String prefix = "\"" + storeId + "-";
+        String value = eTag.trim();
+        if (value.startsWith(prefix) && value.endsWith("\"") && value.length() > prefix.length() + 1) {
+            int end = value.indexOf('+', prefix.length());
+            try {
+                return Long.parseLong(value.substring(prefix.length(), end < 0 ? value.length() - 1 : end));
+            } catch (NumberFormatException e) {
+                //falls through to the error below
+            }
+        }
+        throw new IllegalArgumentException("If-Match must be the current ETag of store " + storeId + ".");
+    }
+
+    // checksum over the (id, version) pairs of a page plus whether a next page exists, since that changes the cursor header
+    public static <T> String ofPage(List<T> rows, Function<T, Long> storeId, Function<T, Long> version, boolean hasNext) {
+        long hash = rows.size() * 2L + (hasNext ? 1 : 0);
+        for (T row : rows) {
+            hash = mix(hash, storeId.apply(row));
+            Long rowVersion = version.apply(row);
+            hash = mix(hash, rowVersion == null ? 0L : rowVersion);
+        }
+        return "W/\"p" + Long.toHexString(hash) + "\"";
+    }
+
+    private static long mix(long hash, long value) {
+        long z = (hash ^ value) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
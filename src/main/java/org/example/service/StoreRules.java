@@ -0,0 +1,112 @@
+package org.example.service;
+
+import javassist.NotFoundException;
+import org.example.dto.BulkItemResult;
+import org.example.dto.StoreUpdate;
+import org.example.entity.Store;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Set;
+
+// Store business rules shared by the servlet StoreService and the reactive stack, so both answer the same way.
+@SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
+public final class StoreRules {
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int BULK_CHUNK_SIZE = 1000;
+    public static final int MAX_LOOKUP_IDS = 5000;
+    public static final String DUPLICATE_STORE_MESSAGE = "A store with the same name already exists at the same location.";
+    public static final String STORE_HAS_PURCHASES_MESSAGE = "Stores with purchases cannot be deleted.";
+
+    private StoreRules() {
+    }
+
+    public static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    // ids and versions are assigned by the database; a client-supplied version would make save() merge instead of insert
+    public static void prepareForCreate(Store store) {
+        store.setStoreId(null);
+        store.setVersion(null);
+        store.updateNameLocationKey();
+    }
+
+    public static void checkLookupIds(Collection<Long> storeIds) {
+        if (storeIds.size() > MAX_LOOKUP_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_LOOKUP_IDS + " store ids can be looked up at once.");
+        }
+        for (Long storeId : storeIds) {
+            if (storeId == null) {
+                throw new IllegalArgumentException("Store ids must not be null.");
+            }
+        }
+    }
+
+    // one rule for single and bulk patches: a patch is always guarded by the version the client last saw and sets
+    // at least one field, so it never bumps the version without changing anything
+    public static void requirePatch(StoreUpdate update) {
+        if (update.getVersion() == null) {
+            throw new IllegalArgumentException("The store version is required, either in the body or as If-Match.");
+        }
+        if (update.getStoreName() == null && update.getLocation() == null) {
+            throw new IllegalArgumentException("A store name or location is required.");
+        }
+    }
+
+    // null when the item can be inserted, in which case its key is added to taken; the set also catches duplicates inside a request
+    public static BulkItemResult rejectCreate(int index, Store store, Set<String> taken) {
+        if (store.getStoreName() == null || store.getLocation() == null) {
+            return BulkItemResult.rejected(index, BulkItemResult.Status.INVALID, "Store name and location are required.");
+        }
+        if (!taken.add(store.getNameLocationKey())) {
+            return BulkItemResult.rejected(index, BulkItemResult.Status.DUPLICATE, DUPLICATE_STORE_MESSAGE);
+        }
+        return null;
+    }
+
+    // null when the item can be sent to the database; see requirePatch
+    public static BulkItemResult rejectPatch(int index, StoreUpdate update) {
+        if (update.getStoreId() == null || update.getVersion() == null
+                || (update.getStoreName() == null && update.getLocation() == null)) {
+            return BulkItemResult.rejected(index, BulkItemResult.Status.INVALID,
+                    "Store id, version and a name or location are required.");
+        }
+        return null;
+    }
+
+    // count is the rows the versioned UPDATE matched, or -1 when it hit the name+location index
+    public static BulkItemResult patchResult(int index, StoreUpdate update, int count, boolean exists) {
+        if (count < 0) {
+            return BulkItemResult.rejected(index, BulkItemResult.Status.DUPLICATE, DUPLICATE_STORE_MESSAGE);
+        }
+        if (count == 0 && exists) {
+            return BulkItemResult.rejected(index, BulkItemResult.Status.CONFLICT,
+                    "Store with ID " + update.getStoreId() + " is no longer at version " + update.getVersion());
+        }
+        if (count == 0) {
+            return BulkItemResult.rejected(index, BulkItemResult.Status.NOT_FOUND, "Store with ID " + update.getStoreId() + " does not exist");
+        }
+        return BulkItemResult.updated(index, update.getStoreId());
+    }
+
+    public static NotFoundException notFound(Long storeId) {
+        return new NotFoundException("Store with ID " + storeId + " does not exist");
+    }
+
+    public static OptimisticLockingFailureException staleVersion(Long storeId, Long current, Long expected) {
+        return new OptimisticLockingFailureException("Store with ID " + storeId + " is at version " + current + ", not " + expected);
+    }
+
+    public static RuntimeException translateDuplicate(DataIntegrityViolationException e) {
+        return isDuplicate(e) ? new IllegalStateException(DUPLICATE_STORE_MESSAGE, e) : e;
+    }
+
+    public static boolean isDuplicate(DataIntegrityViolationException e) {
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains(Store.NAME_LOCATION_CONSTRAINT);
+    }
+}
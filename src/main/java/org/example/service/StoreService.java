@@ -1,54 +1,234 @@
 package org.example.service;
 
+import jakarta.persistence.EntityManager;
 import javassist.NotFoundException;
+import org.example.cache.StoreCache;
+import org.example.cache.StoreCacheStats;
+import org.example.changes.ChangeLog;
+import org.example.dto.BulkItemResult;
+import org.example.dto.StoreDeleteResult;
+import org.example.dto.StoreLookup;
+import org.example.dto.StorePage;
+import org.example.dto.StoreUpdate;
+import org.example.dto.StoreVersion;
+import org.example.datasource.DataSourceRouting;
 import org.example.entity.Store;
 import org.example.repository.StoreRepository;
+import org.example.search.StoreSearchIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @SuppressWarnings({"checkstyle:MissingJavadocType", "checkstyle:Indentation"})
 @Service
+@Profile("!reactive")
 public class StoreService {
+    public static final int DEFAULT_PAGE_SIZE = StoreRules.DEFAULT_PAGE_SIZE;
+    public static final int MAX_PAGE_SIZE = StoreRules.MAX_PAGE_SIZE;
+    public static final int BULK_CHUNK_SIZE = StoreRules.BULK_CHUNK_SIZE;
+    public static final int MAX_LOOKUP_IDS = StoreRules.MAX_LOOKUP_IDS;
+    public static final String DUPLICATE_STORE_MESSAGE = StoreRules.DUPLICATE_STORE_MESSAGE;
+    public static final String STORE_HAS_PURCHASES_MESSAGE = StoreRules.STORE_HAS_PURCHASES_MESSAGE;
+
     private final StoreRepository storeRepository;
+    private final EntityManager entityManager;
+    private final StoreCache storeCache;
+    private final StoreSearchIndex storeSearchIndex;
+    private final ChangeLog changeLog;
+    private final TransactionTemplate transactionTemplate;
 
+    // each write commits together with its change events (ChangeLog); the probes that explain a failed write run
+    // after its transaction, as before
     @Autowired
-    public StoreService(StoreRepository storeRepository) {
+    public StoreService(StoreRepository storeRepository, EntityManager entityManager, StoreCache storeCache,
+                        StoreSearchIndex storeSearchIndex, ChangeLog changeLog, TransactionTemplate transactionTemplate) {
         this.storeRepository = storeRepository;
+        this.entityManager = entityManager;
+        this.storeCache = storeCache;
+        this.storeSearchIndex = storeSearchIndex;
+        this.changeLog = changeLog;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Transactional(readOnly = true)
+    public StorePage getAllStores(Long after, int limit) {
+        int pageSize = StoreRules.pageSize(limit);
+        // one extra row tells us whether there is a next page without a count query
+        List<Store> stores = storeRepository.findByStoreIdGreaterThanOrderByStoreIdAsc(
+                after == null ? 0L : after, PageRequest.of(0, pageSize + 1));
+        if (stores.size() <= pageSize) {
+            return new StorePage(stores, null);
+        }
+        List<Store> page = new ArrayList<>(stores.subList(0, pageSize));
+        return new StorePage(page, page.get(pageSize - 1).getStoreId());
+    }
+
+    // ETag of the page getAllStores would return, from ids and versions only
+    @Transactional(readOnly = true)
+    public String getStoresETag(Long after, int limit) {
+        int pageSize = StoreRules.pageSize(limit);
+        List<StoreVersion> versions = storeRepository.findVersionsAfter(after == null ? 0L : after, PageRequest.of(0, pageSize + 1));
+        boolean hasNext = versions.size() > pageSize;
+        return StoreETags.ofPage(hasNext ? versions.subList(0, pageSize) : versions,
+                StoreVersion::getStoreId, StoreVersion::getVersion, hasNext);
     }
 
-    public List<Store> getAllStores() {
-        return storeRepository.findAll();
+    @Transactional(readOnly = true)
+    public void forEachStore(Consumer<Store> action) {
+        try (Stream<Store> stores = storeRepository.streamAll()) {
+            stores.forEach(store -> {
+                action.accept(store);
+                entityManager.detach(store); //keeps the persistence context from growing with the table
+            });
+        }
     }
 
     public Optional<Store> getStoreById(Long storeId) {
-        return storeRepository.findById(storeId);
+        //a cached row is served until it expires, so it must not be a lagging replica copy
+        return storeCache.get(storeId, id -> DataSourceRouting.onPrimary(() -> storeRepository.findById(id)));
+    }
+
+    // cached stores first, then one IN query per chunk of the rest; missing ids come back as not-found entries
+    @Transactional(readOnly = true)
+    public List<StoreLookup> getStoresByIds(List<Long> storeIds) {
+        StoreRules.checkLookupIds(storeIds);
+        Map<Long, Store> stores = new HashMap<>();
+        List<Long> uncached = new ArrayList<>();
+        for (Long storeId : new LinkedHashSet<>(storeIds)) {
+            Optional<Store> cached = storeCache.getIfPresent(storeId);
+            if (cached.isPresent()) {
+                stores.put(storeId, cached.get());
+            } else {
+                uncached.add(storeId);
+            }
+        }
+        //rows read here are not put in the cache, so they may come from a replica
+        for (int from = 0; from < uncached.size(); from += BULK_CHUNK_SIZE) {
+            for (Store store : storeRepository.findAllById(uncached.subList(from, Math.min(from + BULK_CHUNK_SIZE, uncached.size())))) {
+                stores.put(store.getStoreId(), store);
+            }
+        }
+        List<StoreLookup> results = new ArrayList<>(storeIds.size());
+        for (Long storeId : storeIds) {
+            results.add(new StoreLookup(storeId, stores.get(storeId)));
+        }
+        return results;
+    }
+
+    public Optional<String> getStoreETag(Long storeId) {
+        //a cached row answers without touching the database; otherwise only the version column is read
+        Optional<Store> cached = storeCache.getIfPresent(storeId);
+        if (cached.isPresent()) {
+            return Optional.of(StoreETags.of(storeId, cached.get().getVersion()));
+        }
+        return storeRepository.findVersionById(storeId).map(version -> StoreETags.of(storeId, version));
     }
 
-    public void deleteStore(Long storeId) {
-        storeRepository.deleteById(storeId);
+    public StoreCacheStats getCacheStats() {
+        return storeCache.stats();
     }
 
-    public void createStore(Store store) {
-        Optional<List<Store>> storeOptionalList = storeRepository.findStoreByStoreName(store.getStoreName());
-        if(storeOptionalList.isPresent()){
-            List<Store> storeList = storeOptionalList.get();
-            for (Store st : storeList) {
-                if (st.getLocation().equalsIgnoreCase(store.getLocation())) {//if name && location are same -> error
-                    throw new IllegalStateException("A store with the same name already exists at the same location.");
+    public void deleteStore(Long storeId) throws NotFoundException {
+        int deleted = transactionTemplate.execute(status -> {
+            int count = storeRepository.deleteWithoutPurchases(List.of(storeId));
+            if (count > 0) {
+                changeLog.storesDeleted(List.of(storeId));
+            }
+            return count;
+        });
+        if (deleted == 0) {
+            //only the failure path pays for a second query, to tell a missing store from one that has purchases
+            if (DataSourceRouting.onPrimary(() -> storeRepository.existsById(storeId))) {
+                throw new IllegalStateException(STORE_HAS_PURCHASES_MESSAGE);
+            }
+            throw StoreRules.notFound(storeId);
+        }
+        afterCommit(() -> {
+            storeCache.invalidate(storeId);
+            storeSearchIndex.remove(storeId);
+        });
+    }
+
+    // ids that do not exist are ignored; the ones purchases still reference are kept and reported back
+    public StoreDeleteResult deleteStores(Collection<Long> storeIds) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(storeIds));
+        int deleted = 0;
+        List<Long> withPurchases = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += BULK_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + BULK_CHUNK_SIZE, ids.size()));
+            int[] count = new int[1];
+            //the probe runs inside the transaction, so the events name exactly the stores this chunk deleted
+            Set<Long> remaining = transactionTemplate.execute(status -> {
+                count[0] = storeRepository.deleteWithoutPurchases(chunk);
+                Set<Long> kept = count[0] == chunk.size() ? Set.of()
+                        : new HashSet<>(DataSourceRouting.onPrimary(() -> storeRepository.findExistingStoreIds(chunk)));
+                List<Long> gone = new ArrayList<>(chunk.size());
+                for (Long id : chunk) {
+                    if (!kept.contains(id)) {
+                        gone.add(id);
+                    }
+                }
+                changeLog.storesDeleted(gone);
+                return kept;
+            });
+            deleted += count[0];
+            for (Long id : chunk) {
+                if (remaining.contains(id)) {
+                    withPurchases.add(id);
+                } else {
+                    afterCommit(() -> {
+                        storeCache.invalidate(id);
+                        storeSearchIndex.remove(id);
+                    });
                 }
             }
         }
-        storeRepository.save(store); //(name already exists or not) && location is diff -> save
+        return new StoreDeleteResult(deleted, withPurchases);
+    }
+
+    public void createStore(Store store) {
+        StoreRules.prepareForCreate(store);
+        //single index probe; the unique index still decides when two creates race past it
+        if (storeRepository.existsByNameLocationKey(store.getNameLocationKey())) {
+            throw new IllegalStateException(DUPLICATE_STORE_MESSAGE);
+        }
+        Store savedStore;
+        try {
+            savedStore = transactionTemplate.execute(status -> {
+                Store saved = storeRepository.save(store);
+                changeLog.storesWritten(ChangeLog.CREATED, List.of(saved));
+                return saved;
+            });
+        } catch (DataIntegrityViolationException e) {
+            throw StoreRules.translateDuplicate(e);
+        }
+        afterCommit(() -> index(savedStore.getStoreId(), savedStore));
     }
 
     public Store updateStore(Long storeId, Store updatedStore, boolean updateName, boolean updateLocation) throws NotFoundException {
-        Optional<Store> existingStore = getStoreById(storeId);
+        //never mutate the cached instance, and never write back a lagging replica copy
+        Optional<Store> existingStore = DataSourceRouting.onPrimary(() -> storeRepository.findById(storeId));
         if (existingStore.isEmpty()) {
-            throw new NotFoundException("Store with ID " + storeId + " does not exist");
+            throw StoreRules.notFound(storeId);
         }
         Store storeToUpdate = existingStore.get();
         if (updateName) {
@@ -57,6 +237,266 @@ public class StoreService {
         if (updateLocation) {
             storeToUpdate.setLocation(updatedStore.getLocation());
         }
-        return storeRepository.save(storeToUpdate);
+        try {
+            Store savedStore = transactionTemplate.execute(status -> {
+                Store saved = storeRepository.save(storeToUpdate);
+                //the UPDATE runs now rather than at commit, so the event carries the new version
+                entityManager.flush();
+                changeLog.storesWritten(ChangeLog.UPDATED, List.of(saved));
+                return saved;
+            });
+            afterCommit(() -> index(storeId, savedStore));
+            return savedStore;
+        } catch (DataIntegrityViolationException e) {
+            throw StoreRules.translateDuplicate(e);
+        } finally {
+            afterCommit(() -> storeCache.invalidate(storeId));
+        }
+    }
+
+    // one UPDATE of only the given fields, guarded by the version the client last saw; returns the new version
+    public long patchStore(Long storeId, StoreUpdate update) throws NotFoundException {
+        StoreRules.requirePatch(update);
+        update.setStoreId(storeId);
+        int updated;
+        try {
+            updated = transactionTemplate.execute(status -> {
+                int count = storeRepository.updateFields(List.of(update))[0];
+                if (count > 0) {
+                    recordPatched(List.of(update));
+                }
+                return count;
+            });
+        } catch (DataIntegrityViolationException e) {
+            throw StoreRules.translateDuplicate(e);
+        }
+        if (updated == 0) {
+            //only the failure path pays for a second query, to tell a missing store from a stale version
+            Optional<Long> current = DataSourceRouting.onPrimary(() -> storeRepository.findVersionById(storeId));
+            if (current.isEmpty()) {
+                throw StoreRules.notFound(storeId);
+            }
+            throw StoreRules.staleVersion(storeId, current.get(), update.getVersion());
+        }
+        afterCommit(() -> {
+            storeCache.invalidate(storeId);
+            storeSearchIndex.update(storeId, update.getStoreName(), update.getLocation());
+        });
+        return update.getVersion() + 1;
+    }
+
+    public List<BulkItemResult> patchStores(Iterator<StoreUpdate> updates) {
+        List<BulkItemResult> results = new ArrayList<>();
+        List<StoreUpdate> chunk = new ArrayList<>(BULK_CHUNK_SIZE);
+        while (updates.hasNext()) {
+            chunk.add(updates.next());
+            if (chunk.size() == BULK_CHUNK_SIZE) {
+                results.addAll(patchChunk(chunk, results.size()));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(patchChunk(chunk, results.size()));
+        }
+        return results;
+    }
+
+    public List<BulkItemResult> createStores(Iterator<Store> stores) {
+        List<BulkItemResult> results = new ArrayList<>();
+        List<Store> chunk = new ArrayList<>(BULK_CHUNK_SIZE);
+        while (stores.hasNext()) {
+            chunk.add(stores.next());
+            if (chunk.size() == BULK_CHUNK_SIZE) {
+                results.addAll(createChunk(chunk, results.size()));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(createChunk(chunk, results.size()));
+        }
+        return results;
+    }
+
+    private List<BulkItemResult> createChunk(List<Store> chunk, int firstIndex) {
+        Set<String> keys = new HashSet<>();
+        for (Store store : chunk) {
+            store.updateNameLocationKey();
+            keys.add(store.getNameLocationKey());
+        }
+        //one query per chunk instead of one per store
+        Set<String> taken = new HashSet<>(storeRepository.findExistingNameLocationKeys(keys));
+
+        List<BulkItemResult> results = new ArrayList<>(chunk.size());
+        List<BulkItemResult> created = new ArrayList<>();
+        List<Store> toInsert = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            Store store = chunk.get(i);
+            BulkItemResult result = StoreRules.rejectCreate(firstIndex + i, store, taken);
+            if (result == null) {
+                result = BulkItemResult.created(firstIndex + i);
+                created.add(result);
+                toInsert.add(store);
+            }
+            results.add(result);
+        }
+
+        try {
+            List<Long> ids = transactionTemplate.execute(status -> insertStores(toInsert));
+            for (int i = 0; i < created.size() && i < ids.size(); i++) {
+                created.get(i).setId(ids.get(i));
+                Long id = ids.get(i);
+                Store store = toInsert.get(i);
+                afterCommit(() -> index(id, store));
+            }
+        } catch (DataIntegrityViolationException e) {
+            if (!StoreRules.isDuplicate(e)) {
+                throw e;
+            }
+            //a concurrent request inserted one of these rows after our probe, so find out which ones one by one
+            for (int i = 0; i < created.size(); i++) {
+                BulkItemResult result = created.get(i);
+                Store store = toInsert.get(i);
+                try {
+                    result.setId(transactionTemplate.execute(status -> insertStores(List.of(store))).get(0));
+                    afterCommit(() -> index(result.getId(), store));
+                } catch (DataIntegrityViolationException rowFailure) {
+                    if (!StoreRules.isDuplicate(rowFailure)) {
+                        throw rowFailure;
+                    }
+                    results.set(result.getIndex() - firstIndex,
+                            BulkItemResult.rejected(result.getIndex(), BulkItemResult.Status.DUPLICATE, DUPLICATE_STORE_MESSAGE));
+                }
+            }
+        }
+        return results;
+    }
+
+    private List<BulkItemResult> patchChunk(List<StoreUpdate> chunk, int firstIndex) {
+        List<BulkItemResult> results = new ArrayList<>(chunk.size());
+        List<StoreUpdate> toUpdate = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            StoreUpdate update = chunk.get(i);
+            BulkItemResult rejection = StoreRules.rejectPatch(firstIndex + i, update);
+            results.add(rejection);
+            if (rejection == null) {
+                toUpdate.add(update);
+            }
+        }
+
+        int[] counts;
+        try {
+            counts = transactionTemplate.execute(status -> updateStores(toUpdate));
+        } catch (DataIntegrityViolationException e) {
+            if (!StoreRules.isDuplicate(e)) {
+                throw e;
+            }
+            //the batch was rolled back, so find out which rows collide one by one
+            counts = new int[toUpdate.size()];
+            for (int i = 0; i < toUpdate.size(); i++) {
+                StoreUpdate update = toUpdate.get(i);
+                try {
+                    counts[i] = transactionTemplate.execute(status -> updateStores(List.of(update)))[0];
+                } catch (DataIntegrityViolationException rowFailure) {
+                    if (!StoreRules.isDuplicate(rowFailure)) {
+                        throw rowFailure;
+                    }
+                    counts[i] = -1;
+                }
+            }
+        }
+
+        Set<Long> missed = new HashSet<>();
+        for (int i = 0; i < toUpdate.size(); i++) {
+            if (counts[i] == 0) {
+                missed.add(toUpdate.get(i).getStoreId());
+            }
+        }
+        //one probe for all rows that did not match, to tell missing stores from stale versions
+        Set<Long> existing = missed.isEmpty() ? Set.of()
+                : new HashSet<>(DataSourceRouting.onPrimary(() -> storeRepository.findExistingStoreIds(missed)));
+
+        int next = 0;
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i) != null) {
+                continue;
+            }
+            StoreUpdate update = toUpdate.get(next);
+            int count = counts[next++];
+            BulkItemResult result = StoreRules.patchResult(firstIndex + i, update, count, existing.contains(update.getStoreId()));
+            if (result.getStatus() == BulkItemResult.Status.UPDATED) {
+                afterCommit(() -> {
+                    storeCache.invalidate(update.getStoreId());
+                    storeSearchIndex.update(update.getStoreId(), update.getStoreName(), update.getLocation());
+                });
+            }
+            results.set(i, result);
+        }
+        return results;
+    }
+
+    // the stores get the ids and the version the insert gave them, as the change events report them
+    private List<Long> insertStores(List<Store> stores) {
+        List<Long> ids = storeRepository.insertAll(stores);
+        List<Store> inserted = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            Store store = stores.get(i);
+            store.setStoreId(ids.get(i));
+            store.setVersion(0L);
+            inserted.add(store);
+        }
+        changeLog.storesWritten(ChangeLog.CREATED, inserted);
+        return ids;
+    }
+
+    private int[] updateStores(List<StoreUpdate> updates) {
+        int[] counts = storeRepository.updateFields(updates);
+        List<StoreUpdate> updated = new ArrayList<>(updates.size());
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                updated.add(updates.get(i));
+            }
+        }
+        recordPatched(updated);
+        return counts;
+    }
+
+    // the UPDATE only knows the fields it set, so the change events re-read the patched rows in the same transaction
+    // and carry them whole, like any other store update
+    private void recordPatched(List<StoreUpdate> updates) {
+        if (updates.isEmpty()) {
+            return;
+        }
+        Map<Long, Store> stores = new HashMap<>();
+        for (Store store : storeRepository.findAllById(updates.stream().map(StoreUpdate::getStoreId).toList())) {
+            stores.put(store.getStoreId(), store);
+        }
+        List<Store> patched = new ArrayList<>(updates.size());
+        for (StoreUpdate update : updates) {
+            Store store = stores.get(update.getStoreId());
+            if (store != null) {
+                patched.add(store);
+            }
+        }
+        changeLog.storesWritten(ChangeLog.UPDATED, patched);
+    }
+
+    private void index(Long storeId, Store store) {
+        storeSearchIndex.index(storeId, store.getStoreName(), store.getLocation());
+    }
+
+    // the cache and the search index follow committed rows only: inside an enclosing transaction (an Idempotency-Key
+    // write, see IdempotencyKeys) the update waits for that commit, and a rollback leaves them as they were. On its
+    // own a write has committed by the time this runs, so the update happens right away.
+    private static void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
     }
 }
@@ -0,0 +1,12 @@
+-- Normalized name+location key backing the duplicate check in StoreService.createStore.
+-- Must produce the same value as Store.nameLocationKey(storeName, location).
+ALTER TABLE store ADD COLUMN name_location_key VARCHAR(511);
+
+UPDATE store
+SET name_location_key = CONCAT(LOWER(TRIM(COALESCE(store_name, ''))), CHAR(31), LOWER(TRIM(COALESCE(location, ''))));
+
+-- Existing duplicates have to be merged or renamed before the index can be created:
+-- SELECT name_location_key, COUNT(*) FROM store GROUP BY name_location_key HAVING COUNT(*) > 1;
+ALTER TABLE store
+    MODIFY name_location_key VARCHAR(511) NOT NULL,
+    ADD CONSTRAINT ux_store_name_location_key UNIQUE (name_location_key);
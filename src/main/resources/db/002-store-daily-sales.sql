@@ -0,0 +1,16 @@
+-- Daily sales buckets maintained by SalesRollupService.
+CREATE TABLE store_daily_sales (
+    store_id   BIGINT NOT NULL,
+    sales_date DATE   NOT NULL,
+    revenue    DOUBLE NOT NULL,
+    units      BIGINT NOT NULL,
+    weight     DOUBLE NOT NULL,
+    PRIMARY KEY (store_id, sales_date)
+);
+
+-- Backfill existing purchases; POST /stores/sales/rebuild?from=&to= does the same for a date range.
+INSERT INTO store_daily_sales (store_id, sales_date, revenue, units, weight)
+SELECT p.store_id, p.purchase_date, SUM(pp.price * pp.quantity), SUM(pp.quantity), SUM(pp.weight * pp.quantity)
+FROM purchase p
+JOIN purchase_product pp ON pp.purchase_id = p.purchase_id
+GROUP BY p.store_id, p.purchase_date;
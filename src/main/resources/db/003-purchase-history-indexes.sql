@@ -0,0 +1,3 @@
+-- Keyset index for GET /stores/{id}/purchases and the purchase_id lookup used to total line items.
+CREATE INDEX ix_purchase_store_date ON purchase (store_id, purchase_date, purchase_id);
+CREATE INDEX ix_purchase_product_purchase ON purchase_product (purchase_id);
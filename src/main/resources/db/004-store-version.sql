@@ -0,0 +1,3 @@
+-- Version column behind optimistic locking on Store and the ETags of GET /stores and GET /{storeId}.
+-- Every write bumps it, so existing rows can all start at 0.
+ALTER TABLE store ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,13 @@
+-- Responses of requests sent with an Idempotency-Key, replayed to retries after a restart. Rows past expires_at are
+-- ignored and purged by IdempotencyKeys.
+CREATE TABLE idempotency_record (
+    idempotency_key VARCHAR(255) NOT NULL,
+    fingerprint     CHAR(64)     NOT NULL,
+    status          INT          NOT NULL,
+    content_type    VARCHAR(255),
+    body            MEDIUMBLOB,
+    expires_at      TIMESTAMP    NOT NULL,
+    PRIMARY KEY (idempotency_key)
+);
+
+CREATE INDEX ix_idempotency_record_expires_at ON idempotency_record (expires_at);
@@ -0,0 +1,7 @@
+-- Progress of the write-behind purchase ingestion (app.ingest.enabled): the last journal sequence of each instance's
+-- journal that is in the database, written in the same transaction as the purchases.
+CREATE TABLE ingest_checkpoint (
+    journal       VARCHAR(64) NOT NULL,
+    last_sequence BIGINT      NOT NULL,
+    PRIMARY KEY (journal)
+);
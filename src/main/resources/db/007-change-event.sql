@@ -0,0 +1,14 @@
+-- Outbox of store and purchase changes behind GET /changes. Rows are written with the change itself; ChangeFeed's
+-- relay then numbers them in feed_offset; the unique index stops two instances from handing out the same offset.
+CREATE TABLE change_event (
+    change_id    BIGINT      NOT NULL AUTO_INCREMENT,
+    feed_offset  BIGINT,
+    entity_type  VARCHAR(32) NOT NULL,
+    entity_id    BIGINT      NOT NULL,
+    change_type  VARCHAR(16) NOT NULL,
+    payload      TEXT,
+    occurred_at  TIMESTAMP   NOT NULL,
+    PRIMARY KEY (change_id)
+);
+
+CREATE UNIQUE INDEX ux_change_event_feed_offset ON change_event (feed_offset);
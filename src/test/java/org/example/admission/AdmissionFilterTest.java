@@ -0,0 +1,207 @@
+package org.example.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class AdmissionFilterTest {
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    private final AtomicInteger reached = new AtomicInteger();
+    private final FilterChain chain = (request, response) -> reached.incrementAndGet();
+    private SimpleMeterRegistry meterRegistry;
+    private AdmissionProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new AdmissionProperties();
+        properties.setRate(10);
+        properties.setBurst(100);
+        properties.setMaxInFlight(2);
+    }
+
+    @Test
+    @DisplayName("Should charge GET /stores more than a single store and answer 429 with Retry-After once spent")
+    void testRateLimitsPerRouteCost() throws Exception {
+        AdmissionFilter filter = filter();
+
+        assertThat(send(filter, get("/stores", "a")).getStatus()).isEqualTo(200);
+        assertThat(send(filter, get("/stores", "a")).getStatus()).isEqualTo(200);
+        MockHttpServletResponse limited = send(filter, get("/stores", "a"));
+        //single-store reads and other clients still get through
+        assertThat(send(filter, get("/1", "b")).getStatus()).isEqualTo(200);
+        assertThat(send(filter, get("/stores", "b")).getStatus()).isEqualTo(200);
+
+        assertThat(limited.getStatus()).isEqualTo(429);
+        assertThat(limited.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("5");
+        assertThat(limited.getContentAsString()).contains("\"status\":429", "\"path\":\"/stores\"");
+        assertThat(reached.get()).isEqualTo(4);
+        assertThat(meterRegistry.get(AdmissionFilter.REJECTED_METRIC).tag("reason", "rate_limited").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should keep charging one remote address however often it changes the client header")
+    void testIgnoresClientHeaderFromUntrustedAddress() throws Exception {
+        AdmissionFilter filter = filter();
+
+        assertThat(send(filter, get("/stores", "203.0.113.7", "first")).getStatus()).isEqualTo(200);
+        assertThat(send(filter, get("/stores", "203.0.113.7", "second")).getStatus()).isEqualTo(200);
+
+        assertThat(send(filter, get("/stores", "203.0.113.7", "third")).getStatus()).isEqualTo(429);
+        assertThat(reached.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should tell clients apart by the header only on requests from a trusted proxy")
+    void testTrustsClientHeaderFromProxy() throws Exception {
+        properties.setTrustedProxies(List.of("10.0.0.0/8", "2001:db8::1"));
+        AdmissionFilter filter = filter();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(send(filter, get("/stores", "10.1.2.3", "client-" + i)).getStatus()).isEqualTo(200);
+            assertThat(send(filter, get("/stores", "2001:db8:0:0:0:0:0:1", "other-" + i)).getStatus()).isEqualTo(200);
+        }
+        //a proxy's own requests, without the header, share the proxy's bucket
+        assertThat(send(filter, get("/stores", "10.1.2.3")).getStatus()).isEqualTo(200);
+        assertThat(send(filter, get("/stores", "10.1.2.3")).getStatus()).isEqualTo(200);
+        assertThat(send(filter, get("/stores", "10.1.2.3")).getStatus()).isEqualTo(429);
+
+        TrustedProxies proxies = new TrustedProxies(properties.getTrustedProxies());
+        assertThat(proxies.contains("11.0.0.1")).isFalse();
+        assertThat(proxies.contains("2001:db8::2")).isFalse();
+        assertThat(proxies.contains("proxy.internal")).isFalse();
+        assertThatThrownBy(() -> new TrustedProxies(List.of("proxy.internal"))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TrustedProxies(List.of("10.0.0.0/33"))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should price GET /stores?ids= as a lookup, not as the whole table")
+    void testRouteParam() {
+        RouteCosts costs = new RouteCosts(properties);
+        MockHttpServletRequest lookup = get("/stores", "a");
+        lookup.setParameter("ids", "1,2");
+
+        assertThat(costs.cost(lookup, RouteCosts.path(lookup))).isEqualTo(5);
+        assertThat(costs.cost(get("/stores", "a"), RouteCosts.path(get("/stores", "a")))).isEqualTo(50);
+        assertThat(costs.cost(get("/stores/7/sales", "a"), RouteCosts.path(get("/stores/7/sales", "a")))).isEqualTo(5);
+        assertThat(costs.cost(get("/7", "a"), RouteCosts.path(get("/7", "a")))).isEqualTo(1);
+        assertThat(costs.isExempt(RouteCosts.path(get("/actuator/health", "a")))).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should shed with 503 while too many requests are in flight, and admit again once they complete")
+    void testShedsOnInFlight() throws Exception {
+        AdmissionFilter filter = filter();
+        MockHttpServletRequest first = asyncGet();
+        MockHttpServletRequest second = asyncGet();
+        FilterChain startAsync = (request, response) -> request.startAsync();
+        filter.doFilter(first, new MockHttpServletResponse(), startAsync);
+        filter.doFilter(second, new MockHttpServletResponse(), startAsync);
+
+        MockHttpServletResponse shed = send(filter, get("/1", "c"));
+        assertThat(shed.getStatus()).isEqualTo(503);
+        assertThat(shed.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+
+        first.getAsyncContext().complete();
+        assertThat(filter.inFlight()).isEqualTo(1);
+        assertThat(send(filter, get("/1", "c")).getStatus()).isEqualTo(200);
+        assertThat(reached.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should not count parked long polls as in flight")
+    void testLongPollsNotInFlight() throws Exception {
+        AdmissionFilter filter = filter();
+        FilterChain startAsync = (request, response) -> request.startAsync();
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletRequest poll = get("/changes", "c");
+            poll.setAsyncSupported(true);
+            filter.doFilter(poll, new MockHttpServletResponse(), startAsync);
+        }
+
+        assertThat(filter.inFlight()).isZero();
+        assertThat(send(filter, get("/1", "c")).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Should shed with 503 while threads queue for a connection, without charging the client")
+    void testShedsOnPoolPending() throws Exception {
+        AtomicInteger pending = new AtomicInteger(50);
+        Gauge.builder(PoolPressure.PENDING_METRIC, pending, AtomicInteger::get).tag("pool", "primary").register(meterRegistry);
+        AdmissionFilter filter = filter();
+
+        assertThat(send(filter, get("/stores", "a")).getStatus()).isEqualTo(503);
+        assertThat(meterRegistry.get(AdmissionFilter.REJECTED_METRIC).tag("reason", "overloaded").counter().count()).isEqualTo(1);
+
+        pending.set(0);
+        clock.addAndGet(properties.getPoolSampleInterval().toNanos());
+        assertThat(send(filter, get("/stores", "a")).getStatus()).isEqualTo(200);
+        assertThat(send(filter, get("/stores", "a")).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Should shed with 503 when connections took too long to acquire since the last sample")
+    void testShedsOnPoolWait() throws Exception {
+        io.micrometer.core.instrument.Timer acquire = io.micrometer.core.instrument.Timer.builder(PoolPressure.ACQUIRE_METRIC)
+                .register(meterRegistry);
+        AdmissionFilter filter = filter();
+        assertThat(send(filter, get("/1", "a")).getStatus()).isEqualTo(200);
+
+        acquire.record(Duration.ofSeconds(1));
+        clock.addAndGet(properties.getPoolSampleInterval().toNanos());
+        assertThat(send(filter, get("/1", "a")).getStatus()).isEqualTo(503);
+
+        acquire.record(Duration.ofMillis(1));
+        clock.addAndGet(properties.getPoolSampleInterval().toNanos());
+        assertThat(send(filter, get("/1", "a")).getStatus()).isEqualTo(200);
+    }
+
+    private AdmissionFilter filter() {
+        return new AdmissionFilter(properties,
+                new ClientBuckets(properties.getRate(), properties.getBurst(), properties.getMaxClients(), clock::get),
+                new RouteCosts(properties),
+                new PoolPressure(meterRegistry, properties.getMaxPoolWait(), properties.getMaxPoolPending(),
+                        properties.getPoolSampleInterval(), clock::get),
+                new ObjectMapper().registerModule(new JavaTimeModule()), meterRegistry);
+    }
+
+    private MockHttpServletResponse send(AdmissionFilter filter, MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static MockHttpServletRequest get(String path, String client) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setRemoteAddr(client);
+        return request;
+    }
+
+    private static MockHttpServletRequest get(String path, String remoteAddr, String clientHeader) {
+        MockHttpServletRequest request = get(path, remoteAddr);
+        request.addHeader("X-Client-Id", clientHeader);
+        return request;
+    }
+
+    private static MockHttpServletRequest asyncGet() {
+        MockHttpServletRequest request = get("/1", "c");
+        request.setAsyncSupported(true);
+        return request;
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.admission;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class ClientBucketsTest {
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    private final ClientBuckets buckets = new ClientBuckets(10, 20, 100, clock::get);
+
+    @Test
+    @DisplayName("Should admit a burst, then refill at the configured rate")
+    void testBurstThenRate() {
+        for (int i = 0; i < 20; i++) {
+            assertThat(buckets.tryAcquire("a", 1)).isZero();
+        }
+        long wait = buckets.tryAcquire("a", 1);
+        assertThat(wait).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+
+        clock.addAndGet(wait);
+        assertThat(buckets.tryAcquire("a", 1)).isZero();
+        assertThat(buckets.tryAcquire("a", 1)).isPositive();
+    }
+
+    @Test
+    @DisplayName("Should charge expensive routes more and keep clients apart")
+    void testCostsAndClients() {
+        assertThat(buckets.tryAcquire("a", 15)).isZero();
+        assertThat(buckets.tryAcquire("a", 10)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(500));
+        assertThat(buckets.tryAcquire("a", 5)).isZero();
+        assertThat(buckets.tryAcquire("b", 20)).isZero();
+
+        //a cost above the burst is charged as the burst instead of never being admitted
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertThat(buckets.tryAcquire("a", 500)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should not admit more than the burst when many threads race for one bucket")
+    void testConcurrentAcquire() throws Exception {
+        AtomicLong admitted = new AtomicLong();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 100; i++) {
+                    if (buckets.tryAcquire("a", 1) == 0) {
+                        admitted.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(admitted.get()).isEqualTo(20);
+    }
+}
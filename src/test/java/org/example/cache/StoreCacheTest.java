@@ -0,0 +1,98 @@
+package org.example.cache;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.example.entity.Store;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class StoreCacheTest {
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = nanos::get;
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Function<Long, Optional<Store>> loader = id -> {
+        loads.incrementAndGet();
+        return Optional.of(Store.builder().storeId(id).storeName("Store " + id).build());
+    };
+
+    private InMemoryCacheInvalidationChannel channel;
+
+    @BeforeEach
+    void setUp() {
+        channel = new InMemoryCacheInvalidationChannel();
+    }
+
+    @Test
+    @DisplayName("Should count hits and misses")
+    void testHitAndMissCounters() {
+        StoreCache cache = new StoreCache(channel, 10, Duration.ofMinutes(1), ticker);
+
+        cache.get(1L, loader);
+        cache.get(1L, loader);
+        cache.get(2L, loader);
+
+        StoreCacheStats stats = cache.stats();
+        assertThat(stats.getHits()).isEqualTo(1);
+        assertThat(stats.getMisses()).isEqualTo(2);
+        assertThat(stats.getSize()).isEqualTo(2);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Should not cache stores that do not exist")
+    void testMissingStoreIsNotCached() {
+        StoreCache cache = new StoreCache(channel, 10, Duration.ofMinutes(1), ticker);
+
+        assertThat(cache.get(1L, id -> Optional.empty())).isEmpty();
+        assertThat(cache.get(1L, loader)).isPresent();
+    }
+
+    @Test
+    @DisplayName("Should expire entries after the TTL")
+    void testTtlEviction() {
+        StoreCache cache = new StoreCache(channel, 10, Duration.ofMinutes(1), ticker);
+        cache.get(1L, loader);
+
+        nanos.addAndGet(Duration.ofMinutes(2).toNanos());
+        cache.get(1L, loader);
+
+        assertThat(loads).hasValue(2);
+        assertThat(cache.stats().getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should evict entries beyond the maximum size")
+    void testSizeEviction() {
+        StoreCache cache = new StoreCache(channel, 2, Duration.ofMinutes(1), ticker);
+
+        for (long id = 1; id <= 10; id++) {
+            cache.get(id, loader);
+        }
+
+        assertThat(cache.stats().getSize()).isLessThanOrEqualTo(2);
+        assertThat(cache.stats().getEvictions()).isGreaterThanOrEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("Should invalidate the entry on every node sharing the channel")
+    void testInvalidationReachesOtherNodes() {
+        StoreCache node1 = new StoreCache(channel, 10, Duration.ofMinutes(1), ticker);
+        StoreCache node2 = new StoreCache(channel, 10, Duration.ofMinutes(1), ticker);
+        node1.get(1L, loader);
+        node2.get(1L, loader);
+
+        node1.invalidate(1L);
+        node2.get(1L, loader);
+
+        assertThat(loads).hasValue(3);
+        assertThat(node1.stats().getSize()).isZero();
+    }
+}
@@ -0,0 +1,163 @@
+package org.example.changes;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.dto.ChangeBatch;
+import org.example.entity.ChangeEvent;
+import org.example.lanes.LaneProperties;
+import org.example.lanes.RequestLanes;
+import org.example.repository.ChangeEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ChangeFeedTest {
+    private ChangeEventRepository repository;
+    private RequestLanes lanes;
+    private ChangeFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ChangeEventRepository.class);
+        when(repository.findLastOffset()).thenReturn(Optional.empty());
+        when(repository.findUnpublishedIds(any(Pageable.class))).thenReturn(List.of());
+        lanes = new RequestLanes(new LaneProperties(), new SimpleMeterRegistry());
+        feed = new ChangeFeed(repository, new TransactionTemplate(mock(PlatformTransactionManager.class)), lanes,
+                Duration.ofSeconds(1), 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        lanes.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should number unpublished events after the last offset, a relay batch at a time")
+    void testRelayAssignsOffsets() {
+        when(repository.findUnpublishedIds(any(Pageable.class))).thenReturn(List.of(10L, 11L), List.of(12L));
+        when(repository.findLastOffset()).thenReturn(Optional.of(4L), Optional.of(6L), Optional.of(7L));
+
+        assertThat(feed.relay()).isEqualTo(7L);
+
+        verify(repository).assignOffsets(List.of(10L, 11L), 5L);
+        verify(repository).assignOffsets(List.of(12L), 7L);
+        assertThat(feed.getLastOffset()).isEqualTo(7L);
+    }
+
+    @Test
+    @DisplayName("Should give up a relay round that lost the offsets to another instance")
+    void testRelayLosesRace() {
+        when(repository.findUnpublishedIds(any(Pageable.class))).thenReturn(List.of(10L, 11L));
+        doThrow(new DataIntegrityViolationException("duplicate offset")).when(repository).assignOffsets(anyList(), anyLong());
+
+        assertThat(feed.relay()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should answer right away when there are events after the offset")
+    void testPollBehind() throws Exception {
+        ChangeEvent event = published(3L);
+        when(repository.findLastOffset()).thenReturn(Optional.of(3L));
+        when(repository.findPublishedAfter(eq(2L), any(Pageable.class))).thenReturn(List.of(event));
+        feed.relay();
+
+        DeferredResult<ChangeBatch> result = feed.poll(2L, 10, Duration.ofSeconds(30));
+
+        ChangeBatch batch = get(result);
+        assertThat(batch.getEvents()).containsExactly(event);
+        assertThat(batch.getNext()).isEqualTo(3L);
+    }
+
+    @Test
+    @DisplayName("Should hold a caught-up poll until the relay publishes")
+    void testPollWaitsForRelay() throws Exception {
+        ChangeEvent event = published(1L);
+        when(repository.findPublishedAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(event));
+
+        DeferredResult<ChangeBatch> result = feed.poll(0L, 10, Duration.ofSeconds(30));
+        assertThat(result.hasResult()).isFalse();
+
+        when(repository.findLastOffset()).thenReturn(Optional.of(1L));
+        feed.relay();
+
+        assertThat(get(result).getEvents()).containsExactly(event);
+    }
+
+    @Test
+    @DisplayName("Should answer more parked polls than the read lane holds, with one read per distinct offset")
+    void testRelayAnswersWaitersTogether() throws Exception {
+        LaneProperties properties = new LaneProperties();
+        properties.setReads(new LaneProperties.Pool(1, 1));
+        RequestLanes small = new RequestLanes(properties, new SimpleMeterRegistry());
+        ChangeFeed feed = new ChangeFeed(repository, new TransactionTemplate(mock(PlatformTransactionManager.class)), small,
+                Duration.ofSeconds(1), 2);
+        when(repository.findPublishedAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(published(1L), published(2L)));
+        when(repository.findPublishedAfter(eq(1L), any(Pageable.class))).thenReturn(List.of(published(2L)));
+        List<DeferredResult<ChangeBatch>> fromStart = new ArrayList<>();
+        List<DeferredResult<ChangeBatch>> fromOne = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            fromStart.add(feed.poll(0L, i % 2 == 0 ? 1 : 10, Duration.ofSeconds(30)));
+            fromOne.add(feed.poll(1L, 10, Duration.ofSeconds(30)));
+        }
+
+        when(repository.findLastOffset()).thenReturn(Optional.of(2L));
+        feed.relay();
+
+        try {
+            for (int i = 0; i < 20; i++) {
+                ChangeBatch batch = get(fromStart.get(i));
+                assertThat(batch.getEvents()).hasSize(i % 2 == 0 ? 1 : 2);
+                assertThat(batch.getNext()).isEqualTo(i % 2 == 0 ? 1L : 2L);
+                assertThat(get(fromOne.get(i)).getNext()).isEqualTo(2L);
+            }
+            verify(repository, times(1)).findPublishedAfter(eq(0L), any(Pageable.class));
+            verify(repository, times(1)).findPublishedAfter(eq(1L), any(Pageable.class));
+        } finally {
+            small.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should answer an empty batch at once when the poll does not wait, and reject a negative offset")
+    void testPollWithoutWait() throws Exception {
+        when(repository.findPublishedAfter(eq(0L), any(Pageable.class))).thenReturn(List.of());
+
+        DeferredResult<ChangeBatch> result = feed.poll(0L, 10, Duration.ZERO);
+
+        assertThat(get(result).getNext()).isZero();
+        assertThatThrownBy(() -> feed.poll(-1L, 10, Duration.ZERO)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static ChangeBatch get(DeferredResult<ChangeBatch> result) throws Exception {
+        CompletableFuture<ChangeBatch> answered = new CompletableFuture<>();
+        result.setResultHandler(value -> answered.complete((ChangeBatch) value));
+        return answered.get(5, TimeUnit.SECONDS);
+    }
+
+    private static ChangeEvent published(long offset) {
+        ChangeEvent event = new ChangeEvent(ChangeLog.STORE, 1L, ChangeLog.CREATED, "{}", new Timestamp(0));
+        ReflectionTestUtils.setField(event, "feedOffset", offset);
+        return event;
+    }
+}
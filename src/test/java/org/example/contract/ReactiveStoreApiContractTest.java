@@ -0,0 +1,74 @@
+package org.example.contract;
+
+import org.example.entity.Store;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("reactive")
+public class ReactiveStoreApiContractTest extends StoreApiContractTest {
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Test
+    @DisplayName("Should append a change event for every store write, with the row as GET returns it")
+    void testWritesAppendChangeEvents() {
+        long storeId = create("Safeway " + suffix, "Robson Street");
+        client.patch().uri("/stores/{storeId}", storeId).header(HttpHeaders.IF_MATCH, "\"" + storeId + "-0\"")
+                .contentType(MediaType.APPLICATION_JSON).bodyValue(Map.of("location", "Granville Street"))
+                .exchange()
+                .expectStatus().isNoContent();
+        client.delete().uri("/{storeId}", storeId).exchange().expectStatus().isOk();
+
+        List<Map<String, Object>> events = databaseClient.sql("select change_type, payload from change_event"
+                        + " where entity_type = 'store' and entity_id = :storeId order by change_id")
+                .bind("storeId", storeId)
+                .fetch()
+                .all()
+                .collectList()
+                .block();
+
+        assertThat(events).extracting(event -> event.get("change_type")).containsExactly("created", "updated", "deleted");
+        assertThat((String) events.get(1).get("payload")).contains("Granville Street").contains("Safeway " + suffix);
+        assertThat(events.get(2).get("payload")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should stream every store after the cursor as newline-delimited JSON, across keyset pages")
+    void testStreamStoresAsNdjson() {
+        List<Map<String, String>> stores = new ArrayList<>();
+        for (int i = 0; i < 501; i++) {
+            stores.add(Map.of("storeName", "Safeway " + i + " " + suffix, "location", "Robson Street"));
+        }
+        long first = json(client.post().uri("/stores/bulk").contentType(MediaType.APPLICATION_JSON).bodyValue(stores)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().returnResult()).get(0).get("id").asLong();
+        create("Walmart " + suffix, "Granville Street");
+
+        List<Store> streamed = client.get().uri("/stores?after={after}", first - 1).accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(Store.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertThat(streamed).hasSize(502);
+        assertThat(streamed.get(0).getStoreName()).isEqualTo("Safeway 0 " + suffix);
+        assertThat(streamed.get(501).getStoreName()).isEqualTo("Walmart " + suffix);
+    }
+}
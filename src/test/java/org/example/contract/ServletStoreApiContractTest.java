@@ -0,0 +1,58 @@
+package org.example.contract;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.example.changes.ChangeFeed;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ServletStoreApiContractTest extends StoreApiContractTest {
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    //the reactive stack does not record changes, so the feed is only part of the servlet contract
+    @Test
+    @DisplayName("Should publish a store's create, patch and delete on the change feed in order")
+    void testChangeFeed() {
+        long since = changeFeed.getLastOffset();
+        long storeId = create("Safeway " + suffix, "Robson Street");
+        client.patch().uri("/stores/{storeId}", storeId).header(HttpHeaders.IF_MATCH, "\"" + storeId + "-0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("location", "Davie Street"))
+                .exchange()
+                .expectStatus().isNoContent();
+        client.delete().uri("/{storeId}", storeId).exchange().expectStatus().isOk();
+
+        List<JsonNode> events = new ArrayList<>();
+        for (int poll = 0; poll < 10 && events.size() < 3; poll++) {
+            JsonNode batch = json(client.get().uri("/changes?since={since}&wait=5", since)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody().returnResult());
+            for (JsonNode event : batch.get("events")) {
+                assertThat(event.get("offset").asLong()).isGreaterThan(since);
+                if (event.get("entityType").asText().equals("store") && event.get("entityId").asLong() == storeId) {
+                    events.add(event);
+                }
+            }
+            since = batch.get("next").asLong();
+        }
+
+        assertThat(events).extracting(event -> event.get("changeType").asText()).containsExactly("created", "updated", "deleted");
+        assertThat(events.get(0).get("payload").get("storeName").asText()).isEqualTo("Safeway " + suffix);
+        assertThat(events.get(1).get("payload").get("location").asText()).isEqualTo("Davie Street");
+        //the patch only set the location, the event still carries the whole store
+        assertThat(events.get(1).get("payload").get("storeName").asText()).isEqualTo("Safeway " + suffix);
+        assertThat(events.get(1).get("payload").get("version").asLong()).isEqualTo(1L);
+    }
+}
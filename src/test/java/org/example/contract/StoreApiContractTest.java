@@ -0,0 +1,305 @@
+package org.example.contract;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.controller.StoreController;
+import org.example.service.StoreService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The store API as clients see it, run over HTTP against each profile's full stack. Every test works on stores
+// with its own name suffix, so the tests share one database per profile.
+public abstract class StoreApiContractTest {
+    private static final long MISSING_ID = 999_999_999L;
+
+    @Autowired
+    protected WebTestClient client;
+
+    @Autowired
+    protected ObjectMapper objectMapper;
+
+    @LocalServerPort
+    protected int port;
+
+    protected String suffix;
+
+    @BeforeEach
+    void setupSuffix() {
+        suffix = Long.toString(System.nanoTime(), 36);
+    }
+
+    @Test
+    @DisplayName("Should create a store and reject the same name and location spelled differently as a duplicate")
+    void testCreateStoreAndDuplicate() {
+        client.post().uri("/createStore").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("storeName", "Safeway " + suffix, "location", "Robson Street"))
+                .exchange()
+                .expectStatus().isCreated();
+
+        client.post().uri("/createStore").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("storeName", "  SAFEWAY " + suffix.toUpperCase(), "location", "robson street "))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT)
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(409)
+                .jsonPath("$.message").isEqualTo(StoreService.DUPLICATE_STORE_MESSAGE);
+    }
+
+    @Test
+    @DisplayName("Should report created, duplicate and invalid items of a newline-delimited bulk create")
+    void testBulkCreate() {
+        JsonNode results = json(client.post().uri("/stores/bulk").contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue("{\"storeName\":\"Safeway " + suffix + "\",\"location\":\"Robson Street\"}\n"
+                        + "{\"storeName\":\"safeway " + suffix + "\",\"location\":\"ROBSON STREET\"}\n"
+                        + "{\"storeName\":\"Walmart " + suffix + "\"}\n")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().returnResult());
+
+        assertThat(results).hasSize(3);
+        assertThat(results.get(0).get("status").asText()).isEqualTo("CREATED");
+        assertThat(results.get(1).get("status").asText()).isEqualTo("DUPLICATE");
+        assertThat(results.get(2).get("status").asText()).isEqualTo("INVALID");
+        client.get().uri("/{storeId}", results.get(0).get("id").asLong())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.storeName").isEqualTo("Safeway " + suffix);
+    }
+
+    @Test
+    @DisplayName("Should answer a store with its ETag, 304 while it is unchanged and 404 when it does not exist")
+    void testGetStoreById() {
+        long storeId = create("Safeway " + suffix, "Robson Street");
+
+        client.get().uri("/{storeId}", storeId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"" + storeId + "-0\"")
+                .expectBody()
+                .jsonPath("$.storeId").isEqualTo(storeId)
+                .jsonPath("$.location").isEqualTo("Robson Street")
+                .jsonPath("$.version").isEqualTo(0);
+        client.get().uri("/{storeId}", storeId).header(HttpHeaders.IF_NONE_MATCH, "\"" + storeId + "-0\"")
+                .exchange()
+                .expectStatus().isNotModified();
+        client.get().uri("/{storeId}", MISSING_ID)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    @DisplayName("Should page stores after a cursor with the next cursor and a page ETag")
+    void testGetAllStoresPaged() {
+        long first = create("Safeway " + suffix, "Robson Street");
+        long second = create("Walmart " + suffix, "Granville Street");
+        create("Costco " + suffix, "Main Street");
+
+        EntityExchangeResult<byte[]> page = client.get().uri("/stores?after={after}&limit=2", first - 1)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(StoreController.NEXT_CURSOR_HEADER, Long.toString(second))
+                .expectBody().returnResult();
+
+        assertThat(ids(json(page))).containsExactly(first, second);
+        String eTag = page.getResponseHeaders().getETag();
+        assertThat(eTag).isNotNull();
+        client.get().uri("/stores?after={after}&limit=2", first - 1).header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    @DisplayName("Should gzip a large page for a client that accepts it and leave a single store uncompressed")
+    void testCompression() {
+        List<Map<String, String>> stores = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            stores.add(Map.of("storeName", "Safeway " + suffix + " " + i, "location", "Robson Street " + i));
+        }
+        JsonNode results = json(client.post().uri("/stores/bulk").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(stores)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().returnResult());
+        long first = results.get(0).get("id").asLong();
+
+        assertThat(contentEncoding("/stores?after=" + (first - 1) + "&limit=40")).contains("gzip");
+        assertThat(contentEncoding("/" + first)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should patch a store at the version given as If-Match and answer 409 for a stale one")
+    void testPatchStore() {
+        long storeId = create("Safeway " + suffix, "Robson Street");
+
+        client.patch().uri("/stores/{storeId}", storeId).header(HttpHeaders.IF_MATCH, "\"" + storeId + "-0\"")
+                .contentType(MediaType.APPLICATION_JSON).bodyValue(Map.of("location", "Main Street"))
+                .exchange()
+                .expectStatus().isNoContent()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"" + storeId + "-1\"");
+        client.patch().uri("/stores/{storeId}", storeId).header(HttpHeaders.IF_MATCH, "\"" + storeId + "-0\"")
+                .contentType(MediaType.APPLICATION_JSON).bodyValue(Map.of("location", "Granville Street"))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT);
+        //a patch that sets nothing is rejected rather than bumping the version
+        client.patch().uri("/stores/{storeId}", storeId).header(HttpHeaders.IF_MATCH, "\"" + storeId + "-1\"")
+                .contentType(MediaType.APPLICATION_JSON).bodyValue(Map.of())
+                .exchange()
+                .expectStatus().isBadRequest();
+        client.get().uri("/{storeId}", storeId)
+                .exchange()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"" + storeId + "-1\"")
+                .expectBody()
+                .jsonPath("$.storeName").isEqualTo("Safeway " + suffix)
+                .jsonPath("$.location").isEqualTo("Main Street");
+    }
+
+    @Test
+    @DisplayName("Should report updated, stale and missing items of a bulk patch")
+    void testPatchStores() {
+        long first = create("Safeway " + suffix, "Robson Street");
+        long second = create("Walmart " + suffix, "Granville Street");
+
+        JsonNode results = json(client.patch().uri("/stores/bulk").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(Map.of("storeId", first, "storeName", "Costco " + suffix, "version", 0),
+                        Map.of("storeId", second, "location", "Main Street", "version", 5),
+                        Map.of("storeId", MISSING_ID, "location", "Main Street", "version", 0),
+                        Map.of("storeId", second, "location", "Main Street")))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().returnResult());
+
+        assertThat(results).extracting(result -> result.get("status").asText())
+                .containsExactly("UPDATED", "CONFLICT", "NOT_FOUND", "INVALID");
+        client.get().uri("/{storeId}", first)
+                .exchange()
+                .expectBody().jsonPath("$.storeName").isEqualTo("Costco " + suffix);
+    }
+
+    @Test
+    @DisplayName("Should replace a store's name and answer the saved store")
+    void testUpdateStoreName() {
+        long storeId = create("Safeway " + suffix, "Robson Street");
+
+        client.put().uri("/updateStoreName/{storeId}", storeId).contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("storeName", "Walmart " + suffix, "location", "ignored"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.storeName").isEqualTo("Walmart " + suffix)
+                .jsonPath("$.location").isEqualTo("Robson Street")
+                .jsonPath("$.version").isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should look stores up by id in request order, with not-found entries for missing ids")
+    void testLookupStores() {
+        long storeId = create("Safeway " + suffix, "Robson Street");
+
+        JsonNode byQuery = json(client.get().uri("/stores?ids={first},{second}", MISSING_ID, storeId)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().returnResult());
+        JsonNode byBody = json(client.post().uri("/stores/lookup").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(MISSING_ID, storeId))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().returnResult());
+
+        assertThat(byBody).isEqualTo(byQuery);
+        assertThat(byQuery.get(0).get("found").asBoolean()).isFalse();
+        assertThat(byQuery.get(1).get("found").asBoolean()).isTrue();
+        assertThat(byQuery.get(1).get("store").get("storeName").asText()).isEqualTo("Safeway " + suffix);
+    }
+
+    @Test
+    @DisplayName("Should find a created store by a word of its name")
+    void testSearchStores() {
+        long storeId = create("Safeway " + suffix, "Robson Street");
+
+        JsonNode results = json(client.get().uri("/stores/search?q={q}", suffix)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().returnResult());
+
+        assertThat(results).extracting(result -> result.get("storeId").asLong()).contains(storeId);
+    }
+
+    @Test
+    @DisplayName("Should delete stores one by one and by id list, ignoring ids that do not exist")
+    void testDeleteStores() {
+        long first = create("Safeway " + suffix, "Robson Street");
+        long second = create("Walmart " + suffix, "Granville Street");
+
+        client.delete().uri("/{storeId}", first).exchange().expectStatus().isOk();
+        client.get().uri("/{storeId}", first).exchange().expectStatus().isNotFound();
+        client.delete().uri("/{storeId}", first).exchange().expectStatus().isNotFound();
+        client.delete().uri("/stores?ids={first},{second}", second, MISSING_ID)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.deleted").isEqualTo(1)
+                .jsonPath("$.withPurchases").isEmpty();
+    }
+
+    protected long create(String storeName, String location) {
+        JsonNode results = json(client.post().uri("/stores/bulk").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(Map.of("storeName", storeName, "location", location)))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().returnResult());
+        assertThat(results.get(0).get("status").asText()).isEqualTo("CREATED");
+        return results.get(0).get("id").asLong();
+    }
+
+    //WebTestClient's connector inflates gzip bodies and drops the header, so this asks over a plain connection
+    protected Optional<String> contentEncoding(String path) {
+        try {
+            HttpResponse<Void> response = HttpClient.newHttpClient().send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                    .header(HttpHeaders.ACCEPT_ENCODING, "gzip").build(), HttpResponse.BodyHandlers.discarding());
+            assertThat(response.statusCode()).isEqualTo(200);
+            return response.headers().firstValue(HttpHeaders.CONTENT_ENCODING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    protected static List<Long> ids(JsonNode stores) {
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode store : stores) {
+            ids.add(store.get("storeId").asLong());
+        }
+        return ids;
+    }
+
+    protected JsonNode json(EntityExchangeResult<byte[]> result) {
+        try {
+            return objectMapper.readTree(result.getResponseBody());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.example.controller;
+
+import org.example.changes.ChangeFeed;
+import org.example.dto.ChangeBatch;
+import org.example.entity.ChangeEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ChangeController.class)
+public class ChangeControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ChangeFeed changeFeed;
+
+    @Test
+    @DisplayName("Should return the events after the given offset with their raw payloads and the next offset")
+    void testGetChanges() throws Exception {
+        ChangeEvent event = new ChangeEvent("store", 1L, "created", "{\"storeId\":1,\"storeName\":\"Safeway\"}",
+                new Timestamp(0));
+        ReflectionTestUtils.setField(event, "feedOffset", 8L);
+        DeferredResult<ChangeBatch> result = new DeferredResult<>();
+        result.setResult(new ChangeBatch(List.of(event), 8L));
+        when(changeFeed.poll(7L, 100, Duration.ofSeconds(5))).thenReturn(result);
+
+        MvcResult async = mockMvc.perform(get("/changes").param("since", "7").param("limit", "100").param("wait", "5"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(async))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.next").value(8))
+                .andExpect(jsonPath("$.events[0].offset").value(8))
+                .andExpect(jsonPath("$.events[0].entityType").value("store"))
+                .andExpect(jsonPath("$.events[0].payload.storeName").value("Safeway"))
+                .andExpect(jsonPath("$.events[0].changeId").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Should reject a negative offset with Bad Request")
+    void testGetChangesNegativeOffset() throws Exception {
+        when(changeFeed.poll(anyLong(), anyInt(), any(Duration.class)))
+                .thenThrow(new IllegalArgumentException("The offset must not be negative."));
+
+        mockMvc.perform(get("/changes").param("since", "-1"))
+                .andExpect(status().isBadRequest());
+        verify(changeFeed, times(1)).poll(-1L, ChangeFeed.DEFAULT_LIMIT, Duration.ofSeconds(25));
+    }
+}
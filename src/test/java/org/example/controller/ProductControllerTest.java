@@ -0,0 +1,38 @@
+package org.example.controller;
+
+import org.example.dto.ProductSearchResult;
+import org.example.service.ProductSearchService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ProductController.class)
+public class ProductControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ProductSearchService productSearchService;
+
+    @Test
+    @DisplayName("Should return Ok with the ranked search results")
+    void testSearchProducts() throws Exception {
+        when(productSearchService.search("milk", "Dairy", ProductSearchService.DEFAULT_LIMIT))
+                .thenReturn(List.of(new ProductSearchResult(1L, "Organic Whole Milk", "Dairy", 1.5)));
+
+        mockMvc.perform(get("/products/search").param("q", "milk").param("category", "Dairy"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].productId").value(1))
+                .andExpect(jsonPath("$[0].productName").value("Organic Whole Milk"))
+                .andExpect(jsonPath("$[0].score").value(1.5));
+    }
+}
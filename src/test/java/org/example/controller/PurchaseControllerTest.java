@@ -0,0 +1,212 @@
+package org.example.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import javassist.NotFoundException;
+import org.example.dto.BulkItemResult;
+import org.example.dto.PurchaseItemRequest;
+import org.example.dto.PurchasePage;
+import org.example.dto.PurchaseRequest;
+import org.example.dto.PurchaseSummary;
+import org.example.entity.Purchase;
+import org.example.entity.Store;
+import org.example.json.PayloadFormats;
+import org.example.idempotency.IdempotencyKeys;
+import org.example.lanes.LaneConfig;
+import org.example.repository.IdempotencyRecordRepository;
+import org.example.service.PurchaseService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(value = PurchaseController.class, properties = "app.idempotency.max-batch-size=1KB")
+@Import({LaneConfig.class, IdempotencyKeys.class})
+public class PurchaseControllerTest {
+    //IdempotencyKeys runs writes in a transaction; the slice has no transaction manager
+    @TestConfiguration
+    static class Transactions {
+        @Bean
+        TransactionTemplate transactionTemplate() {
+            return new TransactionTemplate(mock(PlatformTransactionManager.class));
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private PurchaseService purchaseService;
+
+    @MockBean
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private PurchaseRequest request;
+
+    @BeforeEach
+    void setup() {
+        request = new PurchaseRequest(1L, Date.valueOf("2024-03-01"), List.of(new PurchaseItemRequest(10L, 2, 3.5, 0.4)));
+    }
+
+    @Test
+    @DisplayName("Should return Created with the saved purchase")
+    void testCreatePurchase() throws Exception {
+        Purchase purchase = new Purchase();
+        purchase.setPurchaseId(100L);
+        purchase.setStore(Store.builder().storeId(1L).storeName("Safeway").location("Robson Street").build());
+        purchase.setPurchaseDate(request.getPurchaseDate());
+        when(purchaseService.createPurchase(any(PurchaseRequest.class))).thenReturn(purchase);
+
+        performAsync(post("/purchases")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.purchaseId").value(100))
+                .andExpect(jsonPath("$.store.storeId").value(1))
+                .andExpect(jsonPath("$.purchaseDate").value("2024-03-01"));
+    }
+
+    @Test
+    @DisplayName("Should return Not Found when the store does not exist")
+    void testCreatePurchaseStoreNotFound() throws Exception {
+        when(purchaseService.createPurchase(any(PurchaseRequest.class)))
+                .thenThrow(new NotFoundException("Store with ID 1 does not exist"));
+
+        performAsync(post("/purchases")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Store with ID 1 does not exist"));
+    }
+
+    @Test
+    @DisplayName("Should return Bad Request when the purchase is invalid")
+    void testCreatePurchaseInvalid() throws Exception {
+        when(purchaseService.createPurchase(any(PurchaseRequest.class)))
+                .thenThrow(new IllegalArgumentException("A purchase needs at least one item."));
+
+        performAsync(post("/purchases")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("A purchase needs at least one item."))
+                .andExpect(jsonPath("$.path").value("/purchases"));
+    }
+
+    @Test
+    @DisplayName("Should read every receipt of an NDJSON batch")
+    void testCreatePurchasesFromNdjson() throws Exception {
+        List<PurchaseRequest> received = new ArrayList<>();
+        when(purchaseService.createPurchases(any())).thenAnswer(invocation -> {
+            invocation.<Iterator<PurchaseRequest>>getArgument(0).forEachRemaining(received::add);
+            return List.of(new BulkItemResult(0, BulkItemResult.Status.CREATED, 100L, null),
+                    new BulkItemResult(1, BulkItemResult.Status.CREATED, 101L, null));
+        });
+        String body = objectMapper.writeValueAsString(request) + "\n" + objectMapper.writeValueAsString(request) + "\n";
+
+        performAsync(post("/purchases/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[1].id").value(101));
+
+        assertThat(received).hasSize(2);
+        assertThat(received.get(1).getItems()).extracting(PurchaseItemRequest::getProductId).containsExactly(10L);
+    }
+
+    @Test
+    @DisplayName("Should return Payload Too Large for a keyed batch over the buffer limit, without writing it")
+    void testKeyedBatchTooLarge() throws Exception {
+        String body = (objectMapper.writeValueAsString(request) + "\n").repeat(20);
+
+        mockMvc.perform(post("/purchases/batch")
+                        .header(IdempotencyKeys.HEADER, "upload-1")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isPayloadTooLarge());
+
+        verify(purchaseService, never()).createPurchases(any());
+    }
+
+    @Test
+    @DisplayName("Should read a Smile batch and answer a purchase page in Smile when asked to")
+    void testPurchasesAsSmile() throws Exception {
+        ObjectMapper smile = new SmileMapper();
+        List<PurchaseRequest> received = new ArrayList<>();
+        when(purchaseService.createPurchases(any())).thenAnswer(invocation -> {
+            invocation.<Iterator<PurchaseRequest>>getArgument(0).forEachRemaining(received::add);
+            return List.of(new BulkItemResult(0, BulkItemResult.Status.CREATED, 100L, null));
+        });
+        when(purchaseService.getStorePurchases(1L, Date.valueOf("2024-03-01"), Date.valueOf("2024-03-31"), null, PurchaseService.DEFAULT_PAGE_SIZE))
+                .thenReturn(new PurchasePage(List.of(new PurchaseSummary(100L, Date.valueOf("2024-03-01"), 7.5, 3, 1)), null));
+
+        performAsync(post("/purchases/batch")
+                        .contentType(PayloadFormats.APPLICATION_SMILE)
+                        .content(smile.writeValueAsBytes(List.of(request))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(100));
+        byte[] page = performAsync(get("/stores/1/purchases")
+                        .param("from", "2024-03-01")
+                        .param("to", "2024-03-31")
+                        .accept(PayloadFormats.APPLICATION_SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(PayloadFormats.APPLICATION_SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(received).hasSize(1);
+        assertThat(smile.readTree(page).get(0).get("purchaseDate").asText()).isEqualTo("2024-03-01");
+    }
+
+    @Test
+    @DisplayName("Should return a page of purchase summaries with the next cursor in a header")
+    void testGetStorePurchases() throws Exception {
+        when(purchaseService.getStorePurchases(1L, Date.valueOf("2024-03-01"), Date.valueOf("2024-03-31"), null, 1))
+                .thenReturn(new PurchasePage(List.of(new PurchaseSummary(100L, Date.valueOf("2024-03-01"), 7.5, 3, 1)), "2024-03-01:100"));
+
+        performAsync(get("/stores/1/purchases")
+                        .param("from", "2024-03-01")
+                        .param("to", "2024-03-31")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(StoreController.NEXT_CURSOR_HEADER, "2024-03-01:100"))
+                .andExpect(jsonPath("$[0].purchaseId").value(100))
+                .andExpect(jsonPath("$[0].total").value(7.5))
+                .andExpect(jsonPath("$[0].units").value(3));
+    }
+
+    // lane-backed endpoints answer asynchronously; this waits for the lane and dispatches the result
+    private ResultActions performAsync(RequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request).andExpect(request().asyncStarted()).andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+}
@@ -0,0 +1,70 @@
+package org.example.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.dto.PurchaseItemRequest;
+import org.example.dto.PurchaseRequest;
+import org.example.ingest.PurchaseIngestBuffer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.sql.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = PurchaseIngestController.class, properties = "app.ingest.enabled=true")
+public class PurchaseIngestControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private PurchaseIngestBuffer ingestBuffer;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final PurchaseRequest request = new PurchaseRequest(1L, Date.valueOf("2024-03-01"),
+            List.of(new PurchaseItemRequest(10L, 2, 3.5, 0.4)));
+
+    @Test
+    @DisplayName("Should return Accepted with the journal sequence once the purchase is durable")
+    void testIngestPurchase() throws Exception {
+        when(ingestBuffer.submit(any(PurchaseRequest.class))).thenReturn(CompletableFuture.completedFuture(42L));
+
+        MvcResult result = mockMvc.perform(post("/purchases/ingest")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.sequence").value(42));
+    }
+
+    @Test
+    @DisplayName("Should return Service Unavailable with Retry-After when the buffer is full")
+    void testIngestBufferFull() throws Exception {
+        when(ingestBuffer.submit(any(PurchaseRequest.class))).thenThrow(new RejectedExecutionException("The purchase ingestion buffer is full."));
+
+        mockMvc.perform(post("/purchases/ingest")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.controller;
+
+import org.example.dto.DailySales;
+import org.example.dto.SalesReport;
+import org.example.lanes.LaneConfig;
+import org.example.service.SalesRollupService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import java.sql.Date;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(SalesController.class)
+@Import(LaneConfig.class)
+public class SalesControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private SalesRollupService salesRollupService;
+
+    @Test
+    @DisplayName("Should return Ok with the daily sales of a store")
+    void testGetSales() throws Exception {
+        Date from = Date.valueOf("2024-03-01");
+        Date to = Date.valueOf("2024-03-02");
+        when(salesRollupService.getSales(1L, from, to)).thenReturn(new SalesReport(1L, from, to, 10.0, 3, 1.5,
+                List.of(new DailySales(from, 10.0, 3, 1.5))));
+
+        performAsync(get("/stores/{storeId}/sales", 1L).param("from", "2024-03-01").param("to", "2024-03-02"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.revenue").value(10.0))
+                .andExpect(jsonPath("$.days[0].date").value("2024-03-01"))
+                .andExpect(jsonPath("$.days[0].units").value(3));
+    }
+
+    @Test
+    @DisplayName("Should return Bad Request when the range is reversed")
+    void testGetSalesWithReversedRange() throws Exception {
+        when(salesRollupService.getSales(eq(1L), any(Date.class), any(Date.class)))
+                .thenThrow(new IllegalArgumentException("The start date must not be after the end date."));
+
+        performAsync(get("/stores/{storeId}/sales", 1L).param("from", "2024-03-02").param("to", "2024-03-01"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should return Ok with the number of rebuilt buckets")
+    void testRebuildSales() throws Exception {
+        when(salesRollupService.rebuild(Date.valueOf("2024-01-01"), Date.valueOf("2024-01-31"))).thenReturn(12);
+
+        performAsync(post("/stores/sales/rebuild").param("from", "2024-01-01").param("to", "2024-01-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.buckets").value(12));
+    }
+
+    // lane-backed endpoints answer asynchronously; this waits for the lane and dispatches the result
+    private ResultActions performAsync(RequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request).andExpect(request().asyncStarted()).andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+}
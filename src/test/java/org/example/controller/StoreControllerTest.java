@@ -1,8 +1,23 @@
 package org.example.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import javassist.NotFoundException;
+import org.example.cache.StoreCacheStats;
+import org.example.dto.BulkItemResult;
+import org.example.dto.StoreDeleteResult;
+import org.example.dto.StoreLookup;
+import org.example.dto.StorePage;
+import org.example.dto.StoreSearchResult;
+import org.example.dto.StoreUpdate;
 import org.example.entity.Store;
+import org.example.json.PayloadFormats;
+import org.example.idempotency.IdempotencyKeys;
+import org.example.lanes.LaneConfig;
+import org.example.repository.IdempotencyRecordRepository;
+import org.example.service.StoreETags;
+import org.example.service.StoreSearchService;
 import org.example.service.StoreService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -12,29 +27,67 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(StoreController.class)
+@Import({LaneConfig.class, IdempotencyKeys.class})
 @ExtendWith(MockitoExtension.class)
 public class StoreControllerTest {
+    private static final ObjectMapper CBOR = new CBORMapper();
+
+    //IdempotencyKeys runs writes in a transaction; the slice has no transaction manager
+    @TestConfiguration
+    static class Transactions {
+        @Bean
+        TransactionTemplate transactionTemplate() {
+            return new TransactionTemplate(mock(PlatformTransactionManager.class));
+        }
+    }
+
     @Autowired
     private MockMvc mockMvc;
 
     @MockBean
     private StoreService storeService;
 
+    @MockBean
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @MockBean
+    private StoreSearchService storeSearchService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -53,34 +106,204 @@ public class StoreControllerTest {
     @DisplayName("Should return Ok with a list of stores when repository is not empty")
     void testGetAllStores() throws Exception {
         List<Store> stores = Arrays.asList(store);
-        when(storeService.getAllStores()).thenReturn(stores);
+        when(storeService.getAllStores(null, 100)).thenReturn(new StorePage(stores, null));
 
-        mockMvc.perform(get("/stores"))
+        performAsync(get("/stores"))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(StoreController.NEXT_CURSOR_HEADER))
                 .andExpect(jsonPath("$.length()").value(stores.size()))
                 .andExpect(jsonPath("$[0].storeId").value(store.getStoreId())) //[0] indexing bc returns an array
                 .andExpect(jsonPath("$[0].storeName").value(store.getStoreName()))
                 .andExpect(jsonPath("$[0].location").value(store.getLocation()));
 
-        verify(storeService, times(1)).getAllStores();
+        verify(storeService, times(1)).getAllStores(null, 100);
     }
     @Test
     @DisplayName("Should return Ok with an empty list when repository is empty")
     void testGetAllStoresWhenStoresListIsEmpty() throws Exception {
-        when(storeService.getAllStores()).thenReturn(Collections.emptyList());
+        when(storeService.getAllStores(null, 100)).thenReturn(new StorePage(Collections.emptyList(), null));
 
-        mockMvc.perform(get("/stores"))
+        performAsync(get("/stores"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(0));
 
-        verify(storeService, times(1)).getAllStores();
+        verify(storeService, times(1)).getAllStores(null, 100);
+    }
+    @Test
+    @DisplayName("Should pass the cursor through and expose the next one in a header")
+    void testGetAllStoresWithCursor() throws Exception {
+        when(storeService.getAllStores(0L, 1)).thenReturn(new StorePage(Arrays.asList(store), store.getStoreId()));
+
+        performAsync(get("/stores").param("after", "0").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(StoreController.NEXT_CURSOR_HEADER, "1"))
+                .andExpect(jsonPath("$.length()").value(1));
+
+        verify(storeService, times(1)).getAllStores(0L, 1);
+    }
+    @Test
+    @DisplayName("Should answer a matching If-None-Match on a page with Not Modified without loading the page")
+    void testGetAllStoresNotModified() throws Exception {
+        store.setVersion(0L);
+        String eTag = StoreETags.ofPage(List.of(store), Store::getStoreId, Store::getVersion, false);
+        when(storeService.getAllStores(null, 100)).thenReturn(new StorePage(List.of(store), null));
+
+        String returned = performAsync(get("/stores"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(returned).isEqualTo(eTag);
+
+        when(storeService.getStoresETag(null, 100)).thenReturn(eTag);
+        performAsync(get("/stores").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(storeService, times(1)).getAllStores(null, 100);
+    }
+    @Test
+    @DisplayName("Should look up stores by id in request order with not-found markers")
+    void testGetStoresByIds() throws Exception {
+        when(storeService.getStoresByIds(List.of(1L, 9L))).thenReturn(List.of(new StoreLookup(1L, store), new StoreLookup(9L, null)));
+
+        performAsync(get("/stores").param("ids", "1,9"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].found").value(true))
+                .andExpect(jsonPath("$[0].store.storeName").value(store.getStoreName()))
+                .andExpect(jsonPath("$[1].storeId").value(9))
+                .andExpect(jsonPath("$[1].found").value(false))
+                .andExpect(jsonPath("$[1].store").doesNotExist());
+
+        verify(storeService, never()).getAllStores(any(), anyInt());
+    }
+    @Test
+    @DisplayName("Should look up stores from an id list in the request body")
+    void testLookupStores() throws Exception {
+        when(storeService.getStoresByIds(List.of(1L, 9L))).thenReturn(List.of(new StoreLookup(1L, store), new StoreLookup(9L, null)));
+
+        performAsync(post("/stores/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, 9]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].found").value(false));
+    }
+    @Test
+    @DisplayName("Should stream every store as a JSON array")
+    @SuppressWarnings("unchecked")
+    void testStreamAllStores() throws Exception {
+        doAnswer(invocation -> {
+            ((Consumer<Store>) invocation.getArgument(0)).accept(store);
+            return null;
+        }).when(storeService).forEachStore(any());
+
+        MvcResult result = mockMvc.perform(get("/stores/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].storeName").value(store.getStoreName()));
+    }
+    @Test
+    @DisplayName("Should stream every store as Smile when the Accept header asks for it")
+    @SuppressWarnings("unchecked")
+    void testStreamAllStoresAsSmile() throws Exception {
+        doAnswer(invocation -> {
+            ((Consumer<Store>) invocation.getArgument(0)).accept(store);
+            return null;
+        }).when(storeService).forEachStore(any());
+
+        MvcResult result = mockMvc.perform(get("/stores/stream").accept(PayloadFormats.APPLICATION_SMILE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(PayloadFormats.APPLICATION_SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(new SmileMapper().readTree(body).get(0).get("storeName").asText()).isEqualTo(store.getStoreName());
+    }
+    @Test
+    @DisplayName("Should stream the format the Accept header rates highest, and answer 406 when none is acceptable")
+    void testStreamAllStoresNegotiation() throws Exception {
+        MvcResult result = mockMvc.perform(get("/stores/stream").header(HttpHeaders.ACCEPT, "application/json;q=0.5, application/cbor"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR));
+
+        result = mockMvc.perform(get("/stores/stream").header(HttpHeaders.ACCEPT, "application/json;q=0, */*;q=0.8"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR));
+
+        mockMvc.perform(get("/stores/stream").accept(MediaType.APPLICATION_XML))
+                .andExpect(status().isNotAcceptable());
+    }
+    @Test
+    @DisplayName("Should answer a store in CBOR for Accept: application/cbor and in JSON by default")
+    void testGetStoreByIdAsCbor() throws Exception {
+        when(storeService.getStoreById(1L)).thenReturn(Optional.of(store));
+
+        byte[] body = performAsync(get("/{storeId}", 1L).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(CBOR.readValue(body, Store.class)).isEqualTo(store);
+
+        performAsync(get("/{storeId}", 1L).accept(MediaType.ALL))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.storeName").value(store.getStoreName()));
+    }
+    @Test
+    @DisplayName("Should give each representation of a store its own ETag and vary the response on Accept")
+    void testGetStoreByIdETagPerRepresentation() throws Exception {
+        store.setVersion(3L);
+        when(storeService.getStoreById(1L)).thenReturn(Optional.of(store));
+        when(storeService.getStoreETag(1L)).thenReturn(Optional.of("\"1-3\""));
+
+        performAsync(get("/{storeId}", 1L).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-3+cbor\""))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)));
+        performAsync(get("/{storeId}", 1L).accept(MediaType.APPLICATION_CBOR).header(HttpHeaders.IF_NONE_MATCH, "\"1-3\""))
+                .andExpect(status().isOk());
+        performAsync(get("/{storeId}", 1L).accept(MediaType.APPLICATION_CBOR).header(HttpHeaders.IF_NONE_MATCH, "\"1-3+cbor\""))
+                .andExpect(status().isNotModified());
+        when(storeService.getAllStores(null, 100)).thenReturn(new StorePage(List.of(store), null));
+        performAsync(get("/stores").accept(PayloadFormats.APPLICATION_SMILE))
+                .andExpect(header().string(HttpHeaders.ETAG, endsWith("+x-jackson-smile\"")))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)));
+    }
+    @Test
+    @DisplayName("Should answer Not Acceptable for a malformed Accept header")
+    void testGetStoreByIdMalformedAccept() throws Exception {
+        mockMvc.perform(get("/{storeId}", 1L).header(HttpHeaders.ACCEPT, "application/"))
+                .andExpect(status().isNotAcceptable());
+        mockMvc.perform(get("/stores/stream").header(HttpHeaders.ACCEPT, "application/"))
+                .andExpect(status().isNotAcceptable());
+
+        verify(storeService, never()).getStoreById(anyLong());
+    }
+    @Test
+    @DisplayName("Should return Ok with the store cache counters")
+    void testGetStoreCacheStats() throws Exception {
+        when(storeService.getCacheStats()).thenReturn(new StoreCacheStats(5, 2, 1, 3));
+
+        mockMvc.perform(get("/stores/cache/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hits").value(5))
+                .andExpect(jsonPath("$.misses").value(2))
+                .andExpect(jsonPath("$.evictions").value(1))
+                .andExpect(jsonPath("$.size").value(3));
     }
     @Test
     @DisplayName("Should return Ok with a store when Id exists")
     void testGetStoreById() throws Exception {
         when(storeService.getStoreById(1L)).thenReturn(Optional.of(store));
 
-        mockMvc.perform(get("/{storeId}", 1L))
+        performAsync(get("/{storeId}", 1L))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.storeId").value(store.getStoreId())) //directly accessing the properties
                 .andExpect(jsonPath("$.storeName").value(store.getStoreName()))
@@ -90,11 +313,44 @@ public class StoreControllerTest {
 
     }
     @Test
+    @DisplayName("Should answer a matching If-None-Match with Not Modified without loading the store")
+    void testGetStoreByIdNotModified() throws Exception {
+        when(storeService.getStoreETag(1L)).thenReturn(Optional.of("\"1-3\""));
+
+        performAsync(get("/{storeId}", 1L).header(HttpHeaders.IF_NONE_MATCH, "\"1-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-3\""))
+                .andExpect(content().string(""));
+
+        verify(storeService, never()).getStoreById(anyLong());
+    }
+    @Test
+    @DisplayName("Should return the store and its current ETag when If-None-Match is stale")
+    void testGetStoreByIdModified() throws Exception {
+        store.setVersion(4L);
+        when(storeService.getStoreETag(1L)).thenReturn(Optional.of("\"1-4\""));
+        when(storeService.getStoreById(1L)).thenReturn(Optional.of(store));
+
+        performAsync(get("/{storeId}", 1L).header(HttpHeaders.IF_NONE_MATCH, "\"1-3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-4\""))
+                .andExpect(jsonPath("$.version").value(4));
+    }
+    @Test
+    @DisplayName("Should return Service Unavailable with Retry-After when a lane turns the request away")
+    void testLaneRejection() throws Exception {
+        when(storeService.getStoreById(1L)).thenThrow(new RejectedExecutionException("The reads lane is full, retry later."));
+
+        performAsync(get("/{storeId}", 1L))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+    }
+    @Test
     @DisplayName("Should return Not Found when Id does not exists")
     void testGetStoreByIdWhenIdNotExists() throws Exception {
         when(storeService.getStoreById(2L)).thenReturn(Optional.empty());
 
-        mockMvc.perform(get("/{storeId}", 2L))
+        performAsync(get("/{storeId}", 2L))
                 .andExpect(status().isNotFound());
 
         verify(storeService, times(1)).getStoreById(2L);
@@ -111,7 +367,7 @@ public class StoreControllerTest {
 
         doNothing().when(storeService).createStore(any(Store.class));
 
-        mockMvc.perform(post("/createStore")
+        performAsync(post("/createStore")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(newStore)))
                 .andExpect(status().isCreated());
@@ -132,7 +388,7 @@ public class StoreControllerTest {
 
         doThrow(IllegalStateException.class).when(storeService).createStore(any(Store.class));
 
-        mockMvc.perform(post("/createStore")
+        performAsync(post("/createStore")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(sameNameStore)))
                 .andExpect(status().isConflict());
@@ -140,6 +396,139 @@ public class StoreControllerTest {
         verify(storeService, times(1)).createStore(any(Store.class));
     }
     @Test
+    @DisplayName("Should answer a createStore retry with the same Idempotency-Key without creating the store again")
+    void testCreateStoreRetryWithIdempotencyKey() throws Exception {
+        String body = objectMapper.writeValueAsString(store);
+
+        performAsync(post("/createStore")
+                        .header(IdempotencyKeys.HEADER, "pos-7-receipt-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(IdempotencyKeys.REPLAYED_HEADER));
+        performAsync(post("/createStore")
+                        .header(IdempotencyKeys.HEADER, "pos-7-receipt-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyKeys.REPLAYED_HEADER, "true"));
+
+        verify(storeService, times(1)).createStore(any(Store.class));
+    }
+    @Test
+    @DisplayName("Should bulk create stores sent as a JSON array")
+    void testCreateStoresFromJsonArray() throws Exception {
+        List<Store> received = new ArrayList<>();
+        when(storeService.createStores(any())).thenAnswer(invocation -> {
+            invocation.<Iterator<Store>>getArgument(0).forEachRemaining(received::add);
+            return Arrays.asList(new BulkItemResult(0, BulkItemResult.Status.CREATED, 7L, null),
+                    BulkItemResult.rejected(1, BulkItemResult.Status.DUPLICATE, "duplicate"));
+        });
+
+        mockMvc.perform(post("/stores/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Arrays.asList(store, store))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[0].id").value(7))
+                .andExpect(jsonPath("$[1].status").value("DUPLICATE"));
+
+        assertThat(received).hasSize(2);
+    }
+    @Test
+    @DisplayName("Should bulk create stores sent as newline-delimited JSON")
+    void testCreateStoresFromNdjson() throws Exception {
+        List<Store> received = new ArrayList<>();
+        when(storeService.createStores(any())).thenAnswer(invocation -> {
+            invocation.<Iterator<Store>>getArgument(0).forEachRemaining(received::add);
+            return Collections.emptyList();
+        });
+        String body = objectMapper.writeValueAsString(store) + "\n" + objectMapper.writeValueAsString(store) + "\n";
+
+        mockMvc.perform(post("/stores/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk());
+
+        assertThat(received).extracting(Store::getStoreName).containsExactly("Safeway", "Safeway");
+    }
+    @Test
+    @DisplayName("Should bulk create stores sent as a CBOR array and answer in CBOR when asked to")
+    void testCreateStoresFromCbor() throws Exception {
+        List<Store> received = new ArrayList<>();
+        when(storeService.createStores(any())).thenAnswer(invocation -> {
+            invocation.<Iterator<Store>>getArgument(0).forEachRemaining(received::add);
+            return List.of(new BulkItemResult(0, BulkItemResult.Status.CREATED, 7L, null));
+        });
+
+        byte[] response = mockMvc.perform(post("/stores/bulk")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(CBOR.writeValueAsBytes(List.of(store))))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(received).extracting(Store::getStoreName).containsExactly("Safeway");
+        assertThat(CBOR.readTree(response).get(0).get("id").asLong()).isEqualTo(7L);
+    }
+    @Test
+    @DisplayName("Should patch a store at the If-Match version and return the new ETag")
+    void testPatchStore() throws Exception {
+        when(storeService.patchStore(eq(1L), any(StoreUpdate.class))).thenReturn(4L);
+
+        performAsync(patch("/stores/{storeId}", 1L)
+                        .header(HttpHeaders.IF_MATCH, "\"1-3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"storeName\":\"Walmart\"}"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-4\""));
+
+        verify(storeService, times(1)).patchStore(eq(1L), argThat(update ->
+                update.getVersion() == 3L && "Walmart".equals(update.getStoreName()) && update.getLocation() == null));
+    }
+    @Test
+    @DisplayName("Should return Conflict when the store changed since the patched version")
+    void testPatchStoreConflict() throws Exception {
+        when(storeService.patchStore(eq(1L), any(StoreUpdate.class))).thenThrow(new OptimisticLockingFailureException("stale"));
+
+        performAsync(patch("/stores/{storeId}", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"location\":\"Main Street\",\"version\":3}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.path").value("/stores/1"));
+    }
+    @Test
+    @DisplayName("Should return Bad Request for an If-Match that is not this store's ETag")
+    void testPatchStoreBadIfMatch() throws Exception {
+        mockMvc.perform(patch("/stores/{storeId}", 1L)
+                        .header(HttpHeaders.IF_MATCH, "\"2-3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"storeName\":\"Walmart\"}"))
+                .andExpect(status().isBadRequest());
+
+        verify(storeService, never()).patchStore(anyLong(), any(StoreUpdate.class));
+    }
+    @Test
+    @DisplayName("Should bulk patch stores sent as a JSON array")
+    void testPatchStores() throws Exception {
+        List<StoreUpdate> received = new ArrayList<>();
+        when(storeService.patchStores(any())).thenAnswer(invocation -> {
+            invocation.<Iterator<StoreUpdate>>getArgument(0).forEachRemaining(received::add);
+            return Arrays.asList(BulkItemResult.updated(0, 1L),
+                    BulkItemResult.rejected(1, BulkItemResult.Status.CONFLICT, "stale"));
+        });
+
+        mockMvc.perform(patch("/stores/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"storeId\":1,\"storeName\":\"Walmart\"},{\"storeId\":2,\"location\":\"Burnaby\",\"version\":0}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("UPDATED"))
+                .andExpect(jsonPath("$[1].status").value("CONFLICT"));
+
+        assertThat(received).extracting(StoreUpdate::getStoreId).containsExactly(1L, 2L);
+    }
+    @Test
     @DisplayName("Should return Ok when name & location in store are updated")
     void testUpdateStoreNameAndLocation() throws Exception {
         Store updatedStore = Store.builder()
@@ -148,7 +537,7 @@ public class StoreControllerTest {
                 .build();
         when(storeService.updateStore(eq(1L), any(Store.class), eq(true), eq(true))).thenReturn(updatedStore);
 
-        mockMvc.perform(put("/updateStore/{storeId}", 1L)
+        performAsync(put("/updateStore/{storeId}", 1L)
                 .param("updateName", "true")
                 .param("updateLocation", "true")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -173,7 +562,7 @@ public class StoreControllerTest {
         when(storeService.updateStore(eq(1L), any(Store.class), eq(true), eq(false)))
                 .thenReturn(updatedStore);
 
-        mockMvc.perform(put("/updateStore/{storeId}", 1L)
+        performAsync(put("/updateStore/{storeId}", 1L)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(updatedStore))
                         .param("updateName", "true")
@@ -199,7 +588,7 @@ public class StoreControllerTest {
         when(storeService.updateStore(eq(1L), any(Store.class), eq(false), eq(true)))
                 .thenReturn(updatedStore);
 
-        mockMvc.perform(put("/updateStore/{storeId}", 1L)
+        performAsync(put("/updateStore/{storeId}", 1L)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(updatedStore))
                         .param("updateName", "false")
@@ -224,7 +613,7 @@ public class StoreControllerTest {
         when(storeService.updateStore(nonExistentStoreId, storeToUpdate, true, true))
                 .thenThrow(new NotFoundException("Store with ID " + nonExistentStoreId + " does not exist"));
 
-        mockMvc.perform(put("/updateStore/{storeId}", nonExistentStoreId)
+        performAsync(put("/updateStore/{storeId}", nonExistentStoreId)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(storeToUpdate))
                         .param("updateName", "true")
@@ -240,25 +629,64 @@ public class StoreControllerTest {
     @Test
     @DisplayName("Should return Ok when a store is deleted")
     void testDeleteStore() throws Exception {
-        when(storeService.getStoreById(anyLong())).thenReturn(Optional.of(store));
         doNothing().when(storeService).deleteStore(anyLong());
 
-        mockMvc.perform(delete("/{storeId}", 1L))
+        performAsync(delete("/{storeId}", 1L))
                 .andExpect(status().isOk());
 
-        verify(storeService, times(1)).getStoreById(anyLong());
+        verify(storeService, never()).getStoreById(anyLong());
         verify(storeService, times(1)).deleteStore(anyLong());
     }
 
     @Test
     @DisplayName("Should return Not Found when trying to delete a store that Id does not exists")
     void testDeleteStoreWhenIdNotFound() throws Exception {
-        when(storeService.getStoreById(2L)).thenReturn(Optional.empty());
+        doThrow(new NotFoundException("Store with ID 2 does not exist")).when(storeService).deleteStore(2L);
 
-        mockMvc.perform(delete("/{storeId}", 2L))
+        performAsync(delete("/{storeId}", 2L))
                 .andExpect(status().isNotFound());
 
-        verify(storeService,times(1)).getStoreById(anyLong());
-        verify(storeService, never()).deleteStore(anyLong());
+        verify(storeService, never()).getStoreById(anyLong());
+    }
+
+    @Test
+    @DisplayName("Should return Conflict when trying to delete a store that has purchases")
+    void testDeleteStoreWithPurchases() throws Exception {
+        doThrow(new IllegalStateException(StoreService.STORE_HAS_PURCHASES_MESSAGE)).when(storeService).deleteStore(1L);
+
+        performAsync(delete("/{storeId}", 1L))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value(StoreService.STORE_HAS_PURCHASES_MESSAGE))
+                .andExpect(jsonPath("$.path").value("/1"));
+    }
+
+    @Test
+    @DisplayName("Should bulk delete the given ids and list the stores kept for their purchases")
+    void testDeleteStores() throws Exception {
+        when(storeService.deleteStores(List.of(1L, 2L, 3L))).thenReturn(new StoreDeleteResult(2, List.of(3L)));
+
+        performAsync(delete("/stores").param("ids", "1,2,3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(2))
+                .andExpect(jsonPath("$.withPurchases[0]").value(3));
+    }
+
+    @Test
+    @DisplayName("Should return Ok with matching stores from the search index")
+    void testSearchStores() throws Exception {
+        when(storeSearchService.search("safwy", StoreSearchService.DEFAULT_LIMIT))
+                .thenReturn(List.of(new StoreSearchResult(1L, "Safeway", "Robson Street", 0.6, true)));
+
+        performAsync(get("/stores/search").param("q", "safwy"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].storeId").value(1))
+                .andExpect(jsonPath("$[0].storeName").value("Safeway"))
+                .andExpect(jsonPath("$[0].fuzzy").value(true));
+    }
+
+    // lane-backed endpoints answer asynchronously; this waits for the lane and dispatches the result
+    private ResultActions performAsync(RequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request).andExpect(request().asyncStarted()).andReturn();
+        return mockMvc.perform(asyncDispatch(result));
     }
 }
@@ -0,0 +1,127 @@
+package org.example.datasource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class ReadWriteRoutingDataSourceTest {
+    private ReadWriteRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = database("routing_test_primary");
+        DataSource replica = database("routing_test_replica");
+        init(primary, "primary");
+        init(replica, "replica");
+        build(primary, List.of(replica));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        DataSourceRouting.clear();
+        routingDataSource.close();
+    }
+
+    @Test
+    @DisplayName("Should send read-only transactions to the replica and everything else to the primary")
+    void testRoutesByTransactionType() {
+        assertThat(readOnlyWhoAmI()).isEqualTo("replica");
+        assertThat(readWriteWhoAmI()).isEqualTo("primary");
+        assertThat(whoAmI()).isEqualTo("primary");
+    }
+
+    @Test
+    @DisplayName("Should keep reads on the primary after a write until the request ends")
+    void testReadYourWrites() {
+        assertThat(readOnlyWhoAmI()).isEqualTo("replica");
+        readWrite.execute(status -> jdbcTemplate.update("update marker set name = 'primary'"));
+
+        assertThat(readOnlyWhoAmI()).isEqualTo("primary");
+
+        DataSourceRouting.clear();
+        assertThat(readOnlyWhoAmI()).isEqualTo("replica");
+    }
+
+    @Test
+    @DisplayName("Should read from the primary inside onPrimary")
+    void testOnPrimary() {
+        assertThat(DataSourceRouting.onPrimary(this::readOnlyWhoAmI)).isEqualTo("primary");
+        assertThat(readOnlyWhoAmI()).isEqualTo("replica");
+    }
+
+    @Test
+    @DisplayName("Should balance reads round robin over the replicas")
+    void testRoundRobin() throws Exception {
+        routingDataSource.close();
+        DataSource second = database("routing_test_replica_2");
+        init(second, "replica-2");
+        build(database("routing_test_primary"), List.of(database("routing_test_replica"), second));
+
+        assertThat(List.of(readOnlyWhoAmI(), readOnlyWhoAmI(),
+                readOnlyWhoAmI())).containsExactly("replica", "replica-2", "replica");
+    }
+
+    @Test
+    @DisplayName("Should fall back to the primary and take a failing replica out of rotation")
+    void testUnhealthyReplica() throws Exception {
+        routingDataSource.close();
+        JdbcDataSource missing = new JdbcDataSource();
+        missing.setURL("jdbc:h2:mem:routing_test_missing;IFEXISTS=TRUE");
+        build(database("routing_test_primary"), List.of(missing));
+
+        assertThat(readOnlyWhoAmI()).isEqualTo("primary");
+        assertThat(routingDataSource.isHealthy(0)).isFalse();
+
+        routingDataSource.checkReplicas();
+        assertThat(routingDataSource.isHealthy(0)).isFalse();
+    }
+
+    private String readOnlyWhoAmI() {
+        return readOnly.execute(status -> whoAmI());
+    }
+
+    private String readWriteWhoAmI() {
+        return readWrite.execute(status -> whoAmI());
+    }
+
+    private String whoAmI() {
+        return jdbcTemplate.queryForObject("select name from marker", String.class);
+    }
+
+    private void build(DataSource primary, List<DataSource> replicas) {
+        routingDataSource = new ReadWriteRoutingDataSource(primary, replicas);
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    private static DataSource database(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        return dataSource;
+    }
+
+    private static void init(DataSource dataSource, String name) {
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.execute("create table if not exists marker (name varchar(20))");
+        template.update("delete from marker");
+        template.update("insert into marker (name) values (?)", name);
+    }
+}
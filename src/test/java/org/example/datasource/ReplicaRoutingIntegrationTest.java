@@ -0,0 +1,57 @@
+package org.example.datasource;
+
+import org.example.entity.Store;
+import org.example.service.StoreService;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.*;
+
+// Two embedded databases stand in for the MySQL primary and its replica. Hibernate creates the schema on the primary
+// only, so the replica gets a copy of the tables read at startup and in the test.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing_primary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "app.datasource.replicas[0].url=jdbc:h2:mem:routing_replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"
+})
+public class ReplicaRoutingIntegrationTest {
+    private static JdbcTemplate replica;
+    private static JdbcTemplate primary;
+
+    @Autowired
+    private StoreService storeService;
+
+    @BeforeAll
+    static void createReplicaSchema() {
+        replica = jdbcTemplate("routing_replica");
+        primary = jdbcTemplate("routing_primary");
+        replica.execute("create table if not exists store (store_id bigint auto_increment primary key, store_name varchar(255),"
+                + " location varchar(255), created_at timestamp, version bigint not null default 0, name_location_key varchar(511))");
+        replica.execute("create table if not exists product (product_id bigint auto_increment primary key,"
+                + " product_name varchar(255), category varchar(255))");
+        replica.update("delete from store");
+        replica.update("insert into store (store_id, store_name, location, name_location_key) values (500, 'Replica Mart', 'Nowhere', 'x')");
+    }
+
+    @Test
+    @DisplayName("Should page stores from the replica and create them on the primary")
+    void testReadsGoToReplicaAndWritesToPrimary() {
+        assertThat(storeService.getAllStores(null, 10).getStores()).extracting(Store::getStoreName).containsExactly("Replica Mart");
+
+        storeService.createStore(Store.builder().storeName("Safeway").location("Robson Street").build());
+
+        assertThat(primary.queryForObject("select count(*) from store where store_name = 'Safeway'", Integer.class)).isEqualTo(1);
+        assertThat(replica.queryForObject("select count(*) from store where store_name = 'Safeway'", Integer.class)).isZero();
+    }
+
+    private static JdbcTemplate jdbcTemplate(String database) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + database + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        return new JdbcTemplate(dataSource);
+    }
+}
@@ -0,0 +1,162 @@
+package org.example.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.entity.IdempotencyRecord;
+import org.example.lanes.Lane;
+import org.example.lanes.LaneProperties;
+import org.example.lanes.RequestLanes;
+import org.example.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class IdempotencyKeysTest {
+    private IdempotencyRecordRepository repository;
+    private PlatformTransactionManager transactionManager;
+    private RequestLanes lanes;
+    private IdempotencyKeys keys;
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(IdempotencyRecordRepository.class);
+        when(repository.findById(any())).thenReturn(Optional.empty());
+        transactionManager = mock(PlatformTransactionManager.class);
+        lanes = new RequestLanes(new LaneProperties(), new SimpleMeterRegistry());
+        keys = new IdempotencyKeys(repository, lanes, new ObjectMapper(), new TransactionTemplate(transactionManager),
+                100, Duration.ofHours(1), Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        lanes.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should answer a retry with the first response without running the write again")
+    void testReplaysRetry() throws Exception {
+        String fingerprint = keys.fingerprint("POST /purchases", Map.of("storeId", 1));
+
+        ResponseEntity<?> first = get(keys.submit(Lane.WRITES, "k1", fingerprint, this::created));
+        ResponseEntity<?> retry = get(keys.submit(Lane.WRITES, "k1", fingerprint, this::created));
+
+        assertThat(runs.get()).isEqualTo(1);
+        assertThat(first.getHeaders().containsKey(IdempotencyKeys.REPLAYED_HEADER)).isFalse();
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(retry.getHeaders().getFirst(IdempotencyKeys.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(new String((byte[]) retry.getBody(), StandardCharsets.UTF_8)).isEqualTo("{\"purchaseId\":1}");
+        verify(repository, times(1)).save(any(IdempotencyRecord.class));
+    }
+
+    @Test
+    @DisplayName("Should make a concurrent duplicate wait for the first request instead of running it twice")
+    void testConcurrentDuplicateWaits() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<?>> first = keys.submit(Lane.WRITES, "k1", "f", () -> {
+            running.countDown();
+            release.await();
+            return created();
+        });
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<ResponseEntity<?>> duplicate = keys.submit(Lane.WRITES, "k1", "f", this::created);
+        assertThat(duplicate).isNotDone();
+        release.countDown();
+
+        assertThat(get(first).getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(get(duplicate).getHeaders().getFirst(IdempotencyKeys.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(runs.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should reject a key reused for a different request")
+    void testRejectsDifferentRequest() throws Exception {
+        get(keys.submit(Lane.WRITES, "k1", keys.fingerprint("POST /createStore", Map.of("storeName", "Safeway")), this::created));
+
+        CompletableFuture<ResponseEntity<?>> reused = keys.submit(Lane.WRITES, "k1",
+                keys.fingerprint("POST /createStore", Map.of("storeName", "Walmart")), this::created);
+
+        assertThatThrownBy(() -> get(reused)).hasCauseInstanceOf(IllegalArgumentException.class);
+        assertThat(runs.get()).isEqualTo(1);
+        assertThatThrownBy(() -> keys.submit(Lane.WRITES, " ", "f", this::created)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should answer a retry after a restart from the recorded response")
+    void testReplaysRecordedResponse() throws Exception {
+        when(repository.findById("k1")).thenReturn(Optional.of(new IdempotencyRecord("k1", "f", 201, "application/json",
+                "{\"purchaseId\":1}".getBytes(StandardCharsets.UTF_8), new Timestamp(System.currentTimeMillis() + 60_000))));
+
+        ResponseEntity<?> retry = get(keys.submit(Lane.WRITES, "k1", "f", this::created));
+
+        assertThat(runs.get()).isZero();
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(retry.getHeaders().getFirst(IdempotencyKeys.REPLAYED_HEADER)).isEqualTo("true");
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should run a retry again when the first attempt failed")
+    void testDoesNotKeepFailures() throws Exception {
+        CompletableFuture<ResponseEntity<?>> failed = keys.submit(Lane.WRITES, "k1", "f", () -> {
+            throw new IllegalStateException("Store with the same name and location already exists.");
+        });
+        assertThatThrownBy(() -> get(failed)).hasCauseInstanceOf(IllegalStateException.class);
+
+        ResponseEntity<?> retry = get(keys.submit(Lane.WRITES, "k1", "f", this::created));
+
+        assertThat(runs.get()).isEqualTo(1);
+        assertThat(retry.getHeaders().containsKey(IdempotencyKeys.REPLAYED_HEADER)).isFalse();
+        verify(repository, times(1)).save(any());
+    }
+
+    @Test
+    @DisplayName("Should roll the write back and fail the request when its response cannot be recorded")
+    void testRecordsInWriteTransaction() throws Exception {
+        when(repository.save(any(IdempotencyRecord.class))).thenThrow(new DataIntegrityViolationException("duplicate key"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        CompletableFuture<ResponseEntity<?>> failed = keys.submit(Lane.WRITES, "k1", "f", this::created);
+
+        assertThatThrownBy(() -> get(failed)).hasCauseInstanceOf(DataIntegrityViolationException.class);
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+
+        ResponseEntity<?> retry = get(keys.submit(Lane.WRITES, "k1", "f", this::created));
+
+        assertThat(runs.get()).isEqualTo(2);
+        assertThat(retry.getHeaders().containsKey(IdempotencyKeys.REPLAYED_HEADER)).isFalse();
+        verify(transactionManager).commit(any());
+    }
+
+    private ResponseEntity<?> created() {
+        runs.incrementAndGet();
+        return new ResponseEntity<>(Map.of("purchaseId", 1), HttpStatus.CREATED);
+    }
+
+    private static ResponseEntity<?> get(CompletableFuture<ResponseEntity<?>> future) throws Exception {
+        return future.get(5, TimeUnit.SECONDS);
+    }
+}
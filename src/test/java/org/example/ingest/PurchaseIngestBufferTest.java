@@ -0,0 +1,172 @@
+package org.example.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.dto.BulkItemResult;
+import org.example.dto.PurchaseItemRequest;
+import org.example.dto.PurchaseRequest;
+import org.example.entity.IngestCheckpoint;
+import org.example.repository.IngestCheckpointRepository;
+import org.example.service.PurchaseService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.sql.Date;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class PurchaseIngestBufferTest {
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<Long> written = new CopyOnWriteArrayList<>();
+    private PurchaseService purchaseService;
+    private IngestCheckpointRepository checkpoints;
+    private IngestProperties properties;
+    private PurchaseIngestBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        purchaseService = mock(PurchaseService.class);
+        checkpoints = mock(IngestCheckpointRepository.class);
+        when(checkpoints.findById("default")).thenReturn(Optional.empty());
+        when(purchaseService.createPurchases(any())).thenAnswer(invocation -> record(invocation.getArgument(0)));
+        properties = new IngestProperties();
+        properties.setLinger(Duration.ofMillis(1));
+        properties.setRetryBackoff(Duration.ofMillis(10));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (buffer != null) {
+            buffer.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should acknowledge once journaled, then write the purchases and the checkpoint together")
+    void testWritesBehind() throws Exception {
+        buffer = start();
+
+        long first = buffer.submit(purchase(1)).get(5, TimeUnit.SECONDS);
+        long second = buffer.submit(purchase(2)).get(5, TimeUnit.SECONDS);
+
+        assertThat(second).isEqualTo(first + 1);
+        verify(checkpoints, timeout(5000)).save(argThat(checkpoint -> checkpoint.getLastSequence() == second));
+        assertThat(written).containsExactly(1L, 2L);
+        //the in-memory checkpoint moves once the transaction around the save has committed
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (buffer.getCheckpoint() != second && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(buffer.getCheckpoint()).isEqualTo(second);
+    }
+
+    @Test
+    @DisplayName("Should reject an invalid purchase before accepting it")
+    void testRejectsInvalid() throws Exception {
+        buffer = start();
+
+        assertThatThrownBy(() -> buffer.submit(new PurchaseRequest(1L, null, List.of())))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should turn callers away once the database falls behind and the buffer is full")
+    void testBackpressure() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            release.await();
+            return record(invocation.getArgument(0));
+        }).when(purchaseService).createPurchases(any());
+        properties.setCapacity(2);
+        buffer = start();
+
+        List<Throwable> rejections = new ArrayList<>();
+        for (int i = 0; i < 50 && rejections.isEmpty(); i++) {
+            try {
+                buffer.submit(purchase(i));
+            } catch (RejectedExecutionException e) {
+                rejections.add(e);
+            }
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        assertThat(rejections).isNotEmpty();
+    }
+
+    @Test
+    @DisplayName("Should retry a batch the database could not take without losing or repeating purchases")
+    void testRetriesFailedBatch() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new QueryTimeoutException("timeout");
+            }
+            return record(invocation.getArgument(0));
+        }).when(purchaseService).createPurchases(any());
+        buffer = start();
+
+        long sequence = buffer.submit(purchase(7)).get(5, TimeUnit.SECONDS);
+
+        verify(checkpoints, timeout(5000)).save(argThat(checkpoint -> checkpoint.getLastSequence() == sequence));
+        assertThat(written).containsExactly(7L);
+    }
+
+    @Test
+    @DisplayName("Should replay the journaled purchases past the checkpoint on startup")
+    void testReplaysJournal() throws Exception {
+        try (PurchaseJournal journal = new PurchaseJournal(directory, 1 << 20, objectMapper)) {
+            journal.open(0);
+            journal.append(List.of(purchase(1), purchase(2), purchase(3)));
+        }
+        when(checkpoints.findById("default")).thenReturn(Optional.of(new IngestCheckpoint("default", 1)));
+
+        buffer = start();
+
+        verify(checkpoints, timeout(5000)).save(argThat(checkpoint -> checkpoint.getLastSequence() == 3));
+        assertThat(written).containsExactly(2L, 3L);
+        assertThat(buffer.submit(purchase(4)).get(5, TimeUnit.SECONDS)).isEqualTo(4);
+    }
+
+    private PurchaseIngestBuffer start() throws Exception {
+        PurchaseIngestBuffer started = new PurchaseIngestBuffer(properties, new PurchaseJournal(directory, 1 << 20, objectMapper),
+                purchaseService, checkpoints, new TransactionTemplate(mock(PlatformTransactionManager.class)), new SimpleMeterRegistry());
+        started.start();
+        return started;
+    }
+
+    private List<BulkItemResult> record(Iterator<PurchaseRequest> requests) {
+        List<BulkItemResult> results = new ArrayList<>();
+        while (requests.hasNext()) {
+            written.add(requests.next().getStoreId());
+            results.add(BulkItemResult.created(results.size()));
+        }
+        return results;
+    }
+
+    private static PurchaseRequest purchase(long storeId) {
+        return new PurchaseRequest(storeId, Date.valueOf("2024-03-01"), List.of(new PurchaseItemRequest(10L, 1, 2.5, 0.1)));
+    }
+}
@@ -0,0 +1,111 @@
+package org.example.ingest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.dto.PurchaseItemRequest;
+import org.example.dto.PurchaseRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class PurchaseJournalTest {
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("Should hand back the entries past the checkpoint after a restart and continue the sequence")
+    void testReopenAfterCheckpoint() throws Exception {
+        try (PurchaseJournal journal = new PurchaseJournal(directory, 1 << 20, objectMapper)) {
+            assertThat(journal.open(0)).isEmpty();
+            assertThat(journal.append(List.of(purchase(1), purchase(2))).get(1).getSequence()).isEqualTo(2);
+            journal.append(List.of(purchase(3)));
+        }
+
+        try (PurchaseJournal journal = new PurchaseJournal(directory, 1 << 20, objectMapper)) {
+            List<JournalEntry> pending = journal.open(1);
+            assertThat(pending).extracting(JournalEntry::getSequence).containsExactly(2L, 3L);
+            assertThat(pending.get(1).getPurchase().getStoreId()).isEqualTo(3);
+            assertThat(pending.get(1).getPurchase().getItems()).hasSize(1);
+            assertThat(journal.append(List.of(purchase(4))).get(0).getSequence()).isEqualTo(4);
+        }
+    }
+
+    @Test
+    @DisplayName("Should cut off an entry torn by a crash and keep appending after it")
+    void testTornTail() throws Exception {
+        try (PurchaseJournal journal = new PurchaseJournal(directory, 1 << 20, objectMapper)) {
+            journal.open(0);
+            journal.append(List.of(purchase(1)));
+        }
+        Path segment = segments().get(0);
+        Files.write(segment, "{\"sequence\":2,\"purch".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        try (PurchaseJournal journal = new PurchaseJournal(directory, 1 << 20, objectMapper)) {
+            assertThat(journal.open(0)).extracting(JournalEntry::getSequence).containsExactly(1L);
+            assertThat(journal.append(List.of(purchase(2))).get(0).getSequence()).isEqualTo(2);
+        }
+        try (PurchaseJournal journal = new PurchaseJournal(directory, 1 << 20, objectMapper)) {
+            assertThat(journal.open(0)).extracting(JournalEntry::getSequence).containsExactly(1L, 2L);
+        }
+    }
+
+    @Test
+    @DisplayName("Should stop recovery on an unreadable entry that is followed by acknowledged ones")
+    void testCorruptEntryInTheMiddle() throws Exception {
+        try (PurchaseJournal journal = new PurchaseJournal(directory, 1 << 20, objectMapper)) {
+            journal.open(0);
+            journal.append(List.of(purchase(1)));
+        }
+        Path segment = segments().get(0);
+        String valid = Files.readString(segment);
+        Files.writeString(segment, "{\"sequence\":1,\"purch\n" + valid.replace("\"sequence\":1", "\"sequence\":2"));
+        long size = Files.size(segment);
+
+        try (PurchaseJournal journal = new PurchaseJournal(directory, 1 << 20, objectMapper)) {
+            assertThatThrownBy(() -> journal.open(0))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("byte 0");
+        }
+        assertThat(Files.size(segment)).isEqualTo(size);
+    }
+
+    @Test
+    @DisplayName("Should roll segments and delete them once the checkpoint has passed them")
+    void testRollAndDelete() throws Exception {
+        try (PurchaseJournal journal = new PurchaseJournal(directory, 1, objectMapper)) {
+            journal.open(0);
+            journal.append(List.of(purchase(1), purchase(2)));
+            journal.append(List.of(purchase(3)));
+            assertThat(segments()).hasSize(3);
+
+            journal.deleteThrough(1);
+            assertThat(segments()).hasSize(3);
+            journal.deleteThrough(2);
+            assertThat(segments()).hasSize(2);
+            journal.deleteThrough(3);
+            assertThat(segments()).hasSize(1);
+        }
+    }
+
+    private List<Path> segments() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static PurchaseRequest purchase(long storeId) {
+        return new PurchaseRequest(storeId, Date.valueOf("2024-03-01"), List.of(new PurchaseItemRequest(10L, 1, 2.5, 0.1)));
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.example.dto.PurchaseSummary;
+import org.example.entity.Store;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class PayloadSerializersTest {
+    private final JsonConfig config = new JsonConfig();
+
+    @Test
+    @DisplayName("Should write stores exactly as the bean serializer does, nulls and key left out included")
+    void testStoreMatchesBeanSerializer() throws Exception {
+        Store full = Store.builder().storeId(7L).storeName("Safeway \"Downtown\"").location("Robson Street")
+                .createdAt(Timestamp.valueOf("2024-03-01 10:15:30.250")).version(3L).nameLocationKey("safeway").build();
+        Store empty = new Store();
+
+        for (boolean timestamps : new boolean[]{false, true}) {
+            ObjectMapper reflective = mapper(timestamps);
+            ObjectMapper fast = mapper(timestamps).registerModules(config.payloadSerializersModule(), config.blackbirdModule());
+
+            assertThat(fast.writeValueAsString(List.of(full, empty))).isEqualTo(reflective.writeValueAsString(List.of(full, empty)));
+        }
+    }
+
+    @Test
+    @DisplayName("Should write purchase summaries exactly as the bean serializer does")
+    void testPurchaseSummaryMatchesBeanSerializer() throws Exception {
+        PurchaseSummary summary = new PurchaseSummary(11L, Date.valueOf("2024-03-01"), 12.5, 4, 2L);
+        PurchaseSummary empty = new PurchaseSummary(null, null, null, null, null);
+
+        for (boolean timestamps : new boolean[]{false, true}) {
+            ObjectMapper reflective = mapper(timestamps);
+            ObjectMapper fast = mapper(timestamps).registerModules(config.payloadSerializersModule(), config.blackbirdModule());
+
+            assertThat(fast.writeValueAsString(List.of(summary, empty))).isEqualTo(reflective.writeValueAsString(List.of(summary, empty)));
+        }
+    }
+
+    //Boot's defaults, which turn date timestamps off
+    private static ObjectMapper mapper(boolean timestamps) {
+        return Jackson2ObjectMapperBuilder.json().build().configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, timestamps);
+    }
+}
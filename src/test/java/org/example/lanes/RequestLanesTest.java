@@ -0,0 +1,142 @@
+package org.example.lanes;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import javassist.NotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class RequestLanesTest {
+    private SimpleMeterRegistry meterRegistry;
+    private RequestLanes lanes;
+
+    @BeforeEach
+    void setUp() {
+        LaneProperties properties = new LaneProperties();
+        properties.setAnalytics(new LaneProperties.Pool(1, 1));
+        meterRegistry = new SimpleMeterRegistry();
+        lanes = new RequestLanes(properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        lanes.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should reject work once a lane's threads and queue are full, without affecting other lanes")
+    void testRejectsWhenFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+        CompletableFuture<String> report = lanes.submit(Lane.ANALYTICS, () -> {
+            running.countDown();
+            release.await();
+            return "report";
+        });
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = lanes.submit(Lane.ANALYTICS, () -> "queued");
+
+        assertThatThrownBy(() -> lanes.submit(Lane.ANALYTICS, () -> "rejected"))
+                .isInstanceOf(RejectedExecutionException.class)
+                .hasMessageContaining("analytics");
+        assertThat(lanes.submit(Lane.READS, () -> "store").get(5, TimeUnit.SECONDS)).isEqualTo("store");
+        assertThat(meterRegistry.get(RequestLanes.REJECTED_METRIC).tag("lane", "analytics").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(RequestLanes.REJECTED_METRIC).tag("lane", "reads").counter().count()).isZero();
+
+        release.countDown();
+        assertThat(report.get(5, TimeUnit.SECONDS)).isEqualTo("report");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("queued");
+        assertThat(meterRegistry.get(RequestLanes.QUEUE_WAIT_METRIC).tag("lane", "analytics").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should complete the future with the task's checked exception")
+    void testPropagatesFailures() {
+        CompletableFuture<Object> future = lanes.submit(Lane.WRITES, () -> {
+            throw new NotFoundException("Store with ID 1 does not exist");
+        });
+
+        assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Should skip a cancelled task that is still queued and interrupt one that is running")
+    void testCancel() throws Exception {
+        LaneProperties properties = new LaneProperties();
+        properties.setAnalytics(new LaneProperties.Pool(1, 2));
+        lanes.shutdown();
+        lanes = new RequestLanes(properties, new SimpleMeterRegistry());
+        CountDownLatch running = new CountDownLatch(1);
+        CompletableFuture<Boolean> interrupted = new CompletableFuture<>();
+        CompletableFuture<String> report = lanes.submit(Lane.ANALYTICS, () -> {
+            running.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                interrupted.complete(true);
+            }
+            return "report";
+        });
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+        AtomicBoolean ran = new AtomicBoolean();
+        CompletableFuture<String> queued = lanes.submit(Lane.ANALYTICS, () -> {
+            ran.set(true);
+            return "queued";
+        });
+
+        queued.cancel(true);
+        report.cancel(true);
+
+        assertThat(interrupted.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(lanes.submit(Lane.ANALYTICS, () -> Thread.currentThread().isInterrupted()).get(5, TimeUnit.SECONDS)).isFalse();
+        assertThat(ran).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should finish queued work on shutdown, and fail what is left once the timeout runs out")
+    void testShutdown() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> report = lanes.submit(Lane.ANALYTICS, () -> {
+            release.await(100, TimeUnit.MILLISECONDS);
+            return "report";
+        });
+        CompletableFuture<String> queued = lanes.submit(Lane.ANALYTICS, () -> "queued");
+
+        lanes.shutdown();
+
+        assertThat(report.getNow(null)).isEqualTo("report");
+        assertThat(queued.getNow(null)).isEqualTo("queued");
+        assertThat(lanes.isRunning()).isFalse();
+
+        LaneProperties properties = new LaneProperties();
+        properties.setAnalytics(new LaneProperties.Pool(1, 1));
+        properties.setShutdownTimeout(Duration.ofMillis(100));
+        RequestLanes stuck = new RequestLanes(properties, new SimpleMeterRegistry());
+        CountDownLatch running = new CountDownLatch(1);
+        CompletableFuture<String> hung = stuck.submit(Lane.ANALYTICS, () -> {
+            running.countDown();
+            new CountDownLatch(1).await();
+            return "hung";
+        });
+        CompletableFuture<String> dropped = stuck.submit(Lane.ANALYTICS, () -> "dropped");
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+        stuck.shutdown();
+
+        assertThatThrownBy(() -> hung.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(InterruptedException.class);
+        assertThatThrownBy(() -> dropped.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(RejectedExecutionException.class);
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class RequestMetricsFilterTest {
+    private SimpleMeterRegistry meterRegistry;
+    private RequestMetricsFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new RequestMetricsFilter(meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should record the statements of each request under its route")
+    void testRecordsStatementsPerRoute() throws Exception {
+        StatementCountingInspector inspector = new StatementCountingInspector();
+        FilterChain chain = (request, response) -> {
+            request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/{storeId}");
+            inspector.inspect("select 1");
+            inspector.inspect("select 2");
+        };
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/1"), new MockHttpServletResponse(), chain);
+        filter.doFilter(new MockHttpServletRequest("GET", "/2"), new MockHttpServletResponse(), chain);
+
+        DistributionSummary summary = meterRegistry.get(RequestMetricsFilter.STATEMENTS_METRIC)
+                .tag("uri", "/{storeId}").tag("method", "GET").summary();
+        assertThat(summary.count()).isEqualTo(2);
+        assertThat(summary.totalAmount()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Should not count statements from an earlier request on the same thread")
+    void testResetsBetweenRequests() throws Exception {
+        new StatementCountingInspector().inspect("select 1");
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/nowhere"), new MockHttpServletResponse(), (request, response) -> {
+        });
+
+        DistributionSummary summary = meterRegistry.get(RequestMetricsFilter.STATEMENTS_METRIC)
+                .tag("uri", RequestMetricsFilter.UNKNOWN_ROUTE).tag("method", "POST").summary();
+        assertThat(summary.totalAmount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should record an async request when it completes, including its lane statements")
+    void testRecordsAsyncRequestOnCompletion() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/1");
+        request.setAsyncSupported(true);
+        FilterChain chain = (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/{storeId}");
+            req.startAsync();
+        };
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        assertThat(meterRegistry.find(RequestMetricsFilter.STATEMENTS_METRIC).summary()).isNull();
+
+        RequestMetricsFilter.laneStatements(request).addAndGet(3);
+        request.getAsyncContext().complete();
+
+        DistributionSummary summary = meterRegistry.get(RequestMetricsFilter.STATEMENTS_METRIC)
+                .tag("uri", "/{storeId}").tag("method", "GET").summary();
+        assertThat(summary.count()).isEqualTo(1);
+        assertThat(summary.totalAmount()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.repository;
+
+import org.example.entity.ChangeEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+public class ChangeEventRepositoryTest {
+    @Autowired
+    private ChangeEventRepository changeEventRepository;
+
+    @Test
+    @DisplayName("Should publish appended events in order and read them back after an offset")
+    void testAppendAndPublish() {
+        changeEventRepository.appendAll(List.of(event(1L, "created"), event(2L, "created"), event(1L, "updated")));
+        assertThat(changeEventRepository.findLastOffset()).isEmpty();
+        assertThat(changeEventRepository.findPublishedAfter(0L, PageRequest.of(0, 10))).isEmpty();
+
+        List<Long> unpublished = changeEventRepository.findUnpublishedIds(PageRequest.of(0, 2));
+        assertThat(unpublished).hasSize(2);
+        changeEventRepository.assignOffsets(unpublished, 1L);
+        changeEventRepository.assignOffsets(changeEventRepository.findUnpublishedIds(PageRequest.of(0, 2)), 3L);
+
+        assertThat(changeEventRepository.findUnpublishedIds(PageRequest.of(0, 10))).isEmpty();
+        assertThat(changeEventRepository.findLastOffset()).contains(3L);
+        assertThat(changeEventRepository.findPublishedAfter(1L, PageRequest.of(0, 10)))
+                .extracting(ChangeEvent::getFeedOffset, ChangeEvent::getEntityId, ChangeEvent::getChangeType)
+                .containsExactly(tuple(2L, 2L, "created"), tuple(3L, 1L, "updated"));
+    }
+
+    @Test
+    @DisplayName("Should leave published events alone and refuse an offset that is already taken")
+    void testOffsetsAreAssignedOnce() {
+        changeEventRepository.appendAll(List.of(event(1L, "created"), event(2L, "created")));
+        List<Long> ids = changeEventRepository.findUnpublishedIds(PageRequest.of(0, 10));
+        changeEventRepository.assignOffsets(ids.subList(0, 1), 1L);
+
+        //a second relay that read the same ids does not renumber the published one
+        changeEventRepository.assignOffsets(ids.subList(0, 1), 7L);
+        assertThat(changeEventRepository.findLastOffset()).contains(1L);
+
+        assertThatThrownBy(() -> changeEventRepository.assignOffsets(ids.subList(1, 2), 1L))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    private static ChangeEvent event(Long storeId, String changeType) {
+        return new ChangeEvent("store", storeId, changeType, "{\"storeId\":" + storeId + "}", new Timestamp(System.currentTimeMillis()));
+    }
+}
@@ -0,0 +1,138 @@
+package org.example.repository;
+
+import jakarta.persistence.EntityManager;
+import org.example.dto.PurchaseSummary;
+import org.example.entity.Product;
+import org.example.entity.Purchase;
+import org.example.entity.PurchaseProduct;
+import org.example.entity.PurchaseProductPk;
+import org.example.entity.Store;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.sql.Date;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class PurchaseRepositoryTest {
+    @Autowired
+    private PurchaseRepository purchaseRepository;
+    @Autowired
+    private PurchaseProductRepository purchaseProductRepository;
+    @Autowired
+    private StoreRepository storeRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    private Store store;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        store = storeRepository.save(Store.builder().storeName("Safeway").location("Robson Street").build());
+        product = new Product();
+        product.setProductName("Milk");
+        product = productRepository.save(product);
+    }
+
+    @Test
+    @DisplayName("Should batch insert purchases and their line items")
+    void testInsertAll() {
+        Purchase first = purchase(Date.valueOf("2024-03-01"));
+        Purchase second = purchase(Date.valueOf("2024-03-02"));
+
+        List<Long> ids = purchaseRepository.insertAll(Arrays.asList(first, second));
+        purchaseProductRepository.insertAll(Arrays.asList(lineItem(ids.get(0)), lineItem(ids.get(1))));
+        entityManager.clear();
+
+        assertThat(ids).hasSize(2);
+        assertThat(purchaseRepository.findById(ids.get(1))).get()
+                .extracting(Purchase::getPurchaseDate).isEqualTo(Date.valueOf("2024-03-02"));
+        assertThat(purchaseProductRepository.findById(new PurchaseProductPk(product.getProductId(), ids.get(0)))).get()
+                .extracting(PurchaseProduct::getQuantity).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should persist new line items without loading them first")
+    void testSaveAllInsertsNewLineItems() {
+        Purchase purchase = purchaseRepository.save(purchase(Date.valueOf("2024-03-01")));
+        PurchaseProduct item = lineItem(purchase.getPurchaseId());
+
+        purchaseProductRepository.saveAll(List.of(item));
+        entityManager.flush();
+
+        assertThat(item.isNew()).isFalse();
+        assertThat(entityManager.contains(item)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should treat equal line item keys as the same key in hash based collections")
+    void testPurchaseProductPkHashCode() {
+        Set<PurchaseProductPk> keys = new HashSet<>();
+        keys.add(new PurchaseProductPk(1L, 2L));
+
+        assertThat(keys).contains(new PurchaseProductPk(1L, 2L));
+        assertThat(new PurchaseProductPk(1L, 2L)).hasSameHashCodeAs(new PurchaseProductPk(1L, 2L));
+    }
+
+    @Test
+    @DisplayName("Should page purchase summaries by date and id with totals computed in one statement")
+    void testFindSummariesByStore() {
+        for (int day = 1; day <= 5; day++) {
+            Purchase purchase = purchaseRepository.save(purchase(Date.valueOf("2024-03-0" + day)));
+            purchaseProductRepository.save(lineItem(purchase.getPurchaseId()));
+        }
+        Purchase empty = purchaseRepository.save(purchase(Date.valueOf("2024-03-02")));
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<PurchaseSummary> page = purchaseRepository.findSummariesByStore(store.getStoreId(),
+                Date.valueOf("2024-03-02"), 0L, Date.valueOf("2024-03-04"), PageRequest.of(0, 3));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(page).extracting(PurchaseSummary::getPurchaseDate).containsExactly(
+                Date.valueOf("2024-03-02"), Date.valueOf("2024-03-02"), Date.valueOf("2024-03-03"));
+        assertThat(page.get(0).getTotal()).isEqualTo(7.5);
+        assertThat(page.get(0).getUnits()).isEqualTo(3);
+        assertThat(page.get(0).getItemCount()).isEqualTo(1);
+        assertThat(page.get(1).getPurchaseId()).isEqualTo(empty.getPurchaseId());
+        assertThat(page.get(1).getItemCount()).isZero();
+
+        PurchaseSummary last = page.get(2);
+        List<PurchaseSummary> next = purchaseRepository.findSummariesByStore(store.getStoreId(),
+                last.getPurchaseDate(), last.getPurchaseId(), Date.valueOf("2024-03-04"), PageRequest.of(0, 3));
+
+        assertThat(next).extracting(PurchaseSummary::getPurchaseDate).containsExactly(Date.valueOf("2024-03-04"));
+    }
+
+    private Purchase purchase(Date date) {
+        Purchase purchase = new Purchase();
+        purchase.setStore(store);
+        purchase.setPurchaseDate(date);
+        return purchase;
+    }
+
+    private PurchaseProduct lineItem(Long purchaseId) {
+        PurchaseProduct item = new PurchaseProduct();
+        item.setPpId(new PurchaseProductPk(product.getProductId(), purchaseId));
+        item.setQuantity(3);
+        item.setPrice(2.5);
+        item.setWeight(1.0);
+        return item;
+    }
+}
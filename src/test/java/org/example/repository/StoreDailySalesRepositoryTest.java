@@ -0,0 +1,82 @@
+package org.example.repository;
+
+import org.example.entity.Product;
+import org.example.entity.Purchase;
+import org.example.entity.PurchaseProduct;
+import org.example.entity.PurchaseProductPk;
+import org.example.entity.Store;
+import org.example.entity.StoreDailySales;
+import org.example.entity.StoreDailySalesPk;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.sql.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+// uses the MySQL-mode H2 from application.properties because the upsert relies on ON DUPLICATE KEY UPDATE
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class StoreDailySalesRepositoryTest {
+    private static final Date MARCH_1 = Date.valueOf("2024-03-01");
+
+    @Autowired
+    private StoreDailySalesRepository storeDailySalesRepository;
+    @Autowired
+    private StoreRepository storeRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private PurchaseRepository purchaseRepository;
+    @Autowired
+    private PurchaseProductRepository purchaseProductRepository;
+
+    @Test
+    @DisplayName("Should create a bucket on the first delta and add to it afterwards")
+    void testAddAll() {
+        StoreDailySalesPk bucket = new StoreDailySalesPk(1L, MARCH_1);
+
+        storeDailySalesRepository.addAll(List.of(new StoreDailySales(bucket, 10.0, 2, 1.0)));
+        storeDailySalesRepository.addAll(List.of(new StoreDailySales(bucket, 5.0, 1, 0.5)));
+
+        assertThat(storeDailySalesRepository.findByStoreAndDateRange(1L, MARCH_1, MARCH_1))
+                .singleElement()
+                .satisfies(sales -> {
+                    assertThat(sales.getRevenue()).isEqualTo(15.0);
+                    assertThat(sales.getUnits()).isEqualTo(3);
+                    assertThat(sales.getWeight()).isEqualTo(1.5);
+                });
+    }
+
+    @Test
+    @DisplayName("Should rebuild the buckets of a range from the purchase tables")
+    void testRebuild() {
+        Store store = storeRepository.save(Store.builder().storeName("Safeway").location("Robson Street").build());
+        Product product = new Product();
+        product.setProductName("Milk");
+        product = productRepository.save(product);
+        Purchase purchase = new Purchase();
+        purchase.setStore(store);
+        purchase.setPurchaseDate(MARCH_1);
+        purchase = purchaseRepository.save(purchase);
+        PurchaseProduct item = new PurchaseProduct();
+        item.setPpId(new PurchaseProductPk(product.getProductId(), purchase.getPurchaseId()));
+        item.setQuantity(3);
+        item.setPrice(2.0);
+        item.setWeight(1.5);
+        purchaseProductRepository.saveAndFlush(item);
+        storeDailySalesRepository.addAll(List.of(new StoreDailySales(new StoreDailySalesPk(store.getStoreId(), MARCH_1), 999.0, 99, 99.0)));
+
+        int buckets = storeDailySalesRepository.rebuild(MARCH_1, MARCH_1);
+
+        assertThat(buckets).isEqualTo(1);
+        StoreDailySales sales = storeDailySalesRepository.findByStoreAndDateRange(store.getStoreId(), MARCH_1, MARCH_1).get(0);
+        assertThat(sales.getRevenue()).isEqualTo(6.0);
+        assertThat(sales.getUnits()).isEqualTo(3);
+        assertThat(sales.getWeight()).isEqualTo(4.5);
+    }
+}
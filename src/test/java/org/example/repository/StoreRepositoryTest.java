@@ -0,0 +1,180 @@
+package org.example.repository;
+
+import org.example.dto.StoreUpdate;
+import org.example.dto.StoreVersion;
+import org.example.entity.Purchase;
+import org.example.entity.Store;
+import org.example.metrics.StatementCountingInspector;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DataJpaTest
+public class StoreRepositoryTest {
+    @Autowired
+    private StoreRepository storeRepository;
+    @Autowired
+    private PurchaseRepository purchaseRepository;
+
+    @Test
+    @DisplayName("Should find a store by its normalized name & location key")
+    void testExistsByNameLocationKey() {
+        storeRepository.saveAndFlush(Store.builder().storeName("Safeway").location("Robson Street").build());
+
+        assertThat(storeRepository.existsByNameLocationKey(Store.nameLocationKey(" safeway", "ROBSON STREET "))).isTrue();
+        assertThat(storeRepository.existsByNameLocationKey(Store.nameLocationKey("Safeway", "Davie Street"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should bump the version on update and read it back without loading the store")
+    void testVersionQueries() {
+        Store store = storeRepository.saveAndFlush(Store.builder().storeName("Safeway").location("Robson Street").build());
+        Long id = store.getStoreId();
+        assertThat(storeRepository.findVersionById(id)).contains(0L);
+
+        store.setLocation("Davie Street");
+        storeRepository.saveAndFlush(store);
+
+        assertThat(storeRepository.findVersionById(id)).contains(1L);
+        assertThat(storeRepository.findVersionById(id + 1)).isEmpty();
+        assertThat(storeRepository.findVersionsAfter(0L, PageRequest.of(0, 10)))
+                .extracting(StoreVersion::getStoreId, StoreVersion::getVersion)
+                .containsExactly(tuple(id, 1L));
+    }
+
+    @Test
+    @DisplayName("Should count the statements Hibernate runs on this thread")
+    void testStatementCountingInspector() {
+        StatementCountingInspector.reset();
+
+        storeRepository.existsByNameLocationKey(Store.nameLocationKey("Safeway", "Robson Street"));
+
+        assertThat(StatementCountingInspector.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should reject a second store with the same normalized name & location")
+    void testUniqueNameLocationKey() {
+        storeRepository.saveAndFlush(Store.builder().storeName("Safeway").location("Robson Street").build());
+
+        assertThatThrownBy(() -> storeRepository.saveAndFlush(Store.builder().storeName("SAFEWAY").location("robson street").build()))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .satisfies(e -> assertThat(((DataIntegrityViolationException) e).getMostSpecificCause().getMessage())
+                        .containsIgnoringCase(Store.NAME_LOCATION_CONSTRAINT));
+    }
+
+    @Test
+    @DisplayName("Should update only the given fields and only at the expected version")
+    void testUpdateFields() {
+        Long id = storeRepository.saveAndFlush(Store.builder().storeName("Safeway").location("Robson Street").build()).getStoreId();
+
+        assertThat(storeRepository.updateFields(List.of(new StoreUpdate(id, null, " Davie Street", 0L)))).containsExactly(1);
+        assertThat(storeRepository.updateFields(List.of(new StoreUpdate(id, "Walmart", null, 0L)))).containsExactly(0);
+        assertThat(storeRepository.updateFields(List.of(new StoreUpdate(id, "Walmart", null, 1L), new StoreUpdate(id + 1, "Walmart", null, null))))
+                .containsExactly(1, 0);
+
+        assertThat(storeRepository.findVersionById(id)).contains(2L);
+        assertThat(storeRepository.existsByNameLocationKey(Store.nameLocationKey("walmart", "davie street"))).isTrue();
+        assertThat(storeRepository.existsByNameLocationKey(Store.nameLocationKey("safeway", "robson street"))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should reject a partial update that makes two stores identical")
+    void testUpdateFieldsDuplicate() {
+        storeRepository.saveAndFlush(Store.builder().storeName("Safeway").location("Robson Street").build());
+        Long id = storeRepository.saveAndFlush(Store.builder().storeName("Safeway").location("Davie Street").build()).getStoreId();
+
+        assertThatThrownBy(() -> storeRepository.updateFields(List.of(new StoreUpdate(id, null, "robson street", null))))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .satisfies(e -> assertThat(((DataIntegrityViolationException) e).getMostSpecificCause().getMessage())
+                        .containsIgnoringCase(Store.NAME_LOCATION_CONSTRAINT));
+    }
+
+    @Test
+    @DisplayName("Should delete in one statement only the stores no purchase references")
+    void testDeleteWithoutPurchases() {
+        Store withPurchase = storeRepository.saveAndFlush(Store.builder().storeName("Safeway").location("Robson Street").build());
+        Store withoutPurchase = storeRepository.saveAndFlush(Store.builder().storeName("Walmart").location("Davie Street").build());
+        Purchase purchase = new Purchase();
+        purchase.setStore(withPurchase);
+        purchase.setPurchaseDate(Date.valueOf("2023-05-01"));
+        purchaseRepository.saveAndFlush(purchase);
+
+        StatementCountingInspector.reset();
+        int deleted = storeRepository.deleteWithoutPurchases(List.of(withPurchase.getStoreId(), withoutPurchase.getStoreId(), 999L));
+
+        assertThat(deleted).isEqualTo(1);
+        assertThat(StatementCountingInspector.count()).isEqualTo(1);
+        assertThat(storeRepository.findExistingStoreIds(List.of(withPurchase.getStoreId(), withoutPurchase.getStoreId())))
+                .containsExactly(withPurchase.getStoreId());
+    }
+
+    @Test
+    @DisplayName("Should batch insert stores and return their generated ids in order")
+    void testInsertAll() {
+        List<Store> stores = Arrays.asList(
+                Store.builder().storeName("Safeway").location("Robson Street").build(),
+                Store.builder().storeName("Safeway").location("Davie Street").build());
+
+        List<Long> ids = storeRepository.insertAll(stores);
+
+        assertThat(ids).hasSize(2);
+        assertThat(storeRepository.findById(ids.get(1))).get().extracting(Store::getLocation).isEqualTo("Davie Street");
+        assertThat(storeRepository.findExistingNameLocationKeys(List.of(
+                Store.nameLocationKey("Safeway", "Davie Street"), Store.nameLocationKey("Safeway", "Main Street"))))
+                .containsExactly(Store.nameLocationKey("Safeway", "Davie Street"));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Should let exactly one of many concurrent creates of the same store succeed")
+    void testConcurrentCreates() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> attempts = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                String location = i % 2 == 0 ? "Granville Street" : " granville street";
+                Callable<Boolean> create = () -> {
+                    start.await();
+                    try {
+                        storeRepository.save(Store.builder().storeName("Whole Foods").location(location).build());
+                        return true;
+                    } catch (DataIntegrityViolationException e) {
+                        return false;
+                    }
+                };
+                attempts.add(executor.submit(create));
+            }
+            start.countDown();
+
+            int created = 0;
+            for (Future<Boolean> attempt : attempts) {
+                created += attempt.get() ? 1 : 0;
+            }
+            assertThat(created).isEqualTo(1);
+            assertThat(storeRepository.count()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+            storeRepository.deleteAll();
+        }
+    }
+}
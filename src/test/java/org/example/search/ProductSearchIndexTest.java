@@ -0,0 +1,93 @@
+package org.example.search;
+
+import org.example.dto.ProductSearchResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class ProductSearchIndexTest {
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex();
+        index.index(1L, "Organic Whole Milk", "Dairy");
+        index.index(2L, "Milk Chocolate Bar", "Snacks");
+        index.index(3L, "Almond Milk, Unsweetened", "Dairy");
+        index.index(4L, "Whole Wheat Bread", "Bakery");
+    }
+
+    @Test
+    @DisplayName("Should match query tokens as prefixes of name tokens")
+    void testPrefixMatch() {
+        assertThat(index.search("choc", null, 10)).extracting(ProductSearchResult::getProductId).containsExactly(2L);
+        assertThat(index.search("MIL", null, 10)).extracting(ProductSearchResult::getProductId).containsExactlyInAnyOrder(1L, 2L, 3L);
+    }
+
+    @Test
+    @DisplayName("Should require every query token to match")
+    void testAndSemantics() {
+        assertThat(index.search("whole mi", null, 10)).extracting(ProductSearchResult::getProductId).containsExactly(1L);
+        assertThat(index.search("whole cheese", null, 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should rank exact word matches above prefix matches")
+    void testRanking() {
+        index.index(5L, "Wholesome Oats", "Breakfast");
+
+        assertThat(index.search("whole", null, 10)).extracting(ProductSearchResult::getProductId).containsExactly(1L, 4L, 5L);
+    }
+
+    @Test
+    @DisplayName("Should filter by category case insensitively and list a category without a query")
+    void testCategoryFilter() {
+        assertThat(index.search("milk", "dairy", 10)).extracting(ProductSearchResult::getProductId).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(index.search("", " DAIRY ", 10)).extracting(ProductSearchResult::getProductId).containsExactly(1L, 3L);
+        assertThat(index.search("", null, 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should return at most limit results with the best scores")
+    void testLimit() {
+        assertThat(index.search("milk", null, 2)).hasSize(2)
+                .extracting(ProductSearchResult::getProductId).doesNotContain(3L);
+    }
+
+    @Test
+    @DisplayName("Should replace a reindexed product and drop a removed one")
+    void testUpdateAndRemove() {
+        index.index(2L, "Dark Chocolate Bar", "Snacks");
+        index.remove(3L);
+
+        assertThat(index.search("milk", null, 10)).extracting(ProductSearchResult::getProductId).containsExactly(1L);
+        assertThat(index.search("dark", null, 10)).extracting(ProductSearchResult::getProductName).containsExactly("Dark Chocolate Bar");
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should keep results correct across compactions")
+    void testCompaction() {
+        for (int round = 0; round < 5; round++) {
+            for (long id = 100; id < 1100; id++) {
+                index.index(id, "Item " + id + " round" + round, "Bulk");
+            }
+        }
+
+        assertThat(index.size()).isEqualTo(1004);
+        assertThat(index.search("round4", "bulk", 2000)).hasSize(1000);
+        assertThat(index.search("round3", null, 10)).isEmpty();
+        assertThat(index.search("item 150", null, 10)).extracting(ProductSearchResult::getProductId).containsExactly(150L);
+    }
+
+    @Test
+    @DisplayName("Should check query tokens longer than the posted prefixes against the name")
+    void testLongToken() {
+        index.index(6L, "Supercalifragilisticexpialidocious Candy", "Snacks");
+        index.index(7L, "Supercalifragilisticexpensive Candy", "Snacks");
+
+        assertThat(index.search("supercalifragilisticexpi", null, 10)).extracting(ProductSearchResult::getProductId).containsExactly(6L);
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.search;
+
+import org.example.dto.StoreSearchResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class StoreSearchIndexTest {
+    private StoreSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new StoreSearchIndex();
+        index.index(1L, "Safeway", "Robson Street");
+        index.index(2L, "Whole Foods", "Granville Street");
+        index.index(3L, "Safeway", "North Vancouver");
+        index.index(4L, "Save-On-Foods", "Burnaby");
+    }
+
+    @Test
+    @DisplayName("Should match name and location prefixes together")
+    void testPrefixAcrossFields() {
+        assertThat(index.search("safe", 10)).extracting(StoreSearchResult::getStoreId).containsExactly(1L, 3L);
+        assertThat(index.search("safeway north", 10)).extracting(StoreSearchResult::getStoreId).containsExactly(3L);
+        assertThat(index.search("GRAN", 10)).extracting(StoreSearchResult::getStoreName).containsExactly("Whole Foods");
+    }
+
+    @Test
+    @DisplayName("Should fall back to trigram matches for misspelled queries")
+    void testFuzzyMatch() {
+        assertThat(index.search("safewya", 10))
+                .allMatch(StoreSearchResult::isFuzzy)
+                .extracting(StoreSearchResult::getStoreId).containsExactly(1L, 3L);
+        assertThat(index.search("grenville", 10)).extracting(StoreSearchResult::getStoreId).containsExactly(2L);
+        assertThat(index.search("xyzzy", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should not add fuzzy matches when the prefix search finds something")
+    void testPrefixBeforeFuzzy() {
+        index.index(5L, "Foodsmart", "Surrey");
+        index.index(6L, "Food Town", "Surrey");
+
+        assertThat(index.search("foods", 10)).extracting(StoreSearchResult::getStoreId, StoreSearchResult::isFuzzy)
+                .containsExactly(tuple(2L, false), tuple(4L, false), tuple(5L, false));
+        assertThat(index.search("foods", 1)).extracting(StoreSearchResult::getStoreId).containsExactly(2L);
+    }
+
+    @Test
+    @DisplayName("Should drop renamed and removed stores from the results")
+    void testUpdateAndRemove() {
+        index.index(1L, "Walmart", "Robson Street");
+        index.remove(3L);
+
+        assertThat(index.search("safeway", 10)).isEmpty();
+        assertThat(index.search("robson", 10)).extracting(StoreSearchResult::getStoreName).containsExactly("Walmart");
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should keep the indexed value of fields a partial update leaves out")
+    void testPartialUpdate() {
+        index.update(2L, null, "Main Street");
+        index.update(9L, "Walmart", null);
+
+        assertThat(index.search("whole main", 10)).extracting(StoreSearchResult::getStoreId).containsExactly(2L);
+        assertThat(index.search("granville", 10)).isEmpty();
+        assertThat(index.search("walmart", 10)).isEmpty();
+        assertThat(index.size()).isEqualTo(4);
+    }
+}
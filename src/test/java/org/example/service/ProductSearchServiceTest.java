@@ -0,0 +1,80 @@
+package org.example.service;
+
+import jakarta.persistence.EntityManager;
+import org.example.dto.ProductSearchResult;
+import org.example.entity.Product;
+import org.example.repository.ProductRepository;
+import org.example.search.ProductSearchIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductSearchServiceTest {
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private EntityManager entityManager;
+    @Spy
+    private ProductSearchIndex productSearchIndex = new ProductSearchIndex();
+    @InjectMocks
+    private ProductSearchService productSearchService;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should index every product streamed from the repository")
+    void testBuildIndex() {
+        when(productRepository.streamAll()).thenReturn(Stream.of(product(1L, "Whole Milk"), product(2L, "Rye Bread")));
+
+        productSearchService.buildIndex();
+
+        assertThat(productSearchService.search("bre", null, 10)).extracting(ProductSearchResult::getProductId).containsExactly(2L);
+        verify(entityManager, times(2)).detach(any(Product.class));
+    }
+
+    @Test
+    @DisplayName("Should only index a saved product once its transaction commits")
+    void testProductSavedAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        productSearchService.productSaved(product(1L, "Whole Milk"));
+
+        assertThat(productSearchService.search("milk", null, 10)).isEmpty();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(productSearchService.search("milk", null, 10)).extracting(ProductSearchResult::getProductId).containsExactly(1L);
+    }
+
+    @Test
+    @DisplayName("Should cap the number of results")
+    void testSearchLimit() {
+        productSearchService.search("milk", null, 10_000);
+
+        verify(productSearchIndex).search("milk", null, ProductSearchService.MAX_LIMIT);
+    }
+
+    private static Product product(Long id, String name) {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setProductName(name);
+        product.setCategory("Grocery");
+        return product;
+    }
+}
@@ -0,0 +1,204 @@
+package org.example.service;
+
+import javassist.NotFoundException;
+import org.example.changes.ChangeLog;
+import org.example.dto.BulkItemResult;
+import org.example.dto.PurchaseItemRequest;
+import org.example.dto.PurchasePage;
+import org.example.dto.PurchaseRequest;
+import org.example.dto.PurchaseSummary;
+import org.example.entity.Purchase;
+import org.example.entity.PurchaseProduct;
+import org.example.entity.PurchaseProductPk;
+import org.example.entity.Store;
+import org.example.repository.ProductRepository;
+import org.example.repository.PurchaseProductRepository;
+import org.example.repository.PurchaseRepository;
+import org.example.repository.StoreRepository;
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.sql.Date;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+@ExtendWith(MockitoExtension.class)
+public class PurchaseServiceTest {
+    @Mock
+    private PurchaseRepository purchaseRepository;
+    @Mock
+    private PurchaseProductRepository purchaseProductRepository;
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private StoreRepository storeRepository;
+    @Mock
+    private StoreService storeService;
+    @Mock
+    private SalesRollupService salesRollupService;
+    @Mock
+    private ChangeLog changeLog;
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+    @InjectMocks
+    private PurchaseService purchaseService;
+
+    private Store store;
+    private PurchaseRequest request;
+
+    @BeforeEach
+    void setUp() {
+        store = Store.builder().storeId(1L).storeName("Safeway").location("Robson Street").build();
+        request = new PurchaseRequest(1L, Date.valueOf("2024-03-01"), Arrays.asList(
+                new PurchaseItemRequest(10L, 2, 3.5, 0.4),
+                new PurchaseItemRequest(11L, 1, 12.0, 1.2)));
+    }
+
+    @Test
+    @DisplayName("Should save the purchase header and all of its line items")
+    @SuppressWarnings("unchecked")
+    void testCreatePurchase() throws NotFoundException {
+        when(storeService.getStoreById(1L)).thenReturn(Optional.of(store));
+        when(productRepository.findExistingProductIds(anyCollection())).thenReturn(Arrays.asList(10L, 11L));
+        when(purchaseRepository.save(any(Purchase.class))).thenAnswer(invocation -> {
+            Purchase purchase = invocation.getArgument(0);
+            purchase.setPurchaseId(100L);
+            return purchase;
+        });
+
+        Purchase result = purchaseService.createPurchase(request);
+
+        ArgumentCaptor<List<PurchaseProduct>> lineItems = ArgumentCaptor.forClass(List.class);
+        verify(purchaseProductRepository, times(1)).saveAll(lineItems.capture());
+        assertThat(result.getPurchaseId()).isEqualTo(100L);
+        assertThat(result.getStore()).isSameAs(store);
+        assertThat(lineItems.getValue()).extracting(PurchaseProduct::getPpId)
+                .containsExactly(new PurchaseProductPk(10L, 100L), new PurchaseProductPk(11L, 100L));
+        assertThat(lineItems.getValue()).allMatch(PurchaseProduct::isNew);
+        verify(salesRollupService, times(1)).recordPurchases(List.of(result), lineItems.getValue());
+        verify(changeLog, times(1)).purchasesCreated(List.of(result), lineItems.getValue());
+    }
+
+    @Test
+    @DisplayName("Should throw exception when the store does not exist")
+    void testCreatePurchaseStoreNotFound() {
+        when(storeService.getStoreById(1L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> purchaseService.createPurchase(request))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessage("Store with ID 1 does not exist");
+
+        verify(purchaseRepository, never()).save(any(Purchase.class));
+    }
+
+    @Test
+    @DisplayName("Should throw exception when a product does not exist")
+    void testCreatePurchaseProductNotFound() {
+        when(storeService.getStoreById(1L)).thenReturn(Optional.of(store));
+        when(productRepository.findExistingProductIds(anyCollection())).thenReturn(List.of(10L));
+
+        assertThatThrownBy(() -> purchaseService.createPurchase(request))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessage("Product with ID 11 does not exist");
+
+        verify(purchaseRepository, never()).save(any(Purchase.class));
+    }
+
+    @Test
+    @DisplayName("Should reject a purchase that lists the same product twice")
+    void testCreatePurchaseWithRepeatedProduct() {
+        request.setItems(Arrays.asList(new PurchaseItemRequest(10L, 1, 1.0, 0.1), new PurchaseItemRequest(10L, 2, 1.0, 0.1)));
+
+        assertThatThrownBy(() -> purchaseService.createPurchase(request))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Product with ID 10 appears more than once.");
+    }
+
+    @Test
+    @DisplayName("Should batch insert valid receipts and report invalid ones")
+    @SuppressWarnings("unchecked")
+    void testCreatePurchases() {
+        PurchaseRequest unknownStore = new PurchaseRequest(2L, null, List.of(new PurchaseItemRequest(10L, 1, 1.0, 0.1)));
+        PurchaseRequest noItems = new PurchaseRequest(1L, null, List.of());
+        when(storeRepository.findExistingStoreIds(anyCollection())).thenReturn(List.of(1L));
+        when(productRepository.findExistingProductIds(anyCollection())).thenReturn(Arrays.asList(10L, 11L));
+        when(purchaseRepository.insertAll(anyList())).thenReturn(List.of(100L));
+
+        List<BulkItemResult> results = purchaseService.createPurchases(Arrays.asList(request, unknownStore, noItems).iterator());
+
+        assertThat(results).extracting(BulkItemResult::getStatus).containsExactly(
+                BulkItemResult.Status.CREATED, BulkItemResult.Status.INVALID, BulkItemResult.Status.INVALID);
+        assertThat(results.get(0).getId()).isEqualTo(100L);
+        assertThat(results.get(1).getMessage()).isEqualTo("Store with ID 2 does not exist");
+        ArgumentCaptor<List<PurchaseProduct>> lineItems = ArgumentCaptor.forClass(List.class);
+        verify(purchaseProductRepository, times(1)).insertAll(lineItems.capture());
+        assertThat(lineItems.getValue()).hasSize(2).allMatch(item -> item.getPpId().getPurchaseId() == 100L);
+        verify(salesRollupService, times(1)).recordPurchases(argThat(purchases -> purchases.size() == 1
+                && purchases.get(0).getPurchaseId() == 100L), eq(lineItems.getValue()));
+        verify(changeLog, times(1)).purchasesCreated(argThat(purchases -> purchases.size() == 1), eq(lineItems.getValue()));
+        verify(storeRepository, times(1)).findExistingStoreIds(anyCollection());
+        verify(productRepository, times(1)).findExistingProductIds(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Should return a cursor to the last purchase when there are more rows than the limit")
+    void testGetStorePurchasesFirstPage() throws NotFoundException {
+        when(storeService.getStoreById(1L)).thenReturn(Optional.of(store));
+        when(purchaseRepository.findSummariesByStore(eq(1L), eq(Date.valueOf("2024-03-01")), eq(0L),
+                eq(Date.valueOf("2024-03-31")), any(Pageable.class))).thenReturn(Arrays.asList(
+                new PurchaseSummary(100L, Date.valueOf("2024-03-01"), 7.5, 3, 1),
+                new PurchaseSummary(101L, Date.valueOf("2024-03-02"), 2.0, 1, 1),
+                new PurchaseSummary(102L, Date.valueOf("2024-03-02"), 4.0, 2, 1)));
+
+        PurchasePage page = purchaseService.getStorePurchases(1L, Date.valueOf("2024-03-01"), Date.valueOf("2024-03-31"), null, 2);
+
+        assertThat(page.getPurchases()).extracting(PurchaseSummary::getPurchaseId).containsExactly(100L, 101L);
+        assertThat(page.getNext()).isEqualTo("2024-03-02:101");
+    }
+
+    @Test
+    @DisplayName("Should resume after the purchase named by the cursor")
+    void testGetStorePurchasesAfterCursor() throws NotFoundException {
+        when(storeService.getStoreById(1L)).thenReturn(Optional.of(store));
+        when(purchaseRepository.findSummariesByStore(eq(1L), eq(Date.valueOf("2024-03-02")), eq(101L),
+                eq(Date.valueOf("2024-03-31")), any(Pageable.class)))
+                .thenReturn(List.of(new PurchaseSummary(102L, Date.valueOf("2024-03-02"), 4.0, 2, 1)));
+
+        PurchasePage page = purchaseService.getStorePurchases(1L, Date.valueOf("2024-03-01"), Date.valueOf("2024-03-31"), "2024-03-02:101", 2);
+
+        assertThat(page.getPurchases()).extracting(PurchaseSummary::getPurchaseId).containsExactly(102L);
+        assertThat(page.getNext()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should reject a malformed purchase cursor")
+    void testGetStorePurchasesInvalidCursor() {
+        when(storeService.getStoreById(1L)).thenReturn(Optional.of(store));
+
+        assertThatThrownBy(() -> purchaseService.getStorePurchases(1L, Date.valueOf("2024-03-01"), Date.valueOf("2024-03-31"), "101", 2))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid purchase cursor: 101");
+    }
+
+    @Test
+    @DisplayName("Should throw exception when listing purchases of a missing store")
+    void testGetStorePurchasesStoreNotFound() {
+        when(storeService.getStoreById(1L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> purchaseService.getStorePurchases(1L, Date.valueOf("2024-03-01"), Date.valueOf("2024-03-31"), null, 2))
+                .isInstanceOf(NotFoundException.class);
+        verifyNoInteractions(purchaseRepository);
+    }
+}
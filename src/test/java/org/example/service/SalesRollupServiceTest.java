@@ -0,0 +1,96 @@
+package org.example.service;
+
+import org.example.dto.SalesReport;
+import org.example.entity.Purchase;
+import org.example.entity.PurchaseProduct;
+import org.example.entity.PurchaseProductPk;
+import org.example.entity.Store;
+import org.example.entity.StoreDailySales;
+import org.example.entity.StoreDailySalesPk;
+import org.example.repository.StoreDailySalesRepository;
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.sql.Date;
+import java.util.Arrays;
+import java.util.List;
+
+@ExtendWith(MockitoExtension.class)
+public class SalesRollupServiceTest {
+    private static final Date MARCH_1 = Date.valueOf("2024-03-01");
+    private static final Date MARCH_2 = Date.valueOf("2024-03-02");
+
+    @Mock
+    private StoreDailySalesRepository storeDailySalesRepository;
+    @InjectMocks
+    private SalesRollupService salesRollupService;
+
+    @Test
+    @DisplayName("Should add one delta per store and day, in a stable order")
+    @SuppressWarnings("unchecked")
+    void testRecordPurchases() {
+        List<Purchase> purchases = Arrays.asList(purchase(10L, 2L, MARCH_2), purchase(11L, 1L, MARCH_1), purchase(12L, 2L, MARCH_2));
+        List<PurchaseProduct> lineItems = Arrays.asList(
+                lineItem(10L, 2, 3.0, 0.5), lineItem(10L, 1, 10.0, 2.0),
+                lineItem(11L, 4, 1.0, 0.1),
+                lineItem(12L, 1, 5.0, 1.0));
+
+        salesRollupService.recordPurchases(purchases, lineItems);
+
+        ArgumentCaptor<List<StoreDailySales>> deltas = ArgumentCaptor.forClass(List.class);
+        verify(storeDailySalesRepository, times(1)).addAll(deltas.capture());
+        assertThat(deltas.getValue()).extracting(StoreDailySales::getSalesId)
+                .containsExactly(new StoreDailySalesPk(1L, MARCH_1), new StoreDailySalesPk(2L, MARCH_2));
+        StoreDailySales store2 = deltas.getValue().get(1);
+        assertThat(store2.getRevenue()).isEqualTo(21.0);
+        assertThat(store2.getUnits()).isEqualTo(4);
+        assertThat(store2.getWeight()).isEqualTo(4.0);
+    }
+
+    @Test
+    @DisplayName("Should answer a sales report from the daily buckets")
+    void testGetSales() {
+        when(storeDailySalesRepository.findByStoreAndDateRange(1L, MARCH_1, MARCH_2)).thenReturn(Arrays.asList(
+                new StoreDailySales(new StoreDailySalesPk(1L, MARCH_1), 10.0, 3, 1.5),
+                new StoreDailySales(new StoreDailySalesPk(1L, MARCH_2), 5.0, 1, 0.5)));
+
+        SalesReport report = salesRollupService.getSales(1L, MARCH_1, MARCH_2);
+
+        assertThat(report.getRevenue()).isEqualTo(15.0);
+        assertThat(report.getUnits()).isEqualTo(4);
+        assertThat(report.getWeight()).isEqualTo(2.0);
+        assertThat(report.getDays()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Should throw exception when the range is reversed")
+    void testGetSalesWithReversedRange() {
+        assertThatThrownBy(() -> salesRollupService.getSales(1L, MARCH_2, MARCH_1))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verifyNoInteractions(storeDailySalesRepository);
+    }
+
+    private static Purchase purchase(Long purchaseId, Long storeId, Date date) {
+        Purchase purchase = new Purchase();
+        purchase.setPurchaseId(purchaseId);
+        purchase.setStore(Store.builder().storeId(storeId).build());
+        purchase.setPurchaseDate(date);
+        return purchase;
+    }
+
+    private static PurchaseProduct lineItem(Long purchaseId, int quantity, double price, double weight) {
+        PurchaseProduct item = new PurchaseProduct();
+        item.setPpId(new PurchaseProductPk(purchaseId * 100 + quantity, purchaseId));
+        item.setQuantity(quantity);
+        item.setPrice(price);
+        item.setWeight(weight);
+        return item;
+    }
+}
@@ -1,8 +1,21 @@
 package org.example.service;
 
+import jakarta.persistence.EntityManager;
 import javassist.NotFoundException;
+import org.example.cache.InMemoryCacheInvalidationChannel;
+import org.example.cache.StoreCache;
+import org.example.changes.ChangeLog;
+import org.example.dto.BulkItemResult;
+import org.example.dto.StoreDeleteResult;
+import org.example.dto.StoreLookup;
+import org.example.dto.StorePage;
+import org.example.dto.StoreUpdate;
+import org.example.dto.StoreVersion;
 import org.example.entity.Store;
+import org.example.dto.StoreSearchResult;
 import org.example.repository.StoreRepository;
+import org.example.search.StoreSearchIndex;
+import org.example.service.StoreETags;
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,12 +27,25 @@ import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,6 +53,16 @@ public class StoreServiceTest {
 
     @Mock
     private StoreRepository storeRepository;
+    @Mock
+    private EntityManager entityManager;
+    @Spy
+    private StoreCache storeCache = new StoreCache(new InMemoryCacheInvalidationChannel(), 100, Duration.ofMinutes(1));
+    @Spy
+    private StoreSearchIndex storeSearchIndex = new StoreSearchIndex();
+    @Mock
+    private ChangeLog changeLog;
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
     @InjectMocks
     StoreService storeService;
 
@@ -44,22 +80,47 @@ public class StoreServiceTest {
     @DisplayName("Should return all stores when repository is not empty")
     void testGetAllStores() {
         List<Store> stores = Arrays.asList(store);
-        when(storeRepository.findAll()).thenReturn(stores);
+        when(storeRepository.findByStoreIdGreaterThanOrderByStoreIdAsc(eq(0L), any(Pageable.class))).thenReturn(stores);
 
-        List<Store> result = storeService.getAllStores();
+        StorePage result = storeService.getAllStores(null, StoreService.DEFAULT_PAGE_SIZE);
 
-        assertThat(result).hasSize(1).containsExactly(store);
-        verify(storeRepository, times(1)).findAll();
+        assertThat(result.getStores()).hasSize(1).containsExactly(store);
+        assertThat(result.getNext()).isNull();
+        verify(storeRepository, times(1)).findByStoreIdGreaterThanOrderByStoreIdAsc(eq(0L), any(Pageable.class));
     }
     @Test
     @DisplayName("Should return empty list when no stores are available")
     void testGetAllStoresWhenStoresListIsEmpty() {
-        when(storeRepository.findAll()).thenReturn(Collections.emptyList());
+        when(storeRepository.findByStoreIdGreaterThanOrderByStoreIdAsc(anyLong(), any(Pageable.class))).thenReturn(Collections.emptyList());
 
-        List<Store> result = storeService.getAllStores();
+        StorePage result = storeService.getAllStores(null, StoreService.DEFAULT_PAGE_SIZE);
 
-        assertThat(result).hasSize(0);
-        verify(storeRepository, times(1)).findAll();
+        assertThat(result.getStores()).hasSize(0);
+        assertThat(result.getNext()).isNull();
+    }
+    @Test
+    @DisplayName("Should return a full page and the next cursor when more stores exist")
+    void testGetAllStoresReturnsNextCursor() {
+        List<Store> stores = LongStream.rangeClosed(11, 14)
+                .mapToObj(id -> Store.builder().storeId(id).storeName("Store " + id).build())
+                .collect(Collectors.toList());
+        when(storeRepository.findByStoreIdGreaterThanOrderByStoreIdAsc(eq(10L), eq(Pageable.ofSize(4)))).thenReturn(stores);
+
+        StorePage result = storeService.getAllStores(10L, 3);
+
+        assertThat(result.getStores()).extracting(Store::getStoreId).containsExactly(11L, 12L, 13L);
+        assertThat(result.getNext()).isEqualTo(13L);
+    }
+    @Test
+    @DisplayName("Should detach every streamed store after handing it to the consumer")
+    void testForEachStore() {
+        when(storeRepository.streamAll()).thenReturn(Stream.of(store));
+        List<Store> seen = new ArrayList<>();
+
+        storeService.forEachStore(seen::add);
+
+        assertThat(seen).containsExactly(store);
+        verify(entityManager, times(1)).detach(store);
     }
     @Test
     @DisplayName("Should return store by Id when store exists")
@@ -82,25 +143,150 @@ public class StoreServiceTest {
         verify(storeRepository, times(1)).findById(2L);
     }
 
+    @Test
+    @DisplayName("Should serve repeated lookups of the same Id from the cache")
+    void testGetStoreByIdIsCached() {
+        when(storeRepository.findById(1L)).thenReturn(Optional.of(store));
+
+        storeService.getStoreById(1L);
+        Optional<Store> result = storeService.getStoreById(1L);
+
+        assertThat(result).contains(store);
+        verify(storeRepository, times(1)).findById(1L);
+        assertThat(storeService.getCacheStats().getHits()).isEqualTo(1);
+        assertThat(storeService.getCacheStats().getMisses()).isEqualTo(1);
+    }
+    @Test
+    @DisplayName("Should build the store ETag from the cached row without querying")
+    void testGetStoreETagFromCache() {
+        store.setVersion(2L);
+        when(storeRepository.findById(1L)).thenReturn(Optional.of(store));
+        storeService.getStoreById(1L);
+
+        assertThat(storeService.getStoreETag(1L)).contains("\"1-2\"");
+        verify(storeRepository, never()).findVersionById(anyLong());
+    }
+    @Test
+    @DisplayName("Should build the store ETag from a version-only query when the store is not cached")
+    void testGetStoreETagFromVersionQuery() {
+        when(storeRepository.findVersionById(1L)).thenReturn(Optional.of(5L));
+        when(storeRepository.findVersionById(2L)).thenReturn(Optional.empty());
+
+        assertThat(storeService.getStoreETag(1L)).contains("\"1-5\"");
+        assertThat(storeService.getStoreETag(2L)).isEmpty();
+        verify(storeRepository, never()).findById(anyLong());
+    }
+    @Test
+    @DisplayName("Should compute the same page ETag from versions as from the loaded page")
+    void testGetStoresETagMatchesPage() {
+        List<Store> stores = LongStream.rangeClosed(11, 14)
+                .mapToObj(id -> Store.builder().storeId(id).storeName("Store " + id).version(id % 2).build())
+                .collect(Collectors.toList());
+        when(storeRepository.findByStoreIdGreaterThanOrderByStoreIdAsc(eq(10L), eq(Pageable.ofSize(4)))).thenReturn(stores);
+        when(storeRepository.findVersionsAfter(eq(10L), eq(Pageable.ofSize(4)))).thenReturn(stores.stream()
+                .map(s -> new StoreVersion(s.getStoreId(), s.getVersion())).collect(Collectors.toList()));
+
+        StorePage page = storeService.getAllStores(10L, 3);
+        String eTag = storeService.getStoresETag(10L, 3);
+
+        assertThat(eTag).isEqualTo(StoreETags.ofPage(page.getStores(), Store::getStoreId, Store::getVersion, true));
+        assertThat(eTag).isNotEqualTo(StoreETags.ofPage(page.getStores(), Store::getStoreId, Store::getVersion, false));
+    }
+    @Test
+    @DisplayName("Should reload a store from the repository after it is updated")
+    void testUpdateStoreInvalidatesCache() throws NotFoundException {
+        Store renamed = Store.builder().storeId(1L).storeName("Walmart").location("Robson Street").build();
+        when(storeRepository.findById(1L)).thenReturn(Optional.of(store), Optional.of(store), Optional.of(renamed));
+        when(storeRepository.save(any(Store.class))).thenReturn(renamed);
+
+        storeService.getStoreById(1L);
+        storeService.updateStore(1L, renamed, true, false);
+
+        assertThat(storeService.getStoreById(1L)).contains(renamed);
+        verify(storeCache, times(1)).invalidate(1L);
+    }
+    @Test
+    @DisplayName("Should drop a deleted store from the cache")
+    void testDeleteStoreInvalidatesCache() throws NotFoundException {
+        when(storeRepository.findById(1L)).thenReturn(Optional.of(store), Optional.empty());
+        when(storeRepository.deleteWithoutPurchases(List.of(1L))).thenReturn(1);
+
+        storeService.getStoreById(1L);
+        storeService.deleteStore(1L);
+
+        assertThat(storeService.getStoreById(1L)).isEmpty();
+        verify(storeCache, times(1)).invalidate(1L);
+    }
     @Test
     @DisplayName("Should delete store by Id")
-    void testDeleteStore() {
-        doNothing().when(storeRepository).deleteById(1L);
+    void testDeleteStore() throws NotFoundException {
+        when(storeRepository.deleteWithoutPurchases(List.of(1L))).thenReturn(1);
 
         storeService.deleteStore(1L);
 
-        verify(storeRepository, times(1)).deleteById(1L);
+        verify(storeRepository, times(1)).deleteWithoutPurchases(List.of(1L));
+        verify(changeLog, times(1)).storesDeleted(List.of(1L));
+        verify(storeRepository, never()).existsById(anyLong());
+        verify(storeRepository, never()).findById(anyLong());
+    }
+    @Test
+    @DisplayName("Should tell a missing store from one with purchases when nothing was deleted")
+    void testDeleteStoreNotDeleted() {
+        when(storeRepository.deleteWithoutPurchases(anyCollection())).thenReturn(0);
+        when(storeRepository.existsById(1L)).thenReturn(true);
+        when(storeRepository.existsById(2L)).thenReturn(false);
+
+        assertThatThrownBy(() -> storeService.deleteStore(1L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage(StoreService.STORE_HAS_PURCHASES_MESSAGE);
+        assertThatThrownBy(() -> storeService.deleteStore(2L)).isInstanceOf(NotFoundException.class);
+        verify(storeCache, never()).invalidate(anyLong());
+        verifyNoInteractions(changeLog);
+    }
+    @Test
+    @DisplayName("Should bulk delete stores in one statement and report the ones with purchases")
+    void testDeleteStores() {
+        storeSearchIndex.index(1L, "Safeway", "Robson Street");
+        storeSearchIndex.index(2L, "Whole Foods", "Granville Street");
+        when(storeRepository.deleteWithoutPurchases(List.of(1L, 2L, 3L))).thenReturn(1);
+        when(storeRepository.findExistingStoreIds(List.of(1L, 2L, 3L))).thenReturn(List.of(2L));
+
+        StoreDeleteResult result = storeService.deleteStores(List.of(1L, 2L, 3L, 1L));
+
+        assertThat(result.getDeleted()).isEqualTo(1);
+        assertThat(result.getWithPurchases()).containsExactly(2L);
+        assertThat(storeSearchIndex.search("safeway", 10)).isEmpty();
+        assertThat(storeSearchIndex.size()).isEqualTo(1);
+        verify(storeCache, never()).invalidate(2L);
+        verify(changeLog, times(1)).storesDeleted(List.of(1L, 3L));
     }
     @Test
     @DisplayName("Should create store when name & location are unique")
     void testCreateStore() {
-        when(storeRepository.findStoreByStoreName(anyString())).thenReturn(Optional.empty());
-        when(storeRepository.save(any(Store.class))).thenReturn(store);
+        when(storeRepository.existsByNameLocationKey(anyString())).thenReturn(false);
+        when(storeRepository.save(any(Store.class))).thenAnswer(invocation -> savedWithId(invocation.getArgument(0), 1L));
 
         storeService.createStore(store);
 
-        verify(storeRepository, times(1)).findStoreByStoreName(anyString());
+        verify(storeRepository, times(1)).existsByNameLocationKey(Store.nameLocationKey("Safeway", "Robson Street"));
         verify(storeRepository, times(1)).save(any(Store.class));
+        verify(changeLog, times(1)).storesWritten(eq(ChangeLog.CREATED), argThat(stores -> stores.get(0).getStoreId() == 1L));
+    }
+    @Test
+    @DisplayName("Should index a store created inside an enclosing transaction only once that transaction commits")
+    void testCreateStoreIndexesAfterCommit() {
+        when(storeRepository.existsByNameLocationKey(anyString())).thenReturn(false);
+        when(storeRepository.save(any(Store.class))).thenAnswer(invocation -> savedWithId(invocation.getArgument(0), 1L));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            storeService.createStore(store);
+
+            verify(storeSearchIndex, never()).index(anyLong(), anyString(), anyString());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(storeSearchIndex, times(1)).index(1L, "Safeway", "Robson Street");
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
     }
     @ParameterizedTest
     @MethodSource("provideStoreNamesAndLocations")
@@ -110,12 +296,15 @@ public class StoreServiceTest {
                         .storeName(name)
                         .location(location)
                         .build();
-        when(storeRepository.findStoreByStoreName((anyString()))).thenReturn(Optional.empty());
-        when(storeRepository.save(any(Store.class))).thenReturn(newStore);
+        when(storeRepository.existsByNameLocationKey(Store.nameLocationKey(name, location))).thenReturn(false);
+        when(storeRepository.save(any(Store.class))).thenAnswer(invocation -> {
+            newStore.setStoreId(2L);
+            return newStore;
+        });
 
         storeService.createStore(newStore);
 
-        verify(storeRepository, times(1)).findStoreByStoreName(anyString());
+        verify(storeRepository, times(1)).existsByNameLocationKey(anyString());
         verify(storeRepository, times(1)).save(any(Store.class));
         assertThat(store.getLocation()).isNotEqualToIgnoringCase(newStore.getLocation());
     }
@@ -127,18 +316,47 @@ public class StoreServiceTest {
                         .location("Robson Street")
                         .build();
 
-        when(storeRepository.findStoreByStoreName(anyString())).thenReturn(Optional.of(Arrays.asList(store)));
+        when(storeRepository.existsByNameLocationKey(Store.nameLocationKey("Safeway", "Robson Street"))).thenReturn(true);
 
         assertThatThrownBy(() -> {
             storeService.createStore(newStore);
         }).isInstanceOf(IllegalStateException.class)
                         .hasMessage("A store with the same name already exists at the same location.");
 
-        verify(storeRepository, times(1)).findStoreByStoreName(anyString());
+        verify(storeRepository, times(1)).existsByNameLocationKey(anyString());
         verify(storeRepository, never()).save(any(Store.class));
         assertThat(store.getLocation()).isEqualToIgnoringCase(newStore.getLocation());
     }
     @Test
+    @DisplayName("Should treat name & location that differ only in case or padding as the same store")
+    void testNameLocationKeyIsNormalized() {
+        assertThat(Store.nameLocationKey("  SAFEWAY ", "robson street"))
+                .isEqualTo(Store.nameLocationKey("Safeway", "Robson Street"));
+        assertThat(Store.nameLocationKey("Safe", "way Robson Street"))
+                .isNotEqualTo(Store.nameLocationKey("Safeway", " Robson Street"));
+    }
+    @Test
+    @DisplayName("Should throw exception when a concurrent create wins the unique index")
+    void testCreateStoreLosesRaceOnUniqueIndex() {
+        when(storeRepository.existsByNameLocationKey(anyString())).thenReturn(false);
+        when(storeRepository.save(any(Store.class))).thenThrow(new DataIntegrityViolationException("insert failed",
+                new SQLException("Duplicate entry for key 'store." + Store.NAME_LOCATION_CONSTRAINT + "'")));
+
+        assertThatThrownBy(() -> storeService.createStore(store))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("A store with the same name already exists at the same location.");
+    }
+    @Test
+    @DisplayName("Should not hide integrity violations unrelated to the duplicate check")
+    void testCreateStoreRethrowsOtherViolations() {
+        when(storeRepository.existsByNameLocationKey(anyString())).thenReturn(false);
+        when(storeRepository.save(any(Store.class))).thenThrow(new DataIntegrityViolationException("insert failed",
+                new SQLException("Column 'created_at' cannot be null")));
+
+        assertThatThrownBy(() -> storeService.createStore(store))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+    @Test
     @DisplayName("Should update store name & location")
     void testUpdateStoreNameAndLocation() throws NotFoundException {
         Store updatedStore = Store.builder()
@@ -205,10 +423,183 @@ public class StoreServiceTest {
         verify(storeRepository, times(1)).findById(anyLong());
         verify(storeRepository, never()).save(any(Store.class));
     }
+    @Test
+    @DisplayName("Should bulk create stores, skipping duplicates in the database and in the request")
+    void testCreateStores() {
+        Store fresh = Store.builder().storeName("Safeway").location("Davie Street").build();
+        Store existing = Store.builder().storeName("Safeway").location("robson street").build();
+        Store repeated = Store.builder().storeName("Safeway").location("DAVIE STREET").build();
+        Store invalid = Store.builder().storeName("Safeway").build();
+        when(storeRepository.findExistingNameLocationKeys(anyCollection()))
+                .thenReturn(Arrays.asList(Store.nameLocationKey("Safeway", "Robson Street")));
+        when(storeRepository.insertAll(anyList())).thenReturn(Arrays.asList(42L));
+
+        List<BulkItemResult> results = storeService.createStores(Arrays.asList(fresh, existing, repeated, invalid).iterator());
+
+        assertThat(results).extracting(BulkItemResult::getStatus).containsExactly(
+                BulkItemResult.Status.CREATED, BulkItemResult.Status.DUPLICATE,
+                BulkItemResult.Status.DUPLICATE, BulkItemResult.Status.INVALID);
+        assertThat(results).extracting(BulkItemResult::getIndex).containsExactly(0, 1, 2, 3);
+        assertThat(results.get(0).getId()).isEqualTo(42L);
+        verify(storeRepository, times(1)).findExistingNameLocationKeys(anyCollection());
+        verify(storeRepository, times(1)).insertAll(Arrays.asList(fresh));
+        verify(storeRepository, never()).save(any(Store.class));
+    }
+    @Test
+    @DisplayName("Should fall back to row by row inserts when a concurrent request takes one of the keys")
+    void testCreateStoresAfterLosingRace() {
+        Store first = Store.builder().storeName("Safeway").location("Davie Street").build();
+        Store second = Store.builder().storeName("Safeway").location("Main Street").build();
+        DataIntegrityViolationException duplicate = new DataIntegrityViolationException("batch failed",
+                new SQLException("Duplicate entry for key 'store." + Store.NAME_LOCATION_CONSTRAINT + "'"));
+        when(storeRepository.findExistingNameLocationKeys(anyCollection())).thenReturn(Collections.emptyList());
+        when(storeRepository.insertAll(Arrays.asList(first, second))).thenThrow(duplicate);
+        when(storeRepository.insertAll(List.of(first))).thenReturn(List.of(5L));
+        when(storeRepository.insertAll(List.of(second))).thenThrow(duplicate);
+
+        List<BulkItemResult> results = storeService.createStores(Arrays.asList(first, second).iterator());
+
+        assertThat(results).extracting(BulkItemResult::getStatus)
+                .containsExactly(BulkItemResult.Status.CREATED, BulkItemResult.Status.DUPLICATE);
+        assertThat(results.get(0).getId()).isEqualTo(5L);
+        //only the row that was inserted is reported
+        verify(changeLog, times(1)).storesWritten(ChangeLog.CREATED, List.of(first));
+        assertThat(first.getStoreId()).isEqualTo(5L);
+        assertThat(first.getVersion()).isZero();
+    }
+    @Test
+    @DisplayName("Should run one duplicate query and one batch insert per chunk")
+    void testCreateStoresInChunks() {
+        List<Store> stores = LongStream.range(0, StoreService.BULK_CHUNK_SIZE + 1)
+                .mapToObj(i -> Store.builder().storeName("Store " + i).location("Main Street").build())
+                .collect(Collectors.toList());
+        when(storeRepository.findExistingNameLocationKeys(anyCollection())).thenReturn(Collections.emptyList());
+        when(storeRepository.insertAll(anyList())).thenAnswer(invocation -> LongStream
+                .range(0, invocation.<List<Store>>getArgument(0).size()).boxed().collect(Collectors.toList()));
+
+        List<BulkItemResult> results = storeService.createStores(stores.iterator());
+
+        assertThat(results).hasSize(stores.size()).allMatch(result -> result.getStatus() == BulkItemResult.Status.CREATED);
+        assertThat(results.get(StoreService.BULK_CHUNK_SIZE).getIndex()).isEqualTo(StoreService.BULK_CHUNK_SIZE);
+        verify(storeRepository, times(2)).findExistingNameLocationKeys(anyCollection());
+        verify(storeRepository, times(2)).insertAll(anyList());
+    }
     private static Stream<Arguments> provideStoreNamesAndLocations() {
         return Stream.of(
                 Arguments.of("Safeway", "Davie Street"),
                 Arguments.of("Safeway", "Daviee Street")
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should keep the search index current as stores are created, renamed and deleted")
+    void testWritesUpdateSearchIndex() throws NotFoundException {
+        when(storeRepository.existsByNameLocationKey(anyString())).thenReturn(false);
+        when(storeRepository.save(any(Store.class))).thenAnswer(invocation -> savedWithId(invocation.getArgument(0), 1L));
+        when(storeRepository.findById(1L)).thenReturn(Optional.of(Store.builder().storeId(1L).storeName("Safeway").location("Robson Street").build()));
+        when(storeRepository.deleteWithoutPurchases(List.of(1L))).thenReturn(1);
+
+        storeService.createStore(store);
+        assertThat(storeSearchIndex.search("safe", 10)).extracting(StoreSearchResult::getStoreId).containsExactly(1L);
+
+        storeService.updateStore(1L, Store.builder().storeName("Walmart").build(), true, false);
+        assertThat(storeSearchIndex.search("safe", 10)).isEmpty();
+        assertThat(storeSearchIndex.search("walm robson", 10)).extracting(StoreSearchResult::getStoreId).containsExactly(1L);
+
+        storeService.deleteStore(1L);
+        assertThat(storeSearchIndex.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should patch a store with one update and refresh the cache and search index")
+    void testPatchStore() throws NotFoundException {
+        when(storeRepository.findById(1L)).thenReturn(Optional.of(store));
+        when(storeRepository.updateFields(anyList())).thenReturn(new int[]{1});
+        storeService.getStoreById(1L);
+        storeSearchIndex.index(1L, "Safeway", "Robson Street");
+
+        long version = storeService.patchStore(1L, new StoreUpdate(null, "Walmart", null, 3L));
+
+        assertThat(version).isEqualTo(4L);
+        verify(storeCache, times(1)).invalidate(1L);
+        verify(storeRepository, never()).findVersionById(anyLong());
+        verify(storeRepository, never()).save(any(Store.class));
+        assertThat(storeSearchIndex.search("walmart robson", 10)).extracting(StoreSearchResult::getStoreId).containsExactly(1L);
+    }
+    @Test
+    @DisplayName("Should tell a stale version from a missing store when a patch matches no row")
+    void testPatchStoreConflictAndNotFound() {
+        when(storeRepository.updateFields(anyList())).thenReturn(new int[]{0});
+        when(storeRepository.findVersionById(1L)).thenReturn(Optional.of(5L));
+        when(storeRepository.findVersionById(2L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> storeService.patchStore(1L, new StoreUpdate(null, "Walmart", null, 3L)))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        assertThatThrownBy(() -> storeService.patchStore(2L, new StoreUpdate(null, "Walmart", null, 3L)))
+                .isInstanceOf(NotFoundException.class);
+        assertThatThrownBy(() -> storeService.patchStore(1L, new StoreUpdate(null, "Walmart", null, null)))
+                .isInstanceOf(IllegalArgumentException.class);
+        //an empty patch would still bump the version
+        assertThatThrownBy(() -> storeService.patchStore(1L, new StoreUpdate(null, null, null, 3L)))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(storeRepository, times(2)).updateFields(anyList());
+        verify(storeCache, never()).invalidate(anyLong());
+    }
+    @Test
+    @DisplayName("Should report every bulk patch item as updated, not found, conflicting or invalid, and require versions")
+    void testPatchStores() {
+        Store patched = Store.builder().storeId(1L).storeName("Walmart").location("Robson Street").version(1L).build();
+        when(storeRepository.updateFields(anyList())).thenReturn(new int[]{1, 0, 0});
+        when(storeRepository.findExistingStoreIds(anyCollection())).thenReturn(List.of(2L));
+        when(storeRepository.findAllById(List.of(1L))).thenReturn(List.of(patched));
+
+        List<BulkItemResult> results = storeService.patchStores(List.of(
+                new StoreUpdate(1L, "Walmart", null, 0L),
+                new StoreUpdate(2L, null, "Main Street", 1L),
+                new StoreUpdate(3L, null, null, 0L),
+                new StoreUpdate(4L, "Costco", "Burnaby", 0L),
+                new StoreUpdate(5L, "Costco", null, null)).iterator());
+
+        assertThat(results).extracting(BulkItemResult::getStatus).containsExactly(BulkItemResult.Status.UPDATED,
+                BulkItemResult.Status.CONFLICT, BulkItemResult.Status.INVALID, BulkItemResult.Status.NOT_FOUND,
+                BulkItemResult.Status.INVALID);
+        assertThat(results.get(0).getId()).isEqualTo(1L);
+        verify(storeRepository, times(1)).updateFields(anyList());
+        verify(storeCache, times(1)).invalidate(1L);
+        //the event carries the whole row as the patch left it, not just the fields it set
+        verify(changeLog, times(1)).storesWritten(ChangeLog.UPDATED, List.of(patched));
+    }
+
+    @Test
+    @DisplayName("Should resolve ids from the cache first and the rest with one query, in request order")
+    void testGetStoresByIds() {
+        Store other = Store.builder().storeId(3L).storeName("Walmart").location("Davie Street").build();
+        when(storeRepository.findById(1L)).thenReturn(Optional.of(store));
+        when(storeRepository.findAllById(List.of(3L, 2L))).thenReturn(List.of(other));
+        storeService.getStoreById(1L);
+
+        List<StoreLookup> results = storeService.getStoresByIds(List.of(3L, 1L, 2L, 3L));
+
+        assertThat(results).extracting(StoreLookup::getStoreId).containsExactly(3L, 1L, 2L, 3L);
+        assertThat(results).extracting(StoreLookup::isFound).containsExactly(true, true, false, true);
+        assertThat(results).extracting(StoreLookup::getStore).containsExactly(other, store, null, other);
+        verify(storeRepository, times(1)).findAllById(anyIterable());
+    }
+    @Test
+    @DisplayName("Should split long id lists into chunked IN queries and reject oversized ones")
+    void testGetStoresByIdsChunks() {
+        List<Long> ids = LongStream.rangeClosed(1, StoreService.BULK_CHUNK_SIZE + 1).boxed().collect(Collectors.toList());
+        when(storeRepository.findAllById(anyIterable())).thenReturn(Collections.emptyList());
+
+        assertThat(storeService.getStoresByIds(ids)).hasSize(ids.size()).noneMatch(StoreLookup::isFound);
+        verify(storeRepository, times(2)).findAllById(anyIterable());
+
+        List<Long> tooMany = LongStream.rangeClosed(1, StoreService.MAX_LOOKUP_IDS + 1).boxed().collect(Collectors.toList());
+        assertThatThrownBy(() -> storeService.getStoresByIds(tooMany)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Store savedWithId(Store store, Long storeId) {
+        store.setStoreId(storeId);
+        return store;
+    }
+}
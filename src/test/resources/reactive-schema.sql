@@ -0,0 +1,27 @@
+-- the tables the reactive profile reads, as Hibernate creates them for the servlet tests
+create table if not exists store (
+    store_id bigint auto_increment primary key,
+    store_name varchar(255),
+    location varchar(255),
+    created_at timestamp(6),
+    version bigint not null,
+    name_location_key varchar(511) not null,
+    constraint ux_store_name_location_key unique (name_location_key)
+);
+
+create table if not exists purchase (
+    purchase_id bigint auto_increment primary key,
+    store_id bigint references store (store_id),
+    purchase_date timestamp(6)
+);
+
+create table if not exists change_event (
+    change_id bigint auto_increment primary key,
+    feed_offset bigint,
+    entity_type varchar(32) not null,
+    entity_id bigint not null,
+    change_type varchar(16) not null,
+    payload text,
+    occurred_at timestamp not null,
+    constraint ux_change_event_feed_offset unique (feed_offset)
+);